@@ -1 +1,6 @@
-TRUNCATE TABLE `confluence_pages`;
\ No newline at end of file
+TRUNCATE TABLE `confluence_page_chunks`;
+SET FOREIGN_KEY_CHECKS = 0;
+TRUNCATE TABLE `confluence_pages`;
+SET FOREIGN_KEY_CHECKS = 1;
+TRUNCATE TABLE `confluence_sync_state`;
+TRUNCATE TABLE `confluence_crawl_frontier`;
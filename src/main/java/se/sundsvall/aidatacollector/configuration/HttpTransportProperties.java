@@ -0,0 +1,19 @@
+package se.sundsvall.aidatacollector.configuration;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.time.Duration;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+// The transport of a Feign client - a connection pool of its own (idle connections kept alive for reuse), HTTP/2
+// where the server supports it, and gzip compressed responses
+public record HttpTransportProperties(
+
+	@DefaultValue("5") @Positive int maxIdleConnections,
+
+	@DefaultValue("PT5M") @NotNull Duration keepAlive,
+
+	@DefaultValue("true") boolean http2,
+
+	@DefaultValue("true") boolean gzip) {
+}
@@ -0,0 +1,51 @@
+package se.sundsvall.aidatacollector.configuration;
+
+import feign.Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpMetricsEventListener;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.X509TrustManager;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import se.sundsvall.dept44.security.Truststore;
+
+// Creates the HTTP clients of Feign clients with a transport of their own. HTTP/2 is negotiated (ALPN) over TLS,
+// falling back to HTTP/1.1, and gzip is asked for and decompressed transparently by OkHttp. The connection pool and
+// the requests are measured - okhttp.pool.connection.* and okhttp.requests, tagged with the name of the client
+public final class HttpTransports {
+
+	static final String POOL_METRICS_PREFIX = "okhttp.pool";
+	static final String REQUEST_METRICS_NAME = "okhttp.requests";
+
+	private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+	private HttpTransports() {}
+
+	public static Client create(final String clientName, final HttpTransportProperties transport, final Truststore truststore, final MeterRegistry meterRegistry) {
+		final var connectionPool = new ConnectionPool(transport.maxIdleConnections(), transport.keepAlive().toMillis(), TimeUnit.MILLISECONDS);
+		final var tags = Tags.of("client", clientName);
+
+		new OkHttpConnectionPoolMetrics(connectionPool, POOL_METRICS_PREFIX, tags, transport.maxIdleConnections()).bindTo(meterRegistry);
+
+		final var builder = new OkHttpClient.Builder()
+			.sslSocketFactory(truststore.getSSLContext().getSocketFactory(), (X509TrustManager) truststore.getTrustManagerFactory().getTrustManagers()[0])
+			.connectionPool(connectionPool)
+			.protocols(transport.http2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1) : List.of(Protocol.HTTP_1_1))
+			.eventListener(OkHttpMetricsEventListener.builder(meterRegistry, REQUEST_METRICS_NAME)
+				.tags(tags)
+				.build());
+
+		// OkHttp only asks for (and decompresses) gzip unless told otherwise by the request
+		if (!transport.gzip()) {
+			builder.addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+				.header(ACCEPT_ENCODING, "identity")
+				.build()));
+		}
+
+		return new feign.okhttp.OkHttpClient(builder.build());
+	}
+}
@@ -2,6 +2,7 @@ package se.sundsvall.aidatacollector.datasource.confluence;
 
 import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
@@ -38,12 +39,13 @@ public class ConfluenceDataSource {
 		final EneoIntegration eneoIntegration,
 		final PageJsonParser pageJsonParser,
 		final TaskScheduler taskScheduler,
-		final LockProvider lockProvider) {
+		final LockProvider lockProvider,
+		final MeterRegistry meterRegistry) {
 		final var executor = new DefaultLockingTaskExecutor(lockProvider);
 
 		properties.environments().forEach((municipalityId, environment) -> {
 			// Create a worker for the current environment
-			final var worker = new ConfluenceWorker(municipalityId, properties, healthIndicator, confluenceClientRegistry, confluencePageMapper, eneoIntegration, dbIntegration, pageJsonParser);
+			final var worker = new ConfluenceWorker(municipalityId, properties, healthIndicator, confluenceClientRegistry, confluencePageMapper, eneoIntegration, dbIntegration, pageJsonParser, meterRegistry);
 			// "Cache" the worker
 			workers.put(municipalityId, worker);
 
@@ -51,17 +53,21 @@ public class ConfluenceDataSource {
 
 			// Schedule the worker if scheduling is enabled for the current environment
 			if (scheduling.enabled()) {
-				final var lockConfiguration = new LockConfiguration(Instant.now(), "confluence-datasource-lock-" + municipalityId, scheduling.lockAtMostFor(), Duration.ZERO);
-				final var lockManager = new DefaultLockManager(executor, _ -> Optional.of(lockConfiguration));
-				final var cronTrigger = new CronTrigger(scheduling.cronExpression());
-				final var lockableTaskScheduler = new LockableTaskScheduler(taskScheduler, lockManager);
-
-				lockableTaskScheduler.schedule(worker, cronTrigger);
+				schedule(executor, taskScheduler, municipalityId, scheduling, worker);
 
 				LOG.info("Scheduling has been enabled for municipalityId {}", municipalityId);
 			} else {
 				LOG.info("Scheduling is disabled for municipalityId {}", municipalityId);
 			}
+
+			// Schedule incremental syncs, if enabled for the current environment. Since full and incremental
+			// syncs share the same lock, they will never run at the same time
+			final var incrementalSync = environment.incrementalSync();
+			if (incrementalSync != null && incrementalSync.scheduling().enabled()) {
+				schedule(executor, taskScheduler, municipalityId, incrementalSync.scheduling(), worker::runIncremental);
+
+				LOG.info("Incremental sync scheduling has been enabled for municipalityId {}", municipalityId);
+			}
 		});
 	}
 
@@ -84,4 +90,14 @@ public class ConfluenceDataSource {
 
 		return workers.get(municipalityId);
 	}
+
+	private static void schedule(final DefaultLockingTaskExecutor executor, final TaskScheduler taskScheduler, final String municipalityId,
+		final ConfluenceIntegrationProperties.Environment.Scheduling scheduling, final Runnable task) {
+		final var lockConfiguration = new LockConfiguration(Instant.now(), "confluence-datasource-lock-" + municipalityId, scheduling.lockAtMostFor(), Duration.ZERO);
+		final var lockManager = new DefaultLockManager(executor, _ -> Optional.of(lockConfiguration));
+		final var cronTrigger = new CronTrigger(scheduling.cronExpression());
+		final var lockableTaskScheduler = new LockableTaskScheduler(taskScheduler, lockManager);
+
+		lockableTaskScheduler.schedule(task, cronTrigger);
+	}
 }
@@ -14,7 +14,7 @@ class ConfluenceDataSourceHealthIndicator implements HealthIndicator {
 	static final String REASON = "Reason";
 	static final String UNKNOWN_REASON = "Unknown";
 
-	private Health health = Health.up().build();
+	private volatile Health health = Health.up().build();
 
 	@Override
 	public Health health() {
@@ -2,7 +2,9 @@ package se.sundsvall.aidatacollector.datasource.confluence;
 
 import static java.util.Optional.ofNullable;
 
+import java.io.InputStream;
 import java.time.OffsetDateTime;
+import java.util.List;
 import org.springframework.stereotype.Component;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
 
@@ -21,9 +23,20 @@ class ConfluencePageMapper {
 			.withMunicipalityId(municipalityId);
 	}
 
-	Page toPage(final String municipalityId, final String pageId, final String json) {
-		final var pageJson = pageJsonParser.parse(json);
+	Page toPage(final String municipalityId, final String pageId, final InputStream json) {
+		return toPage(municipalityId, pageId, pageJsonParser.parse(json));
+	}
+
+	List<Page> toPages(final String municipalityId, final PageJsonParser.PageJson listingJson) {
+		// The base URL is only part of the listing itself, not of the listed pages
+		final var baseUrl = listingJson.getBaseUrl();
+
+		return listingJson.getResults().stream()
+			.map(pageJson -> toPage(municipalityId, pageJson.getId(), pageJson).withBaseUrl(baseUrl))
+			.toList();
+	}
 
+	private Page toPage(final String municipalityId, final String pageId, final PageJsonParser.PageJson pageJson) {
 		return Page.create()
 			.withMunicipalityId(municipalityId)
 			.withPageId(pageId)
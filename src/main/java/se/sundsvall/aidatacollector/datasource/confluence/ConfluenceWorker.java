@@ -1,27 +1,76 @@
 package se.sundsvall.aidatacollector.datasource.confluence;
 
 import static java.time.temporal.ChronoUnit.SECONDS;
+import static java.util.Optional.ofNullable;
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment.TraversalStrategy.CHILDREN;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment.TraversalStrategy.DESCENDANTS;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.ListedPage;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceClient;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceClientRegistry;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment.TraversalStrategy;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ReactiveConfluenceClient;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegration;
+import se.sundsvall.aidatacollector.datasource.confluence.model.FrontierEntry;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageChunk;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageHashes;
 import se.sundsvall.aidatacollector.integration.eneo.EneoIntegration;
 import se.sundsvall.dept44.requestid.RequestId;
 
 @Transactional
 class ConfluenceWorker implements Runnable {
 
+	static final int LISTING_LIMIT = 100;
+	static final int FRONTIER_CHUNK_SIZE = 50;
+	static final String CHANGED_PAGES_CQL = "type = page and (id = %s or ancestor = %s) and lastmodified > \"%s\"";
+	static final String PAGES_BY_ID_CQL = "id in (%s)";
+	static final DateTimeFormatter CQL_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
 	private static final Logger LOG = LoggerFactory.getLogger(ConfluenceWorker.class);
 
 	private final String municipalityId;
@@ -30,10 +79,30 @@ class ConfluenceWorker implements Runnable {
 	private final DbIntegration dbIntegration;
 	private final PageJsonParser pageJsonParser;
 
-	private final Map<String, String> mappings;
-	private final List<String> blacklistedRootIds;
+	private final RoutingIndex routingIndex;
 	private final ConfluenceClient client;
 	private final ConfluencePageMapper pageMapper;
+	private final int maxConcurrency;
+	private final TraversalStrategy traversalStrategy;
+	private final int contentBatchSize;
+	private final Duration incrementalSyncOverlap;
+	private final ZoneId incrementalSyncTimeZone;
+	private final ConfluenceIntegrationProperties.Environment.Bootstrap bootstrap;
+	private final ConfluenceIntegrationProperties.Environment.Slicing slicing;
+	private final TextNormaliser textNormaliser;
+	private final PageChunker pageChunker;
+	private final ConfluenceIntegrationProperties.Environment.InsertBatching insertBatching;
+	private final Pipeline<List<String>> pagePipeline;
+	private final ReactiveConfluenceClient reactiveClient;
+	private final int maxInFlight;
+
+	// The state of the sync run in progress, if any - only ever used by the run itself, never by the webhooks
+	private volatile Traversal traversal = Traversal.SEQUENTIAL;
+	private volatile VisitedPages visitedPages = VisitedPages.NONE;
+	private volatile InsertBatcher insertBatcher = InsertBatcher.NONE;
+	private volatile Map<String, TreeContext> treeContexts = new ConcurrentHashMap<>();
+	// Whether anything failed during the sync run in progress - only runs where nothing did advance the last synced at
+	private volatile AtomicBoolean runFailed = new AtomicBoolean();
 
 	ConfluenceWorker(final String municipalityId,
 		final ConfluenceIntegrationProperties properties,
@@ -42,7 +111,8 @@ class ConfluenceWorker implements Runnable {
 		final ConfluencePageMapper pageMapper,
 		final EneoIntegration eneoIntegration,
 		final DbIntegration dbIntegration,
-		final PageJsonParser pageJsonParser) {
+		final PageJsonParser pageJsonParser,
+		final MeterRegistry meterRegistry) {
 		this.municipalityId = municipalityId;
 		this.dataSourceHealthIndicator = dataSourceHealthIndicator;
 		this.pageMapper = pageMapper;
@@ -53,165 +123,1177 @@ class ConfluenceWorker implements Runnable {
 		// Get a Confluence client for the given municipality id
 		client = confluenceClientRegistry.getClient(municipalityId);
 
-		// Extract the mappings for the current municipality id, grouping them from Confluence root
-		// id to Eneo group id
-		mappings = properties.environments().get(municipalityId).mappings().stream()
-			.collect(toMap(ConfluenceIntegrationProperties.Environment.Mapping::rootId, ConfluenceIntegrationProperties.Environment.Mapping::eneoGroupId));
+		// Compile the mappings for the current municipality id, from Confluence root id to Eneo group id, and
+		// the black-listed root ids for the current municipality id, into an index for routing the pages
+		routingIndex = RoutingIndex.compile(properties.environments().get(municipalityId).mappings().stream()
+			.collect(toMap(ConfluenceIntegrationProperties.Environment.Mapping::rootId, ConfluenceIntegrationProperties.Environment.Mapping::eneoGroupId)),
+			ofNullable(properties.environments().get(municipalityId).blacklistedRootIds()).orElse(List.of()));
+
+		// Extract the max number of concurrent page/children fetches for the current municipality id
+		maxConcurrency = properties.environments().get(municipalityId).maxConcurrency();
+
+		// Extract how the page trees should be enumerated for the current municipality id
+		traversalStrategy = properties.environments().get(municipalityId).traversalStrategy();
+
+		// Extract the max number of pages to fetch the content of in a single request for the current municipality id
+		contentBatchSize = properties.environments().get(municipalityId).contentBatchSize();
+
+		// Extract how far back, beyond the last sync, an incremental sync should look for changes
+		incrementalSyncOverlap = ofNullable(properties.environments().get(municipalityId).incrementalSync())
+			.map(ConfluenceIntegrationProperties.Environment.IncrementalSync::overlap)
+			.orElse(Duration.ZERO);
+
+		// Extract the time zone that the times in the searches of an incremental sync are read in by Confluence
+		incrementalSyncTimeZone = ofNullable(properties.environments().get(municipalityId).incrementalSync())
+			.map(ConfluenceIntegrationProperties.Environment.IncrementalSync::timeZone)
+			.orElseGet(ZoneId::systemDefault);
+
+		// Extract the (optional) space scan settings used when the current municipality id has never been synced
+		bootstrap = properties.environments().get(municipalityId).bootstrap();
+
+		// Extract the (optional) limits of each full sync run for the current municipality id
+		slicing = properties.environments().get(municipalityId).slicing();
+
+		// Set up how the text of the pages should be normalised for the current municipality id, before it's sent to Eneo
+		textNormaliser = TextNormaliser.create(properties.environments().get(municipalityId).normalisation());
+
+		// Set up the (optional) splitting of pages into chunks for the current municipality id
+		pageChunker = ofNullable(properties.environments().get(municipalityId).chunking())
+			.map(chunking -> new PageChunker(chunking.maxHeadingLevel(), textNormaliser))
+			.orElse(null);
+
+		// Extract the (optional) batching of the pages inserted during each sync for the current municipality id
+		insertBatching = properties.environments().get(municipalityId).insertBatching();
 
-		// Extract the black-listed root ids for the current municipality id
-		blacklistedRootIds = properties.environments().get(municipalityId).blacklistedRootIds();
+		// Set up the (optional) staged processing of listed pages for the current municipality id
+		pagePipeline = ofNullable(properties.environments().get(municipalityId).pipeline())
+			.map(pipeline -> createPagePipeline(pipeline, meterRegistry))
+			.orElse(null);
+
+		// Set up the (optional) non-blocking listing and fetching of pages for the current municipality id
+		final var reactive = properties.environments().get(municipalityId).reactive();
+		reactiveClient = reactive != null ? confluenceClientRegistry.getReactiveClient(municipalityId) : null;
+		maxInFlight = reactive != null ? reactive.maxInFlightOrElse(maxConcurrency) : 0;
 	}
 
 	@Override
 	public void run() {
-		mappings.keySet().forEach(rootId -> {
+		// Everything changed before the start of a full sync will be picked up by it
+		final var startedAt = Instant.now();
+		final var failed = startRun();
+
+		// If the municipality has never been synced, and space scans are configured, bootstrap it in bulk
+		// instead of going through the trees page by page. That's done once per municipality - the trees of mappings
+		// added later are synced page by page, as any other
+		if (bootstrap != null && dbIntegration.getLastSyncedAt(municipalityId).isEmpty()) {
+			bootstrap();
+		} else if (slicing != null && traversalStrategy == CHILDREN) {
+			// A time-sliced sync keeps track of its own start, since it spans several runs
+			runSlice();
+			return;
+		} else {
+			forEachRoot(rootId -> {
+				LOG.info("Processing tree with root {} (municipalityId: {})", rootId, municipalityId);
+
+				if (traversalStrategy == DESCENDANTS) {
+					processDescendants(rootId);
+				} else {
+					processTree(rootId);
+				}
+
+				LOG.info("Finished processing tree with root {} (municipalityId: {})", rootId, municipalityId);
+			});
+		}
+
+		saveLastSyncedAt(startedAt, failed);
+	}
+
+	void bootstrap() {
+		try {
+			RequestId.init();
+			dataSourceHealthIndicator.reset();
+
+			// Pages that are already known (e.g. through webhooks) are left to the regular syncs
+			final var knownPageIds = dbIntegration.getPageIds(municipalityId);
+
+			bootstrap.spaceKeys().forEach(spaceKey -> bootstrapSpace(spaceKey, knownPageIds));
+		} finally {
+			RequestId.reset();
+		}
+	}
+
+	void bootstrapSpace(final String spaceKey, final Set<String> knownPageIds) {
+		try {
+			LOG.info("Bootstrapping from space {} (municipalityId: {})", spaceKey, municipalityId);
+
+			final var batch = new ArrayList<Page>(bootstrap.batchSize());
+			var inserted = 0;
+
+			// Stream the space, listing-page by listing-page, and insert the pages in batches as we go
+			var start = 0;
+			while (true) {
+				final var json = client.getSpaceContent(spaceKey, start, LISTING_LIMIT);
+				if (json.isEmpty()) {
+					break;
+				}
+
+				final var pageJson = pageJsonParser.parse(json.get());
+				final var pages = pageMapper.toPages(municipalityId, pageJson);
+
+				for (final var page : pages) {
+					if (shouldBootstrap(page, knownPageIds)) {
+						batch.add(page.withEneoGroupId(getEneoGroupId(page.getPageId(), page.getAncestorIds())));
+					}
+
+					if (batch.size() >= bootstrap.batchSize()) {
+						inserted += insertPages(batch);
+						batch.clear();
+					}
+				}
+
+				if (pages.isEmpty() || !pageJson.hasNext()) {
+					break;
+				}
+				start += pages.size();
+			}
+			inserted += insertPages(batch);
+
+			LOG.info("Finished bootstrapping from space {}, {} page(s) inserted (municipalityId: {})", spaceKey, inserted, municipalityId);
+		} catch (final Exception e) {
+			reportFailure("Error bootstrapping from space %s (municipalityId: %s): %s".formatted(spaceKey, municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to bootstrap from space {} (municipalityId: {})", spaceKey, municipalityId, e);
+		}
+	}
+
+	boolean shouldBootstrap(final Page page, final Set<String> knownPageIds) {
+		// Only pages that are new, not blacklisted and part of a mapped tree are of interest
+		return !knownPageIds.contains(page.getPageId()) &&
+			!isBlacklisted(page.getPageId(), page.getAncestorIds()) &&
+			getEneoGroupId(page.getPageId(), page.getAncestorIds()) != null;
+	}
+
+	int insertPages(final List<Page> pages) {
+		// Add the info blobs to Eneo, a group at a time, and save the pages in one go
+		pages.stream()
+			.collect(groupingBy(Page::getEneoGroupId, LinkedHashMap::new, toList()))
+			.forEach((eneoGroupId, groupPages) -> {
+				if (pageChunker != null) {
+					insertChunkedPages(eneoGroupId, groupPages);
+					return;
+				}
+
+				final var texts = groupPages.stream()
+					.map(textNormaliser::normalise)
+					.toList();
+				final var blobIds = eneoIntegration.addInfoBlobs(municipalityId, eneoGroupId, IntStream.range(0, groupPages.size())
+					.mapToObj(i -> new EneoIntegration.InfoBlob(groupPages.get(i).getTitle(), texts.get(i), groupPages.get(i).url()))
+					.toList());
+
+				for (var i = 0; i < groupPages.size(); i++) {
+					groupPages.get(i)
+						.withEneoBlobId(blobIds.get(i))
+						.withContentHash(contentHash(groupPages.get(i), texts.get(i)))
+						.withTextHash(textHash(groupPages.get(i), texts.get(i)));
+				}
+
+				dbIntegration.savePages(groupPages);
+			});
+
+		return pages.size();
+	}
+
+	void insertChunkedPages(final String eneoGroupId, final List<Page> allPages) {
+		final var pages = new ArrayList<Page>(allPages.size());
+		final var pageChunks = new ArrayList<List<PageChunker.Chunk>>(allPages.size());
+		for (final var page : allPages) {
+			final var chunks = pageChunker.chunk(page);
+			if (chunks.isEmpty()) {
+				LOG.info("The page {} has no text, leaving it out (municipalityId: {})", page.getPageId(), municipalityId);
+				continue;
+			}
+			pages.add(page);
+			pageChunks.add(chunks);
+		}
+		if (pages.isEmpty()) {
+			return;
+		}
+
+		// Add the info blobs of all chunks of the pages in one go, and hand them out to the pages in order
+		final var blobIds = eneoIntegration.addInfoBlobs(municipalityId, eneoGroupId, IntStream.range(0, pages.size())
+			.boxed()
+			.flatMap(i -> pageChunks.get(i).stream().map(chunk -> toInfoBlob(pages.get(i), chunk)))
+			.toList());
+
+		var offset = 0;
+		for (var i = 0; i < pages.size(); i++) {
+			final var chunks = pageChunks.get(i);
+			withChunks(pages.get(i), chunks, blobIds.subList(offset, offset + chunks.size()));
+			offset += chunks.size();
+		}
+
+		dbIntegration.savePages(pages);
+	}
+
+	void runIncremental() {
+		final var lastSyncedAt = dbIntegration.getLastSyncedAt(municipalityId);
+		if (lastSyncedAt.isEmpty()) {
+			LOG.info("No previous sync found - running a full sync instead of an incremental one (municipalityId: {})", municipalityId);
+
+			run();
+			return;
+		}
+
+		final var startedAt = Instant.now();
+		final var failed = startRun();
+		// Go back a bit further than the last sync, to cover for clock skew and search index lag
+		final var modifiedAfter = lastSyncedAt.get().minus(incrementalSyncOverlap);
+
+		forEachRoot(rootId -> {
+			LOG.info("Processing pages changed after {} in tree with root {} (municipalityId: {})", modifiedAfter, rootId, municipalityId);
+
+			processChangedPages(rootId, modifiedAfter);
+
+			LOG.info("Finished processing changed pages in tree with root {} (municipalityId: {})", rootId, municipalityId);
+		});
+
+		saveLastSyncedAt(startedAt, failed);
+	}
+
+	void runSlice() {
+		try {
+			RequestId.init();
+			dataSourceHealthIndicator.reset();
+
+			withTraversal(this::processSlice);
+		} finally {
+			RequestId.reset();
+		}
+	}
+
+	void processSlice() {
+		final var deadline = System.nanoTime() + slicing.maxDuration().toNanos();
+
+		// Resume the crawl in progress, if any, or start a new one from the mapped roots
+		var frontier = dbIntegration.getFrontier(municipalityId, getFrontierChunkSize(0));
+		if (frontier.isEmpty()) {
+			startCrawl();
+
+			frontier = dbIntegration.getFrontier(municipalityId, getFrontierChunkSize(0));
+		}
+
+		var visited = 0;
+		while (!frontier.isEmpty()) {
+			final var runId = frontier.getFirst().runId();
+			final var runStartedAt = frontier.getFirst().runStartedAt();
+
+			// Persist the progress after each chunk, so that no work is lost (or redone) if the run is interrupted -
+			// with the pages inserted while visiting it saved first
+			final var frontierVisit = visitFrontier(frontier);
+			insertBatcher.flush();
+			dbIntegration.advanceFrontier(frontier, frontierVisit.failed(), frontierVisit.discovered());
+			visited += frontier.size();
+
+			frontier = dbIntegration.getFrontier(municipalityId, getFrontierChunkSize(visited));
+			if (frontier.isEmpty()) {
+				finishCrawl(runId, runStartedAt);
+			} else if (visited >= slicing.maxPages() || System.nanoTime() - deadline >= 0) {
+				LOG.info("Pausing crawl {} after visiting {} page(s), to be resumed by the next run (municipalityId: {})", runId, visited, municipalityId);
+
+				return;
+			}
+		}
+	}
+
+	void finishCrawl(final String runId, final Instant runStartedAt) {
+		// Everything changed before the start of the crawl has been picked up by it - unless parts of it failed, in
+		// this run or any of the earlier ones of the crawl, which are then left to the next crawl
+		if (dbIntegration.hasFailedFrontierEntries(municipalityId, runId)) {
+			LOG.warn("Not advancing the last synced at to {}, as parts of crawl {} failed - they're retried by the next sync (municipalityId: {})", runStartedAt, runId, municipalityId);
+		} else {
+			dbIntegration.saveLastSyncedAt(municipalityId, runStartedAt);
+		}
+		dbIntegration.clearFrontier(municipalityId);
+
+		LOG.info("Finished crawl {} (municipalityId: {})", runId, municipalityId);
+	}
+
+	void startCrawl() {
+		final var runId = UUID.randomUUID().toString();
+		final var runStartedAt = Instant.now();
+
+		LOG.info("Starting crawl {} (municipalityId: {})", runId, municipalityId);
+
+		dbIntegration.addToFrontier(routingIndex.rootIds().stream()
+			.map(rootId -> FrontierEntry.root(municipalityId, runId, runStartedAt, rootId))
+			.toList());
+	}
+
+	FrontierVisit visitFrontier(final List<FrontierEntry> frontier) {
+		final var discovered = Collections.synchronizedList(new ArrayList<FrontierEntry>());
+		final var failed = Collections.synchronizedList(new ArrayList<FrontierEntry>());
+
+		// Resolve the context of each tree once per run, instead of resolving it for each page (or chunk)
+		final var chunkTreeContexts = frontier.stream()
+			.map(FrontierEntry::rootId)
+			.distinct()
+			.collect(toMap(identity(), rootId -> treeContexts.computeIfAbsent(rootId, this::resolveTreeContext)));
+
+		traversal.forkAndJoin(frontier.stream()
+			.<Runnable>map(frontierEntry -> () -> {
+				final var frontierVisit = visitFrontierEntry(frontierEntry, chunkTreeContexts.get(frontierEntry.rootId()));
+				discovered.addAll(frontierVisit.discovered());
+				failed.addAll(frontierVisit.failed());
+			})
+			.toList());
+
+		return new FrontierVisit(discovered, failed);
+	}
+
+	FrontierVisit visitFrontierEntry(final FrontierEntry frontierEntry, final TreeContext treeContext) {
+		final var pageId = frontierEntry.pageId();
+
+		try {
+			if (isBlacklisted(pageId) || treeContext.blacklisted()) {
+				LOG.info("Skipping page {} (and any children) as it is blacklisted or has a blacklisted ancestor (municipalityId: {})", pageId, municipalityId);
+
+				return FrontierVisit.NONE;
+			}
+
+			// The frontier itself only takes each page once per crawl, across all of its slices - the visited pages
+			// are kept track of here as well, as in any other run
+			if (!visitedPages.visit(pageId)) {
+				LOG.info("Skipping page {} (and any children) as it has already been visited in this run (municipalityId: {})", pageId, municipalityId);
+
+				return FrontierVisit.NONE;
+			}
+
+			traversal.withPermit(() -> {
+				if (frontierEntry.updatedAtInConfluence() == null) {
+					processPage(pageId, treeContext);
+				} else {
+					processPage(pageId, frontierEntry.updatedAtInConfluence(), treeContext);
+				}
+			});
+
+			// The children are visited by later chunks (or runs)
+			return new FrontierVisit(getChildPages(pageId).stream()
+				.map(childPage -> frontierEntry.child(childPage.id(), childPage.updatedAt()))
+				.toList(), List.of());
+		} catch (final Exception e) {
+			reportFailure("Error processing tree with root %s (municipalityId: %s): %s".formatted(pageId, municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to process tree with root {} (municipalityId: {})", pageId, municipalityId, e);
+
+			// The sub-tree of the page is left out of the crawl, so the crawl must not advance the last synced at
+			return new FrontierVisit(List.of(), List.of(frontierEntry));
+		}
+	}
+
+	// Marks the data source unhealthy, and the sync run in progress (if any) as failed
+	void reportFailure(final String reason) {
+		dataSourceHealthIndicator.setUnhealthy(reason);
+		runFailed.set(true);
+	}
+
+	private AtomicBoolean startRun() {
+		final var failed = new AtomicBoolean();
+		runFailed = failed;
+
+		return failed;
+	}
+
+	// Only a run where every root (and space) was synced may advance the last synced at - otherwise the next
+	// incremental sync would skip the changes that the failed parts missed
+	private void saveLastSyncedAt(final Instant startedAt, final AtomicBoolean failed) {
+		if (failed.get()) {
+			LOG.warn("Not advancing the last synced at to {}, as parts of the sync failed - they're retried by the next sync (municipalityId: {})", startedAt, municipalityId);
+
+			return;
+		}
+		dbIntegration.saveLastSyncedAt(municipalityId, startedAt);
+	}
+
+	private int getFrontierChunkSize(final int visited) {
+		// Don't visit (many) more pages than allowed per slice
+		return Math.max(1, Math.min(FRONTIER_CHUNK_SIZE, slicing.maxPages() - visited));
+	}
+
+	private void forEachRoot(final Consumer<String> rootProcessor) {
+		withTraversal(() -> routingIndex.rootIds().forEach(rootId -> {
 			try {
 				RequestId.init();
-				LOG.info("Processing tree with root {} (municipalityId: {})", rootId, municipalityId);
 				dataSourceHealthIndicator.reset();
 
-				processTree(rootId);
+				rootProcessor.accept(rootId);
 			} finally {
-				LOG.info("Finished processing tree with root {} (municipalityId: {})", rootId, municipalityId);
-
 				RequestId.reset();
 			}
-		});
+		}));
+	}
+
+	private void withTraversal(final Runnable runnable) {
+		try (final var currentTraversal = Traversal.create(maxConcurrency)) {
+			traversal = currentTraversal;
+			visitedPages = VisitedPages.create();
+			treeContexts = new ConcurrentHashMap<>();
+			insertBatcher = ofNullable(insertBatching)
+				.map(batching -> InsertBatcher.create(batching.maxPages(), batching.maxSize().toBytes(), batching.linger(), this::insertBatch))
+				.orElse(InsertBatcher.NONE);
+
+			if (currentTraversal.isParallel()) {
+				LOG.info("Processing trees in parallel, using at most {} concurrent requests (municipalityId: {})", maxConcurrency, municipalityId);
+			}
+
+			runnable.run();
+		} finally {
+			// Insert whatever is left in the batches
+			insertBatcher.flush();
+
+			LOG.info("Visited {} page(s) during the run, skipping {} repeated visit(s), using {} KB to keep track of them (municipalityId: {})",
+				visitedPages.visitedCount(), visitedPages.revisitedCount(), visitedPages.sizeInBytes() / 1024, municipalityId);
+			if (insertBatcher.isBatching()) {
+				LOG.info("Inserted {} page(s) in {} batch(es) during the run (municipalityId: {})", insertBatcher.pageCount(), insertBatcher.batchCount(), municipalityId);
+			}
+
+			traversal = Traversal.SEQUENTIAL;
+			visitedPages = VisitedPages.NONE;
+			treeContexts = new ConcurrentHashMap<>();
+			insertBatcher = InsertBatcher.NONE;
+		}
+	}
+
+	void processTree(final String rootId) {
+		processTree(rootId, null, null);
 	}
 
-	void processTree(final String pageId) {
+	void processTree(final String pageId, final String updatedAtInConfluence, final TreeContext treeContext) {
 		try {
 			if (isBlacklisted(pageId)) {
 				LOG.info("Skipping page {} (and any children) as it is blacklisted (municipalityId: {})", pageId, municipalityId);
-			} else {
-				// Process the page
-				processPage(pageId);
-				// Process any children of the page
-				processChildren(pageId);
+
+				return;
+			}
+
+			// Pages may show up more than once (under several roots, or in transient cycles) - only walk them once
+			if (!visitedPages.visit(pageId)) {
+				LOG.info("Skipping page {} (and any children) as it has already been visited in this run (municipalityId: {})", pageId, municipalityId);
+
+				return;
 			}
+
+			// The context of a tree is resolved at its root, and then passed on down the tree
+			final var currentTreeContext = ofNullable(treeContext).orElseGet(() -> resolveTreeContext(pageId));
+			if (currentTreeContext.blacklisted()) {
+				LOG.info("Skipping page {} (and any children) as it has a blacklisted ancestor (municipalityId: {})", pageId, municipalityId);
+
+				return;
+			}
+
+			// Process the page and any children of the page - concurrently, if the traversal is parallel.
+			// If the updated-at timestamp is already known (from the parent's child listing), there is no
+			// need to fetch the page version separately
+			traversal.forkAndJoin(List.of(
+				() -> traversal.withPermit(() -> {
+					if (updatedAtInConfluence == null) {
+						processPage(pageId, currentTreeContext);
+					} else {
+						processPage(pageId, updatedAtInConfluence, currentTreeContext);
+					}
+				}),
+				() -> processChildren(pageId, currentTreeContext)));
 		} catch (final Exception e) {
-			dataSourceHealthIndicator.setUnhealthy("Error processing tree with root %s (municipalityId: %s): %s".formatted(pageId, municipalityId, e.getMessage()));
+			reportFailure("Error processing tree with root %s (municipalityId: %s): %s".formatted(pageId, municipalityId, e.getMessage()));
 
 			LOG.warn("Unable to process tree with root {} (municipalityId: {})", pageId, municipalityId, e);
 		}
 	}
 
-	void processChildren(final String pageId) {
-		client.getChildren(pageId).ifPresent(json -> {
-			// Extract the id:s of child pages
-			final var childPageIds = pageJsonParser.parse(json).getChildIds();
+	TreeContext resolveTreeContext(final String rootId) {
+		try {
+			// A single lookup of the ancestors of the root covers the whole tree below it
+			return traversal.withPermit(() -> client.getContentAncestors(rootId))
+				.map(json -> pageJsonParser.parse(json).getAncestorIds())
+				.map(ancestorIds -> new TreeContext(getEneoGroupId(rootId, ancestorIds), isBlacklisted(rootId, ancestorIds)))
+				.orElse(TreeContext.UNKNOWN);
+		} catch (final Exception e) {
+			LOG.warn("Unable to resolve the context of the tree with root {}, resolving it page by page instead (municipalityId: {})", rootId, municipalityId, e);
+
+			return TreeContext.UNKNOWN;
+		}
+	}
+
+	void processChildren(final String pageId, final TreeContext treeContext) {
+		final var childPages = getChildPages(pageId);
+
+		if (childPages.isEmpty()) {
+			LOG.info("Page {} has no children (municipalityId: {})", pageId, municipalityId);
+		} else {
+			LOG.info("Processing children of {}: {} (municipalityId: {})", pageId, childPages.stream().map(ListedPage::id).toList(), municipalityId);
+
+			// Process the sub-trees of the child pages, passing on the updated-at timestamps from the listing
+			traversal.forkAndJoin(childPages.stream()
+				.<Runnable>map(childPage -> () -> processTree(childPage.id(), childPage.updatedAt(), treeContext))
+				.toList());
+		}
+	}
+
+	List<ListedPage> getChildPages(final String pageId) {
+		// Children that are mapped roots themselves are walked from their own root, so skip them here to avoid
+		// walking their trees twice
+		return getListedPages(start -> client.getChildren(pageId, start, LISTING_LIMIT)).stream()
+			.filter(childPage -> {
+				if (isMappedRoot(childPage.id())) {
+					LOG.info("Skipping page {} below {}, as it is a mapped root of its own (municipalityId: {})", childPage.id(), pageId, municipalityId);
+
+					return false;
+				}
+				return true;
+			})
+			.toList();
+	}
 
-			if (childPageIds.isEmpty()) {
-				LOG.info("Page {} has no children (municipalityId: {})", pageId, municipalityId);
+	void processDescendants(final String rootId) {
+		try {
+			if (isBlacklisted(rootId)) {
+				LOG.info("Skipping page {} (and any descendants) as it is blacklisted (municipalityId: {})", rootId, municipalityId);
+			} else if (reactiveClient != null) {
+				// Stream the listing instead, processing the pages as they're found
+				traversal.forkAndJoin(List.of(
+					() -> traversal.withPermit(() -> processPage(rootId)),
+					() -> processListedPagesReactively(streamListedPages(start -> reactiveClient.getDescendants(rootId, start, LISTING_LIMIT))
+						.filter(descendant -> !isWithinNestedRoot(rootId, descendant)))));
 			} else {
-				LOG.info("Processing children of {}: {} (municipalityId: {})", pageId, childPageIds, municipalityId);
+				// List the whole tree below the root in one go. Since each listed page carries its ancestors,
+				// blacklisted sub-trees can be filtered out without walking them
+				final var descendants = getListedPages(start -> client.getDescendants(rootId, start, LISTING_LIMIT)).stream()
+					.filter(descendant -> !isWithinNestedRoot(rootId, descendant))
+					.toList();
+
+				LOG.info("Found {} descendant(s) of {} (municipalityId: {})", descendants.size(), rootId, municipalityId);
 
-				// Iterate over the child page id:s and process them
-				for (final var childPageId : childPageIds) {
-					processTree(childPageId);
+				// The root itself isn't part of the listing, so it has to be processed separately
+				traversal.forkAndJoin(List.of(
+					() -> traversal.withPermit(() -> processPage(rootId)),
+					() -> processListedPages(descendants)));
+			}
+		} catch (final Exception e) {
+			reportFailure("Error processing descendants of %s (municipalityId: %s): %s".formatted(rootId, municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to process descendants of {} (municipalityId: {})", rootId, municipalityId, e);
+		}
+	}
+
+	void processChangedPages(final String rootId, final Instant modifiedAfter) {
+		try {
+			// The CQL date is interpreted in the time zone of the Confluence user, which is the configured one
+			final var cql = CHANGED_PAGES_CQL.formatted(rootId, rootId, CQL_DATE_TIME_FORMATTER.format(modifiedAfter.atZone(incrementalSyncTimeZone)));
+			if (reactiveClient != null) {
+				processListedPagesReactively(streamListedPages(start -> reactiveClient.search(cql, start, LISTING_LIMIT))
+					.filter(changedPage -> !isWithinNestedRoot(rootId, changedPage)));
+				return;
+			}
+
+			final var changedPages = getListedPages(start -> client.search(cql, start, LISTING_LIMIT)).stream()
+				.filter(changedPage -> !isWithinNestedRoot(rootId, changedPage))
+				.toList();
+
+			LOG.info("Found {} changed page(s) in tree with root {} (municipalityId: {})", changedPages.size(), rootId, municipalityId);
+
+			processListedPages(changedPages);
+		} catch (final Exception e) {
+			reportFailure("Error processing changed pages in tree with root %s (municipalityId: %s): %s".formatted(rootId, municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to process changed pages in tree with root {} (municipalityId: {})", rootId, municipalityId, e);
+		}
+	}
+
+	void processListedPages(final List<ListedPage> listedPages) {
+		if (pagePipeline != null) {
+			processListedPagesInStages(listedPages);
+			return;
+		}
+
+		// Sort out the pages that actually need to be inserted or updated, so that only their content is fetched
+		final var outdatedPageIds = listedPages.stream()
+			.filter(listedPage -> visitedPages.visit(listedPage.id()))
+			.filter(this::isOutdated)
+			.map(ListedPage::id)
+			.toList();
+
+		LOG.info("{} of {} listed page(s) need to be inserted or updated (municipalityId: {})", outdatedPageIds.size(), listedPages.size(), municipalityId);
+
+		// Fetch and process the content of the outdated pages in batches
+		final var tasks = new ArrayList<Runnable>();
+		for (var i = 0; i < outdatedPageIds.size(); i += contentBatchSize) {
+			final var batch = outdatedPageIds.subList(i, Math.min(i + contentBatchSize, outdatedPageIds.size()));
+			tasks.add(() -> traversal.withPermit(() -> processPageBatch(batch)));
+		}
+
+		traversal.forkAndJoin(tasks);
+	}
+
+	void processListedPagesInStages(final List<ListedPage> listedPages) {
+		final var outdatedCount = new AtomicInteger();
+
+		// Sort out the pages that need to be inserted or updated, and hand them over in batches to be fetched as
+		// soon as they're found - waiting whenever the later stages can't keep up
+		final var stageStats = pagePipeline.run(fetch -> {
+			var batch = new ArrayList<String>(contentBatchSize);
+			for (final var listedPage : listedPages) {
+				if (visitedPages.visit(listedPage.id()) && isOutdated(listedPage)) {
+					batch.add(listedPage.id());
+					outdatedCount.incrementAndGet();
+				}
+
+				if (batch.size() >= contentBatchSize) {
+					fetch.accept(batch);
+					batch = new ArrayList<>(contentBatchSize);
 				}
 			}
+			if (!batch.isEmpty()) {
+				fetch.accept(batch);
+			}
+		});
+
+		LOG.info("{} of {} listed page(s) needed to be inserted or updated (municipalityId: {})", outdatedCount.get(), listedPages.size(), municipalityId);
+		stageStats.forEach(stats -> LOG.info("The {} stage processed {} item(s), {} per second (municipalityId: {})",
+			stats.stage(), stats.processed(), "%.1f".formatted(stats.throughputPerSecond()), municipalityId));
+	}
+
+	void processListedPagesReactively(final Flux<ListedPage> listedPages) {
+		final var listedCount = new AtomicInteger();
+		final var outdatedCount = new AtomicInteger();
+
+		// Everything that blocks - db lookups, parsing and the Eneo writes - runs on virtual threads, carrying the
+		// MDC (request id etc.) over, leaving the threads of the client free for the requests in flight
+		final var contextMap = MDC.getCopyOfContextMap();
+		try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			final Executor contextExecutor = task -> executor.execute(() -> {
+				ofNullable(contextMap).ifPresent(MDC::setContextMap);
+				try {
+					task.run();
+				} finally {
+					MDC.clear();
+				}
+			});
+			final var scheduler = Schedulers.fromExecutor(contextExecutor);
+
+			// Sort out the pages that need to be inserted or updated, fetch their content in batches - with up to
+			// max-in-flight requests at once - and process the fetched pages as they arrive
+			listedPages
+				.doOnNext(_ -> listedCount.incrementAndGet())
+				.publishOn(scheduler)
+				.filter(listedPage -> visitedPages.visit(listedPage.id()) && isOutdated(listedPage))
+				.doOnNext(_ -> outdatedCount.incrementAndGet())
+				.map(ListedPage::id)
+				.buffer(contentBatchSize)
+				.flatMap(pageIds -> streamPagesFromConfluence(pageIds, scheduler), maxInFlight)
+				.flatMap(page -> Mono.fromRunnable(() -> withFailureReported(page, () -> syncPage(page))).subscribeOn(scheduler), maxConcurrency)
+				.then()
+				.block();
+		}
+
+		LOG.info("{} of {} listed page(s) needed to be inserted or updated (municipalityId: {})", outdatedCount.get(), listedCount.get(), municipalityId);
+	}
+
+	// Pages through a listing with the reactive client, requesting the next page of results as soon as the current
+	// one has been parsed
+	Flux<ListedPage> streamListedPages(final IntFunction<Mono<InputStream>> listing) {
+		return fetchListing(listing, 0)
+			.expand(results -> results.hasNext() ? fetchListing(listing, results.next()) : Mono.empty())
+			.concatMapIterable(ListingResults::listedPages);
+	}
+
+	Flux<Page> streamPagesFromConfluence(final List<String> pageIds, final Scheduler scheduler) {
+		final var cql = PAGES_BY_ID_CQL.formatted(String.join(",", pageIds));
+
+		// Confluence may return fewer pages per request than asked for, so page through the results
+		return fetchPages(cql, pageIds.size(), 0, scheduler)
+			.expand(results -> results.hasNext() ? fetchPages(cql, pageIds.size(), results.next(), scheduler) : Mono.empty())
+			.concatMapIterable(PageResults::pages)
+			.onErrorResume(e -> {
+				reportFailure("Error processing pages %s (municipalityId: %s): %s".formatted(pageIds, municipalityId, e.getMessage()));
+
+				LOG.warn("Unable to process pages {} (municipalityId: {})", pageIds, municipalityId, e);
+
+				return Flux.empty();
+			});
+	}
+
+	private Mono<ListingResults> fetchListing(final IntFunction<Mono<InputStream>> listing, final int start) {
+		return listing.apply(start).map(json -> {
+			final var pageJson = pageJsonParser.parse(json);
+			final var listedPages = pageJson.getListedPages();
+
+			return new ListingResults(listedPages, start + listedPages.size(), !listedPages.isEmpty() && pageJson.hasNext());
 		});
 	}
 
+	private Mono<PageResults> fetchPages(final String cql, final int limit, final int start, final Scheduler scheduler) {
+		return reactiveClient.searchContent(cql, start, limit)
+			.publishOn(scheduler)
+			.map(json -> {
+				final var pageJson = pageJsonParser.parse(json);
+				final var currentPages = pageMapper.toPages(municipalityId, pageJson);
+				final var pages = currentPages.stream()
+					.map(this::matchEneoGroup)
+					.filter(Objects::nonNull)
+					.toList();
+
+				return new PageResults(pages, start + currentPages.size(), !currentPages.isEmpty() && pageJson.hasNext());
+			});
+	}
+
+	boolean isOutdated(final ListedPage listedPage) {
+		// Any blacklisted ancestors not part of the listing are handled when the page content is fetched
+		if (isBlacklisted(listedPage.id(), listedPage.ancestorIds())) {
+			LOG.info("Skipping page {} as it is blacklisted or has a blacklisted ancestor (municipalityId: {})", listedPage.id(), municipalityId);
+
+			return false;
+		}
+
+		// Pages that are missing locally, or are older than the Confluence page, are outdated
+		return dbIntegration.getPage(listedPage.id(), municipalityId)
+			.map(Page::getUpdatedAt)
+			.map(updatedAt -> isNewer(listedPage.updatedAt(), updatedAt))
+			.orElse(true);
+	}
+
+	void processPageBatch(final List<String> pageIds) {
+		processPageBatch(pageIds, this::syncPage);
+	}
+
+	void processPageBatch(final List<String> pageIds, final Consumer<Page> pageProcessor) {
+		try {
+			final var pages = getPagesFromConfluence(pageIds);
+
+			// Pages may have been deleted (or had their permissions changed) since they were listed
+			if (pages.size() < pageIds.size()) {
+				LOG.info("Only {} of the pages {} could be fetched from Confluence (municipalityId: {})", pages.size(), pageIds, municipalityId);
+			}
+
+			pages.forEach(pageProcessor);
+		} catch (final Exception e) {
+			reportFailure("Error processing pages %s (municipalityId: %s): %s".formatted(pageIds, municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to process pages {} (municipalityId: {})", pageIds, municipalityId, e);
+		}
+	}
+
+	List<Page> getPagesFromConfluence(final List<String> pageIds) {
+		final var cql = PAGES_BY_ID_CQL.formatted(String.join(",", pageIds));
+		final var pages = new ArrayList<Page>(pageIds.size());
+
+		// Confluence may return fewer pages per request than asked for, so page through the results
+		var start = 0;
+		while (true) {
+			final var json = client.searchContent(cql, start, pageIds.size());
+			if (json.isEmpty()) {
+				break;
+			}
+
+			final var pageJson = pageJsonParser.parse(json.get());
+			final var currentPages = pageMapper.toPages(municipalityId, pageJson);
+			currentPages.stream()
+				.map(this::matchEneoGroup)
+				.filter(Objects::nonNull)
+				.forEach(pages::add);
+
+			if (currentPages.isEmpty() || !pageJson.hasNext()) {
+				break;
+			}
+			start += currentPages.size();
+		}
+
+		return pages;
+	}
+
+	void syncPage(final Page page) {
+		// Update the page if it has been added to Eneo before, otherwise insert it
+		dbIntegration.getBlobId(page.getPageId(), municipalityId)
+			.ifPresentOrElse(blobId -> updatePage(page, blobId), () -> insertPage(page));
+	}
+
+	List<ListedPage> getListedPages(final IntFunction<Optional<InputStream>> listing) {
+		final var listedPages = new ArrayList<ListedPage>();
+
+		// Page through the listing, until Confluence doesn't report any more results
+		var start = 0;
+		while (true) {
+			final var currentStart = start;
+			final var json = traversal.withPermit(() -> listing.apply(currentStart));
+			if (json.isEmpty()) {
+				break;
+			}
+
+			final var pageJson = pageJsonParser.parse(json.get());
+			final var currentListedPages = pageJson.getListedPages();
+			listedPages.addAll(currentListedPages);
+
+			if (currentListedPages.isEmpty() || !pageJson.hasNext()) {
+				break;
+			}
+			start += currentListedPages.size();
+		}
+
+		return listedPages;
+	}
+
 	void processPage(final String pageId) {
-		LOG.info("Processing page {} (municipalityId: {})", pageId, municipalityId);
+		processPage(pageId, TreeContext.UNKNOWN);
+	}
 
+	void processPage(final String pageId, final TreeContext treeContext) {
 		// Get the page version data from Confluence
-		client.getContentVersion(pageId).ifPresentOrElse(json -> {
-			// Extract the updated at timestamp
-			final var updatedAtInConfluenceAsString = pageJsonParser.parse(json).getUpdatedAt();
-			final var updatedAtInConfluence = OffsetDateTime.parse(updatedAtInConfluenceAsString)
-				.toLocalDateTime()
-				.truncatedTo(SECONDS);
-			// Get the current page from the db or create a new one
-			final var page = dbIntegration.getPage(pageId, municipalityId)
-				.orElseGet(() -> pageMapper.newPage(municipalityId, pageId));
-
-			// If no updated-at timestamp is set - insert the page
-			// If the updated-at timestamp of the Confluence page is after the locally stored one - update
-			// Otherwise - ignore
-			if (page.getUpdatedAt() == null) {
-				insertPage(pageId);
-			} else if (updatedAtInConfluence.isAfter(page.getUpdatedAt())) {
-				updatePage(pageId);
-			} else {
-				LOG.info("Not updating current page {} (municipalityId: {})", pageId, municipalityId);
-			}
-		}, () -> {
+		client.getContentVersion(pageId).ifPresentOrElse(json -> processPage(pageId, pageJsonParser.parse(json).getUpdatedAt(), treeContext), () -> {
 			LOG.info("Page {} was not found in Confluence (municipalityId: {})", pageId, municipalityId);
 
 			deletePage(pageId);
 		});
 	}
 
+	void processPage(final String pageId, final String updatedAtInConfluenceAsString) {
+		processPage(pageId, updatedAtInConfluenceAsString, TreeContext.UNKNOWN);
+	}
+
+	void processPage(final String pageId, final String updatedAtInConfluenceAsString, final TreeContext treeContext) {
+		LOG.info("Processing page {} (municipalityId: {})", pageId, municipalityId);
+
+		// Get the current page from the db or create a new one
+		final var page = dbIntegration.getPage(pageId, municipalityId)
+			.orElseGet(() -> pageMapper.newPage(municipalityId, pageId));
+
+		// If no updated-at timestamp is set - insert the page
+		// If the updated-at timestamp of the Confluence page is after the locally stored one - update
+		// Otherwise - ignore
+		if (page.getUpdatedAt() == null) {
+			insertPage(pageId, treeContext);
+		} else if (isNewer(updatedAtInConfluenceAsString, page.getUpdatedAt())) {
+			updatePage(pageId, treeContext);
+		} else {
+			LOG.info("Not updating current page {} (municipalityId: {})", pageId, municipalityId);
+		}
+	}
+
 	Optional<Page> getPageFromConfluence(final String pageId) {
-		// Get page data from Confluence
-		return client.getContent(pageId).map(json -> {
-			// Extract the page data
-			final var page = pageMapper.toPage(municipalityId, pageId, json);
+		// Get page data from Confluence, and extract it
+		return client.getContent(pageId)
+			.map(json -> matchEneoGroup(pageMapper.toPage(municipalityId, pageId, json)));
+	}
 
-			// Skip any blacklisted pages
-			if (isBlacklisted(page.getPageId(), page.getAncestorIds())) {
-				LOG.info("Unable to process the page {} as it is blacklisted or has a blacklisted ancestor (municipalityId: {})", pageId, municipalityId);
+	Optional<Page> getPageFromConfluence(final String pageId, final TreeContext treeContext) {
+		if (!treeContext.isKnown()) {
+			return getPageFromConfluence(pageId);
+		}
 
-				return null;
-			}
+		// Blacklisting and the Eneo group have already been sorted out for the tree, so the ancestors of the
+		// page aren't needed
+		return client.getContentWithoutAncestors(pageId)
+			.map(json -> pageMapper.toPage(municipalityId, pageId, json).withEneoGroupId(treeContext.eneoGroupId()));
+	}
 
-			// Get the Eneo group id by traversing up the page tree
-			final var eneoGroupId = getEneoGroupId(pageId, page.getAncestorIds());
-			// If we don't have an Eneo group id, we can't really do anything more - bail out
-			if (isNotBlank(eneoGroupId)) {
-				LOG.info("The page {} was matched with the Eneo group id {} (municipalityId: {})", pageId, eneoGroupId, municipalityId);
-			} else {
-				LOG.info("The page {} couldn't be matched with any Eneo group (municipalityId: {})", pageId, municipalityId);
+	// Returns the page with its Eneo group id set, or null if the page is blacklisted or can't be matched with
+	// any Eneo group
+	Page matchEneoGroup(final Page page) {
+		final var pageId = page.getPageId();
 
-				return null;
-			}
+		// Skip any blacklisted pages
+		if (isBlacklisted(pageId, page.getAncestorIds())) {
+			LOG.info("Unable to process the page {} as it is blacklisted or has a blacklisted ancestor (municipalityId: {})", pageId, municipalityId);
 
-			return page
-				.withEneoGroupId(eneoGroupId);
-		});
+			return null;
+		}
+
+		// Get the Eneo group id by traversing up the page tree
+		final var eneoGroupId = getEneoGroupId(pageId, page.getAncestorIds());
+		// If we don't have an Eneo group id, we can't really do anything more - bail out
+		if (isNotBlank(eneoGroupId)) {
+			LOG.info("The page {} was matched with the Eneo group id {} (municipalityId: {})", pageId, eneoGroupId, municipalityId);
+		} else {
+			LOG.info("The page {} couldn't be matched with any Eneo group (municipalityId: {})", pageId, municipalityId);
+
+			return null;
+		}
+
+		return page
+			.withEneoGroupId(eneoGroupId);
 	}
 
 	void insertPage(final String pageId) {
+		// Pages inserted through the webhooks are added to Eneo right away - never held back in the batches of a
+		// run that happens to be in progress, which could fail before they're flushed
+		getPageFromConfluence(pageId, TreeContext.UNKNOWN).ifPresentOrElse(page -> commitPage(writeInsertNow(preparePage(page))),
+			() -> LOG.info("Unable to insert the page {} since it couldn't be found in Confluence (municipalityId: {})", pageId, municipalityId));
+	}
+
+	void insertPage(final String pageId, final TreeContext treeContext) {
 		// Get the page
-		getPageFromConfluence(pageId).ifPresentOrElse(page -> {
-			// Add an info blob to Eneo
-			final var blobId = eneoIntegration.addInfoBlob(municipalityId, page.getEneoGroupId(), page.getTitle(), page.bodyAsText(), page.url());
+		getPageFromConfluence(pageId, treeContext).ifPresentOrElse(this::insertPage,
+			() -> LOG.info("Unable to insert the page {} since it couldn't be found in Confluence (municipalityId: {})", pageId, municipalityId));
+	}
+
+	void insertPage(final Page page) {
+		writeInsert(preparePage(page)).ifPresent(this::commitPage);
+	}
+
+	void insertPage(final Page page, final String text) {
+		commitPage(writeInsert(page, text));
+	}
+
+	void insertBatch(final String eneoGroupId, final List<InsertBatcher.PendingInsert> pendingInserts) {
+		final var pages = pendingInserts.stream()
+			.map(InsertBatcher.PendingInsert::page)
+			.toList();
+
+		final List<String> blobIds;
+		try {
+			// Add the info blobs to Eneo in one go
+			blobIds = eneoIntegration.addInfoBlobs(municipalityId, eneoGroupId, pendingInserts.stream()
+				.map(pendingInsert -> new EneoIntegration.InfoBlob(pendingInsert.page().getTitle(), pendingInsert.text(), pendingInsert.page().url()))
+				.toList());
+		} catch (final Exception e) {
+			LOG.warn("Unable to insert the batch of pages {}, inserting them one at a time instead (municipalityId: {})", pages.stream().map(Page::getPageId).toList(), municipalityId, e);
+
+			// Nothing has been added, so a single failing page mustn't keep the rest of the batch out
+			pendingInserts.forEach(this::insertPendingPage);
+			return;
+		}
+
+		// Save the pages, matched with their info blobs by position
+		for (var i = 0; i < pendingInserts.size(); i++) {
+			final var pendingInsert = pendingInserts.get(i);
+			pendingInsert.page()
+				.withEneoBlobId(blobIds.get(i))
+				.withContentHash(contentHash(pendingInsert.page(), pendingInsert.text()))
+				.withTextHash(textHash(pendingInsert.page(), pendingInsert.text()));
+		}
+		try {
+			dbIntegration.savePages(pages);
+		} catch (final Exception e) {
+			reportFailure("Error saving the batch of pages %s (municipalityId: %s): %s".formatted(pages.stream().map(Page::getPageId).toList(), municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to save the batch of pages {}, removing their info blobs from Eneo (municipalityId: {})", pages.stream().map(Page::getPageId).toList(), municipalityId, e);
+
+			// Unsaved pages are inserted again by the next sync - don't leave their info blobs behind until then
+			blobIds.forEach(blobId -> eneoIntegration.deleteInfoBlob(municipalityId, blobId));
+			return;
+		}
+
+		LOG.info("The batch of {} page(s) has been inserted (municipalityId: {})", pages.size(), municipalityId);
+	}
+
+	private void insertPendingPage(final InsertBatcher.PendingInsert pendingInsert) {
+		try {
+			insertPage(pendingInsert.page(), pendingInsert.text());
+		} catch (final Exception e) {
+			reportFailure("Error inserting page %s (municipalityId: %s): %s".formatted(pendingInsert.page().getPageId(), municipalityId, e.getMessage()));
 
-			// Save the page
-			dbIntegration.savePage(page.withEneoBlobId(blobId));
+			LOG.warn("Unable to insert page {} (municipalityId: {})", pendingInsert.page().getPageId(), municipalityId, e);
+		}
+	}
 
-			LOG.info("The page {} has been inserted (municipalityId: {})", pageId, municipalityId);
-		}, () -> LOG.info("Unable to insert the page {} since it couldn't be found in Confluence (municipalityId: {})", pageId, municipalityId));
+	void insertChunkedPage(final Page page) {
+		commitPage(writeChunkedInsert(page, pageChunker.chunk(page)));
 	}
 
 	void updatePage(final String pageId) {
+		updatePage(pageId, TreeContext.UNKNOWN);
+	}
+
+	void updatePage(final String pageId, final TreeContext treeContext) {
 		// Get the page
-		getPageFromConfluence(pageId).ifPresentOrElse(page -> dbIntegration.getBlobId(pageId, municipalityId).ifPresentOrElse(blobId -> {
+		getPageFromConfluence(pageId, treeContext).ifPresentOrElse(page -> dbIntegration.getBlobId(pageId, municipalityId).ifPresentOrElse(blobId -> updatePage(page, blobId),
+			() -> LOG.info("Unable to update the page {} since no Eneo blob id could be found (municipalityId: {})", pageId, municipalityId)),
+			() -> LOG.info("Unable to update the page {} since it couldn't be found in Confluence (municipalityId: {})", pageId, municipalityId));
+	}
+
+	void updatePage(final Page page, final String blobId) {
+		commitPage(writeUpdate(preparePage(page), blobId));
+	}
+
+	void updateChunkedPage(final Page page, final String blobId) {
+		commitPage(writeChunkedUpdate(page, blobId, pageChunker.chunk(page)));
+	}
+
+	// Turns the page into what's sent to Eneo - the normalised text, or the chunks, of the page
+	PreparedPage preparePage(final Page page) {
+		if (pageChunker != null) {
+			return new PreparedPage(page, null, pageChunker.chunk(page));
+		}
+		return new PreparedPage(page, textNormaliser.normalise(page), null);
+	}
+
+	// Writes the page to Eneo - updating it if it has been added before, otherwise inserting it
+	Optional<PageWrite> writePage(final PreparedPage preparedPage) {
+		return dbIntegration.getBlobId(preparedPage.page().getPageId(), municipalityId)
+			.map(blobId -> Optional.of(writeUpdate(preparedPage, blobId)))
+			.orElseGet(() -> writeInsert(preparedPage));
+	}
+
+	// Returns nothing to commit when the page is handed over to a batch, which is added to Eneo (and saved) along
+	// with others of the same group later on
+	Optional<PageWrite> writeInsert(final PreparedPage preparedPage) {
+		if (preparedPage.chunks() == null && insertBatcher.add(preparedPage.page(), preparedPage.text())) {
+			return Optional.empty();
+		}
+		return Optional.of(writeInsertNow(preparedPage));
+	}
+
+	PageWrite writeInsertNow(final PreparedPage preparedPage) {
+		if (preparedPage.chunks() != null) {
+			return writeChunkedInsert(preparedPage.page(), preparedPage.chunks());
+		}
+		return writeInsert(preparedPage.page(), preparedPage.text());
+	}
+
+	PageWrite writeInsert(final Page page, final String text) {
+		// Add an info blob to Eneo
+		final var blobId = eneoIntegration.addInfoBlob(municipalityId, page.getEneoGroupId(), page.getTitle(), text, page.url());
+
+		return new PageWrite(page
+			.withEneoBlobId(blobId)
+			.withContentHash(contentHash(page, text))
+			.withTextHash(textHash(page, text)), List.of(), "inserted");
+	}
+
+	PageWrite writeChunkedInsert(final Page page, final List<PageChunker.Chunk> chunks) {
+		if (chunks.isEmpty()) {
+			return PageWrite.removal(page, List.of(), "left out, as it has no text");
+		}
+
+		// Add an info blob to Eneo for each chunk
+		final var blobIds = eneoIntegration.addInfoBlobs(municipalityId, page.getEneoGroupId(), chunks.stream()
+			.map(chunk -> toInfoBlob(page, chunk))
+			.toList());
+
+		return new PageWrite(withChunks(page, chunks, blobIds), List.of(), "inserted as %d chunk(s)".formatted(chunks.size()));
+	}
+
+	PageWrite writeUpdate(final PreparedPage preparedPage, final String blobId) {
+		if (preparedPage.chunks() != null) {
+			return writeChunkedUpdate(preparedPage.page(), blobId, preparedPage.chunks());
+		}
+		return writeUpdate(preparedPage.page(), blobId, preparedPage.text());
+	}
+
+	PageWrite writeUpdate(final Page page, final String blobId, final String text) {
+		final var contentHash = contentHash(page, text);
+		final var textHash = textHash(page, text);
+		final var storedHashes = dbIntegration.getPageHashes(page.getPageId(), municipalityId);
+
+		// A new version in Confluence doesn't necessarily mean new content (e.g. after label or permission
+		// changes) - if nothing that ends up in Eneo has changed, only record the new timestamp
+		if (storedHashes.map(PageHashes::contentHash).filter(contentHash::equals).isPresent()) {
+			LOG.info("The content of page {} is unchanged, not updating it in Eneo (municipalityId: {})", page.getPageId(), municipalityId);
+
+			return new PageWrite(page
+				.withEneoBlobId(blobId)
+				.withContentHash(contentHash)
+				.withTextHash(textHash), List.of(), "updated locally");
+		}
+
+		final String newBlobId;
+		if (storedHashes.map(PageHashes::textHash).filter(textHash::equals).isPresent()) {
+			// Only the title and/or url have changed - update them in place, keeping the info blob (and its embeddings)
+			eneoIntegration.updateInfoBlobMetadata(municipalityId, blobId, page.getTitle(), page.url());
+			newBlobId = blobId;
+		} else {
 			// Update the info blob in Eneo
-			final var newBlobId = eneoIntegration.updateInfoBlob(municipalityId, page.getEneoGroupId(), blobId, page.getTitle(), page.bodyAsText(), page.url());
-			// Save (update) the page
-			dbIntegration.savePage(page.withEneoBlobId(newBlobId));
+			newBlobId = eneoIntegration.updateInfoBlob(municipalityId, page.getEneoGroupId(), blobId, page.getTitle(), text, page.url());
+		}
 
-			LOG.info("The page {} has been updated (municipalityId: {})", pageId, municipalityId);
-		}, () -> LOG.info("Unable to update the page {} since no Eneo blob id could be found (municipalityId: {})", pageId, municipalityId)),
-			() -> LOG.info("Unable to update the page {} since it couldn't be found in Confluence (municipalityId: {})", pageId, municipalityId));
+		return new PageWrite(page
+			.withEneoBlobId(newBlobId)
+			.withContentHash(contentHash)
+			.withTextHash(textHash), List.of(), "updated");
+	}
+
+	PageWrite writeChunkedUpdate(final Page page, final String blobId, final List<PageChunker.Chunk> chunks) {
+		// The blobs of the chunks currently stored for the page, by content hash - or, for a page added before
+		// chunking was set up, its single blob (under a hash that never matches any chunk)
+		final var storedBlobIds = new HashMap<String, Deque<String>>();
+		final var storedPage = dbIntegration.getPage(page.getPageId(), municipalityId);
+		storedPage
+			.map(Page::getChunks)
+			.filter(storedChunks -> !storedChunks.isEmpty())
+			.orElseGet(() -> List.of(new PageChunk("", blobId)))
+			.forEach(storedChunk -> storedBlobIds.computeIfAbsent(storedChunk.contentHash(), _ -> new ArrayDeque<>()).add(storedChunk.eneoBlobId()));
+
+		// The hashes of the chunks only cover their text - whether the title and/or url have changed is told by the
+		// hash of the page, as stored along with the hash of its text
+		final var metadataChanged = storedPage
+			.filter(stored -> stored.getTextHash() != null && chunkedContentHash(page, stored.getTextHash()).equals(stored.getContentHash()))
+			.isEmpty();
+
+		// Keep the blobs of the chunks that haven't changed, wherever they've ended up on the page (updating their
+		// title and url in place if those have changed), and add new blobs for the rest
+		final var blobIds = new ArrayList<String>(chunks.size());
+		final var changedChunkIndexes = new ArrayList<Integer>();
+		for (var i = 0; i < chunks.size(); i++) {
+			final var unchangedBlobId = ofNullable(storedBlobIds.get(chunks.get(i).contentHash()))
+				.map(Deque::poll)
+				.orElse(null);
+			if (unchangedBlobId == null) {
+				changedChunkIndexes.add(i);
+			} else if (metadataChanged) {
+				eneoIntegration.updateInfoBlobMetadata(municipalityId, unchangedBlobId, chunks.get(i).title(), page.url());
+			}
+			blobIds.add(unchangedBlobId);
+		}
+
+		if (!changedChunkIndexes.isEmpty()) {
+			final var addedBlobIds = eneoIntegration.addInfoBlobs(municipalityId, page.getEneoGroupId(), changedChunkIndexes.stream()
+				.map(i -> toInfoBlob(page, chunks.get(i)))
+				.toList());
+			for (var i = 0; i < changedChunkIndexes.size(); i++) {
+				blobIds.set(changedChunkIndexes.get(i), addedBlobIds.get(i));
+			}
+		}
+
+		// The blobs of the chunks that have changed or are gone are deleted once their replacements are saved
+		final var obsoleteBlobIds = storedBlobIds.values().stream()
+			.flatMap(Collection::stream)
+			.toList();
+
+		if (chunks.isEmpty()) {
+			return PageWrite.removal(page, obsoleteBlobIds, "removed, as it no longer has any text");
+		}
+
+		return new PageWrite(withChunks(page, chunks, blobIds), obsoleteBlobIds, "updated, %d of %d chunk(s) added and %d removed"
+			.formatted(changedChunkIndexes.size(), chunks.size(), obsoleteBlobIds.size()));
+	}
+
+	void commitPage(final PageWrite pageWrite) {
+		// Save the page - or, if there's nothing of it in Eneo, remove it
+		if (pageWrite.removed()) {
+			dbIntegration.deletePage(pageWrite.page().getPageId(), municipalityId);
+		} else {
+			dbIntegration.savePage(pageWrite.page());
+		}
+
+		// Delete any info blobs that the page no longer uses from Eneo
+		pageWrite.obsoleteBlobIds().forEach(obsoleteBlobId -> eneoIntegration.deleteInfoBlob(municipalityId, obsoleteBlobId));
+
+		LOG.info("The page {} has been {} (municipalityId: {})", pageWrite.page().getPageId(), pageWrite.outcome(), municipalityId);
 	}
 
 	void deletePage(final String pageId) {
 		LOG.info("Deleting page {} (municipalityId: {})", pageId, municipalityId);
 
-		dbIntegration.getBlobId(pageId, municipalityId).ifPresentOrElse(blobId -> {
-			// Delete the page
-			dbIntegration.deletePage(pageId, municipalityId);
+		final var blobIds = dbIntegration.getBlobIds(pageId, municipalityId);
+		if (blobIds.isEmpty()) {
+			LOG.info("Unable to delete page {} since it couldn't be found (municipalityId: {})", pageId, municipalityId);
+			return;
+		}
+
+		// Delete the page
+		dbIntegration.deletePage(pageId, municipalityId);
 
-			// Delete the info blob from Eneo
-			eneoIntegration.deleteInfoBlob(municipalityId, blobId);
+		// Delete the info blob(s) from Eneo
+		blobIds.forEach(blobId -> eneoIntegration.deleteInfoBlob(municipalityId, blobId));
 
-			LOG.info("The page {} was deleted (municipalityId: {})", pageId, municipalityId);
-		}, () -> LOG.info("Unable to delete page {} since it couldn't be found (municipalityId: {})", pageId, municipalityId));
+		LOG.info("The page {} was deleted (municipalityId: {})", pageId, municipalityId);
 	}
 
 	boolean isBlacklisted(final String pageId) {
@@ -219,28 +1301,127 @@ class ConfluenceWorker implements Runnable {
 	}
 
 	boolean isBlacklisted(final String pageId, final List<String> ancestorIds) {
-		// Check if the page itself is blacklisted
-		final var isBlacklisted = blacklistedRootIds.contains(pageId);
+		// Check if the page itself, or any of its ancestors, is blacklisted
+		return routingIndex.isBlacklisted(pageId, ancestorIds);
+	}
 
-		// Check if the page has any blacklisted ancestor
-		final var hasBlacklistedAncestor = ancestorIds.stream()
-			.anyMatch(blacklistedRootIds::contains);
+	String getEneoGroupId(final String pageId, final List<String> ancestorIds) {
+		// Check if the page itself *is* a mapping, or otherwise its ancestors - nearest first, so that pages
+		// below nested mapped roots get the group of the innermost one
+		return routingIndex.getEneoGroupId(pageId, ancestorIds);
+	}
 
-		return isBlacklisted || hasBlacklistedAncestor;
+	boolean isMappedRoot(final String pageId) {
+		return routingIndex.isMappedRoot(pageId);
 	}
 
-	String getEneoGroupId(final String pageId, final List<String> ancestorIds) {
-		// Check if the page itself *is* a mapping
-		if (mappings.containsKey(pageId)) {
-			return mappings.get(pageId);
+	boolean isWithinNestedRoot(final String rootId, final ListedPage listedPage) {
+		if (rootId.equals(listedPage.id())) {
+			return false;
 		}
 
-		// Otherwise - check the ancestors
-		return mappings.entrySet().stream()
-			.filter(mapping -> ancestorIds.stream()
-				.anyMatch(ancestorId -> mapping.getKey().equals(ancestorId)))
-			.findFirst()
-			.map(Map.Entry::getValue)
-			.orElse(null);
+		// Only the ancestors below the given root are of interest - the root itself may be nested in another one
+		final var ancestorIds = listedPage.ancestorIds();
+		final var ancestorIdsBelowRoot = ancestorIds.subList(ancestorIds.indexOf(rootId) + 1, ancestorIds.size());
+
+		// Pages that are, or are below, another mapped root within the given root's tree, are processed as
+		// part of that root's tree instead
+		return isMappedRoot(listedPage.id()) || ancestorIdsBelowRoot.stream().anyMatch(this::isMappedRoot);
+	}
+
+	private Pipeline<List<String>> createPagePipeline(final ConfluenceIntegrationProperties.Environment.Pipeline pipeline, final MeterRegistry meterRegistry) {
+		return Pipeline.<List<String>>builder("confluence.pipeline", meterRegistry, Tags.of("municipalityId", municipalityId))
+			.<Page>stage("fetch", pipeline.fetchConcurrency(), pipeline.queueCapacity(), this::processPageBatch)
+			.<PreparedPage>stage("transform", pipeline.transformConcurrency(), pipeline.queueCapacity(),
+				(page, write) -> withFailureReported(page, () -> write.accept(preparePage(page))))
+			.<PageWrite>stage("write", pipeline.writeConcurrency(), pipeline.queueCapacity(),
+				(preparedPage, commit) -> withFailureReported(preparedPage.page(), () -> writePage(preparedPage).ifPresent(commit)))
+			.sink("commit", pipeline.commitConcurrency(), pipeline.queueCapacity(),
+				pageWrite -> withFailureReported(pageWrite.page(), () -> commitPage(pageWrite)));
+	}
+
+	private void withFailureReported(final Page page, final Runnable runnable) {
+		try {
+			runnable.run();
+		} catch (final Exception e) {
+			reportFailure("Error processing page %s (municipalityId: %s): %s".formatted(page.getPageId(), municipalityId, e.getMessage()));
+
+			LOG.warn("Unable to process page {} (municipalityId: {})", page.getPageId(), municipalityId, e);
+		}
+	}
+
+	private static String contentHash(final Page page, final String text) {
+		return ContentHash.of(page.getEneoGroupId(), page.url(), page.getTitle(), text);
+	}
+
+	private static String textHash(final Page page, final String text) {
+		// The Eneo group is part of it, since moving the page to another group means adding it anew
+		return ContentHash.of(page.getEneoGroupId(), text);
+	}
+
+	private static String chunkedContentHash(final Page page, final String textHash) {
+		return ContentHash.of(page.url(), page.getTitle(), textHash);
+	}
+
+	private static EneoIntegration.InfoBlob toInfoBlob(final Page page, final PageChunker.Chunk chunk) {
+		return new EneoIntegration.InfoBlob(chunk.title(), chunk.text(), page.url());
+	}
+
+	// Sets the chunks of the page, and the blob of its first chunk as the blob of the page - with the hashes of
+	// the chunks making up the hash of its text, and that along with its title and url the hash of the page
+	private static Page withChunks(final Page page, final List<PageChunker.Chunk> chunks, final List<String> blobIds) {
+		final var pageChunks = new ArrayList<PageChunk>(chunks.size());
+		for (var i = 0; i < chunks.size(); i++) {
+			pageChunks.add(new PageChunk(chunks.get(i).contentHash(), blobIds.get(i)));
+		}
+		final var textHash = ContentHash.of(chunks.stream()
+			.map(PageChunker.Chunk::contentHash)
+			.toArray(String[]::new));
+
+		return page
+			.withEneoBlobId(blobIds.getFirst())
+			.withContentHash(chunkedContentHash(page, textHash))
+			.withTextHash(textHash)
+			.withChunks(pageChunks);
+	}
+
+	private static boolean isNewer(final String updatedAtInConfluenceAsString, final LocalDateTime updatedAt) {
+		// Parse the updated at timestamp
+		final var updatedAtInConfluence = OffsetDateTime.parse(updatedAtInConfluenceAsString)
+			.toLocalDateTime()
+			.truncatedTo(SECONDS);
+
+		return updatedAtInConfluence.isAfter(updatedAt);
+	}
+
+	// The page along with what's sent to Eneo for it - either its normalised text, or its chunks when chunking
+	record PreparedPage(Page page, String text, List<PageChunker.Chunk> chunks) {
+	}
+
+	// The page as written to Eneo, to be saved - after which the info blobs it no longer uses are deleted. A page
+	// with nothing in Eneo (no text to chunk) is removed instead, to be added once it has some
+	record PageWrite(Page page, List<String> obsoleteBlobIds, String outcome, boolean removed) {
+
+		PageWrite(final Page page, final List<String> obsoleteBlobIds, final String outcome) {
+			this(page, obsoleteBlobIds, outcome, false);
+		}
+
+		static PageWrite removal(final Page page, final List<String> obsoleteBlobIds, final String outcome) {
+			return new PageWrite(page, obsoleteBlobIds, outcome, true);
+		}
+	}
+
+	// What visiting (part of) the frontier came up with - the entries discovered below the visited ones, and the
+	// visited entries that failed
+	record FrontierVisit(List<FrontierEntry> discovered, List<FrontierEntry> failed) {
+
+		static final FrontierVisit NONE = new FrontierVisit(List.of(), List.of());
+	}
+
+	// A page of results from the reactive client, and where the next one starts, if there is one
+	private record ListingResults(List<ListedPage> listedPages, int next, boolean hasNext) {
+	}
+
+	private record PageResults(List<Page> pages, int next, boolean hasNext) {
 	}
 }
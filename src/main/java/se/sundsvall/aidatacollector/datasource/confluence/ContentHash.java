@@ -0,0 +1,30 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+// Hashes everything about a page (or a chunk of it) that ends up in its Eneo info blob, to tell whether
+// anything relevant has changed since the blob was added
+final class ContentHash {
+
+	private static final String HASH_ALGORITHM = "SHA-256";
+
+	private ContentHash() {}
+
+	static String of(final String... parts) {
+		try {
+			final var digest = MessageDigest.getInstance(HASH_ALGORITHM);
+			for (final var part : parts) {
+				digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+				// Keep the parts apart, so that moving text from one part to the next changes the hash
+				digest.update((byte) 0);
+			}
+
+			return HexFormat.of().formatHex(digest.digest());
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException("Unable to hash the content", e);
+		}
+	}
+}
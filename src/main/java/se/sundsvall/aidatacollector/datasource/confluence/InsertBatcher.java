@@ -0,0 +1,165 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+
+// Collects the pages inserted during a single run into batches, one per Eneo group, so that they can be added to
+// Eneo many at a time rather than one by one. A batch is handed to the sink once it holds the max number of
+// pages or (roughly) bytes of text, once it has lingered for too long, or when everything is flushed at the end
+// of the run. Batches are always handed over outside of the lock, by the thread that filled them (or noticed
+// they had lingered), so that adding pages never waits on Eneo
+final class InsertBatcher {
+
+	// Used outside of runs, and when batching isn't configured, leaving every insert to the caller
+	static final InsertBatcher NONE = create(0, 0, Duration.ZERO, (_, _) -> {});
+
+	private final int maxPages;
+	private final long maxBytes;
+	private final long lingerNanos;
+	private final BiConsumer<String, List<PendingInsert>> sink;
+	private final LongSupplier nanoTime;
+
+	// The batches being filled, by Eneo group id - oldest first
+	private final Map<String, Batch> batches = new LinkedHashMap<>();
+
+	private long batchCount;
+	private long pageCount;
+
+	private InsertBatcher(final int maxPages, final long maxBytes, final Duration linger, final BiConsumer<String, List<PendingInsert>> sink, final LongSupplier nanoTime) {
+		this.maxPages = maxPages;
+		this.maxBytes = maxBytes;
+		this.lingerNanos = linger.toNanos();
+		this.sink = sink;
+		this.nanoTime = nanoTime;
+	}
+
+	static InsertBatcher create(final int maxPages, final long maxBytes, final Duration linger, final BiConsumer<String, List<PendingInsert>> sink) {
+		return create(maxPages, maxBytes, linger, sink, System::nanoTime);
+	}
+
+	// Tells how long the batches have lingered by the given time source, rather than the system's
+	static InsertBatcher create(final int maxPages, final long maxBytes, final Duration linger, final BiConsumer<String, List<PendingInsert>> sink, final LongSupplier nanoTime) {
+		return new InsertBatcher(maxPages, maxBytes, linger, sink, nanoTime);
+	}
+
+	boolean isBatching() {
+		return maxPages > 0;
+	}
+
+	// Returns true if the insert was taken on, to be handed to the sink later on - or false if it's up to the
+	// caller, when not batching
+	boolean add(final Page page, final String text) {
+		if (!isBatching()) {
+			return false;
+		}
+
+		final var pendingInsert = new PendingInsert(page, text, estimateBytes(page, text));
+		final var dueBatches = new ArrayList<Map.Entry<String, List<PendingInsert>>>();
+		synchronized (this) {
+			final var eneoGroupId = page.getEneoGroupId();
+			var batch = batches.get(eneoGroupId);
+
+			// Hand over the current batch first if the page would make it too big
+			if (batch != null && batch.bytes + pendingInsert.bytes() > maxBytes) {
+				dueBatches.add(Map.entry(eneoGroupId, takeBatch(eneoGroupId)));
+				batch = null;
+			}
+			if (batch == null) {
+				batch = new Batch(nanoTime.getAsLong());
+				batches.put(eneoGroupId, batch);
+			}
+
+			batch.add(pendingInsert);
+			if (batch.pendingInserts.size() >= maxPages || batch.bytes >= maxBytes) {
+				dueBatches.add(Map.entry(eneoGroupId, takeBatch(eneoGroupId)));
+			}
+
+			takeLingeringBatches(dueBatches);
+		}
+
+		dueBatches.forEach(dueBatch -> sink.accept(dueBatch.getKey(), dueBatch.getValue()));
+		return true;
+	}
+
+	// Hands all batches being filled to the sink
+	void flush() {
+		final List<Map.Entry<String, List<PendingInsert>>> dueBatches;
+		synchronized (this) {
+			dueBatches = new ArrayList<>(batches.size());
+			List.copyOf(batches.keySet()).forEach(eneoGroupId -> dueBatches.add(Map.entry(eneoGroupId, takeBatch(eneoGroupId))));
+		}
+
+		dueBatches.forEach(dueBatch -> sink.accept(dueBatch.getKey(), dueBatch.getValue()));
+	}
+
+	synchronized long batchCount() {
+		return batchCount;
+	}
+
+	synchronized long pageCount() {
+		return pageCount;
+	}
+
+	private void takeLingeringBatches(final List<Map.Entry<String, List<PendingInsert>>> dueBatches) {
+		final var now = nanoTime.getAsLong();
+
+		// The batches are kept in the order they were started, so the lingering ones come first
+		while (!batches.isEmpty()) {
+			final var oldest = batches.entrySet().iterator().next();
+			if (now - oldest.getValue().startedAt < lingerNanos) {
+				return;
+			}
+			dueBatches.add(Map.entry(oldest.getKey(), takeBatch(oldest.getKey())));
+		}
+	}
+
+	private List<PendingInsert> takeBatch(final String eneoGroupId) {
+		final var pendingInserts = batches.remove(eneoGroupId).pendingInserts;
+
+		batchCount++;
+		pageCount += pendingInserts.size();
+		return pendingInserts;
+	}
+
+	private static long estimateBytes(final Page page, final String text) {
+		// The text makes up the bulk of the request - count it as UTF-8, and the rest as is
+		var bytes = (long) String.valueOf(page.getTitle()).length() + String.valueOf(page.url()).length();
+		for (var i = 0; i < text.length(); i++) {
+			final var c = text.charAt(i);
+			if (c < 0x80) {
+				bytes++;
+			} else if (c < 0x800 || Character.isSurrogate(c)) {
+				// Surrogate pairs make up four bytes, two for each half
+				bytes += 2;
+			} else {
+				bytes += 3;
+			}
+		}
+		return bytes;
+	}
+
+	record PendingInsert(Page page, String text, long bytes) {
+	}
+
+	private static final class Batch {
+
+		private final long startedAt;
+		private final List<PendingInsert> pendingInserts = new ArrayList<>();
+		private long bytes;
+
+		private Batch(final long startedAt) {
+			this.startedAt = startedAt;
+		}
+
+		private void add(final PendingInsert pendingInsert) {
+			pendingInserts.add(pendingInsert);
+			bytes += pendingInsert.bytes();
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import java.util.Arrays;
+
+// An immutable set of primitive longs, using open addressing with linear probing - so that lookups
+// neither box the keys nor chase any pointers
+final class LongHashSet {
+
+	private static final long EMPTY = 0L;
+
+	private final long[] slots;
+	private final int mask;
+	private final boolean containsEmpty;
+	private final int size;
+
+	private LongHashSet(final long[] values) {
+		// Keep the load factor at or below 0.5, to keep the probe sequences short
+		slots = new long[tableSizeFor(values.length * 2)];
+		mask = slots.length - 1;
+
+		var hasEmpty = false;
+		var count = 0;
+		for (final var value : values) {
+			if (value == EMPTY) {
+				count += hasEmpty ? 0 : 1;
+				hasEmpty = true;
+			} else if (insert(value)) {
+				count++;
+			}
+		}
+		containsEmpty = hasEmpty;
+		size = count;
+	}
+
+	static LongHashSet of(final long... values) {
+		return new LongHashSet(values);
+	}
+
+	boolean contains(final long value) {
+		if (value == EMPTY) {
+			return containsEmpty;
+		}
+
+		var index = mix(value) & mask;
+		while (slots[index] != EMPTY) {
+			if (slots[index] == value) {
+				return true;
+			}
+			index = (index + 1) & mask;
+		}
+		return false;
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "LongHashSet{" +
+			"values=" + Arrays.toString(Arrays.stream(slots).filter(slot -> slot != EMPTY).sorted().toArray()) +
+			(containsEmpty ? ", containsZero" : "") +
+			'}';
+	}
+
+	private boolean insert(final long value) {
+		var index = mix(value) & mask;
+		while (slots[index] != EMPTY) {
+			if (slots[index] == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		slots[index] = value;
+		return true;
+	}
+
+	private static int mix(final long value) {
+		// Spread sequential ids (which Confluence page ids mostly are) over the whole table
+		final var hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private static int tableSizeFor(final int capacity) {
+		return Math.max(2, Integer.highestOneBit(Math.max(1, capacity) - 1) << 1);
+	}
+}
@@ -0,0 +1,33 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import java.util.List;
+import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+
+// Splits pages into chunks at their headings, each with a hash of its text - the title and url of its info blob
+// come from the page, so a renamed or moved page keeps its chunks (and their embeddings)
+class PageChunker {
+
+	private static final String TITLE_SEPARATOR = " - ";
+
+	private final int maxHeadingLevel;
+	private final TextNormaliser textNormaliser;
+
+	PageChunker(final int maxHeadingLevel, final TextNormaliser textNormaliser) {
+		this.maxHeadingLevel = maxHeadingLevel;
+		this.textNormaliser = textNormaliser;
+	}
+
+	List<Chunk> chunk(final Page page) {
+		return textNormaliser.normaliseSections(page, maxHeadingLevel).stream()
+			.map(section -> {
+				final var title = section.heading() == null ? page.getTitle() : page.getTitle() + TITLE_SEPARATOR + section.heading();
+
+				// The Eneo group is part of it, since moving the page to another group means adding it anew
+				return new Chunk(title, section.text(), ContentHash.of(page.getEneoGroupId(), section.text()));
+			})
+			.toList();
+	}
+
+	record Chunk(String title, String text, String contentHash) {
+	}
+}
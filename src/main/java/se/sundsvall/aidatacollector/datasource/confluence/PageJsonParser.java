@@ -1,83 +1,205 @@
 package se.sundsvall.aidatacollector.datasource.confluence;
 
-import static com.jayway.jsonpath.Option.SUPPRESS_EXCEPTIONS;
-
+import static com.fasterxml.jackson.core.JsonToken.END_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
+import static com.fasterxml.jackson.core.JsonToken.START_ARRAY;
+import static com.fasterxml.jackson.core.JsonToken.START_OBJECT;
+import static java.util.Optional.ofNullable;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.jayway.jsonpath.Configuration;
-import com.jayway.jsonpath.DocumentContext;
-import com.jayway.jsonpath.JsonPath;
-import com.jayway.jsonpath.ParseContext;
-import com.jayway.jsonpath.spi.json.JacksonJsonProvider;
-import com.jayway.jsonpath.spi.mapper.JacksonMappingProvider;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import org.springframework.stereotype.Component;
 
+// Decodes Confluence content (and content listing) responses in a single streaming pass, picking out the
+// fields of interest and skipping everything else - without building any intermediate document tree
 @Component
 class PageJsonParser {
 
-	static final String TITLE = "$.title";
-	static final String BODY = "$.body.storage.value";
-	static final String BASE_URL = "$._links.base";
-	static final String PATH = "$._links.webui";
-	static final String ANCESTOR_IDS = "$.ancestors..id";
-	static final String CHILD_IDS = "$.results..id";
-	static final String UPDATED_AT = "$.version.when";
-
-	private final ParseContext parseContext;
+	private final JsonFactory jsonFactory;
 
 	PageJsonParser(final ObjectMapper objectMapper) {
-		parseContext = JsonPath.using(Configuration.defaultConfiguration()
-			.jsonProvider(new JacksonJsonProvider(objectMapper))
-			.mappingProvider(new JacksonMappingProvider(objectMapper))
-			.addOptions(SUPPRESS_EXCEPTIONS));
+		jsonFactory = objectMapper.getFactory();
 	}
 
-	PageJson parse(final String json) {
-		return new PageJson(parseContext.parse(json));
+	// Decodes the response straight from its bytes, as they're read - closing the stream once done
+	PageJson parse(final InputStream json) {
+		try (final var parser = jsonFactory.createParser(json)) {
+			return parse(parser);
+		} catch (final IOException e) {
+			throw new UncheckedIOException("Unable to parse Confluence response", e);
+		}
 	}
 
-	static class PageJson {
+	private static PageJson parse(final JsonParser parser) throws IOException {
+		parser.nextToken();
+
+		return readPage(parser);
+	}
+
+	// Reads a page - or a listing of pages, which shares the "_links" part with a page and has its pages
+	// as "results"
+	private static PageJson readPage(final JsonParser parser) throws IOException {
+		final var pageJson = new PageJson();
+
+		readObject(parser, fieldName -> {
+			switch (fieldName) {
+				case "id" -> pageJson.id = parser.getValueAsString();
+				case "title" -> pageJson.title = parser.getValueAsString();
+				case "body" -> readObject(parser, bodyFieldName -> {
+					if ("storage".equals(bodyFieldName)) {
+						readObject(parser, storageFieldName -> {
+							if ("value".equals(storageFieldName)) {
+								pageJson.body = parser.getValueAsString();
+							} else {
+								parser.skipChildren();
+							}
+						});
+					} else {
+						parser.skipChildren();
+					}
+				});
+				case "version" -> readObject(parser, versionFieldName -> {
+					if ("when".equals(versionFieldName)) {
+						pageJson.updatedAt = parser.getValueAsString();
+					} else {
+						parser.skipChildren();
+					}
+				});
+				case "_links" -> readObject(parser, linkName -> {
+					switch (linkName) {
+						case "base" -> pageJson.baseUrl = parser.getValueAsString();
+						case "webui" -> pageJson.path = parser.getValueAsString();
+						case "next" -> pageJson.next = parser.getValueAsString();
+						default -> parser.skipChildren();
+					}
+				});
+				case "ancestors" -> pageJson.ancestorIds = readArray(parser, () -> readPage(parser).id).stream()
+					.filter(Objects::nonNull)
+					.toList();
+				case "results" -> pageJson.results = readArray(parser, () -> readPage(parser));
+				default -> parser.skipChildren();
+			}
+		});
+
+		return pageJson;
+	}
+
+	// Calls the field reader for each field of the current object, positioned at the value of the field.
+	// The field reader is expected to consume the whole value, e.g. by skipping it
+	private static void readObject(final JsonParser parser, final FieldReader fieldReader) throws IOException {
+		if (parser.currentToken() != START_OBJECT) {
+			parser.skipChildren();
+			return;
+		}
+
+		while (parser.nextToken() == FIELD_NAME) {
+			final var fieldName = parser.currentName();
+			parser.nextToken();
+
+			fieldReader.read(fieldName);
+		}
+	}
+
+	private static <T> List<T> readArray(final JsonParser parser, final ElementReader<T> elementReader) throws IOException {
+		if (parser.currentToken() != START_ARRAY) {
+			parser.skipChildren();
+			return List.of();
+		}
+
+		final var elements = new ArrayList<T>();
+		while (parser.nextToken() != END_ARRAY) {
+			elements.add(elementReader.read());
+		}
+		return elements;
+	}
+
+	@FunctionalInterface
+	private interface FieldReader {
+
+		void read(String fieldName) throws IOException;
+	}
 
-		private final DocumentContext documentContext;
+	@FunctionalInterface
+	private interface ElementReader<T> {
+
+		T read() throws IOException;
+	}
+
+	static class PageJson {
 
-		private PageJson(final DocumentContext documentContext) {
-			this.documentContext = documentContext;
+		private String id;
+		private String title;
+		private String body;
+		private String baseUrl;
+		private String path;
+		private String next;
+		private String updatedAt;
+		// Left as null when the content wasn't fetched with the "ancestors" expansion
+		private List<String> ancestorIds;
+		private List<PageJson> results;
+
+		private PageJson() {}
+
+		String getId() {
+			return id;
 		}
 
 		String getTitle() {
-			return getValue(TITLE);
+			return title;
 		}
 
 		String getBody() {
-			return getValue(BODY);
+			return body;
 		}
 
 		String getBaseUrl() {
-			return getValue(BASE_URL);
+			return baseUrl;
 		}
 
 		String getPath() {
-			return getValue(PATH);
+			return path;
 		}
 
 		List<String> getAncestorIds() {
-			return getValues(ANCESTOR_IDS);
+			return ofNullable(ancestorIds).orElse(List.of());
 		}
 
-		List<String> getChildIds() {
-			return getValues(CHILD_IDS);
+		String getUpdatedAt() {
+			return updatedAt;
 		}
 
-		String getUpdatedAt() {
-			return getValue(UPDATED_AT);
+		List<ListedPage> getListedPages() {
+			return getResults().stream()
+				.map(PageJson::toListedPage)
+				.toList();
+		}
+
+		// Gives access to the full content of each listed page, for listings made with the content expansions
+		List<PageJson> getResults() {
+			return ofNullable(results).orElse(List.of());
 		}
 
-		String getValue(final String expression) {
-			return documentContext.read(expression);
+		boolean hasNext() {
+			return next != null;
 		}
 
-		List<String> getValues(final String expression) {
-			return documentContext.read(expression);
+		private ListedPage toListedPage() {
+			return new ListedPage(id, updatedAt, getAncestorIds());
+		}
+	}
+
+	// The ancestor ids are only available when the listing was made with the "ancestors" expansion
+	record ListedPage(String id, String updatedAt, List<String> ancestorIds) {
+
+		ListedPage(final String id, final String updatedAt) {
+			this(id, updatedAt, List.of());
 		}
 	}
 }
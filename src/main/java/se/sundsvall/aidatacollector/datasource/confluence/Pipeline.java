@@ -0,0 +1,218 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static java.util.Optional.ofNullable;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+// A chain of stages, each with its own workers (on virtual threads) taking items from a bounded queue and handing
+// results on to the queue of the next stage. A stage that falls behind fills up its queue, which blocks the stages
+// before it - all the way back to the source - instead of letting items pile up in memory.
+//
+// Each stage exposes the number of items waiting in its queue, and the number of items it has processed, as
+// meters tagged with the name of the stage
+final class Pipeline<I> {
+
+	private static final Logger LOG = LoggerFactory.getLogger(Pipeline.class);
+
+	// Marks the end of the items in a queue - each worker of the stage stops when it takes one
+	private static final Object END = new Object();
+
+	private final List<StageDefinition> stages;
+
+	private Pipeline(final List<StageDefinition> stages) {
+		this.stages = stages;
+	}
+
+	static <I> Builder<I, I> builder(final String name, final MeterRegistry meterRegistry, final Tags tags) {
+		return new Builder<>(name, meterRegistry, tags, new ArrayList<>());
+	}
+
+	// Runs the pipeline, with the given source submitting items to the first stage on the calling thread - blocking
+	// whenever the first stage is full - and waits for all items to pass through the stages. Runs are expected to
+	// be made one at a time
+	List<StageStats> run(final Consumer<Consumer<I>> source) {
+		final var startedAt = System.nanoTime();
+		final var processedBefore = stages.stream()
+			.map(stage -> stage.processed.count())
+			.toList();
+
+		// Carry the MDC (request id etc.) over to the virtual threads
+		final var contextMap = MDC.getCopyOfContextMap();
+
+		final var queues = stages.stream()
+			.<BlockingQueue<Object>>map(stage -> stage.queue = new ArrayBlockingQueue<>(stage.queueCapacity))
+			.toList();
+
+		try (final var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (var i = 0; i < stages.size(); i++) {
+				final var stage = stages.get(i);
+				final var queue = queues.get(i);
+				final var next = i + 1 < stages.size() ? stages.get(i + 1) : null;
+				final var nextQueue = i + 1 < queues.size() ? queues.get(i + 1) : null;
+				final var runningWorkers = new AtomicInteger(stage.concurrency);
+
+				for (var worker = 0; worker < stage.concurrency; worker++) {
+					executor.execute(() -> {
+						ofNullable(contextMap).ifPresent(MDC::setContextMap);
+						try {
+							work(stage, queue, nextQueue == null ? _ -> {} : item -> put(next, nextQueue, item));
+						} finally {
+							// Once the last worker of the stage is done, so are the items for the next one
+							if (runningWorkers.decrementAndGet() == 0 && nextQueue != null) {
+								end(next, nextQueue);
+							}
+							MDC.clear();
+						}
+					});
+				}
+			}
+
+			try {
+				source.accept(item -> put(stages.getFirst(), queues.getFirst(), item));
+			} finally {
+				end(stages.getFirst(), queues.getFirst());
+			}
+		} finally {
+			stages.forEach(stage -> stage.queue = null);
+		}
+
+		final var elapsedNanos = System.nanoTime() - startedAt;
+		final var stageStats = new ArrayList<StageStats>(stages.size());
+		for (var i = 0; i < stages.size(); i++) {
+			stageStats.add(new StageStats(stages.get(i).name, (long) stages.get(i).processed.count() - processedBefore.get(i).longValue(), elapsedNanos));
+		}
+		return stageStats;
+	}
+
+	private static void work(final StageDefinition stage, final BlockingQueue<Object> queue, final Consumer<Object> next) {
+		while (true) {
+			final var item = take(stage, queue);
+			if (item == END) {
+				return;
+			}
+
+			try {
+				stage.processor.accept(item, next);
+			} catch (final RuntimeException e) {
+				// The processors are expected to deal with their own failures - this merely keeps the stage going
+				LOG.warn("Unable to process an item in pipeline stage {}", stage.name, e);
+			} finally {
+				stage.processed.increment();
+			}
+		}
+	}
+
+	private static void put(final StageDefinition stage, final BlockingQueue<Object> queue, final Object item) {
+		try {
+			queue.put(item);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new IllegalStateException("Interrupted while waiting for room in pipeline stage " + stage.name, e);
+		}
+	}
+
+	private static Object take(final StageDefinition stage, final BlockingQueue<Object> queue) {
+		try {
+			return queue.take();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new IllegalStateException("Interrupted while waiting for items in pipeline stage " + stage.name, e);
+		}
+	}
+
+	private static void end(final StageDefinition stage, final BlockingQueue<Object> queue) {
+		for (var i = 0; i < stage.concurrency; i++) {
+			try {
+				queue.put(END);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+
+				throw new IllegalStateException("Interrupted while ending pipeline stage " + stage.name, e);
+			}
+		}
+	}
+
+	static final class Builder<I, T> {
+
+		private final String name;
+		private final MeterRegistry meterRegistry;
+		private final Tags tags;
+		private final List<StageDefinition> stages;
+
+		private Builder(final String name, final MeterRegistry meterRegistry, final Tags tags, final List<StageDefinition> stages) {
+			this.name = name;
+			this.meterRegistry = meterRegistry;
+			this.tags = tags;
+			this.stages = stages;
+		}
+
+		// Adds a stage, passing on any number of results for each item to the next stage
+		@SuppressWarnings("unchecked")
+		<O> Builder<I, O> stage(final String stageName, final int concurrency, final int queueCapacity, final BiConsumer<T, Consumer<O>> processor) {
+			stages.add(new StageDefinition(stageName, concurrency, queueCapacity, (BiConsumer<Object, Consumer<Object>>) (BiConsumer<?, ?>) processor, meterRegistry, name, tags));
+
+			return (Builder<I, O>) this;
+		}
+
+		// Adds the last stage, consuming the items without passing anything on
+		Pipeline<I> sink(final String stageName, final int concurrency, final int queueCapacity, final Consumer<T> processor) {
+			return this.<Void>stage(stageName, concurrency, queueCapacity, (item, _) -> processor.accept(item)).build();
+		}
+
+		private Pipeline<I> build() {
+			return new Pipeline<>(List.copyOf(stages));
+		}
+	}
+
+	record StageStats(String stage, long processed, long elapsedNanos) {
+
+		double throughputPerSecond() {
+			return elapsedNanos > 0 ? processed * 1_000_000_000d / elapsedNanos : 0;
+		}
+	}
+
+	private static final class StageDefinition {
+
+		private final String name;
+		private final int concurrency;
+		private final int queueCapacity;
+		private final BiConsumer<Object, Consumer<Object>> processor;
+		private final Counter processed;
+		// The queue of the current run, if any
+		private volatile BlockingQueue<Object> queue;
+
+		private StageDefinition(final String name, final int concurrency, final int queueCapacity, final BiConsumer<Object, Consumer<Object>> processor,
+			final MeterRegistry meterRegistry, final String pipelineName, final Tags tags) {
+			this.name = name;
+			this.concurrency = concurrency;
+			this.queueCapacity = queueCapacity;
+			this.processor = processor;
+
+			final var stageTags = tags.and("stage", name);
+			Gauge.builder(pipelineName + ".queued", this, stage -> ofNullable(stage.queue).map(BlockingQueue::size).orElse(0))
+				.description("Number of items waiting to be processed by the stage")
+				.tags(stageTags)
+				.register(meterRegistry);
+			processed = Counter.builder(pipelineName + ".processed")
+				.description("Number of items processed by the stage")
+				.tags(stageTags)
+				.register(meterRegistry);
+		}
+	}
+}
@@ -0,0 +1,121 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Routes pages to Eneo groups, and sorts out blacklisted pages, for a single municipality. Compiled once
+// from the configured mappings and blacklisted root ids, so that resolving a page only costs a primitive
+// set lookup per ancestor
+final class RoutingIndex {
+
+	static final long NOT_AN_ID = -1L;
+
+	private final Set<String> rootIds;
+	private final LongHashSet mappedRootIds;
+	private final LongHashSet blacklistedIds;
+	// Only consulted once a page (or ancestor) is known to be a mapped root
+	private final Map<Long, String> eneoGroupIds;
+
+	private RoutingIndex(final Set<String> rootIds, final LongHashSet mappedRootIds, final LongHashSet blacklistedIds, final Map<Long, String> eneoGroupIds) {
+		this.rootIds = rootIds;
+		this.mappedRootIds = mappedRootIds;
+		this.blacklistedIds = blacklistedIds;
+		this.eneoGroupIds = eneoGroupIds;
+	}
+
+	// Takes the mappings from Confluence root id to Eneo group id, and the blacklisted page ids
+	static RoutingIndex compile(final Map<String, String> mappings, final Collection<String> blacklistedIds) {
+		return new RoutingIndex(Set.copyOf(mappings.keySet()),
+			LongHashSet.of(toIds(mappings.keySet())),
+			LongHashSet.of(toIds(blacklistedIds)),
+			mappings.entrySet().stream()
+				.collect(toUnmodifiableMap(mapping -> toId(mapping.getKey()), Map.Entry::getValue)));
+	}
+
+	Set<String> rootIds() {
+		return rootIds;
+	}
+
+	boolean isMappedRoot(final String pageId) {
+		return isMappedRoot(parseId(pageId));
+	}
+
+	boolean isBlacklisted(final String pageId) {
+		return isBlacklisted(parseId(pageId));
+	}
+
+	boolean isBlacklisted(final String pageId, final List<String> ancestorIds) {
+		if (isBlacklisted(pageId)) {
+			return true;
+		}
+
+		for (final var ancestorId : ancestorIds) {
+			if (isBlacklisted(ancestorId)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// Returns the Eneo group of the page itself, if it is a mapped root, or else of its nearest mapped
+	// ancestor - or null if there is none
+	String getEneoGroupId(final String pageId, final List<String> ancestorIds) {
+		final var id = parseId(pageId);
+		if (isMappedRoot(id)) {
+			return eneoGroupIds.get(id);
+		}
+
+		// Confluence lists the ancestors from the top down, so walk them backwards
+		for (var i = ancestorIds.size() - 1; i >= 0; i--) {
+			final var ancestorId = parseId(ancestorIds.get(i));
+			if (isMappedRoot(ancestorId)) {
+				return eneoGroupIds.get(ancestorId);
+			}
+		}
+		return null;
+	}
+
+	// Parses a (numeric) Confluence page id, without throwing or allocating. Anything that isn't a page
+	// id is returned as NOT_AN_ID, which is never part of the index
+	static long parseId(final String pageId) {
+		if (pageId == null || pageId.isEmpty() || pageId.length() > 18) {
+			return NOT_AN_ID;
+		}
+
+		var id = 0L;
+		for (var i = 0; i < pageId.length(); i++) {
+			final var digit = pageId.charAt(i) - '0';
+			if (digit < 0 || digit > 9) {
+				return NOT_AN_ID;
+			}
+			id = id * 10 + digit;
+		}
+		return id;
+	}
+
+	private boolean isMappedRoot(final long pageId) {
+		return pageId != NOT_AN_ID && mappedRootIds.contains(pageId);
+	}
+
+	private boolean isBlacklisted(final long pageId) {
+		return pageId != NOT_AN_ID && blacklistedIds.contains(pageId);
+	}
+
+	private static long[] toIds(final Collection<String> pageIds) {
+		return pageIds.stream()
+			.mapToLong(RoutingIndex::toId)
+			.toArray();
+	}
+
+	private static long toId(final String pageId) {
+		final var id = parseId(pageId);
+		if (id == NOT_AN_ID) {
+			throw new IllegalArgumentException("Confluence page ids must be numeric, got '%s'".formatted(pageId));
+		}
+		return id;
+	}
+}
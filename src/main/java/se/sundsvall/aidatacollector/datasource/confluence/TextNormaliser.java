@@ -0,0 +1,77 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static java.util.Optional.ofNullable;
+
+import java.util.List;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties;
+import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.StorageFormatText;
+
+// Turns the body of a page into the text that is sent to Eneo - either as is, or normalised according to the
+// normalisation settings of the municipality, to keep text without any retrieval value out of the index
+class TextNormaliser {
+
+	// Used when no normalisation is configured, passing the text of the pages on as is
+	static final TextNormaliser NONE = new TextNormaliser(null, List.of());
+
+	private static final Logger LOG = LoggerFactory.getLogger(TextNormaliser.class);
+	private static final Pattern REPEATED_WHITESPACE = Pattern.compile("\\s{2,}");
+
+	private final StorageFormatText.Options options;
+	private final List<Pattern> boilerplatePatterns;
+
+	private TextNormaliser(final StorageFormatText.Options options, final List<Pattern> boilerplatePatterns) {
+		this.options = options;
+		this.boilerplatePatterns = boilerplatePatterns;
+	}
+
+	static TextNormaliser create(final ConfluenceIntegrationProperties.Environment.Normalisation normalisation) {
+		if (normalisation == null) {
+			return NONE;
+		}
+
+		return new TextNormaliser(new StorageFormatText.Options(normalisation.droppedMacros(), normalisation.compactTables()),
+			normalisation.boilerplatePatterns().stream()
+				.map(Pattern::compile)
+				.toList());
+	}
+
+	String normalise(final Page page) {
+		if (options == null) {
+			return page.bodyAsText();
+		}
+
+		final var text = stripBoilerplate(StorageFormatText.toText(page.getBody(), options));
+
+		// Compared with the body as stored in Confluence, so that the text isn't extracted a second time just for this
+		LOG.debug("The text of page {} was normalised from a body of {} to {} characters (municipalityId: {})",
+			page.getPageId(), ofNullable(page.getBody()).map(String::length).orElse(0), text.length(), page.getMunicipalityId());
+
+		return text;
+	}
+
+	// Normalises the text of each section of the page, split at the headings up to the given level
+	List<StorageFormatText.Section> normaliseSections(final Page page, final int maxHeadingLevel) {
+		return StorageFormatText.toSections(page.getBody(), ofNullable(options).orElse(StorageFormatText.Options.DEFAULT), maxHeadingLevel).stream()
+			.map(section -> new StorageFormatText.Section(section.heading(), stripBoilerplate(section.text())))
+			// Nothing may be left of a section that was all boilerplate
+			.filter(section -> !section.text().isEmpty())
+			.toList();
+	}
+
+	private String stripBoilerplate(final String text) {
+		if (boilerplatePatterns.isEmpty()) {
+			return text;
+		}
+
+		var strippedText = text;
+		for (final var boilerplatePattern : boilerplatePatterns) {
+			strippedText = boilerplatePattern.matcher(strippedText).replaceAll(" ");
+		}
+		// Stripping boilerplate may leave gaps behind
+		return REPEATED_WHITESPACE.matcher(strippedText).replaceAll(" ").strip();
+	}
+}
@@ -0,0 +1,119 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static java.util.Optional.ofNullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import org.slf4j.MDC;
+
+// Controls how page trees are traversed - either sequentially on the calling thread, or in parallel
+// on virtual threads with an upper bound on the number of concurrent Confluence/Eneo calls
+class Traversal implements AutoCloseable {
+
+	static final Traversal SEQUENTIAL = new Traversal(null, null);
+
+	private final ExecutorService executor;
+	private final Semaphore permits;
+
+	private Traversal(final ExecutorService executor, final Semaphore permits) {
+		this.executor = executor;
+		this.permits = permits;
+	}
+
+	static Traversal create(final int maxConcurrency) {
+		if (maxConcurrency <= 1) {
+			return SEQUENTIAL;
+		}
+
+		return new Traversal(Executors.newVirtualThreadPerTaskExecutor(), new Semaphore(maxConcurrency));
+	}
+
+	boolean isParallel() {
+		return executor != null;
+	}
+
+	// Runs the given tasks and waits for all of them to complete. Callers must not hold a permit while
+	// doing so, since that could starve the tasks being waited for
+	void forkAndJoin(final Collection<Runnable> tasks) {
+		if (!isParallel()) {
+			tasks.forEach(Runnable::run);
+			return;
+		}
+
+		// Carry the MDC (request id etc.) over to the virtual threads
+		final var contextMap = MDC.getCopyOfContextMap();
+
+		final var futures = new ArrayList<Future<?>>(tasks.size());
+		for (final var task : tasks) {
+			futures.add(executor.submit(() -> {
+				ofNullable(contextMap).ifPresent(MDC::setContextMap);
+				try {
+					task.run();
+				} finally {
+					MDC.clear();
+				}
+			}));
+		}
+
+		futures.forEach(Traversal::join);
+	}
+
+	<T> T withPermit(final Supplier<T> supplier) {
+		if (!isParallel()) {
+			return supplier.get();
+		}
+
+		acquirePermit();
+		try {
+			return supplier.get();
+		} finally {
+			permits.release();
+		}
+	}
+
+	void withPermit(final Runnable runnable) {
+		withPermit(() -> {
+			runnable.run();
+			return null;
+		});
+	}
+
+	@Override
+	public void close() {
+		if (isParallel()) {
+			executor.close();
+		}
+	}
+
+	private void acquirePermit() {
+		try {
+			permits.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new IllegalStateException("Interrupted while waiting for a traversal permit", e);
+		}
+	}
+
+	private static void join(final Future<?> future) {
+		try {
+			future.get();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new IllegalStateException("Interrupted while waiting for a sub-tree to be processed", e);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof final RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+}
@@ -0,0 +1,13 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+// What is known about every page of a tree while walking it top-down - resolved once, from the ancestors of
+// the root, and then passed on down the tree instead of being resolved from the ancestors of each page
+record TreeContext(String eneoGroupId, boolean blacklisted) {
+
+	// Used when nothing is known about the tree, e.g. for webhook-triggered syncs of single pages
+	static final TreeContext UNKNOWN = new TreeContext(null, false);
+
+	boolean isKnown() {
+		return eneoGroupId != null;
+	}
+}
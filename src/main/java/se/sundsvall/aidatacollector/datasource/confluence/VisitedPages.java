@@ -0,0 +1,188 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import java.util.Arrays;
+
+// Keeps track of the pages visited during a single run, so that pages showing up more than once (under
+// several roots, in shifting listings or in transient cycles) are only processed once. The numeric page ids
+// are stored as a compressed bitmap - the high bits of an id select a container, in which the low 16 bits
+// are kept either as a sorted array or, once that gets dense, as a plain bitmap. That keeps the footprint
+// at a few bytes per page, even for sparse ids
+final class VisitedPages {
+
+	// Used outside of runs, where nothing is tracked and every page counts as unvisited
+	static final VisitedPages NONE = new VisitedPages(false);
+
+	private static final int LOW_BITS = 16;
+	private static final int LOW_MASK = (1 << LOW_BITS) - 1;
+	private static final long FREE = -1L;
+
+	private final boolean tracking;
+
+	private long[] keys;
+	private Container[] containers;
+	private int containerCount;
+
+	private long visitedCount;
+	private long revisitedCount;
+	private long untrackedCount;
+
+	private VisitedPages(final boolean tracking) {
+		this.tracking = tracking;
+
+		keys = new long[tracking ? 16 : 0];
+		containers = new Container[keys.length];
+		Arrays.fill(keys, FREE);
+	}
+
+	static VisitedPages create() {
+		return new VisitedPages(true);
+	}
+
+	boolean isTracking() {
+		return tracking;
+	}
+
+	// Returns true if the page hasn't been visited before, marking it as visited
+	synchronized boolean visit(final String pageId) {
+		if (!tracking) {
+			return true;
+		}
+
+		final var id = RoutingIndex.parseId(pageId);
+		if (id == RoutingIndex.NOT_AN_ID) {
+			// Can't be tracked, so it has to be processed
+			untrackedCount++;
+			return true;
+		}
+
+		if (getContainer(id >>> LOW_BITS).add((int) (id & LOW_MASK))) {
+			visitedCount++;
+			return true;
+		}
+
+		revisitedCount++;
+		return false;
+	}
+
+	synchronized long visitedCount() {
+		return visitedCount;
+	}
+
+	synchronized long revisitedCount() {
+		return revisitedCount;
+	}
+
+	synchronized long untrackedCount() {
+		return untrackedCount;
+	}
+
+	// An estimate of the memory used to keep track of the visited pages
+	synchronized long sizeInBytes() {
+		var sizeInBytes = keys.length * (long) (Long.BYTES + Integer.BYTES);
+		for (var i = 0; i < containers.length; i++) {
+			if (containers[i] != null) {
+				sizeInBytes += containers[i].sizeInBytes();
+			}
+		}
+		return sizeInBytes;
+	}
+
+	private Container getContainer(final long key) {
+		var index = mix(key) & (keys.length - 1);
+		while (keys[index] != FREE) {
+			if (keys[index] == key) {
+				return containers[index];
+			}
+			index = (index + 1) & (keys.length - 1);
+		}
+
+		// Keep the load factor at or below 0.5, growing the table as needed
+		if ((containerCount + 1) * 2 > keys.length) {
+			grow();
+			return getContainer(key);
+		}
+
+		keys[index] = key;
+		containers[index] = new Container();
+		containerCount++;
+		return containers[index];
+	}
+
+	private void grow() {
+		final var oldKeys = keys;
+		final var oldContainers = containers;
+
+		keys = new long[oldKeys.length * 2];
+		containers = new Container[keys.length];
+		Arrays.fill(keys, FREE);
+
+		for (var i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != FREE) {
+				var index = mix(oldKeys[i]) & (keys.length - 1);
+				while (keys[index] != FREE) {
+					index = (index + 1) & (keys.length - 1);
+				}
+				keys[index] = oldKeys[i];
+				containers[index] = oldContainers[i];
+			}
+		}
+	}
+
+	private static int mix(final long key) {
+		final var hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private static final class Container {
+
+		// Past this size, a sorted array of 16-bit values takes up more room than a bitmap (8 KB)
+		private static final int MAX_SORTED_SIZE = 4096;
+
+		private char[] values = new char[4];
+		private long[] bits;
+		private int size;
+
+		boolean add(final int value) {
+			if (bits != null) {
+				final var mask = 1L << value;
+				if ((bits[value >>> 6] & mask) != 0) {
+					return false;
+				}
+				bits[value >>> 6] |= mask;
+				size++;
+				return true;
+			}
+
+			final var index = Arrays.binarySearch(values, 0, size, (char) value);
+			if (index >= 0) {
+				return false;
+			}
+
+			if (size == MAX_SORTED_SIZE) {
+				toBitmap();
+				return add(value);
+			}
+
+			final var insertionPoint = -index - 1;
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Math.min(size * 2, MAX_SORTED_SIZE));
+			}
+			System.arraycopy(values, insertionPoint, values, insertionPoint + 1, size - insertionPoint);
+			values[insertionPoint] = (char) value;
+			size++;
+			return true;
+		}
+
+		long sizeInBytes() {
+			return bits != null ? bits.length * (long) Long.BYTES : values.length * (long) Character.BYTES;
+		}
+
+		private void toBitmap() {
+			bits = new long[(1 << LOW_BITS) / Long.SIZE];
+			for (var i = 0; i < size; i++) {
+				bits[values[i] >>> 6] |= 1L << values[i];
+			}
+			values = null;
+		}
+	}
+}
@@ -0,0 +1,224 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+// Limits the number of concurrent requests to a Confluence instance, adapting the limit to how the instance copes
+// (AIMD) - raising it additively while requests succeed quickly, and cutting it multiplicatively when latency rises
+// well above its baseline, when requests fail, or when the instance throttles us. A throttled instance also gets
+// no requests at all for as long as it asks for
+final class AdaptiveConcurrencyLimiter {
+
+	// How much of the limit is kept when latency rises, and when requests fail or are throttled
+	static final double LATENCY_BACKOFF = 0.9;
+	static final double FAILURE_BACKOFF = 0.5;
+
+	// How quickly the baseline latency follows the latency of the requests
+	private static final double BASELINE_SMOOTHING = 0.05;
+
+	private final double minLimit;
+	private final double maxLimit;
+	private final double latencyTolerance;
+	private final LongSupplier nanoTime;
+	// The requests waiting for a permit, blocking and reactive alike, so that neither kind can starve the other
+	private final Deque<Waiter> waiters = new ArrayDeque<>();
+
+	private double limit;
+	private int inFlight;
+	private double baselineLatencyNanos;
+	private long pausedUntilNanos;
+	private boolean paused;
+
+	AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final double latencyTolerance) {
+		this(initialLimit, minLimit, maxLimit, latencyTolerance, System::nanoTime);
+	}
+
+	// Goes by the given time source, rather than the system's - for pauses, and the latencies of the requests
+	AdaptiveConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit, final double latencyTolerance, final LongSupplier nanoTime) {
+		this.minLimit = minLimit;
+		this.maxLimit = Math.max(minLimit, maxLimit);
+		this.latencyTolerance = latencyTolerance;
+		this.nanoTime = nanoTime;
+
+		limit = Math.clamp(initialLimit, this.minLimit, this.maxLimit);
+	}
+
+	// Waits until a request may be made - when fewer requests than the limit are in flight, the instance isn't
+	// paused, and the requests waiting before it have had their turn. Each acquired permit must be released by
+	// exactly one of onSuccess, onFailure, onThrottled or onUnused
+	synchronized void acquire() throws InterruptedException {
+		final var waiter = enqueue(null);
+		try {
+			while (!waiter.acquired) {
+				final var pausedForNanos = pausedForNanos();
+				if (pausedForNanos > 0) {
+					wait(Math.max(1, Duration.ofNanos(pausedForNanos).toMillis()));
+				} else {
+					wait();
+				}
+				// The pause may have run out while waiting, without any permit being released
+				grantWaiters();
+			}
+		} catch (final InterruptedException e) {
+			cancel(waiter);
+			throw e;
+		}
+	}
+
+	// As acquire, but without blocking - the given callback is run once the permit is acquired, while holding the
+	// limiter, so it must only hand the permit over. A waiter that is no longer interested must be cancelled
+	synchronized Waiter acquire(final Runnable onAcquired) {
+		return enqueue(onAcquired);
+	}
+
+	// Gives up waiting for a permit - releasing it, if it was acquired before the waiter had a chance to use it
+	synchronized void cancel(final Waiter waiter) {
+		if (!waiters.remove(waiter) && waiter.acquired) {
+			release();
+			grantWaiters();
+		}
+	}
+
+	// Acquires a permit only if one is available right away - never while the instance is paused, the limit is
+	// reached, or other requests are waiting for a permit
+	synchronized boolean tryAcquire() {
+		grantWaiters();
+		if (pausedForNanos() > 0 || !waiters.isEmpty() || inFlight >= (int) limit) {
+			return false;
+		}
+
+		inFlight++;
+		return true;
+	}
+
+	synchronized void onSuccess(final long latencyNanos) {
+		// Only a limit that is actually used up is raised, so that it doesn't grow without bounds while idle
+		final var limitReached = inFlight >= (int) limit;
+		release();
+
+		if (baselineLatencyNanos == 0) {
+			baselineLatencyNanos = latencyNanos;
+		}
+
+		if (latencyNanos > baselineLatencyNanos * latencyTolerance) {
+			decrease(LATENCY_BACKOFF);
+		} else if (limitReached) {
+			// About one more request in flight per round trip of the whole limit
+			limit = Math.min(maxLimit, limit + 1 / limit);
+		}
+
+		baselineLatencyNanos += BASELINE_SMOOTHING * (latencyNanos - baselineLatencyNanos);
+		grantWaiters();
+	}
+
+	synchronized void onFailure() {
+		release();
+		decrease(FAILURE_BACKOFF);
+		grantWaiters();
+	}
+
+	synchronized void onThrottled(final Duration retryAfter) {
+		release();
+		decrease(FAILURE_BACKOFF);
+
+		// Hold back all requests until the instance is willing to take them again - and then let the waiting ones
+		// through, even if no permit is released by then
+		final var retryAt = nanoTime.getAsLong() + retryAfter.toNanos();
+		if (!paused || retryAt - pausedUntilNanos > 0) {
+			pausedUntilNanos = retryAt;
+		}
+		paused = true;
+		CompletableFuture.delayedExecutor(retryAfter.toNanos(), NANOSECONDS).execute(this::wakeUp);
+	}
+
+	// Releases a permit that was never used for a request
+	synchronized void onUnused() {
+		release();
+		grantWaiters();
+	}
+
+	long nanoTime() {
+		return nanoTime.getAsLong();
+	}
+
+	synchronized int limit() {
+		return (int) limit;
+	}
+
+	synchronized int inFlight() {
+		return inFlight;
+	}
+
+	synchronized int waiting() {
+		return waiters.size();
+	}
+
+	private synchronized void wakeUp() {
+		grantWaiters();
+	}
+
+	private Waiter enqueue(final Runnable onAcquired) {
+		final var waiter = new Waiter(onAcquired);
+		waiters.addLast(waiter);
+		grantWaiters();
+
+		return waiter;
+	}
+
+	// Hands out the permits available to the waiters, in the order they asked for them
+	private void grantWaiters() {
+		if (pausedForNanos() > 0) {
+			return;
+		}
+
+		var granted = false;
+		while (!waiters.isEmpty() && inFlight < (int) limit) {
+			final var waiter = waiters.removeFirst();
+			inFlight++;
+			waiter.acquired = true;
+			if (waiter.onAcquired != null) {
+				waiter.onAcquired.run();
+			}
+			granted = true;
+		}
+		if (granted) {
+			notifyAll();
+		}
+	}
+
+	private long pausedForNanos() {
+		if (paused) {
+			final var remainingNanos = pausedUntilNanos - nanoTime.getAsLong();
+			if (remainingNanos > 0) {
+				return remainingNanos;
+			}
+			paused = false;
+		}
+		return 0;
+	}
+
+	// Releases a permit - with the waiters only let through once the limit has been adjusted to the outcome
+	private void release() {
+		inFlight--;
+	}
+
+	private void decrease(final double backoff) {
+		limit = Math.max(minLimit, limit * backoff);
+	}
+
+	// A request waiting for a permit - a blocking one, or a reactive one that is called back once it has it
+	static final class Waiter {
+
+		private final Runnable onAcquired;
+		private boolean acquired;
+
+		private Waiter(final Runnable onAcquired) {
+			this.onAcquired = onAcquired;
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.Optional.ofNullable;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+// Passes the requests of a Confluence client through the adaptive concurrency limiter of its Confluence instance,
+// and retries requests that were throttled (429, or 503 with Retry-After) once the instance is willing to take
+// them again. Any other server error, as well as a request that fails outright (I/O errors and timeouts), counts
+// as the instance being overloaded too - cutting the limit, but without a retry. The requests of the reactive
+// client are passed through the same limiter, by the exchange filter - waiting their turn along with the blocking
+// ones, without holding up a thread
+final class AdaptiveConcurrencyLimiting implements Capability {
+
+	static final Capability NONE = new Capability() {};
+
+	static final String RETRY_AFTER = "Retry-After";
+	// How long to back off when a throttled response doesn't say
+	static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+	private static final Logger LOG = LoggerFactory.getLogger(AdaptiveConcurrencyLimiting.class);
+
+	private final String baseUrl;
+	private final AdaptiveConcurrencyLimiter limiter;
+	private final int maxRetries;
+	private final Duration maxRetryAfter;
+
+	AdaptiveConcurrencyLimiting(final String baseUrl, final AdaptiveConcurrencyLimiter limiter, final int maxRetries, final Duration maxRetryAfter) {
+		this.baseUrl = baseUrl;
+		this.limiter = limiter;
+		this.maxRetries = maxRetries;
+		this.maxRetryAfter = maxRetryAfter;
+	}
+
+	static Capability create(final String baseUrl, final ConfluenceIntegrationProperties.Environment.AdaptiveConcurrency adaptiveConcurrency) {
+		if (adaptiveConcurrency == null) {
+			return NONE;
+		}
+
+		return new AdaptiveConcurrencyLimiting(baseUrl, new AdaptiveConcurrencyLimiter(adaptiveConcurrency.initialLimit(), adaptiveConcurrency.minLimit(),
+			adaptiveConcurrency.maxLimit(), adaptiveConcurrency.latencyTolerance()), adaptiveConcurrency.maxRetries(), adaptiveConcurrency.maxRetryAfter());
+	}
+
+	@Override
+	public Client enrich(final Client client) {
+		return (request, options) -> execute(client, request, options);
+	}
+
+	ExchangeFilterFunction exchangeFilter() {
+		return (request, next) -> exchange(request, next, 0);
+	}
+
+	AdaptiveConcurrencyLimiter limiter() {
+		return limiter;
+	}
+
+	// Acquires a permit for an extra request (a hedge) only if one is available right away - it must then be either
+	// used, with executeAcquired, or released, with release
+	boolean tryAcquire() {
+		return limiter.tryAcquire();
+	}
+
+	void release() {
+		limiter.onUnused();
+	}
+
+	// Makes a request with an acquired permit, releasing it according to the outcome - without any retry
+	Response executeAcquired(final Client client, final Request request, final Request.Options options) throws IOException {
+		final var startedAt = limiter.nanoTime();
+		final Response response;
+		try {
+			response = client.execute(request, options);
+		} catch (final IOException | RuntimeException e) {
+			limiter.onFailure();
+			throw e;
+		}
+
+		if (isThrottled(response)) {
+			final var retryAfter = getRetryAfter(response, Instant.now());
+			limiter.onThrottled(retryAfter);
+
+			LOG.info("Confluence at {} throttled a request, backing off for {} with the concurrency limit lowered to {}", baseUrl, retryAfter, limiter.limit());
+		} else if (isServerError(response)) {
+			limiter.onFailure();
+
+			LOG.info("Confluence at {} responded with status {}, with the concurrency limit lowered to {}", baseUrl, response.status(), limiter.limit());
+		} else {
+			limiter.onSuccess(limiter.nanoTime() - startedAt);
+		}
+		return response;
+	}
+
+	private Response execute(final Client client, final Request request, final Request.Options options) throws IOException {
+		for (var attempt = 0;; attempt++) {
+			acquire();
+
+			// Hedged requests release the permit themselves, with the attempt that used it
+			final var response = client instanceof final HedgedRequests.HedgingClient hedgingClient && hedgingClient.isLimitedBy(this)
+				? client.execute(request, options)
+				: executeAcquired(client, request, options);
+			if (!isThrottled(response)) {
+				return response;
+			}
+
+			if (attempt >= maxRetries) {
+				// Out of retries - let the error decoder deal with it, as with any other error response
+				LOG.info("Confluence at {} still throttled a request after {} attempts", baseUrl, attempt + 1);
+				return response;
+			}
+			response.close();
+		}
+	}
+
+	private Mono<ClientResponse> exchange(final ClientRequest request, final ExchangeFunction next, final int attempt) {
+		return Mono.defer(() -> limiter.tryAcquire()
+			? exchangeAcquired(request, next, attempt)
+			: awaitPermit().then(Mono.defer(() -> exchangeAcquired(request, next, attempt))));
+	}
+
+	// Waits for a permit without holding up a thread - the limiter hands it over once it's this request's turn,
+	// in line with the blocking requests
+	private Mono<Void> awaitPermit() {
+		return Mono.create(sink -> {
+			final var waiter = limiter.acquire(() -> Schedulers.parallel().schedule(sink::success));
+			sink.onCancel(() -> limiter.cancel(waiter));
+		});
+	}
+
+	// As executeAcquired, but for a reactive request - the permit is released exactly once, whether the request
+	// succeeds, fails or is cancelled
+	private Mono<ClientResponse> exchangeAcquired(final ClientRequest request, final ExchangeFunction next, final int attempt) {
+		final var startedAt = limiter.nanoTime();
+		final var released = new AtomicBoolean();
+
+		return next.exchange(request)
+			.flatMap(response -> {
+				final var status = response.statusCode().value();
+				final var retryAfterHeader = response.headers().header(RETRY_AFTER).stream().findFirst();
+
+				if (isThrottled(status, retryAfterHeader.isPresent())) {
+					final var retryAfter = getRetryAfter(retryAfterHeader, Instant.now());
+					release(released, () -> limiter.onThrottled(retryAfter));
+
+					LOG.info("Confluence at {} throttled a request, backing off for {} with the concurrency limit lowered to {}", baseUrl, retryAfter, limiter.limit());
+
+					if (attempt >= maxRetries) {
+						LOG.info("Confluence at {} still throttled a request after {} attempts", baseUrl, attempt + 1);
+						return Mono.just(response);
+					}
+					return response.releaseBody().then(exchange(request, next, attempt + 1));
+				}
+
+				if (isServerError(status)) {
+					release(released, limiter::onFailure);
+
+					LOG.info("Confluence at {} responded with status {}, with the concurrency limit lowered to {}", baseUrl, status, limiter.limit());
+				} else {
+					release(released, () -> limiter.onSuccess(limiter.nanoTime() - startedAt));
+				}
+				return Mono.just(response);
+			})
+			.doOnError(_ -> release(released, limiter::onFailure))
+			.doOnCancel(() -> release(released, limiter::onUnused));
+	}
+
+	private static void release(final AtomicBoolean released, final Runnable release) {
+		if (released.compareAndSet(false, true)) {
+			release.run();
+		}
+	}
+
+	private void acquire() throws InterruptedIOException {
+		try {
+			limiter.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException("Interrupted while waiting to make a request to Confluence at " + baseUrl);
+		}
+	}
+
+	private static boolean isServerError(final Response response) {
+		return isServerError(response.status());
+	}
+
+	private static boolean isServerError(final int status) {
+		return status >= 500;
+	}
+
+	private static boolean isThrottled(final Response response) {
+		return isThrottled(response.status(), response.headers().containsKey(RETRY_AFTER));
+	}
+
+	private static boolean isThrottled(final int status, final boolean hasRetryAfter) {
+		return status == 429 || (status == 503 && hasRetryAfter);
+	}
+
+	// Retry-After is either a number of seconds, or an HTTP date - capped, so that a misbehaving instance can't
+	// hold up the requests for too long
+	Duration getRetryAfter(final Response response, final Instant now) {
+		return getRetryAfter(ofNullable(response.headers().get(RETRY_AFTER)).flatMap(values -> values.stream().findFirst()), now);
+	}
+
+	private Duration getRetryAfter(final Optional<String> retryAfterHeader, final Instant now) {
+		final var retryAfter = retryAfterHeader
+			.map(String::trim)
+			.map(value -> parseRetryAfter(value, now))
+			.orElse(DEFAULT_RETRY_AFTER);
+
+		return retryAfter.compareTo(maxRetryAfter) > 0 ? maxRetryAfter : retryAfter;
+	}
+
+	private static Duration parseRetryAfter(final String value, final Instant now) {
+		try {
+			if (value.chars().allMatch(Character::isDigit)) {
+				return Duration.ofSeconds(Long.parseLong(value));
+			}
+
+			final var retryAt = ZonedDateTime.parse(value, RFC_1123_DATE_TIME).toInstant();
+			return retryAt.isAfter(now) ? Duration.between(now, retryAt) : Duration.ZERO;
+		} catch (final NumberFormatException | DateTimeParseException _) {
+			return DEFAULT_RETRY_AFTER;
+		}
+	}
+}
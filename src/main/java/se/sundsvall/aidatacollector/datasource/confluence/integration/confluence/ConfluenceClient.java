@@ -2,29 +2,73 @@ package se.sundsvall.aidatacollector.datasource.confluence.integration.confluenc
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+import java.io.InputStream;
 import java.util.Optional;
 import org.springframework.cloud.openfeign.CollectionFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 
+// The responses are handed over as streams, to be decoded as they're read - each one must be closed by the caller
 public interface ConfluenceClient {
 
 	@GetMapping(
 		value = "/content/{pageId}?expand=version",
 		produces = APPLICATION_JSON_VALUE,
 		consumes = APPLICATION_JSON_VALUE)
-	Optional<String> getContentVersion(@PathVariable("pageId") String pageId);
+	Optional<InputStream> getContentVersion(@PathVariable("pageId") String pageId);
 
 	@CollectionFormat(feign.CollectionFormat.CSV)
 	@GetMapping(
 		value = "/content/{pageId}?expand=body.storage,ancestors,version",
 		produces = APPLICATION_JSON_VALUE,
 		consumes = APPLICATION_JSON_VALUE)
-	Optional<String> getContent(@PathVariable("pageId") String pageId);
+	Optional<InputStream> getContent(@PathVariable("pageId") String pageId);
 
+	@CollectionFormat(feign.CollectionFormat.CSV)
+	@GetMapping(
+		value = "/content/{pageId}?expand=body.storage,version",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	Optional<InputStream> getContentWithoutAncestors(@PathVariable("pageId") String pageId);
+
+	@GetMapping(
+		value = "/content/{pageId}?expand=ancestors",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	Optional<InputStream> getContentAncestors(@PathVariable("pageId") String pageId);
+
+	@GetMapping(
+		value = "/content/{pageId}/child/page?expand=version",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	Optional<InputStream> getChildren(@PathVariable("pageId") String pageId, @RequestParam("start") int start, @RequestParam("limit") int limit);
+
+	@CollectionFormat(feign.CollectionFormat.CSV)
+	@GetMapping(
+		value = "/content/{pageId}/descendant/page?expand=version,ancestors",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	Optional<InputStream> getDescendants(@PathVariable("pageId") String pageId, @RequestParam("start") int start, @RequestParam("limit") int limit);
+
+	@CollectionFormat(feign.CollectionFormat.CSV)
+	@GetMapping(
+		value = "/content?type=page&expand=body.storage,ancestors,version",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	Optional<InputStream> getSpaceContent(@RequestParam("spaceKey") String spaceKey, @RequestParam("start") int start, @RequestParam("limit") int limit);
+
+	@CollectionFormat(feign.CollectionFormat.CSV)
+	@GetMapping(
+		value = "/content/search?expand=body.storage,ancestors,version",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	Optional<InputStream> searchContent(@RequestParam("cql") String cql, @RequestParam("start") int start, @RequestParam("limit") int limit);
+
+	@CollectionFormat(feign.CollectionFormat.CSV)
 	@GetMapping(
-		value = "/content/{pageId}/child/page",
+		value = "/content/search?expand=version,ancestors",
 		produces = APPLICATION_JSON_VALUE,
 		consumes = APPLICATION_JSON_VALUE)
-	Optional<String> getChildren(@PathVariable("pageId") String pageId);
+	Optional<InputStream> search(@RequestParam("cql") String cql, @RequestParam("start") int start, @RequestParam("limit") int limit);
 }
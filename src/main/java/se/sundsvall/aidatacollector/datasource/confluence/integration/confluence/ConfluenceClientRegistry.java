@@ -2,6 +2,7 @@ package se.sundsvall.aidatacollector.datasource.confluence.integration.confluenc
 
 import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
 import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationConfiguration.CLIENT_ID;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationConfiguration.REACTIVE_SUFFIX;
 
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Component;
@@ -25,4 +26,14 @@ public class ConfluenceClientRegistry {
 
 		throw Problem.valueOf(INTERNAL_SERVER_ERROR, String.format("No Confluence client exists for municipalityId %s", municipalityId));
 	}
+
+	public ReactiveConfluenceClient getReactiveClient(final String municipalityId) {
+		final var clientBeanName = "%s.%s.%s".formatted(CLIENT_ID, municipalityId, REACTIVE_SUFFIX);
+
+		if (applicationContext.containsBean(clientBeanName)) {
+			return applicationContext.getBean(clientBeanName, ReactiveConfluenceClient.class);
+		}
+
+		throw Problem.valueOf(INTERNAL_SERVER_ERROR, String.format("No reactive Confluence client exists for municipalityId %s", municipalityId));
+	}
 }
@@ -2,8 +2,19 @@ package se.sundsvall.aidatacollector.datasource.confluence.integration.confluenc
 
 import static java.util.concurrent.TimeUnit.SECONDS;
 
+import feign.Capability;
 import feign.Request;
 import feign.auth.BasicAuthRequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
@@ -15,8 +26,17 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.Http11SslContextSpec;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import se.sundsvall.aidatacollector.configuration.HttpTransports;
 import se.sundsvall.dept44.configuration.feign.FeignConfiguration;
 import se.sundsvall.dept44.configuration.feign.decoder.ProblemErrorDecoder;
+import se.sundsvall.dept44.security.Truststore;
 
 @Configuration
 @Import(FeignConfiguration.class)
@@ -24,6 +44,7 @@ import se.sundsvall.dept44.configuration.feign.decoder.ProblemErrorDecoder;
 class ConfluenceIntegrationConfiguration {
 
 	static final String CLIENT_ID = "confluence";
+	static final String REACTIVE_SUFFIX = "reactive";
 	private static final Logger LOG = LoggerFactory.getLogger(ConfluenceIntegrationConfiguration.class);
 
 	ConfluenceIntegrationConfiguration() {
@@ -35,7 +56,18 @@ class ConfluenceIntegrationConfiguration {
 		final var binder = Binder.get(applicationContext.getEnvironment());
 		final var properties = binder.bind("integration.confluence", ConfluenceIntegrationProperties.class).get();
 
+		// Environments sharing a Confluence instance share its concurrency limiter and hedging as well
+		final var adaptiveConcurrencyLimitings = new HashMap<String, Capability>();
+		getSharedSettings(properties, "adaptive-concurrency", ConfluenceIntegrationProperties.Environment::adaptiveConcurrency)
+			.forEach((baseUrl, adaptiveConcurrency) -> adaptiveConcurrencyLimitings.put(baseUrl, AdaptiveConcurrencyLimiting.create(baseUrl, adaptiveConcurrency)));
+		final var hedgedRequests = new HashMap<String, Capability>();
+		getSharedSettings(properties, "hedging", ConfluenceIntegrationProperties.Environment::hedging)
+			.forEach((baseUrl, hedging) -> hedgedRequests.put(baseUrl, HedgedRequests.create(baseUrl, hedging, adaptiveConcurrencyLimitings.get(baseUrl))));
+
 		return registry -> properties.environments().forEach((municipalityId, environment) -> {
+			final var adaptiveConcurrencyLimiting = adaptiveConcurrencyLimitings.get(environment.baseUrl());
+			final var hedging = hedgedRequests.get(environment.baseUrl());
+
 			final var beanName = "%s.%s".formatted(CLIENT_ID, municipalityId);
 			final var clientName = "%s-%s".formatted(CLIENT_ID, municipalityId);
 
@@ -44,17 +76,104 @@ class ConfluenceIntegrationConfiguration {
 			beanDefinition.setInstanceSupplier(() -> new FeignClientBuilder(applicationContext)
 				.forType(ConfluenceClient.class, "%s-%s".formatted(CLIENT_ID, municipalityId))
 				.url(environment.baseUrl())
-				.customize(builder -> builder
-					.dismiss404()
-					.errorDecoder(new ProblemErrorDecoder(clientName))
-					.requestInterceptor(new BasicAuthRequestInterceptor(environment.basicAuth().username(), environment.basicAuth().password()))
-					.options(new Request.Options(environment.connectTimeoutInSeconds(), SECONDS, environment.readTimeoutInSeconds(), SECONDS, true))
-					.build())
+				.customize(builder -> {
+					// Without transport settings, the client shares the default HTTP client
+					if (environment.transport() != null) {
+						builder.client(HttpTransports.create(clientName, environment.transport(), applicationContext.getBean(Truststore.class),
+							applicationContext.getBean(MeterRegistry.class)));
+					}
+
+					builder
+						.dismiss404()
+						.decoder(new StreamingDecoder())
+						.doNotCloseAfterDecode()
+						.errorDecoder(StreamingDecoder.closing(new ProblemErrorDecoder(clientName)))
+						.requestInterceptor(new BasicAuthRequestInterceptor(environment.basicAuth().username(), environment.basicAuth().password()))
+						.options(new Request.Options(environment.connectTimeoutInSeconds(), SECONDS, environment.readTimeoutInSeconds(), SECONDS, true))
+						// The limiter wraps the hedging (the capability added last is the outermost), which takes over
+						// the permit of each request, and takes permits of its own for the hedges
+						.addCapability(hedging)
+						.addCapability(adaptiveConcurrencyLimiting)
+						.build();
+				})
 				.build());
 
 			registry.registerBeanDefinition(beanName, beanDefinition);
 
 			LOG.info("Registered Confluence client {} (municipalityId: {})", beanName, municipalityId);
+
+			if (environment.reactive() != null) {
+				final var reactiveBeanDefinition = new GenericBeanDefinition();
+				reactiveBeanDefinition.setBeanClass(ReactiveConfluenceClient.class);
+				reactiveBeanDefinition.setInstanceSupplier(() -> new ReactiveConfluenceClient(clientName, createWebClient(clientName, environment, adaptiveConcurrencyLimiting,
+					applicationContext.getBean(Truststore.class))));
+
+				registry.registerBeanDefinition("%s.%s".formatted(beanName, REACTIVE_SUFFIX), reactiveBeanDefinition);
+
+				LOG.info("Registered reactive Confluence client {}.{} (municipalityId: {})", beanName, REACTIVE_SUFFIX, municipalityId);
+			}
+		});
+	}
+
+	// Returns the given settings for each Confluence instance, by base url - failing if the environments sharing an
+	// instance don't all have the same settings (or lack of them), since there's no telling which ones should apply
+	static <T> Map<String, T> getSharedSettings(final ConfluenceIntegrationProperties properties, final String name,
+		final Function<ConfluenceIntegrationProperties.Environment, T> settings) {
+		final var sharedSettings = new HashMap<String, T>();
+		final var municipalityIds = new HashMap<String, List<String>>();
+
+		new TreeMap<>(properties.environments()).forEach((municipalityId, environment) -> {
+			final var baseUrl = environment.baseUrl();
+			final var currentSettings = settings.apply(environment);
+
+			if (sharedSettings.containsKey(baseUrl) && !Objects.equals(sharedSettings.get(baseUrl), currentSettings)) {
+				throw new IllegalStateException("The environments %s share the Confluence instance at %s, but not its %s settings (municipalityId: %s)"
+					.formatted(municipalityIds.get(baseUrl), baseUrl, name, municipalityId));
+			}
+			sharedSettings.put(baseUrl, currentSettings);
+			municipalityIds.computeIfAbsent(baseUrl, _ -> new ArrayList<>()).add(municipalityId);
 		});
+
+		return sharedSettings;
+	}
+
+	// The requests of the reactive client share the concurrency limiter of the Confluence instance, if any, with those
+	// of the Feign clients. Its transport trusts the same certificates (the truststore), and follows the same transport
+	// settings, if any - idle connections are kept for the keep-alive, HTTP/2 is negotiated over TLS, and gzip asked for
+	static WebClient createWebClient(final String clientName, final ConfluenceIntegrationProperties.Environment environment, final Capability adaptiveConcurrencyLimiting,
+		final Truststore truststore) {
+		final var reactive = environment.reactive();
+		final var transport = environment.transport();
+		final var http2 = transport != null && transport.http2() && environment.baseUrl().startsWith("https:");
+
+		final var connectionProviderBuilder = ConnectionProvider.builder(clientName)
+			.maxConnections(reactive.maxInFlightOrElse(environment.maxConcurrency()))
+			.pendingAcquireMaxCount(-1);
+		if (transport != null) {
+			connectionProviderBuilder.maxIdleTime(transport.keepAlive());
+		}
+
+		var httpClient = HttpClient.create(connectionProviderBuilder.build())
+			.secure(spec -> spec.sslContext(http2
+				? Http2SslContextSpec.forClient().configure(sslContextBuilder -> sslContextBuilder.trustManager(truststore.getTrustManagerFactory()))
+				: Http11SslContextSpec.forClient().configure(sslContextBuilder -> sslContextBuilder.trustManager(truststore.getTrustManagerFactory()))))
+			.compress(transport == null || transport.gzip())
+			.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Duration.ofSeconds(environment.connectTimeoutInSeconds()).toMillis())
+			.responseTimeout(Duration.ofSeconds(environment.readTimeoutInSeconds()));
+		if (http2) {
+			httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+		}
+
+		final var builder = WebClient.builder();
+		if (adaptiveConcurrencyLimiting instanceof final AdaptiveConcurrencyLimiting limiting) {
+			builder.filter(limiting.exchangeFilter());
+		}
+
+		return builder
+			.baseUrl(environment.baseUrl())
+			.clientConnector(new ReactorClientHttpConnector(httpClient))
+			.defaultHeaders(headers -> headers.setBasicAuth(environment.basicAuth().username(), environment.basicAuth().password()))
+			.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize((int) reactive.maxResponseSize().toBytes()))
+			.build();
 	}
 }
@@ -1,15 +1,24 @@
 package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.time.Duration;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
+import se.sundsvall.aidatacollector.configuration.HttpTransportProperties;
 
 @Validated
 @ConfigurationProperties(prefix = "integration.confluence")
@@ -23,6 +32,28 @@ public record ConfluenceIntegrationProperties(Map<String, Environment> environme
 
 		Scheduling scheduling,
 
+		@Valid IncrementalSync incrementalSync,
+
+		@Valid Bootstrap bootstrap,
+
+		@Valid Slicing slicing,
+
+		@Valid Normalisation normalisation,
+
+		@Valid Chunking chunking,
+
+		@Valid InsertBatching insertBatching,
+
+		@Valid Pipeline pipeline,
+
+		@Valid AdaptiveConcurrency adaptiveConcurrency,
+
+		@Valid Hedging hedging,
+
+		@Valid HttpTransportProperties transport,
+
+		@Valid Reactive reactive,
+
 		Webhook webhook,
 
 		@DefaultValue List<@NotBlank String> blacklistedRootIds,
@@ -31,7 +62,20 @@ public record ConfluenceIntegrationProperties(Map<String, Environment> environme
 
 		@DefaultValue("5") int connectTimeoutInSeconds,
 
-		@DefaultValue("20") int readTimeoutInSeconds) {
+		@DefaultValue("20") int readTimeoutInSeconds,
+
+		@DefaultValue("1") @Positive int maxConcurrency,
+
+		@DefaultValue("CHILDREN") TraversalStrategy traversalStrategy,
+
+		@DefaultValue("25") @Positive int contentBatchSize) {
+
+		// How the page tree below each mapped root is enumerated - level by level (one child listing
+		// per page) or flat (a paginated listing of all descendants of the root)
+		public enum TraversalStrategy {
+			CHILDREN,
+			DESCENDANTS
+		}
 
 		public record Mapping(
 			@NotBlank String eneoGroupId,
@@ -48,6 +92,121 @@ public record ConfluenceIntegrationProperties(Map<String, Environment> environme
 			@DefaultValue("PT2M") Duration lockAtMostFor) {
 		}
 
+		public record IncrementalSync(
+
+			@Valid @NotNull Scheduling scheduling,
+
+			@DefaultValue("PT5M") Duration overlap,
+
+			// The time zone of the Confluence user making the searches, which the times in them are read in - the
+			// time zone of the service, if not set
+			ZoneId timeZone) {
+		}
+
+		public record Bootstrap(
+
+			@NotEmpty List<@NotBlank String> spaceKeys,
+
+			@DefaultValue("50") @Positive int batchSize) {
+		}
+
+		// Splits full syncs (using the children traversal strategy) into bounded slices, one per scheduled run,
+		// with the remaining pages persisted in between
+		public record Slicing(
+
+			@DefaultValue("1000") @Positive int maxPages,
+
+			@DefaultValue("PT1M30S") Duration maxDuration) {
+		}
+
+		// Trims the text of the pages before it's sent to Eneo - dropping macros without any retrieval value,
+		// rendering tables compactly and stripping boilerplate (regular expressions matched against the text)
+		public record Normalisation(
+
+			@DefaultValue({"toc", "children", "pagetree", "recently-updated", "contentbylabel", "livesearch", "anchor"}) List<@NotBlank String> droppedMacros,
+
+			@DefaultValue("true") boolean compactTables,
+
+			@DefaultValue List<@NotBlank String> boilerplatePatterns) {
+		}
+
+		// Splits the pages at their headings, up to the given level, into chunks that are added to Eneo as info
+		// blobs of their own - so that only the chunks that have changed need to be re-added when a page is updated
+		public record Chunking(
+
+			@DefaultValue("2") @Min(1) @Max(6) int maxHeadingLevel) {
+		}
+
+		// Collects the pages inserted during each sync into batches per Eneo group, added to Eneo in a single request
+		// once a batch is full (by number of pages or size of the text) or has lingered for long enough
+		public record InsertBatching(
+
+			@DefaultValue("50") @Positive int maxPages,
+
+			@DefaultValue("5MB") DataSize maxSize,
+
+			@DefaultValue("PT10S") Duration linger) {
+		}
+
+		// Processes the pages found by listings (descendants and incremental syncs) in stages - fetch, transform,
+		// Eneo write and db commit - each with its own number of workers, and a bounded queue in front of it
+		public record Pipeline(
+
+			@DefaultValue("4") @Positive int fetchConcurrency,
+
+			@DefaultValue("2") @Positive int transformConcurrency,
+
+			@DefaultValue("4") @Positive int writeConcurrency,
+
+			@DefaultValue("2") @Positive int commitConcurrency,
+
+			@DefaultValue("50") @Positive int queueCapacity) {
+		}
+
+		// Adapts the number of concurrent requests to the Confluence instance (shared by all environments with the
+		// same base url) to how it copes - raising the limit while requests succeed quickly, and cutting it when
+		// latency rises or requests are throttled, in which case they're retried after the time asked for (Retry-After)
+		public record AdaptiveConcurrency(
+
+			@DefaultValue("4") @Positive int initialLimit,
+
+			@DefaultValue("1") @Positive int minLimit,
+
+			@DefaultValue("32") @Positive int maxLimit,
+
+			@DefaultValue("2.0") @DecimalMin("1.0") double latencyTolerance,
+
+			@DefaultValue("3") @PositiveOrZero int maxRetries,
+
+			@DefaultValue("PT1M") Duration maxRetryAfter) {
+		}
+
+		// Hedges the reads of the Confluence instance (shared by all environments with the same base url) - a read
+		// that hasn't been answered within the given percentile of the latencies observed lately is sent once more,
+		// and whichever answers first wins. Hedges are kept to the given share (max extra load) of the requests
+		public record Hedging(
+
+			@DefaultValue("0.95") @DecimalMin("0.5") @DecimalMax("0.999") double percentile,
+
+			@DefaultValue("0.05") @DecimalMin("0.0") @DecimalMax("1.0") double maxExtraLoad,
+
+			@DefaultValue("PT0.1S") Duration minDelay) {
+		}
+
+		// Lists and fetches the pages found by listings (descendants and incremental syncs) with a non-blocking client
+		// instead - streaming the listings, with up to the given number of requests in flight at once (by default as
+		// many as the max concurrency of the blocking client), over a connection pool of the same size
+		public record Reactive(
+
+			@Positive Integer maxInFlight,
+
+			@DefaultValue("16MB") DataSize maxResponseSize) {
+
+			public int maxInFlightOrElse(final int maxConcurrency) {
+				return maxInFlight != null ? maxInFlight : maxConcurrency;
+			}
+		}
+
 		public record Webhook(boolean enabled, WebhookSecurity security) {
 
 			public record WebhookSecurity(String secret, boolean enabled) {
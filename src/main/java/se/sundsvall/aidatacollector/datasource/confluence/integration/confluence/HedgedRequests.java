@@ -0,0 +1,202 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import feign.Capability;
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+// Hedges the reads (GET) of a Confluence client - when a request hasn't been answered within the hedge delay of the
+// hedging policy, and the budget allows, an identical request is sent, and whichever answers first wins. The other
+// one is left to finish on its own, and its response closed. Requests that stall on a node of the instance thereby
+// no longer hold up a crawl for the full read timeout.
+//
+// With a concurrency limit on the instance, the hedging runs inside of it - the latencies are those of the requests
+// themselves, without any waiting for a permit or a throttled instance, and a hedge is only sent if a permit is
+// available right away. An instance that is throttling us, or already has as many requests in flight as it copes
+// with, gets no hedges. Each attempt accounts for a permit of its own, once it completes - the first one for the
+// permit acquired by the limiting, which leaves it to the hedging - so that the limiter neither loses track of an
+// attempt that lost, nor only ever sees the latency of the one that won
+final class HedgedRequests implements Capability {
+
+	static final Capability NONE = new Capability() {};
+
+	private static final Logger LOG = LoggerFactory.getLogger(HedgedRequests.class);
+
+	private final String baseUrl;
+	private final HedgingPolicy policy;
+	// Null when the instance has no concurrency limit
+	private final AdaptiveConcurrencyLimiting limiting;
+	private final LongSupplier nanoTime;
+	private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+	HedgedRequests(final String baseUrl, final HedgingPolicy policy, final AdaptiveConcurrencyLimiting limiting) {
+		this(baseUrl, policy, limiting, System::nanoTime);
+	}
+
+	// Measures the latencies by the given time source, rather than the system's
+	HedgedRequests(final String baseUrl, final HedgingPolicy policy, final AdaptiveConcurrencyLimiting limiting, final LongSupplier nanoTime) {
+		this.baseUrl = baseUrl;
+		this.policy = policy;
+		this.limiting = limiting;
+		this.nanoTime = nanoTime;
+	}
+
+	// The given limiting (or NONE) must be added to the client after the hedging, so that it wraps it
+	static Capability create(final String baseUrl, final ConfluenceIntegrationProperties.Environment.Hedging hedging, final Capability adaptiveConcurrencyLimiting) {
+		if (hedging == null) {
+			return NONE;
+		}
+
+		return new HedgedRequests(baseUrl, new HedgingPolicy(hedging.percentile(), hedging.maxExtraLoad(), hedging.minDelay()),
+			adaptiveConcurrencyLimiting instanceof final AdaptiveConcurrencyLimiting limiting ? limiting : null);
+	}
+
+	@Override
+	public Client enrich(final Client client) {
+		return new HedgingClient(client);
+	}
+
+	HedgingPolicy policy() {
+		return policy;
+	}
+
+	private Response execute(final Client client, final Request request, final Request.Options options) throws IOException {
+		// Only reads are safe to send twice
+		if (request.httpMethod() != Request.HttpMethod.GET) {
+			return limited(client).execute(request, options);
+		}
+
+		policy.onRequest();
+		final var hedgeDelay = policy.hedgeDelay();
+		if (hedgeDelay == null) {
+			return executeTimed(limited(client), request, options);
+		}
+
+		final var result = new CompletableFuture<Response>();
+		final var pendingAttempts = new AtomicInteger(1);
+		final var contextMap = MDC.getCopyOfContextMap();
+
+		attempt(limited(client), request, options, result, pendingAttempts, contextMap);
+
+		final var response = await(result, hedgeDelay);
+		if (response != null) {
+			return response;
+		}
+
+		if (!result.isDone() && tryAcquire()) {
+			if (policy.tryHedge()) {
+				LOG.debug("Hedging request {} to Confluence at {}, unanswered after {}", request.url(), baseUrl, hedgeDelay);
+
+				pendingAttempts.incrementAndGet();
+				attempt(limited(client), request, options, result, pendingAttempts, contextMap);
+			} else {
+				release();
+			}
+		}
+
+		return await(result, null);
+	}
+
+	// Runs an attempt of the request on a virtual thread, completing the result with its response unless another
+	// attempt has already done so - the result only fails once all attempts have
+	private void attempt(final Client client, final Request request, final Request.Options options, final CompletableFuture<Response> result,
+		final AtomicInteger pendingAttempts, final Map<String, String> contextMap) {
+		executor.execute(() -> {
+			ofNullable(contextMap).ifPresent(MDC::setContextMap);
+			try {
+				final var response = executeTimed(client, request, options);
+				if (!result.complete(response)) {
+					response.close();
+				}
+			} catch (final IOException | RuntimeException e) {
+				if (pendingAttempts.decrementAndGet() == 0) {
+					result.completeExceptionally(e);
+				}
+			} finally {
+				MDC.clear();
+			}
+		});
+	}
+
+	private Response executeTimed(final Client client, final Request request, final Request.Options options) throws IOException {
+		final var startedAt = nanoTime.getAsLong();
+		final var response = client.execute(request, options);
+		policy.onLatency(nanoTime.getAsLong() - startedAt);
+
+		return response;
+	}
+
+	private boolean tryAcquire() {
+		return limiting == null || limiting.tryAcquire();
+	}
+
+	private void release() {
+		if (limiting != null) {
+			limiting.release();
+		}
+	}
+
+	// The first attempt of a request runs on the permit acquired for it by the limiting wrapping the hedging, while a
+	// hedge runs on a permit of its own - either way, the attempt releases its permit once it completes
+	private Client limited(final Client client) {
+		return limiting == null ? client : (request, options) -> limiting.executeAcquired(client, request, options);
+	}
+
+	// The client making the hedged requests - the limiting wrapping it leaves the permit it acquires for a request to
+	// the hedging
+	final class HedgingClient implements Client {
+
+		private final Client client;
+
+		private HedgingClient(final Client client) {
+			this.client = client;
+		}
+
+		@Override
+		public Response execute(final Request request, final Request.Options options) throws IOException {
+			return HedgedRequests.this.execute(client, request, options);
+		}
+
+		boolean isLimitedBy(final AdaptiveConcurrencyLimiting adaptiveConcurrencyLimiting) {
+			return limiting == adaptiveConcurrencyLimiting;
+		}
+	}
+
+	// Waits for the result, for no longer than the given timeout (if any) - returning null when it runs out
+	private Response await(final CompletableFuture<Response> result, final Duration timeout) throws IOException {
+		try {
+			return timeout == null ? result.get() : result.get(timeout.toNanos(), NANOSECONDS);
+		} catch (final TimeoutException _) {
+			return null;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new InterruptedIOException("Interrupted while waiting for a response from Confluence at " + baseUrl);
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof final IOException ioException) {
+				throw ioException;
+			}
+			if (e.getCause() instanceof final RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+}
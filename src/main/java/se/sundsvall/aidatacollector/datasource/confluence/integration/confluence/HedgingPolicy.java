@@ -0,0 +1,73 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Decides when a request to a Confluence instance should be hedged - once it has taken longer than the given
+// percentile of the latencies observed lately - and keeps the hedges within a budget: each request earns a fraction
+// (max extra load) of a hedge, so that hedging never adds more than that share of requests, beyond a small burst
+final class HedgingPolicy {
+
+	// The number of latest latencies the percentile is taken from, how many are needed before hedging at all, and
+	// how often the percentile is recalculated
+	static final int WINDOW = 1000;
+	static final int MIN_SAMPLES = 20;
+	static final int RECALCULATION_INTERVAL = 50;
+
+	// The most hedges that can be saved up
+	static final double MAX_BURST = 10;
+
+	private final double percentile;
+	private final double maxExtraLoad;
+	private final long minDelayNanos;
+
+	private final long[] latencies = new long[WINDOW];
+	private int latencyCount;
+	private int nextLatency;
+	private int sinceRecalculated;
+	private long delayNanos = -1;
+	private double budget;
+
+	HedgingPolicy(final double percentile, final double maxExtraLoad, final Duration minDelay) {
+		this.percentile = percentile;
+		this.maxExtraLoad = maxExtraLoad;
+		this.minDelayNanos = minDelay.toNanos();
+	}
+
+	synchronized void onLatency(final long latencyNanos) {
+		latencies[nextLatency] = latencyNanos;
+		nextLatency = (nextLatency + 1) % WINDOW;
+		latencyCount = Math.min(latencyCount + 1, WINDOW);
+
+		if (latencyCount >= MIN_SAMPLES && (delayNanos < 0 || ++sinceRecalculated >= RECALCULATION_INTERVAL)) {
+			recalculate();
+		}
+	}
+
+	// How long to wait for a response before hedging the request, or null until enough latencies have been observed
+	synchronized Duration hedgeDelay() {
+		return delayNanos < 0 ? null : Duration.ofNanos(delayNanos);
+	}
+
+	synchronized void onRequest() {
+		budget = Math.min(MAX_BURST, budget + maxExtraLoad);
+	}
+
+	synchronized boolean tryHedge() {
+		if (budget < 1) {
+			return false;
+		}
+
+		budget--;
+		return true;
+	}
+
+	private void recalculate() {
+		final var sortedLatencies = Arrays.copyOf(latencies, latencyCount);
+		Arrays.sort(sortedLatencies);
+
+		final var index = Math.clamp((long) Math.ceil(percentile * latencyCount) - 1, 0, latencyCount - 1);
+		delayNanos = Math.max(minDelayNanos, sortedLatencies[index]);
+		sinceRecalculated = 0;
+	}
+}
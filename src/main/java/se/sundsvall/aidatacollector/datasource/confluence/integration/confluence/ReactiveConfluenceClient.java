@@ -0,0 +1,60 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.zalando.problem.Status.BAD_GATEWAY;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.zalando.problem.Problem;
+import reactor.core.publisher.Mono;
+
+// A non-blocking variant of the Confluence client, for the listings and content fetches of crawls - where many
+// requests may be in flight at once, without a thread waiting on each of them. As with the Feign client, a page
+// that isn't found (404) gives an empty result, and any other error response a problem. The responses are handed
+// over as streams, to be decoded without turning them into strings first
+public class ReactiveConfluenceClient {
+
+	private final String clientName;
+	private final WebClient webClient;
+
+	ReactiveConfluenceClient(final String clientName, final WebClient webClient) {
+		this.clientName = clientName;
+		this.webClient = webClient;
+	}
+
+	public Mono<InputStream> getDescendants(final String pageId, final int start, final int limit) {
+		return get("/content/{pageId}/descendant/page?expand=version,ancestors&start={start}&limit={limit}", pageId, start, limit);
+	}
+
+	public Mono<InputStream> searchContent(final String cql, final int start, final int limit) {
+		return get("/content/search?expand=body.storage,ancestors,version&cql={cql}&start={start}&limit={limit}", cql, start, limit);
+	}
+
+	public Mono<InputStream> search(final String cql, final int start, final int limit) {
+		return get("/content/search?expand=version,ancestors&cql={cql}&start={start}&limit={limit}", cql, start, limit);
+	}
+
+	private Mono<InputStream> get(final String uriTemplate, final Object... uriVariables) {
+		return webClient.get()
+			.uri(uriTemplate, uriVariables)
+			.accept(APPLICATION_JSON)
+			.exchangeToMono(this::toBody);
+	}
+
+	private Mono<InputStream> toBody(final ClientResponse response) {
+		if (response.statusCode().value() == 404) {
+			return response.releaseBody().then(Mono.empty());
+		}
+		if (response.statusCode().isError()) {
+			return response.bodyToMono(String.class)
+				.defaultIfEmpty("")
+				.flatMap(body -> Mono.error(Problem.valueOf(BAD_GATEWAY, "%s responded with status %d: %s".formatted(clientName, response.statusCode().value(), body))));
+		}
+		// The body can't be read as it arrives without blocking, so it's collected as is - as bytes, to be decoded
+		// straight from them
+		return response.bodyToMono(byte[].class)
+			.map(ByteArrayInputStream::new);
+	}
+}
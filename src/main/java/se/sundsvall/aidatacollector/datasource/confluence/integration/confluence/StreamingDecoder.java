@@ -0,0 +1,50 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.Decoder;
+import feign.codec.ErrorDecoder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Optional;
+
+// Hands the body of a Confluence response over as the stream it arrives on, so that it can be decoded as it's
+// read - without first reading all of it into a string. Since the client is built not to close the responses
+// after decoding, the caller closes the stream once done with it - and the responses that never reach the caller
+// (not found, and error responses) are closed here
+final class StreamingDecoder implements Decoder {
+
+	@Override
+	public Object decode(final Response response, final Type type) throws IOException {
+		if (!isOptionalInputStream(type)) {
+			response.close();
+
+			throw new DecodeException(response.status(), "Only Optional<InputStream> responses are supported, not " + type, response.request());
+		}
+
+		if (response.status() == 404 || response.status() == 204 || response.body() == null) {
+			response.close();
+
+			return Optional.empty();
+		}
+		return Optional.of(response.body().asInputStream());
+	}
+
+	static ErrorDecoder closing(final ErrorDecoder errorDecoder) {
+		return (methodKey, response) -> {
+			try {
+				return errorDecoder.decode(methodKey, response);
+			} finally {
+				response.close();
+			}
+		};
+	}
+
+	private static boolean isOptionalInputStream(final Type type) {
+		return type instanceof final ParameterizedType parameterizedType &&
+			parameterizedType.getRawType() == Optional.class &&
+			parameterizedType.getActualTypeArguments()[0] == InputStream.class;
+	}
+}
@@ -1,21 +1,42 @@
 package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
 
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageChunkEmbeddable;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.SyncStateEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.model.FrontierEntry;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageHashes;
 
 @Component
 @Transactional
 public class DbIntegration {
 
 	private final PageRepository pageRepository;
+	private final SyncStateRepository syncStateRepository;
+	private final FrontierEntryRepository frontierEntryRepository;
 	private final PageMapper pageMapper;
+	private final FrontierEntryMapper frontierEntryMapper;
 
-	DbIntegration(final PageRepository pageRepository, final PageMapper pageMapper) {
+	DbIntegration(final PageRepository pageRepository, final SyncStateRepository syncStateRepository, final FrontierEntryRepository frontierEntryRepository,
+		final PageMapper pageMapper, final FrontierEntryMapper frontierEntryMapper) {
 		this.pageRepository = pageRepository;
+		this.syncStateRepository = syncStateRepository;
+		this.frontierEntryRepository = frontierEntryRepository;
 		this.pageMapper = pageMapper;
+		this.frontierEntryMapper = frontierEntryMapper;
 	}
 
 	@Transactional(readOnly = true)
@@ -23,6 +44,23 @@ public class DbIntegration {
 		return pageRepository.findBlobIdByPageIdAndMunicipalityId(pageId, municipalityId);
 	}
 
+	@Transactional(readOnly = true)
+	public Optional<PageHashes> getPageHashes(final String pageId, final String municipalityId) {
+		return pageRepository.findPageHashesByPageIdAndMunicipalityId(pageId, municipalityId);
+	}
+
+	// Returns the ids of all info blobs of the page - one for each chunk, for pages that are split into chunks
+	@Transactional(readOnly = true)
+	public List<String> getBlobIds(final String pageId, final String municipalityId) {
+		return pageRepository.findPageEntityByPageIdAndMunicipalityId(pageId, municipalityId)
+			.map(pageEntity -> pageEntity.getChunks() == null || pageEntity.getChunks().isEmpty()
+				? List.of(pageEntity.getEneoBlobId())
+				: pageEntity.getChunks().stream()
+					.map(PageChunkEmbeddable::getEneoBlobId)
+					.toList())
+			.orElse(List.of());
+	}
+
 	@Transactional(readOnly = true)
 	public List<Page> getAllPages(final String municipalityId) {
 		return pageRepository.findPageEntitiesByMunicipalityId(municipalityId).stream()
@@ -30,6 +68,12 @@ public class DbIntegration {
 			.toList();
 	}
 
+	// Only the ids are read, for when the pages themselves (and their chunks) aren't needed
+	@Transactional(readOnly = true)
+	public Set<String> getPageIds(final String municipalityId) {
+		return new HashSet<>(pageRepository.findPageIdsByMunicipalityId(municipalityId));
+	}
+
 	@Transactional(readOnly = true)
 	public Optional<Page> getPage(final String pageId, final String municipalityId) {
 		return pageRepository.findPageEntityByPageIdAndMunicipalityId(pageId, municipalityId)
@@ -42,7 +86,90 @@ public class DbIntegration {
 		pageRepository.save(pageEntity);
 	}
 
+	public void savePages(final List<Page> pages) {
+		final var pageEntities = pages.stream()
+			.map(pageMapper::toPageEntity)
+			.toList();
+
+		pageRepository.saveAll(pageEntities);
+	}
+
 	public void deletePage(final String pageId, final String municipalityId) {
 		pageRepository.deletePageEntityByPageIdAndMunicipalityId(pageId, municipalityId);
 	}
+
+	@Transactional(readOnly = true)
+	public Optional<Instant> getLastSyncedAt(final String municipalityId) {
+		return syncStateRepository.findById(municipalityId)
+			.map(SyncStateEntity::getLastSyncedAt)
+			.map(LocalTimestamps::toInstant);
+	}
+
+	public void saveLastSyncedAt(final String municipalityId, final Instant lastSyncedAt) {
+		syncStateRepository.save(SyncStateEntity.create()
+			.withMunicipalityId(municipalityId)
+			.withLastSyncedAt(LocalTimestamps.toLocalDateTime(lastSyncedAt)));
+	}
+
+	// Returns the entries that remain to be visited - the visited ones are kept until the crawl completes, to keep
+	// track of the pages it has already seen
+	@Transactional(readOnly = true)
+	public List<FrontierEntry> getFrontier(final String municipalityId, final int limit) {
+		return frontierEntryRepository.findByMunicipalityIdAndVisitedFalseOrderByIdAsc(municipalityId, Limit.of(limit)).stream()
+			.map(frontierEntryMapper::toFrontierEntry)
+			.toList();
+	}
+
+	public void addToFrontier(final List<FrontierEntry> frontierEntries) {
+		// A page is only added once to the frontier of a crawl - a page that shows up again, in a later chunk or run
+		// of the crawl (e.g. through a cycle), has already been visited by it, or is about to be
+		final var newEntries = new ArrayList<FrontierEntry>(frontierEntries.size());
+		frontierEntries.stream()
+			.collect(groupingBy(FrontierEntry::runId, LinkedHashMap::new, toList()))
+			.forEach((runId, runEntries) -> {
+				final var knownPageIds = new HashSet<>(frontierEntryRepository.findPageIdsByRunIdAndPageIdIn(runId, runEntries.stream()
+					.map(FrontierEntry::pageId)
+					.collect(toSet())));
+
+				runEntries.stream()
+					.filter(frontierEntry -> knownPageIds.add(frontierEntry.pageId()))
+					.forEach(newEntries::add);
+			});
+
+		frontierEntryRepository.saveAll(newEntries.stream()
+			.map(frontierEntryMapper::toFrontierEntryEntity)
+			.toList());
+	}
+
+	public void advanceFrontier(final List<FrontierEntry> visitedEntries, final List<FrontierEntry> failedEntries, final List<FrontierEntry> discoveredEntries) {
+		// Add the discovered entries and mark the visited ones in the same transaction, so that the frontier always
+		// reflects exactly what remains to be visited. The failed ones are marked as such, so that the crawl knows
+		// that it failed in part once it completes - however many runs later that is
+		addToFrontier(discoveredEntries);
+
+		final var failedIds = failedEntries.stream()
+			.map(FrontierEntry::id)
+			.toList();
+		if (!failedIds.isEmpty()) {
+			frontierEntryRepository.markFailedByIdIn(failedIds);
+		}
+
+		final var visitedIds = visitedEntries.stream()
+			.map(FrontierEntry::id)
+			.filter(id -> !failedIds.contains(id))
+			.toList();
+		if (!visitedIds.isEmpty()) {
+			frontierEntryRepository.markVisitedByIdIn(visitedIds);
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public boolean hasFailedFrontierEntries(final String municipalityId, final String runId) {
+		return frontierEntryRepository.existsByMunicipalityIdAndRunIdAndFailedTrue(municipalityId, runId);
+	}
+
+	// Removes whatever is left of the crawls of the municipality, once they have completed
+	public void clearFrontier(final String municipalityId) {
+		frontierEntryRepository.deleteByMunicipalityId(municipalityId);
+	}
 }
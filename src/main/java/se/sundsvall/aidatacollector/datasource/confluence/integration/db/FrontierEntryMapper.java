@@ -0,0 +1,33 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
+
+import org.springframework.stereotype.Component;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.FrontierEntryEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.model.FrontierEntry;
+
+@Component
+class FrontierEntryMapper {
+
+	FrontierEntry toFrontierEntry(final FrontierEntryEntity frontierEntryEntity) {
+		return new FrontierEntry(
+			frontierEntryEntity.getId(),
+			frontierEntryEntity.getMunicipalityId(),
+			frontierEntryEntity.getRunId(),
+			LocalTimestamps.toInstant(frontierEntryEntity.getRunStartedAt()),
+			frontierEntryEntity.getRootId(),
+			frontierEntryEntity.getPageId(),
+			frontierEntryEntity.getUpdatedAtInConfluence());
+	}
+
+	FrontierEntryEntity toFrontierEntryEntity(final FrontierEntry frontierEntry) {
+		return FrontierEntryEntity.create()
+			.withId(frontierEntry.id())
+			.withMunicipalityId(frontierEntry.municipalityId())
+			.withRunId(frontierEntry.runId())
+			.withRunStartedAt(LocalTimestamps.toLocalDateTime(frontierEntry.runStartedAt()))
+			.withRootId(frontierEntry.rootId())
+			.withPageId(frontierEntry.pageId())
+			.withUpdatedAtInConfluence(frontierEntry.updatedAtInConfluence())
+			.withFailed(false)
+			.withVisited(false);
+	}
+}
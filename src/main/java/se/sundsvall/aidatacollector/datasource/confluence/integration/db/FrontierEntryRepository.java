@@ -0,0 +1,34 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.FrontierEntryEntity;
+
+@CircuitBreaker(name = "frontierEntryRepository")
+interface FrontierEntryRepository extends JpaRepository<FrontierEntryEntity, Long> {
+
+	List<FrontierEntryEntity> findByMunicipalityIdAndVisitedFalseOrderByIdAsc(String municipalityId, Limit limit);
+
+	@Query("SELECT e.pageId FROM FrontierEntryEntity AS e WHERE e.runId = :runId AND e.pageId IN :pageIds")
+	List<String> findPageIdsByRunIdAndPageIdIn(@Param("runId") String runId, @Param("pageIds") Collection<String> pageIds);
+
+	boolean existsByMunicipalityIdAndRunIdAndFailedTrue(String municipalityId, String runId);
+
+	@Modifying
+	@Query("UPDATE FrontierEntryEntity AS e SET e.visited = true WHERE e.id IN :ids")
+	void markVisitedByIdIn(@Param("ids") List<Long> ids);
+
+	@Modifying
+	@Query("UPDATE FrontierEntryEntity AS e SET e.visited = true, e.failed = true WHERE e.id IN :ids")
+	void markFailedByIdIn(@Param("ids") List<Long> ids);
+
+	@Modifying
+	@Query("DELETE FROM FrontierEntryEntity AS e WHERE e.municipalityId = :municipalityId")
+	void deleteByMunicipalityId(@Param("municipalityId") String municipalityId);
+}
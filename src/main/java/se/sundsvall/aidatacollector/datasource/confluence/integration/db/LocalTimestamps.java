@@ -0,0 +1,21 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// The timestamps of the sync state and the crawl frontier are stored in the local time of the service, as they
+// always have been, and converted to and from instants on the way. A local time that occurs twice (when the clocks
+// are turned back) is read as the earlier of the two - a watermark may then move back a bit, but never forward
+final class LocalTimestamps {
+
+	private LocalTimestamps() {}
+
+	static Instant toInstant(final LocalDateTime localDateTime) {
+		return localDateTime == null ? null : localDateTime.atZone(ZoneId.systemDefault()).toInstant();
+	}
+
+	static LocalDateTime toLocalDateTime(final Instant instant) {
+		return instant == null ? null : LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+	}
+}
@@ -1,8 +1,15 @@
 package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
 
+import static java.util.Optional.ofNullable;
+import static java.util.stream.Collectors.toCollection;
+
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.stereotype.Component;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageChunkEmbeddable;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageEntity;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageChunk;
 
 @Component
 class PageMapper {
@@ -13,7 +20,12 @@ class PageMapper {
 			.withMunicipalityId(pageEntity.getMunicipalityId())
 			.withEneoGroupId(pageEntity.getEneoGroupId())
 			.withEneoBlobId(pageEntity.getEneoBlobId())
-			.withUpdatedAt(pageEntity.getUpdatedAt());
+			.withUpdatedAt(pageEntity.getUpdatedAt())
+			.withContentHash(pageEntity.getContentHash())
+			.withTextHash(pageEntity.getTextHash())
+			.withChunks(ofNullable(pageEntity.getChunks()).orElse(List.of()).stream()
+				.map(chunk -> new PageChunk(chunk.getContentHash(), chunk.getEneoBlobId()))
+				.toList());
 	}
 
 	PageEntity toPageEntity(final Page page) {
@@ -22,6 +34,13 @@ class PageMapper {
 			.withMunicipalityId(page.getMunicipalityId())
 			.withEneoGroupId(page.getEneoGroupId())
 			.withEneoBlobId(page.getEneoBlobId())
-			.withUpdatedAt(page.getUpdatedAt());
+			.withUpdatedAt(page.getUpdatedAt())
+			.withContentHash(page.getContentHash())
+			.withTextHash(page.getTextHash())
+			.withChunks(ofNullable(page.getChunks()).orElse(List.of()).stream()
+				.map(chunk -> PageChunkEmbeddable.create()
+					.withContentHash(chunk.contentHash())
+					.withEneoBlobId(chunk.eneoBlobId()))
+				.collect(toCollection(ArrayList::new)));
 	}
 }
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageHashes;
 
 @CircuitBreaker(name = "pageRepository")
 interface PageRepository extends JpaRepository<PageEntity, String> {
@@ -14,6 +15,12 @@ interface PageRepository extends JpaRepository<PageEntity, String> {
 	@Query(value = "SELECT p.blob_id FROM confluence_pages AS p WHERE p.page_id = :pageId AND p.municipality_id = :municipalityId", nativeQuery = true)
 	Optional<String> findBlobIdByPageIdAndMunicipalityId(@Param("pageId") String pageId, @Param("municipalityId") String municipalityId);
 
+	@Query("SELECT new se.sundsvall.aidatacollector.datasource.confluence.model.PageHashes(p.contentHash, p.textHash) FROM PageEntity AS p WHERE p.pageId = :pageId AND p.municipalityId = :municipalityId")
+	Optional<PageHashes> findPageHashesByPageIdAndMunicipalityId(@Param("pageId") String pageId, @Param("municipalityId") String municipalityId);
+
+	@Query(value = "SELECT p.page_id FROM confluence_pages AS p WHERE p.municipality_id = :municipalityId", nativeQuery = true)
+	List<String> findPageIdsByMunicipalityId(@Param("municipalityId") String municipalityId);
+
 	List<PageEntity> findPageEntitiesByMunicipalityId(String municipalityId);
 
 	Optional<PageEntity> findPageEntityByPageIdAndMunicipalityId(String pageId, String municipalityId);
@@ -0,0 +1,9 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
+
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.data.jpa.repository.JpaRepository;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.SyncStateEntity;
+
+@CircuitBreaker(name = "syncStateRepository")
+interface SyncStateRepository extends JpaRepository<SyncStateEntity, String> {
+}
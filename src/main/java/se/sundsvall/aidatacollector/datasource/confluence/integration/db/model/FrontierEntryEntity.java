@@ -0,0 +1,204 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "confluence_crawl_frontier")
+public class FrontierEntryEntity {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@Column(name = "id")
+	private Long id;
+
+	@Column(name = "municipality_id", length = 4)
+	private String municipalityId;
+
+	@Column(name = "run_id", length = 36)
+	private String runId;
+
+	@Column(name = "run_started_at")
+	private LocalDateTime runStartedAt;
+
+	@Column(name = "root_id", length = 16)
+	private String rootId;
+
+	@Column(name = "page_id", length = 16)
+	private String pageId;
+
+	@Column(name = "updated_at_in_confluence", length = 32)
+	private String updatedAtInConfluence;
+
+	@Column(name = "failed")
+	private Boolean failed;
+
+	@Column(name = "visited")
+	private Boolean visited;
+
+	public FrontierEntryEntity() {}
+
+	FrontierEntryEntity(final Long id, final String municipalityId, final String runId, final LocalDateTime runStartedAt, final String rootId, final String pageId, final String updatedAtInConfluence,
+		final Boolean failed, final Boolean visited) {
+		this.id = id;
+		this.municipalityId = municipalityId;
+		this.runId = runId;
+		this.runStartedAt = runStartedAt;
+		this.rootId = rootId;
+		this.pageId = pageId;
+		this.updatedAtInConfluence = updatedAtInConfluence;
+		this.failed = failed;
+		this.visited = visited;
+	}
+
+	public static FrontierEntryEntity create() {
+		return new FrontierEntryEntity();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(final Long id) {
+		this.id = id;
+	}
+
+	public FrontierEntryEntity withId(final Long id) {
+		this.id = id;
+		return this;
+	}
+
+	public String getMunicipalityId() {
+		return municipalityId;
+	}
+
+	public void setMunicipalityId(final String municipalityId) {
+		this.municipalityId = municipalityId;
+	}
+
+	public FrontierEntryEntity withMunicipalityId(final String municipalityId) {
+		this.municipalityId = municipalityId;
+		return this;
+	}
+
+	public String getRunId() {
+		return runId;
+	}
+
+	public void setRunId(final String runId) {
+		this.runId = runId;
+	}
+
+	public FrontierEntryEntity withRunId(final String runId) {
+		this.runId = runId;
+		return this;
+	}
+
+	public LocalDateTime getRunStartedAt() {
+		return runStartedAt;
+	}
+
+	public void setRunStartedAt(final LocalDateTime runStartedAt) {
+		this.runStartedAt = runStartedAt;
+	}
+
+	public FrontierEntryEntity withRunStartedAt(final LocalDateTime runStartedAt) {
+		this.runStartedAt = runStartedAt;
+		return this;
+	}
+
+	public String getRootId() {
+		return rootId;
+	}
+
+	public void setRootId(final String rootId) {
+		this.rootId = rootId;
+	}
+
+	public FrontierEntryEntity withRootId(final String rootId) {
+		this.rootId = rootId;
+		return this;
+	}
+
+	public String getPageId() {
+		return pageId;
+	}
+
+	public void setPageId(final String pageId) {
+		this.pageId = pageId;
+	}
+
+	public FrontierEntryEntity withPageId(final String pageId) {
+		this.pageId = pageId;
+		return this;
+	}
+
+	public String getUpdatedAtInConfluence() {
+		return updatedAtInConfluence;
+	}
+
+	public void setUpdatedAtInConfluence(final String updatedAtInConfluence) {
+		this.updatedAtInConfluence = updatedAtInConfluence;
+	}
+
+	public FrontierEntryEntity withUpdatedAtInConfluence(final String updatedAtInConfluence) {
+		this.updatedAtInConfluence = updatedAtInConfluence;
+		return this;
+	}
+
+	public Boolean getFailed() {
+		return failed;
+	}
+
+	public void setFailed(final Boolean failed) {
+		this.failed = failed;
+	}
+
+	public FrontierEntryEntity withFailed(final Boolean failed) {
+		this.failed = failed;
+		return this;
+	}
+
+	public Boolean getVisited() {
+		return visited;
+	}
+
+	public void setVisited(final Boolean visited) {
+		this.visited = visited;
+	}
+
+	public FrontierEntryEntity withVisited(final Boolean visited) {
+		this.visited = visited;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof final FrontierEntryEntity that)) {
+			return false;
+		}
+		return Objects.equals(id, that.id) &&
+			Objects.equals(municipalityId, that.municipalityId) &&
+			Objects.equals(runId, that.runId) &&
+			Objects.equals(runStartedAt, that.runStartedAt) &&
+			Objects.equals(rootId, that.rootId) &&
+			Objects.equals(pageId, that.pageId) &&
+			Objects.equals(updatedAtInConfluence, that.updatedAtInConfluence) &&
+			Objects.equals(failed, that.failed) &&
+			Objects.equals(visited, that.visited);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(id, municipalityId, runId, runStartedAt, rootId, pageId, updatedAtInConfluence, failed, visited);
+	}
+}
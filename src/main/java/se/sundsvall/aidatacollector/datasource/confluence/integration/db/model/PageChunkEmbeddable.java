@@ -0,0 +1,64 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import java.util.Objects;
+
+@Embeddable
+public class PageChunkEmbeddable {
+
+	@Column(name = "content_hash", length = 64)
+	private String contentHash;
+
+	@Column(name = "blob_id", length = 36)
+	private String eneoBlobId;
+
+	public PageChunkEmbeddable() {}
+
+	public static PageChunkEmbeddable create() {
+		return new PageChunkEmbeddable();
+	}
+
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(final String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	public PageChunkEmbeddable withContentHash(final String contentHash) {
+		this.contentHash = contentHash;
+		return this;
+	}
+
+	public String getEneoBlobId() {
+		return eneoBlobId;
+	}
+
+	public void setEneoBlobId(final String eneoBlobId) {
+		this.eneoBlobId = eneoBlobId;
+	}
+
+	public PageChunkEmbeddable withEneoBlobId(final String eneoBlobId) {
+		this.eneoBlobId = eneoBlobId;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof final PageChunkEmbeddable that)) {
+			return false;
+		}
+		return Objects.equals(contentHash, that.contentHash) &&
+			Objects.equals(eneoBlobId, that.eneoBlobId);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(contentHash, eneoBlobId);
+	}
+}
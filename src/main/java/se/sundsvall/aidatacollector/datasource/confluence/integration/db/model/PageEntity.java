@@ -1,11 +1,17 @@
 package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
 
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Objects;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(name = "confluence_pages")
@@ -27,6 +33,18 @@ public class PageEntity {
 	@Column(name = "updated_at")
 	private LocalDateTime updatedAt;
 
+	@Column(name = "content_hash", length = 64)
+	private String contentHash;
+
+	@Column(name = "text_hash", length = 64)
+	private String textHash;
+
+	@ElementCollection
+	@CollectionTable(name = "confluence_page_chunks", joinColumns = @JoinColumn(name = "page_id"))
+	@OrderColumn(name = "chunk_index")
+	@BatchSize(size = 50)
+	private List<PageChunkEmbeddable> chunks;
+
 	public PageEntity() {}
 
 	PageEntity(final String pageId, final String municipalityId, final String eneoGroupId, final String eneoBlobId, final LocalDateTime updatedAt) {
@@ -106,6 +124,45 @@ public class PageEntity {
 		return this;
 	}
 
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(final String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	public PageEntity withContentHash(final String contentHash) {
+		this.contentHash = contentHash;
+		return this;
+	}
+
+	public String getTextHash() {
+		return textHash;
+	}
+
+	public void setTextHash(final String textHash) {
+		this.textHash = textHash;
+	}
+
+	public PageEntity withTextHash(final String textHash) {
+		this.textHash = textHash;
+		return this;
+	}
+
+	public List<PageChunkEmbeddable> getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(final List<PageChunkEmbeddable> chunks) {
+		this.chunks = chunks;
+	}
+
+	public PageEntity withChunks(final List<PageChunkEmbeddable> chunks) {
+		this.chunks = chunks;
+		return this;
+	}
+
 	@Override
 	public boolean equals(final Object o) {
 		if (this == o) {
@@ -118,11 +175,14 @@ public class PageEntity {
 			Objects.equals(municipalityId, that.municipalityId) &&
 			Objects.equals(eneoGroupId, that.eneoGroupId) &&
 			Objects.equals(eneoBlobId, that.eneoBlobId) &&
-			Objects.equals(updatedAt, that.updatedAt);
+			Objects.equals(updatedAt, that.updatedAt) &&
+			Objects.equals(contentHash, that.contentHash) &&
+			Objects.equals(textHash, that.textHash) &&
+			Objects.equals(chunks, that.chunks);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(pageId, municipalityId, eneoGroupId, eneoBlobId, updatedAt);
+		return Objects.hash(pageId, municipalityId, eneoGroupId, eneoBlobId, updatedAt, contentHash, textHash, chunks);
 	}
 }
@@ -0,0 +1,74 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+@Entity
+@Table(name = "confluence_sync_state")
+public class SyncStateEntity {
+
+	@Id
+	@Column(name = "municipality_id", length = 4)
+	private String municipalityId;
+
+	@Column(name = "last_synced_at")
+	private LocalDateTime lastSyncedAt;
+
+	public SyncStateEntity() {}
+
+	SyncStateEntity(final String municipalityId, final LocalDateTime lastSyncedAt) {
+		this.municipalityId = municipalityId;
+		this.lastSyncedAt = lastSyncedAt;
+	}
+
+	public static SyncStateEntity create() {
+		return new SyncStateEntity();
+	}
+
+	public String getMunicipalityId() {
+		return municipalityId;
+	}
+
+	public void setMunicipalityId(final String municipalityId) {
+		this.municipalityId = municipalityId;
+	}
+
+	public SyncStateEntity withMunicipalityId(final String municipalityId) {
+		this.municipalityId = municipalityId;
+		return this;
+	}
+
+	public LocalDateTime getLastSyncedAt() {
+		return lastSyncedAt;
+	}
+
+	public void setLastSyncedAt(final LocalDateTime lastSyncedAt) {
+		this.lastSyncedAt = lastSyncedAt;
+	}
+
+	public SyncStateEntity withLastSyncedAt(final LocalDateTime lastSyncedAt) {
+		this.lastSyncedAt = lastSyncedAt;
+		return this;
+	}
+
+	@Override
+	public boolean equals(final Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof final SyncStateEntity that)) {
+			return false;
+		}
+		return Objects.equals(municipalityId, that.municipalityId) &&
+			Objects.equals(lastSyncedAt, that.lastSyncedAt);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(municipalityId, lastSyncedAt);
+	}
+}
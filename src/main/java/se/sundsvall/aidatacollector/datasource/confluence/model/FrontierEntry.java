@@ -0,0 +1,16 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+import java.time.Instant;
+
+// A page that remains to be visited by a (time-sliced) crawl. The updated-at timestamp is only known for pages
+// discovered through a child listing
+public record FrontierEntry(Long id, String municipalityId, String runId, Instant runStartedAt, String rootId, String pageId, String updatedAtInConfluence) {
+
+	public static FrontierEntry root(final String municipalityId, final String runId, final Instant runStartedAt, final String rootId) {
+		return new FrontierEntry(null, municipalityId, runId, runStartedAt, rootId, rootId, null);
+	}
+
+	public FrontierEntry child(final String pageId, final String updatedAtInConfluence) {
+		return new FrontierEntry(null, municipalityId, runId, runStartedAt, rootId, pageId, updatedAtInConfluence);
+	}
+}
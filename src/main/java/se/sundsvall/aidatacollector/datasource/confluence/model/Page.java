@@ -3,7 +3,6 @@ package se.sundsvall.aidatacollector.datasource.confluence.model;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
-import org.jsoup.Jsoup;
 
 public class Page {
 
@@ -17,13 +16,25 @@ public class Page {
 	private List<String> ancestorIds;
 	private String eneoGroupId;
 	private String eneoBlobId;
+	// A hash of everything about the page that ends up in Eneo, as of when it was last added or updated there
+	private String contentHash;
+	// A hash of the text of the page alone (and its Eneo group), telling text changes from title or url changes
+	private String textHash;
+	// Only set for pages that are split into chunks, each with an info blob of its own
+	private List<PageChunk> chunks;
+
+	// The text of the body, extracted on first use - and reset whenever the body changes
+	private transient String bodyText;
 
 	public static Page create() {
 		return new Page();
 	}
 
 	public String bodyAsText() {
-		return Jsoup.parse(body).text();
+		if (bodyText == null) {
+			bodyText = StorageFormatText.toText(body);
+		}
+		return bodyText;
 	}
 
 	public String url() {
@@ -75,10 +86,11 @@ public class Page {
 
 	public void setBody(final String body) {
 		this.body = body;
+		this.bodyText = null;
 	}
 
 	public Page withBody(final String body) {
-		this.body = body;
+		setBody(body);
 		return this;
 	}
 
@@ -160,6 +172,45 @@ public class Page {
 		return this;
 	}
 
+	public String getContentHash() {
+		return contentHash;
+	}
+
+	public void setContentHash(final String contentHash) {
+		this.contentHash = contentHash;
+	}
+
+	public Page withContentHash(final String contentHash) {
+		this.contentHash = contentHash;
+		return this;
+	}
+
+	public String getTextHash() {
+		return textHash;
+	}
+
+	public void setTextHash(final String textHash) {
+		this.textHash = textHash;
+	}
+
+	public Page withTextHash(final String textHash) {
+		this.textHash = textHash;
+		return this;
+	}
+
+	public List<PageChunk> getChunks() {
+		return chunks;
+	}
+
+	public void setChunks(final List<PageChunk> chunks) {
+		this.chunks = chunks;
+	}
+
+	public Page withChunks(final List<PageChunk> chunks) {
+		this.chunks = chunks;
+		return this;
+	}
+
 	@Override
 	public boolean equals(final Object o) {
 		if (this == o) {
@@ -177,12 +228,15 @@ public class Page {
 			Objects.equals(updatedAt, that.updatedAt) &&
 			Objects.equals(ancestorIds, that.ancestorIds) &&
 			Objects.equals(eneoGroupId, that.eneoGroupId) &&
-			Objects.equals(eneoBlobId, that.eneoBlobId);
+			Objects.equals(eneoBlobId, that.eneoBlobId) &&
+			Objects.equals(contentHash, that.contentHash) &&
+			Objects.equals(textHash, that.textHash) &&
+			Objects.equals(chunks, that.chunks);
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(municipalityId, pageId, title, body, baseUrl, path, updatedAt, ancestorIds, eneoGroupId, eneoBlobId);
+		return Objects.hash(municipalityId, pageId, title, body, baseUrl, path, updatedAt, ancestorIds, eneoGroupId, eneoBlobId, contentHash, textHash, chunks);
 	}
 
 	@Override
@@ -198,6 +252,9 @@ public class Page {
 			", ancestorIds=" + ancestorIds +
 			", eneoGroupId='" + eneoGroupId + '\'' +
 			", eneoBlobId='" + eneoBlobId + '\'' +
+			", contentHash='" + contentHash + '\'' +
+			", textHash='" + textHash + '\'' +
+			", chunks=" + chunks +
 			'}';
 	}
 }
@@ -0,0 +1,6 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+// A section of a page, added to Eneo as an info blob of its own. The content hash tells whether the section
+// has changed since it was added
+public record PageChunk(String contentHash, String eneoBlobId) {
+}
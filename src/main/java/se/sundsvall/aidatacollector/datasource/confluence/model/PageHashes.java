@@ -0,0 +1,5 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+// The hashes stored for a page - of everything that ends up in its Eneo info blob, and of the text alone
+public record PageHashes(String contentHash, String textHash) {
+}
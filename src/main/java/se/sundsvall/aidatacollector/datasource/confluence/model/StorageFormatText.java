@@ -0,0 +1,525 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import org.jsoup.nodes.Entities;
+
+// Extracts the text of Confluence storage format (XHTML with "ac:" and "ri:" elements) in a single streaming
+// pass over the markup, without building a DOM. Text is written straight into a (pooled) buffer, with
+// whitespace collapsed and block elements separated by a space - the same way Jsoup's Element.text() does.
+// Macro parameters, placeholders, scripts and styles are left out, while plain-text macro bodies (kept as
+// CDATA sections, e.g. by the code macro) are included. Options allow for dropping whole macros and for
+// rendering tables compactly, with the cells and rows of each table kept apart. The text may also be split into
+// sections, at the headings of the page (outside of any macro) up to a given level
+public final class StorageFormatText {
+
+	private static final String SPACE = " ";
+	private static final String CELL_SEPARATOR = " | ";
+	private static final String ROW_SEPARATOR = "; ";
+
+	// Elements separating the text before and after them
+	private static final String[] BLOCK_ELEMENTS = {
+		"p", "div", "br", "hr", "li", "ul", "ol", "dl", "dt", "dd", "table", "thead", "tbody", "tfoot", "tr", "td", "th", "caption",
+		"h1", "h2", "h3", "h4", "h5", "h6", "pre", "blockquote", "section", "article", "header", "footer", "nav", "aside", "figure",
+		"figcaption", "address", "details", "summary", "ac:structured-macro", "ac:macro", "ac:rich-text-body", "ac:plain-text-body",
+		"ac:layout", "ac:layout-section", "ac:layout-cell", "ac:task-list", "ac:task", "ac:task-body", "ac:image"
+	};
+
+	// Elements whose content isn't part of the text
+	private static final String[] SKIPPED_ELEMENTS = {
+		"script", "style", "ac:parameter", "ac:default-parameter", "ac:placeholder", "ac:task-id", "ac:task-status"
+	};
+
+	private static final String[] MACRO_ELEMENTS = {
+		"ac:structured-macro", "ac:macro"
+	};
+	private static final String MACRO_NAME_ATTRIBUTE = "ac:name=";
+
+	private static final String[] TABLE_ELEMENTS = {
+		"table"
+	};
+	private static final String[] ROW_ELEMENTS = {
+		"tr"
+	};
+	private static final String[] CELL_ELEMENTS = {
+		"td", "th"
+	};
+	private static final int MAX_HEADING_LEVEL = 6;
+
+	private static final int MAX_POOLED_BUFFERS = 16;
+	private static final int MAX_POOLED_BUFFER_CAPACITY = 1 << 20;
+	private static final ArrayBlockingQueue<StringBuilder> BUFFERS = new ArrayBlockingQueue<>(MAX_POOLED_BUFFERS);
+
+	private StorageFormatText() {}
+
+	public static String toText(final String storageFormat) {
+		return toText(storageFormat, Options.DEFAULT);
+	}
+
+	public static String toText(final String storageFormat, final Options options) {
+		if (storageFormat == null) {
+			return "";
+		}
+
+		final var buffer = acquireBuffer();
+		try {
+			appendText(storageFormat, buffer, options);
+
+			return buffer.toString();
+		} finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	public static void appendText(final CharSequence storageFormat, final StringBuilder out) {
+		appendText(storageFormat, out, Options.DEFAULT);
+	}
+
+	public static void appendText(final CharSequence storageFormat, final StringBuilder out, final Options options) {
+		new Extractor(storageFormat, out, options, 0).run();
+	}
+
+	// Splits the text at the headings up to the given level, e.g. 2 for "h1" and "h2". The text before the first
+	// heading becomes a section without a heading, and sections without any text are left out - so a page without
+	// any text has no sections at all
+	public static List<Section> toSections(final String storageFormat, final Options options, final int maxHeadingLevel) {
+		if (storageFormat == null) {
+			return List.of();
+		}
+
+		final var buffer = acquireBuffer();
+		try {
+			final var extractor = new Extractor(storageFormat, buffer, options, Math.clamp(maxHeadingLevel, 1, MAX_HEADING_LEVEL));
+			extractor.run();
+
+			return extractor.toSections();
+		} finally {
+			releaseBuffer(buffer);
+		}
+	}
+
+	// The names of the macros to leave out entirely (e.g. "toc"), and whether tables should be rendered with
+	// their cells and rows separated
+	public record Options(List<String> droppedMacros, boolean compactTables) {
+
+		public static final Options DEFAULT = new Options(List.of(), false);
+
+		public Options {
+			droppedMacros = droppedMacros.stream()
+				.map(name -> name.toLowerCase(Locale.ROOT))
+				.toList();
+		}
+	}
+
+	// A part of the text, starting with its heading (if any)
+	public record Section(String heading, String text) {
+	}
+
+	private static StringBuilder acquireBuffer() {
+		final var buffer = BUFFERS.poll();
+
+		return buffer != null ? buffer : new StringBuilder(8192);
+	}
+
+	private static void releaseBuffer(final StringBuilder buffer) {
+		// Don't hold on to the buffers of huge pages
+		if (buffer.capacity() <= MAX_POOLED_BUFFER_CAPACITY) {
+			buffer.setLength(0);
+			BUFFERS.offer(buffer);
+		}
+	}
+
+	private static final class Extractor {
+
+		private final CharSequence in;
+		private final StringBuilder out;
+		private final Options options;
+		private final int start;
+		private final int[] codePoints = new int[2];
+		private final int maxHeadingLevel;
+		// The start of each section, and the end of its heading (or -1 when there's no heading)
+		private final List<int[]> sectionBounds = new ArrayList<>();
+
+		private int position;
+		private int skipDepth;
+		private String pendingSeparator;
+		private int macroDepth;
+		private int droppedMacroDepth = -1;
+		private boolean isFirstRow;
+		private boolean isFirstCell;
+		private int sectionStart;
+		private int openHeadingLevel;
+
+		private Extractor(final CharSequence in, final StringBuilder out, final Options options, final int maxHeadingLevel) {
+			this.in = in;
+			this.out = out;
+			this.options = options;
+			this.maxHeadingLevel = maxHeadingLevel;
+			start = out.length();
+			sectionStart = start;
+		}
+
+		private void run() {
+			while (position < in.length()) {
+				final var c = in.charAt(position);
+				if (c == '<') {
+					readMarkup();
+				} else if (c == '&') {
+					readEntity();
+				} else {
+					appendText(c);
+					position++;
+				}
+			}
+		}
+
+		private void readMarkup() {
+			if (startsWith("<!--")) {
+				position = indexOf("-->", position + 4) + 3;
+			} else if (startsWith("<![CDATA[")) {
+				final var end = indexOf("]]>", position + 9);
+				for (var i = position + 9; i < Math.min(end, in.length()); i++) {
+					appendText(in.charAt(i));
+				}
+				position = end + 3;
+			} else if (startsWith("<!") || startsWith("<?")) {
+				position = indexOf(">", position + 2) + 1;
+			} else {
+				readTag();
+			}
+		}
+
+		private void readTag() {
+			final var isEndTag = position + 1 < in.length() && in.charAt(position + 1) == '/';
+			final var nameStart = position + (isEndTag ? 2 : 1);
+
+			var nameEnd = nameStart;
+			while (nameEnd < in.length() && !isTagNameEnd(in.charAt(nameEnd))) {
+				nameEnd++;
+			}
+
+			if (nameEnd == nameStart) {
+				// Not a tag after all, e.g. "a < b"
+				appendText('<');
+				position++;
+				return;
+			}
+
+			// Find the end of the tag, minding any quoted attribute values
+			var end = nameEnd;
+			var quote = (char) 0;
+			while (end < in.length() && (quote != 0 || in.charAt(end) != '>')) {
+				final var c = in.charAt(end);
+				if (quote != 0) {
+					quote = c == quote ? 0 : quote;
+				} else if (c == '"' || c == '\'') {
+					quote = c;
+				}
+				end++;
+			}
+			final var isSelfClosing = end > nameEnd && in.charAt(end - 1) == '/';
+			position = Math.min(end + 1, in.length());
+
+			if (isOneOf(SKIPPED_ELEMENTS, nameStart, nameEnd)) {
+				if (isEndTag) {
+					skipDepth = Math.max(0, skipDepth - 1);
+				} else if (!isSelfClosing) {
+					skipDepth++;
+				}
+				return;
+			}
+
+			if (isMacro(nameStart, nameEnd) && !isSelfClosing) {
+				readMacroTag(isEndTag, nameEnd, end);
+			}
+
+			if (maxHeadingLevel > 0 && !isSelfClosing) {
+				readHeadingTag(isEndTag, nameStart, nameEnd);
+			}
+
+			if (options.compactTables() && !isEndTag && readTableTag(nameStart, nameEnd)) {
+				return;
+			}
+
+			if (isOneOf(BLOCK_ELEMENTS, nameStart, nameEnd)) {
+				setPendingSeparator(SPACE);
+			}
+		}
+
+		private void readMacroTag(final boolean isEndTag, final int attributesStart, final int attributesEnd) {
+			if (isEndTag) {
+				// Stop dropping once the end of the dropped macro (rather than of any macro nested in it) is reached
+				if (macroDepth == droppedMacroDepth) {
+					skipDepth = Math.max(0, skipDepth - 1);
+					droppedMacroDepth = -1;
+				}
+				macroDepth = Math.max(0, macroDepth - 1);
+				return;
+			}
+
+			macroDepth++;
+			if (droppedMacroDepth < 0 && isDroppedMacro(attributesStart, attributesEnd)) {
+				droppedMacroDepth = macroDepth;
+				skipDepth++;
+			}
+		}
+
+		// Starts a new section at each heading up to the max level - unless it's within a (dropped) macro
+		private void readHeadingTag(final boolean isEndTag, final int nameStart, final int nameEnd) {
+			final var level = getHeadingLevel(nameStart, nameEnd);
+			if (level == 0 || level > maxHeadingLevel || macroDepth > 0 || skipDepth > 0) {
+				return;
+			}
+
+			if (isEndTag) {
+				if (level == openHeadingLevel) {
+					sectionBounds.getLast()[1] = out.length();
+					openHeadingLevel = 0;
+				}
+				return;
+			}
+
+			sectionBounds.add(new int[] {
+				out.length(), -1
+			});
+			sectionStart = out.length();
+			pendingSeparator = null;
+			openHeadingLevel = level;
+		}
+
+		private int getHeadingLevel(final int nameStart, final int nameEnd) {
+			if (nameEnd - nameStart != 2 || Character.toLowerCase(in.charAt(nameStart)) != 'h') {
+				return 0;
+			}
+			final var level = in.charAt(nameStart + 1) - '0';
+
+			return level >= 1 && level <= MAX_HEADING_LEVEL ? level : 0;
+		}
+
+		private List<Section> toSections() {
+			final var sections = new ArrayList<Section>(sectionBounds.size() + 1);
+
+			var previousEnd = start;
+			var previousHeadingEnd = -1;
+			for (final var bounds : sectionBounds) {
+				addSection(sections, previousEnd, previousHeadingEnd, bounds[0]);
+				previousEnd = bounds[0];
+				previousHeadingEnd = bounds[1];
+			}
+			addSection(sections, previousEnd, previousHeadingEnd, out.length());
+
+			return sections;
+		}
+
+		private void addSection(final List<Section> sections, final int sectionStart, final int headingEnd, final int sectionEnd) {
+			if (sectionEnd > sectionStart) {
+				final var heading = headingEnd > sectionStart ? out.substring(sectionStart, headingEnd) : null;
+
+				sections.add(new Section(heading, out.substring(sectionStart, sectionEnd)));
+			}
+		}
+
+		// Separates the cells of table rows, and the rows of tables, returning true if the tag was handled
+		private boolean readTableTag(final int nameStart, final int nameEnd) {
+			if (isOneOf(TABLE_ELEMENTS, nameStart, nameEnd)) {
+				isFirstRow = true;
+				setPendingSeparator(SPACE);
+			} else if (isOneOf(ROW_ELEMENTS, nameStart, nameEnd)) {
+				setPendingSeparator(isFirstRow ? SPACE : ROW_SEPARATOR);
+				isFirstRow = false;
+				isFirstCell = true;
+			} else if (isOneOf(CELL_ELEMENTS, nameStart, nameEnd)) {
+				setPendingSeparator(isFirstCell ? SPACE : CELL_SEPARATOR);
+				isFirstCell = false;
+			} else {
+				return false;
+			}
+			return true;
+		}
+
+		private boolean isMacro(final int nameStart, final int nameEnd) {
+			return isOneOf(MACRO_ELEMENTS, nameStart, nameEnd);
+		}
+
+		private boolean isDroppedMacro(final int attributesStart, final int attributesEnd) {
+			if (options.droppedMacros().isEmpty()) {
+				return false;
+			}
+
+			// Find the value of the "ac:name" attribute
+			var i = attributesStart;
+			while (i < attributesEnd) {
+				if (regionMatchesIgnoreCase(MACRO_NAME_ATTRIBUTE, i) && (i + MACRO_NAME_ATTRIBUTE.length() < attributesEnd)) {
+					final var quote = in.charAt(i + MACRO_NAME_ATTRIBUTE.length());
+					final var valueStart = i + MACRO_NAME_ATTRIBUTE.length() + 1;
+					var valueEnd = valueStart;
+					while (valueEnd < attributesEnd && in.charAt(valueEnd) != quote) {
+						valueEnd++;
+					}
+
+					for (final var droppedMacro : options.droppedMacros()) {
+						if (droppedMacro.length() == valueEnd - valueStart && regionMatchesIgnoreCase(droppedMacro, valueStart)) {
+							return true;
+						}
+					}
+					return false;
+				}
+				i++;
+			}
+			return false;
+		}
+
+		private void readEntity() {
+			// Entities are short - give up on anything that doesn't look like one
+			var end = position + 1;
+			while (end < in.length() && end - position <= 32 && isEntityNameChar(in.charAt(end))) {
+				end++;
+			}
+
+			if (end >= in.length() || in.charAt(end) != ';' || end == position + 1) {
+				appendText('&');
+				position++;
+				return;
+			}
+
+			final var codePointCount = decodeEntity(position + 1, end);
+			if (codePointCount == 0) {
+				appendText('&');
+				position++;
+				return;
+			}
+
+			for (var i = 0; i < codePointCount; i++) {
+				appendCodePoint(codePoints[i]);
+			}
+			position = end + 1;
+		}
+
+		private int decodeEntity(final int nameStart, final int nameEnd) {
+			if (in.charAt(nameStart) != '#') {
+				return Entities.codepointsForName(in.subSequence(nameStart, nameEnd).toString(), codePoints);
+			}
+
+			final var isHex = nameStart + 1 < nameEnd && (in.charAt(nameStart + 1) == 'x' || in.charAt(nameStart + 1) == 'X');
+			final var digitsStart = nameStart + (isHex ? 2 : 1);
+			if (digitsStart == nameEnd) {
+				return 0;
+			}
+
+			var codePoint = 0;
+			for (var i = digitsStart; i < nameEnd; i++) {
+				final var digit = Character.digit(in.charAt(i), isHex ? 16 : 10);
+				if (digit < 0 || codePoint > Character.MAX_CODE_POINT) {
+					return 0;
+				}
+				codePoint = codePoint * (isHex ? 16 : 10) + digit;
+			}
+
+			if (!Character.isValidCodePoint(codePoint)) {
+				return 0;
+			}
+			codePoints[0] = codePoint;
+			return 1;
+		}
+
+		private void appendCodePoint(final int codePoint) {
+			if (Character.isBmpCodePoint(codePoint)) {
+				appendText((char) codePoint);
+			} else if (skipDepth == 0) {
+				appendPendingSpace();
+				out.appendCodePoint(codePoint);
+			}
+		}
+
+		private void appendText(final char c) {
+			if (skipDepth > 0) {
+				return;
+			}
+
+			if (isWhitespace(c)) {
+				setPendingSeparator(SPACE);
+			} else {
+				appendPendingSpace();
+				out.append(c);
+			}
+		}
+
+		private void appendPendingSpace() {
+			// Never lead with a separator, and never put more than one in a row
+			if (pendingSeparator != null && out.length() > sectionStart) {
+				out.append(pendingSeparator);
+			}
+			pendingSeparator = null;
+		}
+
+		private void setPendingSeparator(final String separator) {
+			// Table separators take precedence over plain spaces
+			if (pendingSeparator == null || SPACE.equals(pendingSeparator)) {
+				pendingSeparator = separator;
+			}
+		}
+
+		private boolean startsWith(final String prefix) {
+			if (position + prefix.length() > in.length()) {
+				return false;
+			}
+			for (var i = 0; i < prefix.length(); i++) {
+				if (in.charAt(position + i) != prefix.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		// Returns the index of the given string, or the end of the input if it's missing
+		private int indexOf(final String string, final int from) {
+			for (var i = from; i <= in.length() - string.length(); i++) {
+				var matches = true;
+				for (var j = 0; j < string.length() && matches; j++) {
+					matches = in.charAt(i + j) == string.charAt(j);
+				}
+				if (matches) {
+					return i;
+				}
+			}
+			return in.length();
+		}
+
+		private boolean isOneOf(final String[] names, final int nameStart, final int nameEnd) {
+			final var length = nameEnd - nameStart;
+			for (final var name : names) {
+				if (name.length() == length && regionMatchesIgnoreCase(name, nameStart)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean regionMatchesIgnoreCase(final String name, final int offset) {
+			if (offset + name.length() > in.length()) {
+				return false;
+			}
+			for (var i = 0; i < name.length(); i++) {
+				if (Character.toLowerCase(in.charAt(offset + i)) != name.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static boolean isTagNameEnd(final char c) {
+			return c == '>' || c == '/' || isWhitespace(c);
+		}
+
+		private static boolean isEntityNameChar(final char c) {
+			return Character.isLetterOrDigit(c) || c == '#';
+		}
+
+		private static boolean isWhitespace(final char c) {
+			// Non-breaking spaces are collapsed as well, as by Jsoup
+			return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == '\u00A0';
+		}
+	}
+}
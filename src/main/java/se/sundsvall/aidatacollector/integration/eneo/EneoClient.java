@@ -2,8 +2,8 @@ package se.sundsvall.aidatacollector.integration.eneo;
 
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
+import generated.se.sundsvall.eneo.InfoBlobUpdatePublic;
 import generated.se.sundsvall.eneo.InfoBlobUpsertRequest;
-import generated.se.sundsvall.eneo.PaginatedResponseInfoBlobPublic;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -16,7 +16,13 @@ public interface EneoClient {
 		value = "/groups/{id}/info-blobs/",
 		produces = APPLICATION_JSON_VALUE,
 		consumes = APPLICATION_JSON_VALUE)
-	PaginatedResponseInfoBlobPublic addInfoBlobs(@PathVariable String id, @RequestBody InfoBlobUpsertRequest infoBlobs);
+	InfoBlobReferences addInfoBlobs(@PathVariable String id, @RequestBody InfoBlobUpsertRequest infoBlobs);
+
+	@PostMapping(
+		value = "/info-blobs/{id}/",
+		produces = APPLICATION_JSON_VALUE,
+		consumes = APPLICATION_JSON_VALUE)
+	InfoBlobReferences.InfoBlobReference updateInfoBlob(@PathVariable String id, @RequestBody InfoBlobUpdatePublic infoBlob);
 
 	@DeleteMapping(
 		value = "/info-blobs/{id}/",
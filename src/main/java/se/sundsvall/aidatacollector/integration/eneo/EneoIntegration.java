@@ -4,44 +4,96 @@ import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
 
 import generated.se.sundsvall.eneo.InfoBlobAddPublic;
 import generated.se.sundsvall.eneo.InfoBlobMetadataUpsertPublic;
+import generated.se.sundsvall.eneo.InfoBlobUpdatePublic;
 import generated.se.sundsvall.eneo.InfoBlobUpsertRequest;
 import java.util.List;
 import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.zalando.problem.Problem;
 
 @Service
 public class EneoIntegration {
 
+	private static final Logger LOG = LoggerFactory.getLogger(EneoIntegration.class);
+
 	private final Map<String, EneoClient> eneoClients;
+	private final EneoQuotas eneoQuotas;
 
-	EneoIntegration(final Map<String, EneoClient> eneoClients) {
+	EneoIntegration(final Map<String, EneoClient> eneoClients, final EneoQuotas eneoQuotas) {
 		this.eneoClients = eneoClients;
+		this.eneoQuotas = eneoQuotas;
 	}
 
 	public String addInfoBlob(final String municipalityId, final String groupId, final String title, final String body, final String url) {
+		return addInfoBlobs(municipalityId, groupId, List.of(new InfoBlob(title, body, url))).getFirst();
+	}
+
+	public List<String> addInfoBlobs(final String municipalityId, final String groupId, final List<InfoBlob> infoBlobs) {
 		final var request = new InfoBlobUpsertRequest()
-			.infoBlobs(List.of(
-				new InfoBlobAddPublic()
+			.infoBlobs(infoBlobs.stream()
+				.map(infoBlob -> new InfoBlobAddPublic()
 					.metadata(new InfoBlobMetadataUpsertPublic()
-						.title(title)
-						.url(url))
-					.text(body)));
+						.title(infoBlob.title())
+						.url(infoBlob.url()))
+					.text(infoBlob.body()))
+				.toList());
+
+		// Every character of the text is embedded, and so counts against the quota
+		final var client = getClient(municipalityId);
+		eneoQuotas.acquire(municipalityId, groupId, infoBlobs.stream()
+			.mapToLong(infoBlob -> infoBlob.body() == null ? 0 : infoBlob.body().length())
+			.sum());
 
-		final var response = getClient(municipalityId).addInfoBlobs(groupId, request);
+		// The added info blobs are returned in the same order as they were given
+		final var blobIds = client.addInfoBlobs(groupId, request).ids();
 
-		return response.getItems().getFirst().getId().toString();
+		// Without one info blob for each one given, there's no telling which is which - remove them, rather than
+		// leaving them behind unaccounted for
+		if (blobIds.size() != infoBlobs.size()) {
+			blobIds.forEach(blobId -> deleteInfoBlob(municipalityId, blobId));
+
+			throw Problem.valueOf(INTERNAL_SERVER_ERROR, "Eneo returned %d info blob(s) when adding %d to group %s".formatted(blobIds.size(), infoBlobs.size(), groupId));
+		}
+		return blobIds;
 	}
 
 	public String updateInfoBlob(final String municipalityId, final String groupId, final String blobId, final String title, final String body, final String url) {
-		// Delete the current info blob
-		deleteInfoBlob(municipalityId, blobId);
-		// Add a new info blob
-		return addInfoBlob(municipalityId, groupId, title, body, url);
+		// Eneo can't update the text of an info blob in place - add a new info blob, and only then delete the
+		// current one, so that the content never goes missing from search in between
+		final var newBlobId = addInfoBlob(municipalityId, groupId, title, body, url);
+
+		// Once the new info blob is added, its id must reach the caller - a failure to delete the current one (which
+		// may well be gone already) mustn't lose it, or the new info blob would be left behind unaccounted for
+		try {
+			deleteInfoBlob(municipalityId, blobId);
+		} catch (final RuntimeException e) {
+			LOG.warn("Unable to delete info blob {} replaced by info blob {} (municipalityId: {})", blobId, newBlobId, municipalityId, e);
+		}
+
+		return newBlobId;
+	}
+
+	// Updates the title and url of the info blob in place, keeping its id and without re-embedding its text
+	public void updateInfoBlobMetadata(final String municipalityId, final String blobId, final String title, final String url) {
+		final var client = getClient(municipalityId);
+		eneoQuotas.acquire(municipalityId, null, 0);
+
+		client.updateInfoBlob(blobId, new InfoBlobUpdatePublic()
+			.metadata(new InfoBlobMetadataUpsertPublic()
+				.title(title)
+				.url(url)));
 	}
 
 	public void deleteInfoBlob(final String municipalityId, final String blobId) {
-		getClient(municipalityId).deleteInfoBlob(blobId);
+		final var client = getClient(municipalityId);
+		eneoQuotas.acquire(municipalityId, null, 0);
+
+		client.deleteInfoBlob(blobId);
+	}
+
+	public record InfoBlob(String title, String body, String url) {
 	}
 
 	private EneoClient getClient(final String municipalityId) {
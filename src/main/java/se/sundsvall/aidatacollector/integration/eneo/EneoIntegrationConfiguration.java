@@ -1,5 +1,6 @@
 package se.sundsvall.aidatacollector.integration.eneo;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.HashMap;
 import java.util.Map;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -11,9 +12,11 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import se.sundsvall.aidatacollector.configuration.HttpTransports;
 import se.sundsvall.dept44.configuration.feign.FeignConfiguration;
 import se.sundsvall.dept44.configuration.feign.FeignMultiCustomizer;
 import se.sundsvall.dept44.configuration.feign.decoder.ProblemErrorDecoder;
+import se.sundsvall.dept44.security.Truststore;
 
 @Configuration
 @Import(FeignConfiguration.class)
@@ -24,10 +27,15 @@ class EneoIntegrationConfiguration {
 
 	private final ApplicationContext applicationContext;
 	private final EneoIntegrationProperties properties;
+	private final Truststore truststore;
+	private final MeterRegistry meterRegistry;
 
-	EneoIntegrationConfiguration(final ApplicationContext applicationContext, final EneoIntegrationProperties properties) {
+	EneoIntegrationConfiguration(final ApplicationContext applicationContext, final EneoIntegrationProperties properties, final Truststore truststore,
+		final MeterRegistry meterRegistry) {
 		this.applicationContext = applicationContext;
 		this.properties = properties;
+		this.truststore = truststore;
+		this.meterRegistry = meterRegistry;
 	}
 
 	@Bean
@@ -35,26 +43,26 @@ class EneoIntegrationConfiguration {
 		final Map<String, EneoClient> eneoClients = new HashMap<>();
 
 		properties.municipalities().forEach((municipalityId, config) -> {
-			final var client = createEneoClient(municipalityId, config.apiKey(), config.url());
+			final var client = createEneoClient(municipalityId, config);
 			eneoClients.put(municipalityId, client);
 		});
 
 		return eneoClients;
 	}
 
-	private EneoClient createEneoClient(final String municipalityId, final String apiKey, final String url) {
+	private EneoClient createEneoClient(final String municipalityId, final EneoIntegrationProperties.Municipality config) {
 		final var clientId = INTEGRATION_NAME + "-" + municipalityId;
 		return new FeignClientBuilder(applicationContext)
 			.forType(EneoClient.class, clientId)
-			.customize(feignBuilderCustomizer(clientId, apiKey))
-			.url(url)
+			.customize(feignBuilderCustomizer(clientId, config))
+			.url(config.url())
 			.build();
 	}
 
-	private FeignBuilderCustomizer feignBuilderCustomizer(final String clientId, final String apiKey) {
-		return FeignMultiCustomizer.create()
+	private FeignBuilderCustomizer feignBuilderCustomizer(final String clientId, final EneoIntegrationProperties.Municipality config) {
+		final var customizer = FeignMultiCustomizer.create()
 			.withErrorDecoder(new ProblemErrorDecoder(clientId))
-			.withRequestInterceptor(request -> request.header("api-key", apiKey))
+			.withRequestInterceptor(request -> request.header("api-key", config.apiKey()))
 			.withRetryableOAuth2InterceptorForClientRegistration(ClientRegistration
 				.withRegistrationId(clientId)
 				.tokenUri(properties.oauth2().tokenUrl())
@@ -62,7 +70,14 @@ class EneoIntegrationConfiguration {
 				.clientSecret(properties.oauth2().clientSecret())
 				.authorizationGrantType(new AuthorizationGrantType(properties.oauth2().authorizationGrantType()))
 				.build())
-			.withRequestTimeoutsInSeconds(properties.connectTimeoutInSeconds(), properties.readTimeoutInSeconds())
-			.composeCustomizersToOne();
+			.withRequestTimeoutsInSeconds(properties.connectTimeoutInSeconds(), properties.readTimeoutInSeconds());
+
+		// Without transport settings, the client shares the default HTTP client
+		if (config.transport() != null) {
+			final var client = HttpTransports.create(clientId, config.transport(), truststore, meterRegistry);
+			customizer.withCustomizer(builder -> builder.client(client));
+		}
+
+		return customizer.composeCustomizersToOne();
 	}
 }
@@ -4,10 +4,12 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
+import se.sundsvall.aidatacollector.configuration.HttpTransportProperties;
 
 @Validated
 @ConfigurationProperties(prefix = "integration.eneo")
@@ -25,7 +27,22 @@ record EneoIntegrationProperties(
 
 		@NotBlank String url,
 
-		@NotBlank String apiKey) {
+		@NotBlank String apiKey,
+
+		@Valid Quota quota,
+
+		@Valid Quota groupQuota,
+
+		@Valid HttpTransportProperties transport) {
+	}
+
+	// A share of the Eneo backend - for the municipality as a whole (quota), or for each of its Eneo groups
+	// (group quota). A rate of zero means unlimited
+	record Quota(
+
+		@DefaultValue("0") @PositiveOrZero double requestsPerSecond,
+
+		@DefaultValue("0") @PositiveOrZero long charactersPerMinute) {
 	}
 
 	record Oauth2(
@@ -0,0 +1,88 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import static java.util.Optional.ofNullable;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Keeps each municipality, and each Eneo group within it, to its share of the Eneo backend - in requests per second
+// and characters (of text to embed) per minute. Calls over budget wait for it to refill, rather than failing. The
+// remaining budgets are exposed as the eneo.quota.requests.available and eneo.quota.characters.available gauges
+@Component
+class EneoQuotas {
+
+	// The group tag of the budget of the municipality as a whole
+	static final String ALL_GROUPS = "all";
+
+	private final EneoIntegrationProperties properties;
+	private final MeterRegistry meterRegistry;
+	private final TokenBucket.Ticker ticker;
+	private final Map<String, Budget> budgets = new ConcurrentHashMap<>();
+
+	@Autowired
+	EneoQuotas(final EneoIntegrationProperties properties, final MeterRegistry meterRegistry) {
+		this(properties, meterRegistry, TokenBucket.Ticker.SYSTEM);
+	}
+
+	EneoQuotas(final EneoIntegrationProperties properties, final MeterRegistry meterRegistry, final TokenBucket.Ticker ticker) {
+		this.properties = properties;
+		this.meterRegistry = meterRegistry;
+		this.ticker = ticker;
+	}
+
+	// Waits until a request, carrying the given number of characters to embed, fits the budget of the group (if
+	// any) and then of the municipality - the narrower budget first, so the wider one isn't spent while waiting
+	void acquire(final String municipalityId, final String groupId, final long characters) {
+		final var municipality = properties.municipalities().get(municipalityId);
+		if (municipality == null) {
+			return;
+		}
+
+		if (groupId != null && municipality.groupQuota() != null) {
+			getBudget(municipalityId, groupId, municipality.groupQuota()).acquire(characters);
+		}
+		if (municipality.quota() != null) {
+			getBudget(municipalityId, ALL_GROUPS, municipality.quota()).acquire(characters);
+		}
+	}
+
+	private Budget getBudget(final String municipalityId, final String groupId, final EneoIntegrationProperties.Quota quota) {
+		return budgets.computeIfAbsent(municipalityId + "/" + groupId, _ -> {
+			final var tags = Tags.of("municipalityId", municipalityId, "groupId", groupId);
+			final var requests = createBucket(quota.requestsPerSecond(), Duration.ofSeconds(1), "eneo.quota.requests.available", tags);
+			final var characters = createBucket(quota.charactersPerMinute(), Duration.ofMinutes(1), "eneo.quota.characters.available", tags);
+
+			return new Budget(requests, characters);
+		});
+	}
+
+	// No bucket at all for an unlimited (zero) rate
+	private TokenBucket createBucket(final double rate, final Duration period, final String meterName, final Tags tags) {
+		if (rate <= 0) {
+			return null;
+		}
+
+		final var bucket = new TokenBucket(rate, period, ticker);
+		Gauge.builder(meterName, bucket, TokenBucket::available)
+			.tags(tags)
+			.register(meterRegistry);
+
+		return bucket;
+	}
+
+	private record Budget(TokenBucket requests, TokenBucket characters) {
+
+		void acquire(final long characterCount) {
+			ofNullable(requests).ifPresent(bucket -> bucket.acquire(1));
+			if (characterCount > 0) {
+				ofNullable(characters).ifPresent(bucket -> bucket.acquire(characterCount));
+			}
+		}
+	}
+}
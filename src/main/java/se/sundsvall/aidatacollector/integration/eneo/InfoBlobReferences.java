@@ -0,0 +1,24 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import static java.util.Optional.ofNullable;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.util.List;
+
+// Lean view of the info blobs Eneo returns when adding or updating - only the ids are decoded, while the
+// rest, including the full text echoed back for each info blob, is skipped by the parser without being
+// materialised
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record InfoBlobReferences(List<InfoBlobReference> items) {
+
+	// The ids, in the order Eneo returned the info blobs
+	List<String> ids() {
+		return ofNullable(items).orElse(List.of()).stream()
+			.map(InfoBlobReference::id)
+			.toList();
+	}
+
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public record InfoBlobReference(String id) {
+	}
+}
@@ -0,0 +1,90 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import java.time.Duration;
+
+// A budget of tokens that refills continuously - a full bucket's worth per period - and that callers wait on when
+// it's spent. Taking more tokens than the bucket holds is allowed once it's full, leaving it in debt, so that
+// oversized calls are slowed down rather than blocked for good
+final class TokenBucket {
+
+	private final double capacity;
+	private final double tokensPerNano;
+	private final Ticker ticker;
+
+	private double tokens;
+	private long refilledAtNanos;
+
+	TokenBucket(final double capacity, final Duration period) {
+		this(capacity, period, Ticker.SYSTEM);
+	}
+
+	TokenBucket(final double capacity, final Duration period, final Ticker ticker) {
+		this.capacity = capacity;
+		this.ticker = ticker;
+		tokensPerNano = capacity / period.toNanos();
+
+		tokens = capacity;
+		refilledAtNanos = ticker.nanoTime();
+	}
+
+	void acquire(final long requestedTokens) {
+		while (true) {
+			final long waitNanos;
+			synchronized (this) {
+				refill();
+
+				final var neededTokens = Math.min(requestedTokens, capacity);
+				if (tokens >= neededTokens) {
+					tokens -= requestedTokens;
+					return;
+				}
+				waitNanos = (long) Math.ceil((neededTokens - tokens) / tokensPerNano);
+			}
+
+			sleep(Math.max(waitNanos, 1));
+		}
+	}
+
+	synchronized double available() {
+		refill();
+
+		return tokens;
+	}
+
+	private void refill() {
+		final var now = ticker.nanoTime();
+		tokens = Math.min(capacity, tokens + (now - refilledAtNanos) * tokensPerNano);
+		refilledAtNanos = now;
+	}
+
+	private void sleep(final long nanos) {
+		try {
+			ticker.sleep(nanos);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			throw new IllegalStateException("Interrupted while waiting for the Eneo quota", e);
+		}
+	}
+
+	// The time the buckets refill by, and wait on - the system's, other than in tests
+	interface Ticker {
+
+		Ticker SYSTEM = new Ticker() {
+
+			@Override
+			public long nanoTime() {
+				return System.nanoTime();
+			}
+
+			@Override
+			public void sleep(final long nanos) throws InterruptedException {
+				Thread.sleep(Duration.ofNanos(nanos));
+			}
+		};
+
+		long nanoTime();
+
+		void sleep(long nanos) throws InterruptedException;
+	}
+}
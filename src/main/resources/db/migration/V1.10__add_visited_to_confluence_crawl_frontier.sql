@@ -0,0 +1,8 @@
+DELETE `duplicate` FROM `confluence_crawl_frontier` AS `duplicate`
+    JOIN `confluence_crawl_frontier` AS `original` ON `original`.`municipality_id` = `duplicate`.`municipality_id`
+        AND `original`.`run_id` = `duplicate`.`run_id`
+        AND `original`.`page_id` = `duplicate`.`page_id`
+        AND `original`.`id` < `duplicate`.`id`;
+ALTER TABLE `confluence_crawl_frontier` ADD COLUMN `visited` BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE `confluence_crawl_frontier` ADD CONSTRAINT municipality_id_run_id_page_id_unique UNIQUE (`municipality_id`, `run_id`, `page_id`);
+ALTER TABLE `confluence_crawl_frontier` ADD INDEX municipality_id_visited_id_index(`municipality_id`, `visited`, `id`);
@@ -0,0 +1,2 @@
+DELETE FROM `confluence_page_chunks` WHERE `page_id` NOT IN (SELECT `page_id` FROM `confluence_pages`);
+ALTER TABLE `confluence_page_chunks` ADD CONSTRAINT confluence_page_chunks_page_id_fk FOREIGN KEY (`page_id`) REFERENCES `confluence_pages` (`page_id`) ON DELETE CASCADE;
@@ -0,0 +1,5 @@
+CREATE TABLE IF NOT EXISTS `confluence_sync_state` (
+    `municipality_id` VARCHAR(4) NOT NULL,
+    `last_synced_at` TIMESTAMP NOT NULL,
+    PRIMARY KEY (`municipality_id`)
+);
@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS `confluence_crawl_frontier` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `municipality_id` VARCHAR(4) NOT NULL,
+    `run_id` VARCHAR(36) NOT NULL,
+    `run_started_at` TIMESTAMP NOT NULL,
+    `root_id` VARCHAR(16) NOT NULL,
+    `page_id` VARCHAR(16) NOT NULL,
+    `updated_at_in_confluence` VARCHAR(32) NULL,
+    PRIMARY KEY (`id`)
+);
+ALTER TABLE `confluence_crawl_frontier` ADD INDEX municipality_id_id_index(`municipality_id`, `id`);
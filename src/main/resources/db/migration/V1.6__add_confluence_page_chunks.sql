@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS `confluence_page_chunks` (
+    `page_id` VARCHAR(16) NOT NULL,
+    `chunk_index` INT NOT NULL,
+    `content_hash` VARCHAR(64) NOT NULL,
+    `blob_id` VARCHAR(36) NOT NULL,
+    PRIMARY KEY (`page_id`, `chunk_index`)
+);
@@ -0,0 +1 @@
+ALTER TABLE `confluence_pages` ADD COLUMN `content_hash` VARCHAR(64) NULL;
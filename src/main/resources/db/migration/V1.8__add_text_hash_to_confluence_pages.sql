@@ -0,0 +1 @@
+ALTER TABLE `confluence_pages` ADD COLUMN `text_hash` VARCHAR(64) NULL;
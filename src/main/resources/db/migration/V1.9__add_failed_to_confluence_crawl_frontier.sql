@@ -0,0 +1 @@
+ALTER TABLE `confluence_crawl_frontier` ADD COLUMN `failed` BOOLEAN NOT NULL DEFAULT FALSE;
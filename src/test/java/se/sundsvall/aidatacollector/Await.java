@@ -0,0 +1,31 @@
+package se.sundsvall.aidatacollector;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+// Waits for other threads to reach a given state (e.g. blocked on a lock or a queue) - so that tests can go on
+// from a known state instead of sleeping for long enough. Fails, rather than hangs, if the state is never reached
+public final class Await {
+
+	private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+	// Parks between the checks rather than spinning, which would keep other virtual threads from running on a
+	// single carrier thread
+	private static final long POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private Await() {}
+
+	public static void until(final String description, final BooleanSupplier condition) {
+		final var giveUpAt = System.nanoTime() + TIMEOUT_NANOS;
+		while (!condition.getAsBoolean()) {
+			assertThat(System.nanoTime() - giveUpAt).as("Gave up waiting until %s", description).isNegative();
+			LockSupport.parkNanos(POLL_INTERVAL_NANOS);
+		}
+	}
+
+	public static void untilState(final Thread thread, final Thread.State state) {
+		until("the thread is " + state, () -> thread.getState() == state);
+	}
+}
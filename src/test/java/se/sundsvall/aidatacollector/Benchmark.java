@@ -0,0 +1,47 @@
+package se.sundsvall.aidatacollector;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// A minimal harness for the benchmarks (test classes named *Benchmark) - which aren't part of the regular build,
+// since their timings depend on the machine they run on. Run them on demand with
+// mvn test -Dtest='*Benchmark' -Dsurefire.failIfNoSpecifiedTests=false
+//
+// Each operation is run a number of times to warm up the JIT, and then measured on the calling thread - both the
+// time and the bytes allocated per operation
+public final class Benchmark {
+
+	private static final Logger LOG = LoggerFactory.getLogger(Benchmark.class);
+
+	// Keeps the results of the operations reachable, so that the JIT can't optimise them away
+	private static volatile Object blackhole;
+
+	private Benchmark() {}
+
+	public static Result measure(final String name, final int warmupIterations, final int iterations, final Supplier<?> operation) {
+		for (var i = 0; i < warmupIterations; i++) {
+			blackhole = operation.get();
+		}
+
+		final var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		final var threadId = Thread.currentThread().threadId();
+
+		final var allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+		final var startedAt = System.nanoTime();
+		for (var i = 0; i < iterations; i++) {
+			blackhole = operation.get();
+		}
+		final var elapsedNanos = System.nanoTime() - startedAt;
+		final var allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+		final var result = new Result(name, elapsedNanos / iterations, allocated / iterations);
+		LOG.info("{}: {} ns/op, {} bytes allocated/op", result.name(), result.nanosPerOperation(), result.bytesPerOperation());
+
+		return result;
+	}
+
+	public record Result(String name, long nanosPerOperation, long bytesPerOperation) {
+	}
+}
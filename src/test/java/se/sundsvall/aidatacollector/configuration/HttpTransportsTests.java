@@ -0,0 +1,138 @@
+package se.sundsvall.aidatacollector.configuration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import se.sundsvall.dept44.security.Truststore;
+
+// Runs the transports against a local stub server, serving a page body in Confluence storage format - which, much
+// like the real thing, compresses very well
+@ExtendWith(MockitoExtension.class)
+class HttpTransportsTests {
+
+	private static final Logger LOG = LoggerFactory.getLogger(HttpTransportsTests.class);
+
+	private static final int REQUESTS = 50;
+	private static final String BODY = "<p>Some paragraph with <strong>some text</strong> in a <ac:structured-macro ac:name=\"info\"/> page.</p>".repeat(2_000);
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final AtomicLong bytesSent = new AtomicLong();
+	private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+	@Mock
+	private Truststore truststoreMock;
+
+	private HttpServer server;
+
+	@BeforeEach
+	void setUp() throws IOException, GeneralSecurityException {
+		final var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init((KeyStore) null);
+		when(truststoreMock.getTrustManagerFactory()).thenReturn(trustManagerFactory);
+		when(truststoreMock.getSSLContext()).thenReturn(SSLContext.getDefault());
+
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/page", this::handle);
+		server.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	void createCompressesResponsesAndReusesConnections() throws IOException {
+		final var client = HttpTransports.create("someClient", new HttpTransportProperties(5, Duration.ofMinutes(5), true, true), truststoreMock, meterRegistry);
+
+		final var elapsed = fetch(client);
+
+		// Every byte of the body, from a fraction of the bytes on the wire, over a single connection
+		assertThat(bytesSent.get()).isLessThan((long) BODY.length() * REQUESTS / 10);
+		assertThat(clientPorts).hasSize(1);
+
+		LOG.info("gzip: {} bytes received in {} for {} requests", bytesSent.get(), elapsed, REQUESTS);
+	}
+
+	@Test
+	void createWithoutGzip() throws IOException {
+		final var client = HttpTransports.create("someClient", new HttpTransportProperties(5, Duration.ofMinutes(5), true, false), truststoreMock, meterRegistry);
+
+		final var elapsed = fetch(client);
+
+		assertThat(bytesSent.get()).isEqualTo((long) BODY.length() * REQUESTS);
+
+		LOG.info("identity: {} bytes received in {} for {} requests", bytesSent.get(), elapsed, REQUESTS);
+	}
+
+	@Test
+	void createRegistersMetrics() throws IOException {
+		final var client = HttpTransports.create("someClient", new HttpTransportProperties(3, Duration.ofMinutes(5), true, true), truststoreMock, meterRegistry);
+
+		fetch(client);
+
+		assertThat(meterRegistry.get(HttpTransports.REQUEST_METRICS_NAME).tags("client", "someClient", "status", "200").timer().count()).isEqualTo(REQUESTS);
+		assertThat(meterRegistry.get("okhttp.pool.connection.count").tags("client", "someClient", "state", "idle").gauge().value()).isOne();
+		assertThat(meterRegistry.get("okhttp.pool.connection.limit").tags("client", "someClient").gauge().value()).isEqualTo(3);
+	}
+
+	private Duration fetch(final feign.Client client) throws IOException {
+		final var request = Request.create(Request.HttpMethod.GET, "http://localhost:%d/page".formatted(server.getAddress().getPort()), Map.of(), null, UTF_8, null);
+
+		final var startedAt = System.nanoTime();
+		for (var i = 0; i < REQUESTS; i++) {
+			try (final var response = client.execute(request, new Request.Options())) {
+				assertThat(response.status()).isEqualTo(200);
+				assertThat(new String(response.body().asInputStream().readAllBytes(), UTF_8)).isEqualTo(BODY);
+			}
+		}
+		return Duration.ofNanos(System.nanoTime() - startedAt);
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		clientPorts.add(exchange.getRemoteAddress().getPort());
+
+		var body = BODY.getBytes(UTF_8);
+		final var acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+		if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+			final var compressed = new ByteArrayOutputStream();
+			try (final var gzip = new GZIPOutputStream(compressed)) {
+				gzip.write(body);
+			}
+			body = compressed.toByteArray();
+			exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+		}
+
+		bytesSent.addAndGet(body.length);
+		exchange.sendResponseHeaders(200, body.length);
+		try (final var responseBody = exchange.getResponseBody()) {
+			responseBody.write(body);
+		}
+	}
+}
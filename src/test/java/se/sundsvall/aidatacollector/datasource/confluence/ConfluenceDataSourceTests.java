@@ -3,11 +3,13 @@ package se.sundsvall.aidatacollector.datasource.confluence;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockConstruction;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
 import java.util.Map;
 import net.javacrumbs.shedlock.core.DefaultLockManager;
@@ -89,7 +91,7 @@ class ConfluenceDataSourceTests {
 
 	private ConfluenceDataSource createDataSource() {
 		return new ConfluenceDataSource(propertiesMock, workerHealthIndicatorMock, confluenceClientRegistryMock, confluencePageMapperMock,
-			dbIntegrationMock, eneoIntegrationMock, pageJsonParserMock, taskSchedulerMock, lockProviderMock);
+			dbIntegrationMock, eneoIntegrationMock, pageJsonParserMock, taskSchedulerMock, lockProviderMock, new SimpleMeterRegistry());
 	}
 
 	@Test
@@ -124,6 +126,37 @@ class ConfluenceDataSourceTests {
 		}
 	}
 
+	@Test
+	void creationAndSchedulingWithIncrementalSync() {
+		final var incrementalSchedulingMock = mock(ConfluenceIntegrationProperties.Environment.Scheduling.class);
+
+		when(environmentMock2.incrementalSync()).thenReturn(new ConfluenceIntegrationProperties.Environment.IncrementalSync(incrementalSchedulingMock, Duration.ofMinutes(5), null));
+		when(incrementalSchedulingMock.enabled()).thenReturn(true);
+		when(incrementalSchedulingMock.cronExpression()).thenReturn("0 */5 * * * *");
+		when(incrementalSchedulingMock.lockAtMostFor()).thenReturn(Duration.ofMinutes(2));
+
+		try (final var defaultLockingTaskExecutorMock = mockConstruction(DefaultLockingTaskExecutor.class);
+			final var lockConfigurationMock = mockConstruction(LockConfiguration.class);
+			final var cronTriggerMock = mockConstruction(CronTrigger.class);
+			final var lockableTaskScheduler = mockConstruction(LockableTaskScheduler.class);
+			final var workerMock = mockConstruction(ConfluenceWorker.class)) {
+			// Create the data source
+			dataSource = createDataSource();
+
+			verify(incrementalSchedulingMock).enabled();
+			verify(incrementalSchedulingMock).cronExpression();
+			verify(incrementalSchedulingMock).lockAtMostFor();
+
+			// One full sync (first environment) and one incremental sync (second environment) should have been scheduled,
+			// sharing a single executor
+			assertThat(defaultLockingTaskExecutorMock.constructed()).hasSize(1);
+			assertThat(lockConfigurationMock.constructed()).hasSize(2);
+			assertThat(cronTriggerMock.constructed()).hasSize(2);
+			assertThat(lockableTaskScheduler.constructed()).hasSize(2);
+			assertThat(workerMock.constructed()).hasSize(2);
+		}
+	}
+
 	@Test
 	void insertPage() {
 		try (final var workerMock = mockConstruction(ConfluenceWorker.class)) {
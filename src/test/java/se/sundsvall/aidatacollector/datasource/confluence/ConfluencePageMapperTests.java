@@ -1,9 +1,12 @@
 package se.sundsvall.aidatacollector.datasource.confluence;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.time.OffsetDateTime;
 import java.util.List;
 import org.junit.jupiter.api.Test;
@@ -37,7 +40,7 @@ class ConfluencePageMapperTests {
 
 	@Test
 	void toPage() {
-		final var json = "someJson";
+		final var json = new ByteArrayInputStream("someJson".getBytes(UTF_8));
 		final var pageId = "somePageId";
 		final var municipalityId = "someMunicipalityId";
 		final var title = "someTitle";
@@ -77,7 +80,7 @@ class ConfluencePageMapperTests {
 
 	@Test
 	void toPageWhenUpdatedAtIsMissing() {
-		final var json = "someJson";
+		final var json = new ByteArrayInputStream("someJson".getBytes(UTF_8));
 		final var pageId = "somePageId";
 		final var municipalityId = "someMunicipalityId";
 
@@ -88,4 +91,25 @@ class ConfluencePageMapperTests {
 
 		assertThat(page.getUpdatedAt()).isNull();
 	}
+
+	@Test
+	void toPages() {
+		final var municipalityId = "someMunicipalityId";
+		final var baseUrl = "someBaseUrl";
+		final var resultJsonMock = mock(PageJsonParser.PageJson.class);
+
+		when(pageJsonMock.getBaseUrl()).thenReturn(baseUrl);
+		when(pageJsonMock.getResults()).thenReturn(List.of(resultJsonMock));
+		when(resultJsonMock.getId()).thenReturn("somePageId");
+		when(resultJsonMock.getTitle()).thenReturn("someTitle");
+		when(resultJsonMock.getPath()).thenReturn("somePath");
+
+		assertThat(pageMapper.toPages(municipalityId, pageJsonMock)).singleElement().satisfies(page -> {
+			assertThat(page.getPageId()).isEqualTo("somePageId");
+			assertThat(page.getMunicipalityId()).isEqualTo(municipalityId);
+			assertThat(page.getTitle()).isEqualTo("someTitle");
+			assertThat(page.getBaseUrl()).isEqualTo(baseUrl);
+			assertThat(page.getPath()).isEqualTo("somePath");
+		});
+	}
 }
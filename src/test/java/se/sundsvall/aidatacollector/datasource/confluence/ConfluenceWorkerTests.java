@@ -1,30 +1,58 @@
 package se.sundsvall.aidatacollector.datasource.confluence;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
-
+import static se.sundsvall.aidatacollector.datasource.confluence.ConfluenceWorker.LISTING_LIMIT;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+import se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.ListedPage;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceClient;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceClientRegistry;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ReactiveConfluenceClient;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegration;
+import se.sundsvall.aidatacollector.datasource.confluence.model.FrontierEntry;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageChunk;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageHashes;
 import se.sundsvall.aidatacollector.integration.eneo.EneoIntegration;
 import se.sundsvall.dept44.test.extension.ResourceLoaderExtension;
 
@@ -38,6 +66,11 @@ class ConfluenceWorkerTests {
 	private static final String ROOT_ID = "98362";
 	private static final String BLACKLISTED_ROOT_ID = "1212426";
 	private static final String ENEO_GROUP_ID = "someEneoGroupId";
+	private static final String NESTED_ROOT_ID = "98381";
+	private static final String NESTED_ENEO_GROUP_ID = "someNestedEneoGroupId";
+	private static final String UPDATED_AT = "2024-09-10T12:03:28.147Z";
+	private static final String SPACE_KEY = "someSpaceKey";
+	private static final TreeContext TREE_CONTEXT = new TreeContext(ENEO_GROUP_ID, false);
 
 	@Mock
 	private ConfluenceDataSourceHealthIndicator healthIndicatorMock;
@@ -59,6 +92,10 @@ class ConfluenceWorkerTests {
 	private ConfluenceClient confluenceClientMock;
 	@Mock
 	private EneoIntegration eneoIntegrationMock;
+	@Mock
+	private ReactiveConfluenceClient reactiveConfluenceClientMock;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
 	private ConfluenceWorker worker;
 
@@ -73,8 +110,10 @@ class ConfluenceWorkerTests {
 			new ConfluenceIntegrationProperties.Environment.Mapping(ENEO_GROUP_ID, ROOT_ID)));
 
 		when(confluenceClientRegistryMock.getClient(MUNICIPALITY_ID)).thenReturn(confluenceClientMock);
+		// Fetch the content of at most two pages at a time
+		when(environmentMock.contentBatchSize()).thenReturn(2);
 
-		worker = new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock);
+		worker = new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
 	}
 
 	@Test
@@ -86,6 +125,436 @@ class ConfluenceWorkerTests {
 		workerSpy.run();
 
 		verify(workerSpy).processTree(ROOT_ID);
+		verify(workerSpy, never()).processDescendants(anyString());
+		verify(dbIntegrationMock).saveLastSyncedAt(eq(MUNICIPALITY_ID), any(Instant.class));
+	}
+
+	@Test
+	void runWhenTreeFails() {
+		final var workerSpy = spy(worker);
+
+		doAnswer(_ -> {
+			workerSpy.reportFailure("someReason");
+			return null;
+		}).when(workerSpy).processTree(ROOT_ID);
+
+		workerSpy.run();
+
+		// The tree is retried by the next sync, which mustn't skip the changes it missed
+		verify(healthIndicatorMock).setUnhealthy("someReason");
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+	}
+
+	@Test
+	void runAfterFailedRun() {
+		final var workerSpy = spy(worker);
+
+		doAnswer(_ -> {
+			workerSpy.reportFailure("someReason");
+			return null;
+		}).doNothing().when(workerSpy).processTree(ROOT_ID);
+
+		workerSpy.run();
+		workerSpy.run();
+
+		// Only the second run succeeded
+		verify(dbIntegrationMock).saveLastSyncedAt(eq(MUNICIPALITY_ID), any(Instant.class));
+	}
+
+	@Test
+	void runWithDescendantsStrategy() {
+		when(environmentMock.traversalStrategy()).thenReturn(ConfluenceIntegrationProperties.Environment.TraversalStrategy.DESCENDANTS);
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		doNothing().when(workerSpy).processDescendants(ROOT_ID);
+
+		workerSpy.run();
+
+		verify(workerSpy).processDescendants(ROOT_ID);
+		verify(workerSpy, never()).processTree(anyString());
+	}
+
+	@Test
+	void runWhenNeverSyncedAndBootstrapIsConfigured() {
+		when(environmentMock.bootstrap()).thenReturn(new ConfluenceIntegrationProperties.Environment.Bootstrap(List.of(SPACE_KEY), 50));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		when(dbIntegrationMock.getLastSyncedAt(MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		doNothing().when(workerSpy).bootstrap();
+
+		workerSpy.run();
+
+		verify(workerSpy).bootstrap();
+		verify(workerSpy, never()).processTree(anyString());
+		verify(dbIntegrationMock).saveLastSyncedAt(eq(MUNICIPALITY_ID), any(Instant.class));
+	}
+
+	@Test
+	void runWhenBootstrapFails() {
+		when(environmentMock.bootstrap()).thenReturn(new ConfluenceIntegrationProperties.Environment.Bootstrap(List.of(SPACE_KEY), 50));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		when(dbIntegrationMock.getLastSyncedAt(MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(confluenceClientMock.getSpaceContent(SPACE_KEY, 0, ConfluenceWorker.LISTING_LIMIT)).thenThrow(new IllegalStateException("someMessage"));
+
+		workerSpy.run();
+
+		// Without a last synced at, the next run bootstraps again
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+	}
+
+	@Test
+	void runWhenAlreadySyncedAndBootstrapIsConfigured() {
+		when(environmentMock.bootstrap()).thenReturn(new ConfluenceIntegrationProperties.Environment.Bootstrap(List.of(SPACE_KEY), 50));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		when(dbIntegrationMock.getLastSyncedAt(MUNICIPALITY_ID)).thenReturn(Optional.of(Instant.now()));
+		doNothing().when(workerSpy).processTree(ROOT_ID);
+
+		workerSpy.run();
+
+		verify(workerSpy).processTree(ROOT_ID);
+		verify(workerSpy, never()).bootstrap();
+	}
+
+	@Test
+	void bootstrap() {
+		when(environmentMock.bootstrap()).thenReturn(new ConfluenceIntegrationProperties.Environment.Bootstrap(List.of(SPACE_KEY, "someOtherSpaceKey"), 50));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		when(dbIntegrationMock.getPageIds(MUNICIPALITY_ID)).thenReturn(Set.of("someKnownPageId"));
+		doNothing().when(workerSpy).bootstrapSpace(anyString(), any());
+
+		workerSpy.bootstrap();
+
+		verify(healthIndicatorMock).reset();
+		verify(workerSpy).bootstrapSpace(SPACE_KEY, Set.of("someKnownPageId"));
+		verify(workerSpy).bootstrapSpace("someOtherSpaceKey", Set.of("someKnownPageId"));
+	}
+
+	@Test
+	void bootstrapSpace() {
+		final var firstJson = toStream("{\"someKey\": \"someValue\"}");
+		final var secondJson = toStream("{\"someOtherKey\": \"someOtherValue\"}");
+		final var secondPageJsonMock = mock(PageJsonParser.PageJson.class);
+		final var page1 = bootstrapPage("somePageId1", ROOT_ID);
+		final var blacklistedPage = bootstrapPage("somePageId2", ROOT_ID, BLACKLISTED_ROOT_ID);
+		final var knownPage = bootstrapPage("someKnownPageId", ROOT_ID);
+		final var unmappedPage = bootstrapPage("somePageId4");
+		final var page5 = bootstrapPage("somePageId5", ROOT_ID);
+		final var rootPage = bootstrapPage(ROOT_ID);
+
+		when(environmentMock.bootstrap()).thenReturn(new ConfluenceIntegrationProperties.Environment.Bootstrap(List.of(SPACE_KEY), 2));
+		final var bootstrappingWorker = new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+
+		when(confluenceClientMock.getSpaceContent(SPACE_KEY, 0, LISTING_LIMIT)).thenReturn(Optional.of(firstJson));
+		when(confluenceClientMock.getSpaceContent(SPACE_KEY, 4, LISTING_LIMIT)).thenReturn(Optional.of(secondJson));
+		when(pageJsonParserMock.parse(firstJson)).thenReturn(pageJsonMock);
+		when(pageJsonParserMock.parse(secondJson)).thenReturn(secondPageJsonMock);
+		when(pageJsonMock.hasNext()).thenReturn(true);
+		when(secondPageJsonMock.hasNext()).thenReturn(false);
+		when(pageMapperMock.toPages(MUNICIPALITY_ID, pageJsonMock)).thenReturn(List.of(page1, blacklistedPage, knownPage, unmappedPage));
+		when(pageMapperMock.toPages(MUNICIPALITY_ID, secondPageJsonMock)).thenReturn(List.of(page5, rootPage));
+		when(eneoIntegrationMock.addInfoBlobs(eq(MUNICIPALITY_ID), eq(ENEO_GROUP_ID), any())).thenReturn(List.of("someBlobId1", "someBlobId5"), List.of("someRootBlobId"));
+
+		bootstrappingWorker.bootstrapSpace(SPACE_KEY, Set.of("someKnownPageId"));
+
+		// Two batches - one full and one with the remaining page
+		verify(eneoIntegrationMock).addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("title-somePageId1", "body", "base/somePageId1"),
+			new EneoIntegration.InfoBlob("title-somePageId5", "body", "base/somePageId5")));
+		verify(eneoIntegrationMock).addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("title-98362", "body", "base/98362")));
+		verify(dbIntegrationMock).savePages(List.of(page1, page5));
+		verify(dbIntegrationMock).savePages(List.of(rootPage));
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+		verifyNoMoreInteractions(eneoIntegrationMock);
+
+		assertThat(page1.getEneoBlobId()).isEqualTo("someBlobId1");
+		assertThat(page1.getEneoGroupId()).isEqualTo(ENEO_GROUP_ID);
+		assertThat(page5.getEneoBlobId()).isEqualTo("someBlobId5");
+		assertThat(rootPage.getEneoBlobId()).isEqualTo("someRootBlobId");
+		assertThat(blacklistedPage.getEneoBlobId()).isNull();
+		assertThat(knownPage.getEneoBlobId()).isNull();
+		assertThat(unmappedPage.getEneoBlobId()).isNull();
+	}
+
+	@Test
+	void bootstrapSpaceWhenListingFails() {
+		when(environmentMock.bootstrap()).thenReturn(new ConfluenceIntegrationProperties.Environment.Bootstrap(List.of(SPACE_KEY), 2));
+		final var bootstrappingWorker = new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+
+		when(confluenceClientMock.getSpaceContent(SPACE_KEY, 0, LISTING_LIMIT)).thenThrow(new IllegalStateException("someMessage"));
+
+		bootstrappingWorker.bootstrapSpace(SPACE_KEY, Set.of());
+
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+		verifyNoMoreInteractions(eneoIntegrationMock);
+	}
+
+	@Test
+	void runWithSlicing() {
+		final var workerSpy = spy(slicingWorker(100));
+
+		doNothing().when(workerSpy).processSlice();
+
+		workerSpy.run();
+
+		verify(workerSpy).runSlice();
+		verify(workerSpy).processSlice();
+		verify(workerSpy, never()).processTree(anyString());
+		// The watermark is only moved once the whole crawl has completed
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+	}
+
+	@Test
+	void processSliceStartsNewCrawl() {
+		final var runStartedAt = Instant.now();
+		final var rootEntry = FrontierEntry.root(MUNICIPALITY_ID, "someRunId", runStartedAt, ROOT_ID);
+		final var workerSpy = spy(slicingWorker(100));
+
+		when(dbIntegrationMock.getFrontier(MUNICIPALITY_ID, 50)).thenReturn(List.of(), List.of(rootEntry), List.of());
+		doReturn(ConfluenceWorker.FrontierVisit.NONE).when(workerSpy).visitFrontier(List.of(rootEntry));
+
+		workerSpy.processSlice();
+
+		verify(workerSpy).startCrawl();
+		verify(dbIntegrationMock).addToFrontier(argThat(entries -> entries.size() == 1 && entries.getFirst().pageId().equals(ROOT_ID) && entries.getFirst().updatedAtInConfluence() == null));
+		verify(dbIntegrationMock).advanceFrontier(List.of(rootEntry), List.of(), List.of());
+		verify(dbIntegrationMock).hasFailedFrontierEntries(MUNICIPALITY_ID, "someRunId");
+		verify(dbIntegrationMock).saveLastSyncedAt(MUNICIPALITY_ID, runStartedAt);
+		verify(dbIntegrationMock).clearFrontier(MUNICIPALITY_ID);
+	}
+
+	@Test
+	void processSliceMarksFailedEntries() {
+		final var runStartedAt = Instant.now();
+		final var rootEntry = new FrontierEntry(1L, MUNICIPALITY_ID, "someRunId", runStartedAt, ROOT_ID, ROOT_ID, null);
+		final var workerSpy = spy(slicingWorker(1));
+
+		when(dbIntegrationMock.getFrontier(MUNICIPALITY_ID, 1)).thenReturn(List.of(rootEntry), List.of(rootEntry.child("someChildId", UPDATED_AT)));
+		doReturn(TREE_CONTEXT).when(workerSpy).resolveTreeContext(ROOT_ID);
+		when(confluenceClientMock.getContentVersion(ROOT_ID)).thenThrow(new IllegalStateException("someMessage"));
+
+		workerSpy.processSlice();
+
+		// The failed entry is kept in the frontier, marked as failed, for the crawl to know about it once it completes
+		verify(dbIntegrationMock).advanceFrontier(List.of(rootEntry), List.of(rootEntry), List.of());
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+	}
+
+	@Test
+	void processSliceWhenEarlierSliceOfCrawlFailed() {
+		final var runStartedAt = Instant.now();
+		final var childEntry = new FrontierEntry(2L, MUNICIPALITY_ID, "someRunId", runStartedAt, ROOT_ID, "someChildId", UPDATED_AT);
+		final var workerSpy = spy(slicingWorker(100));
+
+		// Nothing fails in this slice, which completes the crawl - but an earlier one did fail
+		when(dbIntegrationMock.getFrontier(MUNICIPALITY_ID, 50)).thenReturn(List.of(childEntry), List.of());
+		doReturn(ConfluenceWorker.FrontierVisit.NONE).when(workerSpy).visitFrontier(List.of(childEntry));
+		when(dbIntegrationMock.hasFailedFrontierEntries(MUNICIPALITY_ID, "someRunId")).thenReturn(true);
+
+		workerSpy.processSlice();
+
+		verify(dbIntegrationMock).advanceFrontier(List.of(childEntry), List.of(), List.of());
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+		verify(dbIntegrationMock).clearFrontier(MUNICIPALITY_ID);
+	}
+
+	@Test
+	void processSliceResumesCrawlAndPausesWhenBudgetIsUsed() {
+		final var runStartedAt = Instant.now();
+		final var rootEntry = new FrontierEntry(1L, MUNICIPALITY_ID, "someRunId", runStartedAt, ROOT_ID, ROOT_ID, null);
+		final var childEntry = rootEntry.child("someChildId", UPDATED_AT);
+		final var persistedChildEntry = new FrontierEntry(2L, MUNICIPALITY_ID, "someRunId", runStartedAt, ROOT_ID, "someChildId", UPDATED_AT);
+		final var workerSpy = spy(slicingWorker(1));
+
+		when(dbIntegrationMock.getFrontier(MUNICIPALITY_ID, 1)).thenReturn(List.of(rootEntry), List.of(persistedChildEntry));
+		doReturn(new ConfluenceWorker.FrontierVisit(List.of(childEntry), List.of())).when(workerSpy).visitFrontier(List.of(rootEntry));
+
+		workerSpy.processSlice();
+
+		verify(workerSpy, never()).startCrawl();
+		verify(dbIntegrationMock).advanceFrontier(List.of(rootEntry), List.of(), List.of(childEntry));
+		verify(workerSpy, never()).visitFrontier(List.of(persistedChildEntry));
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+		verify(dbIntegrationMock, never()).clearFrontier(anyString());
+	}
+
+	@Test
+	void visitFrontierEntry() {
+		final var childPages = List.of(listedPage("someChildId", UPDATED_AT), listedPage("someOtherChildId", UPDATED_AT));
+		final var rootEntry = FrontierEntry.root(MUNICIPALITY_ID, "someRunId", Instant.now(), ROOT_ID);
+		final var childEntry = rootEntry.child("someChildId", UPDATED_AT);
+
+		final var workerSpy = spy(worker);
+
+		doReturn(TREE_CONTEXT).when(workerSpy).resolveTreeContext(ROOT_ID);
+		doNothing().when(workerSpy).processPage(ROOT_ID, TREE_CONTEXT);
+		doNothing().when(workerSpy).processPage("someChildId", UPDATED_AT, TREE_CONTEXT);
+		doReturn(childPages).when(workerSpy).getChildPages(ROOT_ID);
+		doReturn(List.of()).when(workerSpy).getChildPages("someChildId");
+
+		assertThat(workerSpy.visitFrontier(List.of(rootEntry, childEntry))).isEqualTo(new ConfluenceWorker.FrontierVisit(List.of(
+			rootEntry.child("someChildId", UPDATED_AT),
+			rootEntry.child("someOtherChildId", UPDATED_AT)), List.of()));
+
+		// The context is resolved once for both entries, since they are part of the same tree
+		verify(workerSpy).resolveTreeContext(ROOT_ID);
+		verify(workerSpy).processPage(ROOT_ID, TREE_CONTEXT);
+		verify(workerSpy).processPage("someChildId", UPDATED_AT, TREE_CONTEXT);
+	}
+
+	@Test
+	void visitFrontierResolvesTreeContextOncePerRun() {
+		final var rootEntry = FrontierEntry.root(MUNICIPALITY_ID, "someRunId", Instant.now(), ROOT_ID);
+		final var childEntry = rootEntry.child("someChildId", UPDATED_AT);
+		final var otherChildEntry = rootEntry.child("someOtherChildId", UPDATED_AT);
+
+		final var workerSpy = spy(worker);
+
+		doReturn(TREE_CONTEXT).when(workerSpy).resolveTreeContext(ROOT_ID);
+		doReturn(ConfluenceWorker.FrontierVisit.NONE).when(workerSpy).visitFrontierEntry(any(), any());
+
+		// Two chunks of the same tree
+		workerSpy.visitFrontier(List.of(rootEntry, childEntry));
+		workerSpy.visitFrontier(List.of(otherChildEntry));
+
+		verify(workerSpy).resolveTreeContext(ROOT_ID);
+		verify(workerSpy).visitFrontierEntry(rootEntry, TREE_CONTEXT);
+		verify(workerSpy).visitFrontierEntry(childEntry, TREE_CONTEXT);
+		verify(workerSpy).visitFrontierEntry(otherChildEntry, TREE_CONTEXT);
+	}
+
+	@Test
+	void visitFrontierEntryWhenBlacklisted() {
+		final var workerSpy = spy(worker);
+
+		assertThat(workerSpy.visitFrontierEntry(FrontierEntry.root(MUNICIPALITY_ID, "someRunId", Instant.now(), BLACKLISTED_ROOT_ID), TreeContext.UNKNOWN)).isEqualTo(ConfluenceWorker.FrontierVisit.NONE);
+		assertThat(workerSpy.visitFrontierEntry(FrontierEntry.root(MUNICIPALITY_ID, "someRunId", Instant.now(), ROOT_ID), new TreeContext(ENEO_GROUP_ID, true))).isEqualTo(ConfluenceWorker.FrontierVisit.NONE);
+
+		verify(workerSpy, never()).processPage(anyString(), any(TreeContext.class));
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void visitFrontierEntryWhenProcessingFails() {
+		when(confluenceClientMock.getContentVersion(ROOT_ID)).thenThrow(new IllegalStateException("someMessage"));
+
+		final var rootEntry = FrontierEntry.root(MUNICIPALITY_ID, "someRunId", Instant.now(), ROOT_ID);
+
+		assertThat(worker.visitFrontierEntry(rootEntry, TREE_CONTEXT)).isEqualTo(new ConfluenceWorker.FrontierVisit(List.of(), List.of(rootEntry)));
+
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+	}
+
+	@Test
+	void runIncremental() {
+		final var lastSyncedAt = Instant.parse("2024-09-10T10:05:00Z");
+
+		when(environmentMock.incrementalSync()).thenReturn(new ConfluenceIntegrationProperties.Environment.IncrementalSync(null, Duration.ofMinutes(5), null));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		when(dbIntegrationMock.getLastSyncedAt(MUNICIPALITY_ID)).thenReturn(Optional.of(lastSyncedAt));
+		doNothing().when(workerSpy).processChangedPages(ROOT_ID, lastSyncedAt.minus(Duration.ofMinutes(5)));
+
+		workerSpy.runIncremental();
+
+		verify(workerSpy).processChangedPages(ROOT_ID, lastSyncedAt.minus(Duration.ofMinutes(5)));
+		verify(workerSpy, never()).run();
+		verify(workerSpy, never()).processTree(anyString());
+		verify(dbIntegrationMock).saveLastSyncedAt(eq(MUNICIPALITY_ID), any(Instant.class));
+	}
+
+	@Test
+	void runIncrementalWhenTreeFails() {
+		final var lastSyncedAt = Instant.parse("2024-09-10T10:05:00Z");
+
+		when(environmentMock.incrementalSync()).thenReturn(new ConfluenceIntegrationProperties.Environment.IncrementalSync(null, Duration.ofMinutes(5), null));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		when(dbIntegrationMock.getLastSyncedAt(MUNICIPALITY_ID)).thenReturn(Optional.of(lastSyncedAt));
+		when(confluenceClientMock.search(anyString(), anyInt(), anyInt())).thenThrow(new IllegalStateException("someMessage"));
+
+		workerSpy.runIncremental();
+
+		// The next incremental sync covers the same changes again
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+		verify(dbIntegrationMock, never()).saveLastSyncedAt(anyString(), any());
+	}
+
+	@Test
+	void runIncrementalWhenNeverSynced() {
+		final var workerSpy = spy(worker);
+
+		when(dbIntegrationMock.getLastSyncedAt(MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		doNothing().when(workerSpy).run();
+
+		workerSpy.runIncremental();
+
+		verify(workerSpy).run();
+		verify(workerSpy, never()).processChangedPages(anyString(), any());
+	}
+
+	@Test
+	void runSkipsPagesAlreadyVisited() {
+		final var childPage = listedPage("98370", UPDATED_AT);
+		final var childrenJson = toStream("{\"someKey\": \"someValue\"}");
+		final var noChildrenJson = toStream("{\"someOtherKey\": \"someOtherValue\"}");
+		final var noChildrenJsonMock = mock(PageJsonParser.PageJson.class);
+
+		final var workerSpy = spy(worker);
+
+		// The child shows up twice in the listing, e.g. since the listing shifted while it was paged through
+		doReturn(TREE_CONTEXT).when(workerSpy).resolveTreeContext(ROOT_ID);
+		doNothing().when(workerSpy).processPage(anyString(), any(TreeContext.class));
+		doNothing().when(workerSpy).processPage(anyString(), anyString(), any(TreeContext.class));
+		when(confluenceClientMock.getChildren(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Optional.of(childrenJson));
+		when(confluenceClientMock.getChildren("98370", 0, LISTING_LIMIT)).thenReturn(Optional.of(noChildrenJson));
+		when(pageJsonParserMock.parse(childrenJson)).thenReturn(pageJsonMock);
+		when(pageJsonParserMock.parse(noChildrenJson)).thenReturn(noChildrenJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(childPage, childPage));
+		when(noChildrenJsonMock.getListedPages()).thenReturn(List.of());
+
+		workerSpy.run();
+
+		verify(workerSpy).processPage(ROOT_ID, TREE_CONTEXT);
+		verify(workerSpy, times(1)).processPage("98370", UPDATED_AT, TREE_CONTEXT);
+		verify(confluenceClientMock, times(1)).getChildren("98370", 0, LISTING_LIMIT);
+	}
+
+	@Test
+	void runInParallel() {
+		final var childPages = List.of(listedPage("someChildId", UPDATED_AT), listedPage("someOtherChildId", UPDATED_AT));
+		final var childrenJson = toStream("{\"someKey\": \"someValue\"}");
+		final var noChildrenJson = toStream("{\"someOtherKey\": \"someOtherValue\"}");
+		final var noChildrenJsonMock = mock(PageJsonParser.PageJson.class);
+
+		when(environmentMock.maxConcurrency()).thenReturn(4);
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		doReturn(TREE_CONTEXT).when(workerSpy).resolveTreeContext(ROOT_ID);
+		doNothing().when(workerSpy).processPage(anyString(), any(TreeContext.class));
+		doNothing().when(workerSpy).processPage(anyString(), anyString(), any(TreeContext.class));
+		when(confluenceClientMock.getChildren(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Optional.of(childrenJson));
+		when(confluenceClientMock.getChildren("someChildId", 0, LISTING_LIMIT)).thenReturn(Optional.of(noChildrenJson));
+		when(confluenceClientMock.getChildren("someOtherChildId", 0, LISTING_LIMIT)).thenReturn(Optional.of(noChildrenJson));
+		when(pageJsonParserMock.parse(childrenJson)).thenReturn(pageJsonMock);
+		when(pageJsonParserMock.parse(noChildrenJson)).thenReturn(noChildrenJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(childPages);
+		when(noChildrenJsonMock.getListedPages()).thenReturn(List.of());
+
+		workerSpy.run();
+
+		verify(workerSpy).processPage(ROOT_ID, TREE_CONTEXT);
+		verify(workerSpy).processPage("someChildId", UPDATED_AT, TREE_CONTEXT);
+		verify(workerSpy).processPage("someOtherChildId", UPDATED_AT, TREE_CONTEXT);
+		verify(confluenceClientMock).getChildren(ROOT_ID, 0, LISTING_LIMIT);
+		verify(confluenceClientMock).getChildren("someChildId", 0, LISTING_LIMIT);
+		verify(confluenceClientMock).getChildren("someOtherChildId", 0, LISTING_LIMIT);
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
 	}
 
 	@Test
@@ -96,58 +565,516 @@ class ConfluenceWorkerTests {
 		final var workerSpy = spy(worker);
 
 		when(workerSpy.isBlacklisted(anyString())).thenReturn(false, true);
-		doNothing().when(workerSpy).processPage(pageId);
-		doNothing().when(workerSpy).processChildren(pageId);
+		doReturn(TREE_CONTEXT).when(workerSpy).resolveTreeContext(pageId);
+		doNothing().when(workerSpy).processPage(pageId, TREE_CONTEXT);
+		doNothing().when(workerSpy).processChildren(pageId, TREE_CONTEXT);
 
 		workerSpy.processTree(pageId);
 		workerSpy.processTree(otherPageId);
 
 		verify(workerSpy).isBlacklisted(pageId);
 		verify(workerSpy).isBlacklisted(otherPageId);
-		verify(workerSpy).processPage(pageId);
-		verify(workerSpy).processChildren(pageId);
-		verify(workerSpy, never()).processPage(otherPageId);
-		verify(workerSpy, never()).processChildren(otherPageId);
+		verify(workerSpy).processPage(pageId, TREE_CONTEXT);
+		verify(workerSpy).processChildren(pageId, TREE_CONTEXT);
+		verify(workerSpy, never()).resolveTreeContext(otherPageId);
+		verify(workerSpy, never()).processPage(eq(otherPageId), any(TreeContext.class));
+		verify(workerSpy, never()).processChildren(eq(otherPageId), any());
+	}
+
+	@Test
+	void processTreeWhenAncestorIsBlacklisted() {
+		final var workerSpy = spy(worker);
+
+		doReturn(new TreeContext(ENEO_GROUP_ID, true)).when(workerSpy).resolveTreeContext(ROOT_ID);
+
+		workerSpy.processTree(ROOT_ID);
+
+		verify(workerSpy, never()).processPage(anyString(), any(TreeContext.class));
+		verify(workerSpy, never()).processChildren(anyString(), any());
+	}
+
+	@Test
+	void processTreeWhenUpdatedAtIsKnown() {
+		final var pageId = "somePageId";
+
+		final var workerSpy = spy(worker);
+
+		doNothing().when(workerSpy).processPage(pageId, UPDATED_AT, TREE_CONTEXT);
+		doNothing().when(workerSpy).processChildren(pageId, TREE_CONTEXT);
+
+		workerSpy.processTree(pageId, UPDATED_AT, TREE_CONTEXT);
+
+		verify(workerSpy).processPage(pageId, UPDATED_AT, TREE_CONTEXT);
+		verify(workerSpy, never()).processPage(pageId, TREE_CONTEXT);
+		verify(workerSpy).processChildren(pageId, TREE_CONTEXT);
+		verify(workerSpy, never()).resolveTreeContext(anyString());
+		verify(confluenceClientMock, never()).getContentVersion(anyString());
+	}
+
+	@Test
+	void resolveTreeContext() {
+		final var ancestorsJson = toStream("{\"someKey\": \"someValue\"}");
+
+		when(confluenceClientMock.getContentAncestors(ROOT_ID)).thenReturn(Optional.of(ancestorsJson));
+		when(pageJsonParserMock.parse(ancestorsJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getAncestorIds()).thenReturn(List.of("someSpaceHomeId"), List.of("someSpaceHomeId", BLACKLISTED_ROOT_ID));
+
+		assertThat(worker.resolveTreeContext(ROOT_ID)).isEqualTo(new TreeContext(ENEO_GROUP_ID, false));
+		assertThat(worker.resolveTreeContext(ROOT_ID)).isEqualTo(new TreeContext(ENEO_GROUP_ID, true));
+	}
+
+	@Test
+	void resolveTreeContextWhenRootIsMissingOrLookupFails() {
+		when(confluenceClientMock.getContentAncestors(ROOT_ID))
+			.thenReturn(Optional.empty())
+			.thenThrow(new IllegalStateException("someMessage"));
+
+		assertThat(worker.resolveTreeContext(ROOT_ID)).isSameAs(TreeContext.UNKNOWN);
+		assertThat(worker.resolveTreeContext(ROOT_ID)).isSameAs(TreeContext.UNKNOWN);
+		assertThat(TreeContext.UNKNOWN.isKnown()).isFalse();
 	}
 
 	@Test
 	void processChildren() {
 		final var pageId = "somePageId";
-		final var childIds = List.of("someChildId", "someOtherChildId");
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var childPages = List.of(listedPage("someChildId", UPDATED_AT), listedPage("someOtherChildId", UPDATED_AT));
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 
 		final var workerSpy = spy(worker);
 
-		when(confluenceClientMock.getChildren(pageId)).thenReturn(Optional.of(pageJson));
+		doNothing().when(workerSpy).processTree(anyString(), anyString(), any());
+		when(confluenceClientMock.getChildren(pageId, 0, LISTING_LIMIT)).thenReturn(Optional.of(pageJson));
 		when(pageJsonParserMock.parse(pageJson)).thenReturn(pageJsonMock);
-		when(pageJsonMock.getChildIds()).thenReturn(childIds);
+		when(pageJsonMock.getListedPages()).thenReturn(childPages);
+		when(pageJsonMock.hasNext()).thenReturn(false);
 
-		workerSpy.processChildren(pageId);
+		workerSpy.processChildren(pageId, TREE_CONTEXT);
 
-		verify(workerSpy).processTree("someChildId");
-		verify(workerSpy).processTree("someOtherChildId");
+		// The context of the tree is passed on to the children
+		verify(workerSpy).processTree("someChildId", UPDATED_AT, TREE_CONTEXT);
+		verify(workerSpy).processTree("someOtherChildId", UPDATED_AT, TREE_CONTEXT);
 	}
 
 	@Test
 	void processChildrenWhenThereAreNoChildren() {
 		final var pageId = "somePageId";
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 
 		final var workerSpy = spy(worker);
 
-		when(confluenceClientMock.getChildren(pageId)).thenReturn(Optional.of(pageJson));
+		when(confluenceClientMock.getChildren(pageId, 0, LISTING_LIMIT)).thenReturn(Optional.of(pageJson));
 		when(pageJsonParserMock.parse(pageJson)).thenReturn(pageJsonMock);
-		when(pageJsonMock.getChildIds()).thenReturn(List.of());
+		when(pageJsonMock.getListedPages()).thenReturn(List.of());
 
-		workerSpy.processChildren(pageId);
+		workerSpy.processChildren(pageId, TREE_CONTEXT);
 
 		verify(workerSpy, never()).processTree(anyString());
+		verify(workerSpy, never()).processTree(anyString(), anyString(), any());
+	}
+
+	@Test
+	void getChildPagesPagesThroughAllResults() {
+		final var pageId = "somePageId";
+		final var firstJson = toStream("{\"someKey\": \"someValue\"}");
+		final var secondJson = toStream("{\"someOtherKey\": \"someOtherValue\"}");
+		final var secondPageJsonMock = mock(PageJsonParser.PageJson.class);
+		final var firstListedPage = listedPage("someChildId", UPDATED_AT);
+		final var secondListedPage = listedPage("someOtherChildId", UPDATED_AT);
+
+		when(confluenceClientMock.getChildren(pageId, 0, LISTING_LIMIT)).thenReturn(Optional.of(firstJson));
+		when(confluenceClientMock.getChildren(pageId, 1, LISTING_LIMIT)).thenReturn(Optional.of(secondJson));
+		when(pageJsonParserMock.parse(firstJson)).thenReturn(pageJsonMock);
+		when(pageJsonParserMock.parse(secondJson)).thenReturn(secondPageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(firstListedPage));
+		when(pageJsonMock.hasNext()).thenReturn(true);
+		when(secondPageJsonMock.getListedPages()).thenReturn(List.of(secondListedPage));
+		when(secondPageJsonMock.hasNext()).thenReturn(false);
+
+		assertThat(worker.getChildPages(pageId)).containsExactly(firstListedPage, secondListedPage);
+
+		verify(confluenceClientMock).getChildren(pageId, 0, LISTING_LIMIT);
+		verify(confluenceClientMock).getChildren(pageId, 1, LISTING_LIMIT);
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void getChildPagesSkipsNestedRoots() {
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
+		final var childPage = listedPage("someChildId", UPDATED_AT);
+		final var nestedRootPage = listedPage(NESTED_ROOT_ID, UPDATED_AT);
+
+		final var nestingWorker = nestingWorker();
+
+		when(confluenceClientMock.getChildren(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Optional.of(pageJson));
+		when(pageJsonParserMock.parse(pageJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(childPage, nestedRootPage));
+
+		assertThat(nestingWorker.getChildPages(ROOT_ID)).containsExactly(childPage);
+	}
+
+	@Test
+	void isWithinNestedRoot() {
+		final var nestingWorker = nestingWorker();
+
+		// The root itself, and pages directly below it
+		assertThat(nestingWorker.isWithinNestedRoot(ROOT_ID, listedPage(ROOT_ID, UPDATED_AT))).isFalse();
+		assertThat(nestingWorker.isWithinNestedRoot(ROOT_ID, listedPageWithAncestors("somePageId", "someSpaceHomeId", ROOT_ID))).isFalse();
+		// The nested root, and pages below it
+		assertThat(nestingWorker.isWithinNestedRoot(ROOT_ID, listedPageWithAncestors(NESTED_ROOT_ID, "someSpaceHomeId", ROOT_ID))).isTrue();
+		assertThat(nestingWorker.isWithinNestedRoot(ROOT_ID, listedPageWithAncestors("somePageId", "someSpaceHomeId", ROOT_ID, NESTED_ROOT_ID, "someParentId"))).isTrue();
+		// Pages below the nested root, seen from the nested root, regardless of the root it is nested in
+		assertThat(nestingWorker.isWithinNestedRoot(NESTED_ROOT_ID, listedPageWithAncestors("somePageId", "someSpaceHomeId", ROOT_ID, NESTED_ROOT_ID, "someParentId"))).isFalse();
+		assertThat(nestingWorker.isWithinNestedRoot(NESTED_ROOT_ID, listedPage("somePageId", UPDATED_AT))).isFalse();
+	}
+
+	@Test
+	void processDescendantsSkipsNestedRoots() {
+		final var descendant = listedPageWithAncestors("someDescendantId", ROOT_ID);
+		final var nestedRoot = listedPageWithAncestors(NESTED_ROOT_ID, ROOT_ID);
+		final var descendantOfNestedRoot = listedPageWithAncestors("someOtherDescendantId", ROOT_ID, NESTED_ROOT_ID);
+		final var descendantsJson = toStream("{\"someKey\": \"someValue\"}");
+
+		final var workerSpy = spy(nestingWorker());
+
+		doNothing().when(workerSpy).processPage(ROOT_ID);
+		doNothing().when(workerSpy).processListedPages(any());
+		when(confluenceClientMock.getDescendants(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Optional.of(descendantsJson));
+		when(pageJsonParserMock.parse(descendantsJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(descendant, nestedRoot, descendantOfNestedRoot));
+
+		workerSpy.processDescendants(ROOT_ID);
+
+		verify(workerSpy).processListedPages(List.of(descendant));
+	}
+
+	@Test
+	void getChildPagesWhenPageIsMissing() {
+		final var pageId = "somePageId";
+
+		when(confluenceClientMock.getChildren(pageId, 0, LISTING_LIMIT)).thenReturn(Optional.empty());
+
+		assertThat(worker.getChildPages(pageId)).isEmpty();
+	}
+
+	@Test
+	void processChangedPages() {
+		final var modifiedAfter = LocalDateTime.of(2024, 9, 10, 12, 5).atZone(ZoneId.systemDefault()).toInstant();
+		final var changedPage = listedPage("someChangedPageId", UPDATED_AT);
+		final var otherChangedPage = listedPage("someOtherChangedPageId", UPDATED_AT);
+		final var searchJson = toStream("{\"someKey\": \"someValue\"}");
+		final var expectedCql = "type = page and (id = 98362 or ancestor = 98362) and lastmodified > \"2024/09/10 12:05\"";
+
+		final var workerSpy = spy(worker);
+
+		doNothing().when(workerSpy).processListedPages(any());
+		when(confluenceClientMock.search(expectedCql, 0, LISTING_LIMIT)).thenReturn(Optional.of(searchJson));
+		when(pageJsonParserMock.parse(searchJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(changedPage, otherChangedPage));
+
+		workerSpy.processChangedPages(ROOT_ID, modifiedAfter);
+
+		verify(confluenceClientMock).search(expectedCql, 0, LISTING_LIMIT);
+		verify(workerSpy).processListedPages(List.of(changedPage, otherChangedPage));
+		verify(workerSpy, never()).processChildren(anyString(), any());
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+	}
+
+	@Test
+	void processChangedPagesInConfiguredTimeZone() {
+		final var modifiedAfter = Instant.parse("2024-09-10T10:05:00Z");
+		final var searchJson = toStream("{\"someKey\": \"someValue\"}");
+		final var expectedCql = "type = page and (id = 98362 or ancestor = 98362) and lastmodified > \"2024/09/10 12:05\"";
+
+		when(environmentMock.incrementalSync()).thenReturn(new ConfluenceIntegrationProperties.Environment.IncrementalSync(null, Duration.ofMinutes(5), ZoneId.of("Europe/Stockholm")));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+
+		doNothing().when(workerSpy).processListedPages(any());
+		when(confluenceClientMock.search(expectedCql, 0, LISTING_LIMIT)).thenReturn(Optional.of(searchJson));
+		when(pageJsonParserMock.parse(searchJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of());
+
+		workerSpy.processChangedPages(ROOT_ID, modifiedAfter);
+
+		verify(confluenceClientMock).search(expectedCql, 0, LISTING_LIMIT);
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+	}
+
+	@Test
+	void processChangedPagesWhenSearchFails() {
+		when(confluenceClientMock.search(anyString(), anyInt(), anyInt())).thenThrow(new IllegalStateException("someMessage"));
+
+		worker.processChangedPages(ROOT_ID, Instant.now());
+
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+	}
+
+	@Test
+	void processListedPages() {
+		final var descendantOfBlacklisted = new ListedPage("someDescendantId", UPDATED_AT, List.of(ROOT_ID, BLACKLISTED_ROOT_ID));
+		final var upToDatePage = Page.create().withUpdatedAt(OffsetDateTime.parse(UPDATED_AT).toLocalDateTime());
+		final var outdatedPage = Page.create().withUpdatedAt(OffsetDateTime.parse(UPDATED_AT).toLocalDateTime().minusDays(1));
+
+		final var workerSpy = spy(worker);
+
+		when(dbIntegrationMock.getPage("someNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(dbIntegrationMock.getPage("someUpToDatePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(upToDatePage));
+		when(dbIntegrationMock.getPage("someOutdatedPageId", MUNICIPALITY_ID)).thenReturn(Optional.of(outdatedPage));
+		when(dbIntegrationMock.getPage("someOtherNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		doNothing().when(workerSpy).processPageBatch(any());
+
+		workerSpy.processListedPages(List.of(
+			listedPage("someNewPageId", UPDATED_AT),
+			listedPage(BLACKLISTED_ROOT_ID, UPDATED_AT),
+			descendantOfBlacklisted,
+			listedPage("someUpToDatePageId", UPDATED_AT),
+			listedPage("someOutdatedPageId", UPDATED_AT),
+			listedPage("someOtherNewPageId", UPDATED_AT)));
+
+		// The batch size is two
+		verify(workerSpy).processPageBatch(List.of("someNewPageId", "someOutdatedPageId"));
+		verify(workerSpy).processPageBatch(List.of("someOtherNewPageId"));
+		verify(workerSpy, never()).processPage(anyString(), anyString());
+		verify(dbIntegrationMock, never()).getPage(BLACKLISTED_ROOT_ID, MUNICIPALITY_ID);
+		verify(dbIntegrationMock, never()).getPage("someDescendantId", MUNICIPALITY_ID);
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void processListedPagesWhenNothingIsOutdated() {
+		final var workerSpy = spy(worker);
+
+		workerSpy.processListedPages(List.of(listedPage(BLACKLISTED_ROOT_ID, UPDATED_AT)));
+
+		verify(workerSpy, never()).processPageBatch(any());
+	}
+
+	@Test
+	void processListedPagesInStages() {
+		final var json = toStream("{\"someKey\": \"someValue\"}");
+		final var upToDatePage = Page.create().withUpdatedAt(OffsetDateTime.parse(UPDATED_AT).toLocalDateTime());
+		final var newPage = chunkedPage("someNewPageId", "<p>some text</p>")
+			.withEneoGroupId(null)
+			.withAncestorIds(List.of(ROOT_ID));
+
+		when(environmentMock.pipeline()).thenReturn(new ConfluenceIntegrationProperties.Environment.Pipeline(2, 2, 2, 1, 1));
+		final var stagedWorker = new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+		final var pageArgumentCaptor = ArgumentCaptor.forClass(Page.class);
+
+		when(dbIntegrationMock.getPage("someNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(dbIntegrationMock.getPage("someUpToDatePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(upToDatePage));
+		when(confluenceClientMock.searchContent("id in (someNewPageId)", 0, 1)).thenReturn(Optional.of(json));
+		when(pageJsonParserMock.parse(json)).thenReturn(pageJsonMock);
+		when(pageMapperMock.toPages(MUNICIPALITY_ID, pageJsonMock)).thenReturn(List.of(newPage));
+		when(eneoIntegrationMock.addInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someTitle", "some text", "base/someNewPageId")).thenReturn("someBlobId");
+
+		stagedWorker.processListedPages(List.of(
+			listedPage("someNewPageId", UPDATED_AT),
+			listedPage("someUpToDatePageId", UPDATED_AT)));
+
+		// The new page is fetched, transformed, written to Eneo and saved - by a stage each
+		verify(dbIntegrationMock).getBlobId("someNewPageId", MUNICIPALITY_ID);
+		verify(dbIntegrationMock).savePage(pageArgumentCaptor.capture());
+		assertThat(pageArgumentCaptor.getValue().getEneoBlobId()).isEqualTo("someBlobId");
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+
+		assertThat(List.of("fetch", "transform", "write", "commit"))
+			.allSatisfy(stage -> assertThat(meterRegistry.get("confluence.pipeline.processed").tags("municipalityId", MUNICIPALITY_ID, "stage", stage).counter().count()).isOne());
+	}
+
+	@Test
+	void processListedPagesInStagesWhenWritingFails() {
+		final var json = toStream("{\"someKey\": \"someValue\"}");
+		final var newPage = chunkedPage("someNewPageId", "<p>some text</p>")
+			.withEneoGroupId(null)
+			.withAncestorIds(List.of(ROOT_ID));
+
+		when(environmentMock.pipeline()).thenReturn(new ConfluenceIntegrationProperties.Environment.Pipeline(1, 1, 1, 1, 1));
+		final var stagedWorker = new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+
+		when(dbIntegrationMock.getPage("someNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(confluenceClientMock.searchContent("id in (someNewPageId)", 0, 1)).thenReturn(Optional.of(json));
+		when(pageJsonParserMock.parse(json)).thenReturn(pageJsonMock);
+		when(pageMapperMock.toPages(MUNICIPALITY_ID, pageJsonMock)).thenReturn(List.of(newPage));
+		when(eneoIntegrationMock.addInfoBlob(anyString(), anyString(), anyString(), anyString(), anyString())).thenThrow(new IllegalStateException("someMessage"));
+
+		stagedWorker.processListedPages(List.of(listedPage("someNewPageId", UPDATED_AT)));
+
+		verify(healthIndicatorMock).setUnhealthy(contains("Error processing page someNewPageId"));
+		verify(dbIntegrationMock, never()).savePage(any());
+	}
+
+	@Test
+	void processPageBatch() {
+		final var pageIds = List.of("somePageId", "someOtherPageId");
+		final var page = Page.create().withPageId("somePageId");
+
+		final var workerSpy = spy(worker);
+
+		doReturn(List.of(page)).when(workerSpy).getPagesFromConfluence(pageIds);
+		doNothing().when(workerSpy).syncPage(page);
+
+		workerSpy.processPageBatch(pageIds);
+
+		verify(workerSpy).syncPage(page);
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+	}
+
+	@Test
+	void processPageBatchWhenFetchFails() {
+		when(confluenceClientMock.searchContent(anyString(), anyInt(), anyInt())).thenThrow(new IllegalStateException("someMessage"));
+
+		worker.processPageBatch(List.of("somePageId"));
+
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+		verifyNoMoreInteractions(eneoIntegrationMock);
+	}
+
+	@Test
+	void getPagesFromConfluence() {
+		final var json = toStream("{\"someKey\": \"someValue\"}");
+		final var mappedPage = Page.create().withPageId("somePageId").withAncestorIds(List.of(ROOT_ID));
+		final var unmappedPage = Page.create().withPageId("someOtherPageId").withAncestorIds(List.of());
+
+		when(confluenceClientMock.searchContent("id in (somePageId,someOtherPageId)", 0, 2)).thenReturn(Optional.of(json));
+		when(pageJsonParserMock.parse(json)).thenReturn(pageJsonMock);
+		when(pageMapperMock.toPages(MUNICIPALITY_ID, pageJsonMock)).thenReturn(List.of(mappedPage, unmappedPage));
+
+		assertThat(worker.getPagesFromConfluence(List.of("somePageId", "someOtherPageId"))).containsExactly(mappedPage);
+		assertThat(mappedPage.getEneoGroupId()).isEqualTo(ENEO_GROUP_ID);
+
+		verify(confluenceClientMock).searchContent("id in (somePageId,someOtherPageId)", 0, 2);
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void syncPage() {
+		final var existingPage = Page.create().withPageId("someExistingPageId");
+		final var newPage = Page.create().withPageId("someNewPageId");
+
+		final var workerSpy = spy(worker);
+
+		when(dbIntegrationMock.getBlobId("someExistingPageId", MUNICIPALITY_ID)).thenReturn(Optional.of("someBlobId"));
+		when(dbIntegrationMock.getBlobId("someNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		doNothing().when(workerSpy).updatePage(existingPage, "someBlobId");
+		doNothing().when(workerSpy).insertPage(newPage);
+
+		workerSpy.syncPage(existingPage);
+		workerSpy.syncPage(newPage);
+
+		verify(workerSpy).updatePage(existingPage, "someBlobId");
+		verify(workerSpy).insertPage(newPage);
+	}
+
+	@Test
+	void processDescendants() {
+		final var descendant = listedPage("someDescendantId", UPDATED_AT);
+		final var otherDescendant = listedPage("someOtherDescendantId", UPDATED_AT);
+		final var descendantsJson = toStream("{\"someKey\": \"someValue\"}");
+
+		final var workerSpy = spy(worker);
+
+		doNothing().when(workerSpy).processPage(ROOT_ID);
+		doNothing().when(workerSpy).processListedPages(any());
+		when(confluenceClientMock.getDescendants(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Optional.of(descendantsJson));
+		when(pageJsonParserMock.parse(descendantsJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(descendant, otherDescendant));
+
+		workerSpy.processDescendants(ROOT_ID);
+
+		verify(workerSpy).processPage(ROOT_ID);
+		verify(workerSpy).processListedPages(List.of(descendant, otherDescendant));
+		verify(workerSpy, never()).processChildren(anyString(), any());
+		verify(confluenceClientMock, never()).getChildren(anyString(), anyInt(), anyInt());
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+	}
+
+	@Test
+	void processDescendantsReactively() {
+		final var descendantsJson = toStream("{\"someKey\": \"someValue\"}");
+		final var json = toStream("{\"someOtherKey\": \"someOtherValue\"}");
+		final var upToDatePage = Page.create().withUpdatedAt(OffsetDateTime.parse(UPDATED_AT).toLocalDateTime());
+		final var newPage = chunkedPage("someNewPageId", "<p>some text</p>")
+			.withEneoGroupId(null)
+			.withAncestorIds(List.of(ROOT_ID));
+
+		final var workerSpy = spy(createReactiveWorker());
+		final var pageArgumentCaptor = ArgumentCaptor.forClass(Page.class);
+
+		doNothing().when(workerSpy).processPage(ROOT_ID);
+		when(reactiveConfluenceClientMock.getDescendants(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Mono.just(descendantsJson));
+		when(pageJsonParserMock.parse(descendantsJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(listedPage("someNewPageId", UPDATED_AT), listedPage("someUpToDatePageId", UPDATED_AT)));
+		when(dbIntegrationMock.getPage("someNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(dbIntegrationMock.getPage("someUpToDatePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(upToDatePage));
+		when(reactiveConfluenceClientMock.searchContent("id in (someNewPageId)", 0, 1)).thenReturn(Mono.just(json));
+		when(pageJsonParserMock.parse(json)).thenReturn(pageJsonMock);
+		when(pageMapperMock.toPages(MUNICIPALITY_ID, pageJsonMock)).thenReturn(List.of(newPage));
+		when(eneoIntegrationMock.addInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someTitle", "some text", "base/someNewPageId")).thenReturn("someBlobId");
+
+		workerSpy.processDescendants(ROOT_ID);
+
+		// Only the outdated page is fetched, with the reactive client, and then saved as usual
+		verify(workerSpy).processPage(ROOT_ID);
+		verify(dbIntegrationMock).savePage(pageArgumentCaptor.capture());
+		assertThat(pageArgumentCaptor.getValue().getEneoBlobId()).isEqualTo("someBlobId");
+		verifyNoMoreInteractions(confluenceClientMock);
+		verify(healthIndicatorMock, never()).setUnhealthy(anyString());
+	}
+
+	@Test
+	void processDescendantsReactivelyWhenFetchingFails() {
+		final var descendantsJson = toStream("{\"someKey\": \"someValue\"}");
+
+		final var workerSpy = spy(createReactiveWorker());
+
+		doNothing().when(workerSpy).processPage(ROOT_ID);
+		when(reactiveConfluenceClientMock.getDescendants(ROOT_ID, 0, LISTING_LIMIT)).thenReturn(Mono.just(descendantsJson));
+		when(pageJsonParserMock.parse(descendantsJson)).thenReturn(pageJsonMock);
+		when(pageJsonMock.getListedPages()).thenReturn(List.of(listedPage("someNewPageId", UPDATED_AT)));
+		when(dbIntegrationMock.getPage("someNewPageId", MUNICIPALITY_ID)).thenReturn(Optional.empty());
+		when(reactiveConfluenceClientMock.searchContent("id in (someNewPageId)", 0, 1)).thenReturn(Mono.error(new IllegalStateException("someMessage")));
+
+		workerSpy.processDescendants(ROOT_ID);
+
+		verify(healthIndicatorMock).setUnhealthy(contains("Error processing pages [someNewPageId]"));
+		verify(dbIntegrationMock, never()).savePage(any());
+	}
+
+	@Test
+	void processChangedPagesReactivelyWhenSearchFails() {
+		final var reactiveWorker = createReactiveWorker();
+
+		when(reactiveConfluenceClientMock.search(anyString(), eq(0), eq(LISTING_LIMIT))).thenReturn(Mono.error(new IllegalStateException("someMessage")));
+
+		reactiveWorker.processChangedPages(ROOT_ID, Instant.now());
+
+		verify(healthIndicatorMock).setUnhealthy(contains("Error processing changed pages in tree with root " + ROOT_ID));
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void processDescendantsWhenRootIsBlacklisted() {
+		final var workerSpy = spy(worker);
+
+		workerSpy.processDescendants(BLACKLISTED_ROOT_ID);
+
+		verify(workerSpy, never()).processPage(anyString());
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void processDescendantsWhenListingFails() {
+		when(confluenceClientMock.getDescendants(ROOT_ID, 0, LISTING_LIMIT)).thenThrow(new IllegalStateException("someMessage"));
+
+		worker.processDescendants(ROOT_ID);
+
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
 	}
 
 	@Test
 	void processPage() {
 		final var pageId = "somePageId";
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 		final var updatedAt = OffsetDateTime.now().toString();
 
 		final var page = Page.create()
@@ -162,7 +1089,7 @@ class ConfluenceWorkerTests {
 
 		workerSpy.processPage(pageId);
 
-		verify(workerSpy).updatePage(pageId);
+		verify(workerSpy).updatePage(pageId, TreeContext.UNKNOWN);
 		verify(confluenceClientMock).getContentVersion(pageId);
 		verify(dbIntegrationMock).getPage(pageId, MUNICIPALITY_ID);
 	}
@@ -170,7 +1097,7 @@ class ConfluenceWorkerTests {
 	@Test
 	void processPageWhenPageIsMissingLocally() {
 		final var pageId = "somePageId";
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 		final var updatedAt = OffsetDateTime.now().toString();
 
 		final var workerSpy = spy(worker);
@@ -183,17 +1110,82 @@ class ConfluenceWorkerTests {
 
 		workerSpy.processPage(pageId);
 
-		verify(workerSpy).insertPage(pageId);
+		verify(workerSpy).insertPage(pageId, TreeContext.UNKNOWN);
 		verify(confluenceClientMock).getContentVersion(pageId);
 		verify(dbIntegrationMock).getPage(pageId, MUNICIPALITY_ID);
 	}
 
+	@Test
+	void processPageWhenUpdatedAtIsNotNewer() {
+		final var pageId = "somePageId";
+		final var page = Page.create()
+			.withUpdatedAt(OffsetDateTime.parse(UPDATED_AT).toLocalDateTime());
+
+		final var workerSpy = spy(worker);
+
+		when(dbIntegrationMock.getPage(pageId, MUNICIPALITY_ID)).thenReturn(Optional.of(page));
+
+		workerSpy.processPage(pageId, UPDATED_AT);
+
+		verify(workerSpy, never()).insertPage(anyString(), any(TreeContext.class));
+		verify(workerSpy, never()).updatePage(anyString(), any(TreeContext.class));
+		verifyNoMoreInteractions(confluenceClientMock);
+	}
+
+	@Test
+	void processPageWhenPageIsMissingInConfluence() {
+		final var pageId = "somePageId";
+
+		final var workerSpy = spy(worker);
+
+		when(confluenceClientMock.getContentVersion(pageId)).thenReturn(Optional.empty());
+		doNothing().when(workerSpy).deletePage(pageId);
+
+		workerSpy.processPage(pageId);
+
+		verify(workerSpy).deletePage(pageId);
+		verify(workerSpy, never()).processPage(anyString(), anyString(), any());
+	}
+
+	@Test
+	void processPageWithTreeContext() {
+		final var pageId = "somePageId";
+		final var page = Page.create()
+			.withUpdatedAt(LocalDateTime.of(2024, 9, 1, 12, 0));
+
+		final var workerSpy = spy(worker);
+
+		when(dbIntegrationMock.getPage(pageId, MUNICIPALITY_ID)).thenReturn(Optional.of(page));
+		doNothing().when(workerSpy).updatePage(pageId, TREE_CONTEXT);
+
+		workerSpy.processPage(pageId, UPDATED_AT, TREE_CONTEXT);
+
+		verify(workerSpy).updatePage(pageId, TREE_CONTEXT);
+	}
+
+	@Test
+	void getPageFromConfluenceWithTreeContext() {
+		final var pageId = "somePageId";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
+		final var page = Page.create()
+			.withPageId(pageId);
+
+		when(confluenceClientMock.getContentWithoutAncestors(pageId)).thenReturn(Optional.of(pageJson));
+		when(pageMapperMock.toPage(MUNICIPALITY_ID, pageId, pageJson)).thenReturn(page);
+
+		final var result = worker.getPageFromConfluence(pageId, TREE_CONTEXT);
+
+		// The Eneo group is taken from the tree, instead of being resolved from the ancestors of the page
+		assertThat(result).hasValueSatisfying(p -> assertThat(p.getEneoGroupId()).isEqualTo(ENEO_GROUP_ID));
+		verify(confluenceClientMock, never()).getContent(anyString());
+	}
+
 	@Test
 	void getPageFromConfluence() {
 		final var pageId = "somePageId";
 		final var eneoGroupId = "someEneoGroupId";
 		final var ancestorIds = List.of("someAncestorId", "someOtherAncestorId");
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 		final var page = Page.create()
 			.withPageId(pageId)
 			.withAncestorIds(ancestorIds);
@@ -219,7 +1211,7 @@ class ConfluenceWorkerTests {
 	void getPageFromConfluenceWhenPageIsBlacklisted() {
 		final var pageId = "somePageId";
 		final var ancestorIds = List.of("someAncestorId", "someOtherAncestorId");
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 		final var page = Page.create()
 			.withPageId(pageId)
 			.withAncestorIds(ancestorIds);
@@ -241,7 +1233,7 @@ class ConfluenceWorkerTests {
 	void getPageFromConfluenceWhenNoMatchingEneoGroupIdIsFound() {
 		final var pageId = "somePageId";
 		final var ancestorIds = List.of("someAncestorId", "someOtherAncestorId");
-		final var pageJson = "{\"someKey\": \"someValue\"}";
+		final var pageJson = toStream("{\"someKey\": \"someValue\"}");
 		final var page = Page.create()
 			.withPageId(pageId)
 			.withAncestorIds(ancestorIds);
@@ -283,18 +1275,19 @@ class ConfluenceWorkerTests {
 		final var workerSpy = spy(worker);
 		final var pageArgumentCaptor = ArgumentCaptor.forClass(Page.class);
 
-		when(workerSpy.getPageFromConfluence(pageId)).thenReturn(Optional.of(page));
+		doReturn(Optional.of(page)).when(workerSpy).getPageFromConfluence(pageId, TreeContext.UNKNOWN);
 		when(eneoIntegrationMock.addInfoBlob(MUNICIPALITY_ID, eneoGroupId, title, body, baseUrl.concat(path))).thenReturn(eneoBlobId);
 
 		workerSpy.insertPage(pageId);
 
-		verify(workerSpy).getPageFromConfluence(pageId);
+		verify(workerSpy).getPageFromConfluence(pageId, TreeContext.UNKNOWN);
 		verify(dbIntegrationMock).savePage(pageArgumentCaptor.capture());
 		verify(eneoIntegrationMock).addInfoBlob(MUNICIPALITY_ID, eneoGroupId, title, body, baseUrl.concat(path));
 		verifyNoMoreInteractions(dbIntegrationMock, eneoIntegrationMock);
 
 		final var savedPage = pageArgumentCaptor.getValue();
 		assertThat(savedPage.getEneoBlobId()).isEqualTo(eneoBlobId);
+		assertThat(savedPage.getContentHash()).isEqualTo(ContentHash.of(eneoGroupId, baseUrl.concat(path), title, body));
 	}
 
 	@Test
@@ -320,20 +1313,71 @@ class ConfluenceWorkerTests {
 		final var workerSpy = spy(worker);
 		final var pageArgumentCaptor = ArgumentCaptor.forClass(Page.class);
 
-		when(workerSpy.getPageFromConfluence(pageId)).thenReturn(Optional.of(page));
+		doReturn(Optional.of(page)).when(workerSpy).getPageFromConfluence(pageId, TreeContext.UNKNOWN);
 		when(dbIntegrationMock.getBlobId(pageId, MUNICIPALITY_ID)).thenReturn(Optional.of(eneoBlobId));
 		when(eneoIntegrationMock.updateInfoBlob(MUNICIPALITY_ID, eneoGroupId, eneoBlobId, title, body, baseUrl.concat(path))).thenReturn(newEneoBlobId);
 
 		workerSpy.updatePage(pageId);
 
-		verify(workerSpy).getPageFromConfluence(pageId);
+		verify(workerSpy).getPageFromConfluence(pageId, TreeContext.UNKNOWN);
 		verify(dbIntegrationMock).getBlobId(pageId, MUNICIPALITY_ID);
+		verify(dbIntegrationMock).getPageHashes(pageId, MUNICIPALITY_ID);
 		verify(dbIntegrationMock).savePage(pageArgumentCaptor.capture());
 		verify(eneoIntegrationMock).updateInfoBlob(MUNICIPALITY_ID, eneoGroupId, eneoBlobId, title, body, baseUrl.concat(path));
 		verifyNoMoreInteractions(dbIntegrationMock, eneoIntegrationMock);
 
 		final var updatedPage = pageArgumentCaptor.getValue();
 		assertThat(updatedPage.getEneoBlobId()).isEqualTo(newEneoBlobId);
+		assertThat(updatedPage.getContentHash()).isEqualTo(ContentHash.of(eneoGroupId, baseUrl.concat(path), title, body));
+		assertThat(updatedPage.getTextHash()).isEqualTo(ContentHash.of(eneoGroupId, body));
+	}
+
+	@Test
+	void updatePageWhenContentIsUnchanged() {
+		final var page = chunkedPage("somePageId", "<p>some text</p>")
+			.withUpdatedAt(LocalDateTime.now());
+		final var contentHash = ContentHash.of(ENEO_GROUP_ID, "base/somePageId", "someTitle", "some text");
+
+		when(dbIntegrationMock.getPageHashes("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(new PageHashes(contentHash, "someTextHash")));
+
+		worker.updatePage(page, "someEneoBlobId");
+
+		// Only the new timestamp is recorded
+		verify(dbIntegrationMock).savePage(page);
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getEneoBlobId()).isEqualTo("someEneoBlobId");
+		assertThat(page.getContentHash()).isEqualTo(contentHash);
+	}
+
+	@Test
+	void updatePageWhenOnlyTitleHasChanged() {
+		final var page = chunkedPage("somePageId", "<p>some text</p>")
+			.withTitle("someNewTitle");
+
+		when(dbIntegrationMock.getPageHashes("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(new PageHashes("someOtherContentHash", ContentHash.of(ENEO_GROUP_ID, "some text"))));
+
+		worker.updatePage(page, "someEneoBlobId");
+
+		// The info blob is updated in place, keeping its id
+		verify(eneoIntegrationMock).updateInfoBlobMetadata(MUNICIPALITY_ID, "someEneoBlobId", "someNewTitle", "base/somePageId");
+		verify(dbIntegrationMock).savePage(page);
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getEneoBlobId()).isEqualTo("someEneoBlobId");
+		assertThat(page.getContentHash()).isEqualTo(ContentHash.of(ENEO_GROUP_ID, "base/somePageId", "someNewTitle", "some text"));
+	}
+
+	@Test
+	void updatePageWhenContentHasChanged() {
+		final var page = chunkedPage("somePageId", "<p>some text</p>");
+
+		when(dbIntegrationMock.getPageHashes("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(new PageHashes("someOtherContentHash", "someOtherTextHash")));
+		when(eneoIntegrationMock.updateInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someEneoBlobId", "someTitle", "some text", "base/somePageId")).thenReturn("someNewEneoBlobId");
+
+		worker.updatePage(page, "someEneoBlobId");
+
+		verify(dbIntegrationMock).savePage(page);
+		assertThat(page.getEneoBlobId()).isEqualTo("someNewEneoBlobId");
+		assertThat(page.getContentHash()).isEqualTo(ContentHash.of(ENEO_GROUP_ID, "base/somePageId", "someTitle", "some text"));
 	}
 
 	@Test
@@ -341,16 +1385,305 @@ class ConfluenceWorkerTests {
 		final var pageId = "somePageId";
 		final var eneoBlobId = "someEneoBlobId";
 
-		when(dbIntegrationMock.getBlobId(pageId, MUNICIPALITY_ID)).thenReturn(Optional.of(eneoBlobId));
+		when(dbIntegrationMock.getBlobIds(pageId, MUNICIPALITY_ID)).thenReturn(List.of(eneoBlobId));
 
 		worker.deletePage(pageId);
 
-		verify(dbIntegrationMock).getBlobId(pageId, MUNICIPALITY_ID);
+		verify(dbIntegrationMock).getBlobIds(pageId, MUNICIPALITY_ID);
 		verify(dbIntegrationMock).deletePage(pageId, MUNICIPALITY_ID);
 		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, eneoBlobId);
 		verifyNoMoreInteractions(dbIntegrationMock, eneoIntegrationMock);
 	}
 
+	@Test
+	void deletePageWithChunks() {
+		final var pageId = "somePageId";
+
+		when(dbIntegrationMock.getBlobIds(pageId, MUNICIPALITY_ID)).thenReturn(List.of("someBlobId1", "someBlobId2"));
+
+		worker.deletePage(pageId);
+
+		verify(dbIntegrationMock).deletePage(pageId, MUNICIPALITY_ID);
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId1");
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId2");
+		verifyNoMoreInteractions(eneoIntegrationMock);
+	}
+
+	@Test
+	void deletePageWhenNotFound() {
+		final var pageId = "somePageId";
+
+		when(dbIntegrationMock.getBlobIds(pageId, MUNICIPALITY_ID)).thenReturn(List.of());
+
+		worker.deletePage(pageId);
+
+		verify(dbIntegrationMock, never()).deletePage(anyString(), anyString());
+		verifyNoMoreInteractions(eneoIntegrationMock);
+	}
+
+	@Test
+	void runWithInsertBatching() {
+		when(environmentMock.insertBatching()).thenReturn(new ConfluenceIntegrationProperties.Environment.InsertBatching(10, DataSize.ofMegabytes(1), Duration.ofHours(1)));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+		final var page1 = chunkedPage("somePageId1", "<p>one</p>");
+		final var page2 = chunkedPage("somePageId2", "<p>two</p>");
+
+		doAnswer(_ -> {
+			workerSpy.insertPage(page1);
+			workerSpy.insertPage(page2);
+			return null;
+		}).when(workerSpy).processTree(ROOT_ID);
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle", "one", "base/somePageId1"),
+			new EneoIntegration.InfoBlob("someTitle", "two", "base/somePageId2")))).thenReturn(List.of("someBlobId1", "someBlobId2"));
+
+		workerSpy.run();
+
+		// Both pages are added to Eneo in a single request, once the run is done
+		verify(dbIntegrationMock).savePages(List.of(page1, page2));
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page1.getEneoBlobId()).isEqualTo("someBlobId1");
+		assertThat(page1.getContentHash()).isEqualTo(ContentHash.of(ENEO_GROUP_ID, "base/somePageId1", "someTitle", "one"));
+		assertThat(page2.getEneoBlobId()).isEqualTo("someBlobId2");
+	}
+
+	@Test
+	void runWithInsertBatchingAndConcurrentWebhookInsert() {
+		when(environmentMock.insertBatching()).thenReturn(new ConfluenceIntegrationProperties.Environment.InsertBatching(10, DataSize.ofMegabytes(1), Duration.ofHours(1)));
+		final var workerSpy = spy(new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry));
+		final var page = chunkedPage("somePageId1", "<p>one</p>");
+		final var webhookPage = chunkedPage("someWebhookPageId", "<p>two</p>");
+
+		doReturn(Optional.of(webhookPage)).when(workerSpy).getPageFromConfluence("someWebhookPageId", TreeContext.UNKNOWN);
+		when(eneoIntegrationMock.addInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someTitle", "two", "base/someWebhookPageId")).thenReturn("someWebhookBlobId");
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle", "one", "base/somePageId1")))).thenReturn(List.of("someBlobId1"));
+
+		doAnswer(_ -> {
+			workerSpy.insertPage(page);
+
+			// A webhook arriving in the middle of the run, on a thread of its own
+			final var webhook = Thread.ofVirtual().start(() -> workerSpy.insertPage("someWebhookPageId"));
+			webhook.join();
+
+			// The page of the webhook is inserted right away, while the page of the run is still being batched
+			verify(eneoIntegrationMock).addInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someTitle", "two", "base/someWebhookPageId");
+			verify(dbIntegrationMock).savePage(webhookPage);
+			verify(eneoIntegrationMock, never()).addInfoBlobs(any(), any(), any());
+			return null;
+		}).when(workerSpy).processTree(ROOT_ID);
+
+		workerSpy.run();
+
+		verify(dbIntegrationMock).savePages(List.of(page));
+		assertThat(webhookPage.getEneoBlobId()).isEqualTo("someWebhookBlobId");
+		assertThat(page.getEneoBlobId()).isEqualTo("someBlobId1");
+	}
+
+	@Test
+	void insertBatchWhenAddingFails() {
+		final var page1 = chunkedPage("somePageId1", "<p>one</p>");
+		final var page2 = chunkedPage("somePageId2", "<p>two</p>");
+
+		when(eneoIntegrationMock.addInfoBlobs(eq(MUNICIPALITY_ID), eq(ENEO_GROUP_ID), any())).thenThrow(new IllegalStateException("someMessage"));
+		when(eneoIntegrationMock.addInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someTitle", "one", "base/somePageId1")).thenThrow(new IllegalStateException("someOtherMessage"));
+		when(eneoIntegrationMock.addInfoBlob(MUNICIPALITY_ID, ENEO_GROUP_ID, "someTitle", "two", "base/somePageId2")).thenReturn("someBlobId2");
+
+		worker.insertBatch(ENEO_GROUP_ID, List.of(
+			new InsertBatcher.PendingInsert(page1, "one", 3),
+			new InsertBatcher.PendingInsert(page2, "two", 3)));
+
+		// The pages are inserted one at a time instead, with the failing one not holding back the other
+		verify(dbIntegrationMock).savePage(page2);
+		verify(dbIntegrationMock, never()).savePage(page1);
+		verify(healthIndicatorMock).setUnhealthy(contains("someOtherMessage"));
+		assertThat(page2.getEneoBlobId()).isEqualTo("someBlobId2");
+	}
+
+	@Test
+	void insertBatchWhenSavingFails() {
+		final var page1 = chunkedPage("somePageId1", "<p>one</p>");
+
+		when(eneoIntegrationMock.addInfoBlobs(eq(MUNICIPALITY_ID), eq(ENEO_GROUP_ID), any())).thenReturn(List.of("someBlobId1"));
+		doThrow(new IllegalStateException("someMessage")).when(dbIntegrationMock).savePages(List.of(page1));
+
+		worker.insertBatch(ENEO_GROUP_ID, List.of(new InsertBatcher.PendingInsert(page1, "one", 3)));
+
+		// The info blobs of the unsaved pages are removed again
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId1");
+		verify(healthIndicatorMock).setUnhealthy(contains("someMessage"));
+	}
+
+	@Test
+	void insertChunkedPage() {
+		final var chunkingWorker = chunkingWorker();
+		final var page = chunkedPage("somePageId", "<p>Intro</p><h2>First</h2><p>one</p><h2>Second</h2><p>two</p>");
+
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle", "Intro", "base/somePageId"),
+			new EneoIntegration.InfoBlob("someTitle - First", "First one", "base/somePageId"),
+			new EneoIntegration.InfoBlob("someTitle - Second", "Second two", "base/somePageId")))).thenReturn(List.of("someBlobId1", "someBlobId2", "someBlobId3"));
+
+		chunkingWorker.insertPage(page);
+
+		verify(dbIntegrationMock).savePage(page);
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getEneoBlobId()).isEqualTo("someBlobId1");
+		assertThat(page.getTextHash()).isEqualTo(ContentHash.of(chunkHash("Intro"), chunkHash("First one"), chunkHash("Second two")));
+		assertThat(page.getContentHash()).isEqualTo(ContentHash.of("base/somePageId", "someTitle", page.getTextHash()));
+		assertThat(page.getChunks()).containsExactly(
+			new PageChunk(chunkHash("Intro"), "someBlobId1"),
+			new PageChunk(chunkHash("First one"), "someBlobId2"),
+			new PageChunk(chunkHash("Second two"), "someBlobId3"));
+	}
+
+	@Test
+	void insertChunkedPageWithoutText() {
+		final var chunkingWorker = chunkingWorker();
+		final var page = chunkedPage("somePageId", "<p></p>");
+
+		chunkingWorker.insertPage(page);
+
+		// Nothing is sent to Eneo, and the page isn't saved - it's added once it has some text
+		verify(dbIntegrationMock).deletePage("somePageId", MUNICIPALITY_ID);
+		verify(dbIntegrationMock, never()).savePage(any());
+		verifyNoMoreInteractions(eneoIntegrationMock);
+	}
+
+	@Test
+	void updateChunkedPage() {
+		final var chunkingWorker = chunkingWorker();
+		// The first section has been edited, and the sections after it have switched places
+		final var page = chunkedPage("somePageId", "<p>Intro</p><h2>First</h2><p>one, edited</p><h2>Third</h2><p>three</p><h2>Second</h2><p>two</p>");
+		final var storedPage = storedChunkedPage("somePageId", "someTitle",
+			new PageChunk(chunkHash("Intro"), "someBlobId1"),
+			new PageChunk(chunkHash("First one"), "someBlobId2"),
+			new PageChunk(chunkHash("Second two"), "someBlobId3"),
+			new PageChunk(chunkHash("Third three"), "someBlobId4"));
+
+		when(dbIntegrationMock.getPage("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(storedPage));
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle - First", "First one, edited", "base/somePageId")))).thenReturn(List.of("someBlobId5"));
+
+		chunkingWorker.updatePage(page, "someBlobId1");
+
+		verify(dbIntegrationMock).savePage(page);
+		// Only the blob of the edited section is replaced
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId2");
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getEneoBlobId()).isEqualTo("someBlobId1");
+		assertThat(page.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId1", "someBlobId5", "someBlobId4", "someBlobId3");
+	}
+
+	@Test
+	void updateChunkedPageAddedBeforeChunking() {
+		final var chunkingWorker = chunkingWorker();
+		final var page = chunkedPage("somePageId", "<h2>First</h2><p>one</p><h2>Second</h2><p>two</p>");
+
+		when(dbIntegrationMock.getPage("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(Page.create().withChunks(List.of())));
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle - First", "First one", "base/somePageId"),
+			new EneoIntegration.InfoBlob("someTitle - Second", "Second two", "base/somePageId")))).thenReturn(List.of("someBlobId1", "someBlobId2"));
+
+		chunkingWorker.updatePage(page, "someOldBlobId");
+
+		verify(dbIntegrationMock).savePage(page);
+		// The single blob of the whole page is replaced by the blobs of the chunks
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someOldBlobId");
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId1", "someBlobId2");
+	}
+
+	@Test
+	void updateChunkedPageWhenUnchanged() {
+		final var chunkingWorker = chunkingWorker();
+		final var page = chunkedPage("somePageId", "<h2>First</h2><p>one</p>");
+
+		when(dbIntegrationMock.getPage("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(storedChunkedPage("somePageId", "someTitle",
+			new PageChunk(chunkHash("First one"), "someBlobId1"))));
+
+		chunkingWorker.updatePage(page, "someBlobId1");
+
+		verify(dbIntegrationMock).savePage(page);
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId1");
+	}
+
+	@Test
+	void updateChunkedPageWhenRenamed() {
+		final var chunkingWorker = chunkingWorker();
+		final var page = chunkedPage("somePageId", "<h2>First</h2><p>one</p><h2>Second</h2><p>two, edited</p>").withTitle("someNewTitle");
+
+		when(dbIntegrationMock.getPage("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(storedChunkedPage("somePageId", "someTitle",
+			new PageChunk(chunkHash("First one"), "someBlobId1"),
+			new PageChunk(chunkHash("Second two"), "someBlobId2"))));
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someNewTitle - Second", "Second two, edited", "base/somePageId")))).thenReturn(List.of("someBlobId3"));
+
+		chunkingWorker.updatePage(page, "someBlobId1");
+
+		verify(dbIntegrationMock).savePage(page);
+		// The unchanged chunk keeps its blob (and embeddings), with only its title updated
+		verify(eneoIntegrationMock).updateInfoBlobMetadata(MUNICIPALITY_ID, "someBlobId1", "someNewTitle - First", "base/somePageId");
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId2");
+		verifyNoMoreInteractions(eneoIntegrationMock);
+		assertThat(page.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId1", "someBlobId3");
+	}
+
+	@Test
+	void updateChunkedPageWithoutText() {
+		final var chunkingWorker = chunkingWorker();
+		final var page = chunkedPage("somePageId", "<h2></h2><p></p>");
+
+		when(dbIntegrationMock.getPage("somePageId", MUNICIPALITY_ID)).thenReturn(Optional.of(Page.create().withChunks(List.of(
+			new PageChunk(chunkHash("First one"), "someBlobId1"),
+			new PageChunk(chunkHash("Second two"), "someBlobId2")))));
+
+		chunkingWorker.updatePage(page, "someBlobId1");
+
+		// The page is removed along with all of its blobs
+		verify(dbIntegrationMock).deletePage("somePageId", MUNICIPALITY_ID);
+		verify(dbIntegrationMock, never()).savePage(any());
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId1");
+		verify(eneoIntegrationMock).deleteInfoBlob(MUNICIPALITY_ID, "someBlobId2");
+		verifyNoMoreInteractions(eneoIntegrationMock);
+	}
+
+	@Test
+	void insertChunkedPagesLeavesOutPagesWithoutText() {
+		final var chunkingWorker = chunkingWorker();
+		final var page1 = chunkedPage("somePageId1", "<p></p>");
+		final var page2 = chunkedPage("somePageId2", "<p>c</p>");
+
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle", "c", "base/somePageId2")))).thenReturn(List.of("someBlobId1"));
+
+		chunkingWorker.insertPages(List.of(page1, page2));
+
+		verify(dbIntegrationMock).savePages(List.of(page2));
+		assertThat(page2.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId1");
+	}
+
+	@Test
+	void insertChunkedPages() {
+		final var chunkingWorker = chunkingWorker();
+		final var page1 = chunkedPage("somePageId1", "<h1>A</h1><p>a</p><h1>B</h1><p>b</p>");
+		final var page2 = chunkedPage("somePageId2", "<p>c</p>");
+
+		when(eneoIntegrationMock.addInfoBlobs(MUNICIPALITY_ID, ENEO_GROUP_ID, List.of(
+			new EneoIntegration.InfoBlob("someTitle - A", "A a", "base/somePageId1"),
+			new EneoIntegration.InfoBlob("someTitle - B", "B b", "base/somePageId1"),
+			new EneoIntegration.InfoBlob("someTitle", "c", "base/somePageId2")))).thenReturn(List.of("someBlobId1", "someBlobId2", "someBlobId3"));
+
+		assertThat(chunkingWorker.insertPages(List.of(page1, page2))).isEqualTo(2);
+
+		verify(dbIntegrationMock).savePages(List.of(page1, page2));
+		assertThat(page1.getEneoBlobId()).isEqualTo("someBlobId1");
+		assertThat(page1.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId1", "someBlobId2");
+		assertThat(page2.getEneoBlobId()).isEqualTo("someBlobId3");
+		assertThat(page2.getChunks()).extracting(PageChunk::eneoBlobId).containsExactly("someBlobId3");
+	}
+
 	@Test
 	void isBlacklisted() {
 		assertThat(worker.isBlacklisted(BLACKLISTED_ROOT_ID)).isTrue();
@@ -362,6 +1695,15 @@ class ConfluenceWorkerTests {
 		assertThat(worker.isBlacklisted(ROOT_ID, List.of(BLACKLISTED_ROOT_ID))).isTrue();
 	}
 
+	@Test
+	void getEneoGroupIdWhenRootsAreNested() {
+		final var nestingWorker = nestingWorker();
+
+		assertThat(nestingWorker.getEneoGroupId("somePageId", List.of(ROOT_ID, "someParentId"))).isEqualTo(ENEO_GROUP_ID);
+		assertThat(nestingWorker.getEneoGroupId("somePageId", List.of(ROOT_ID, NESTED_ROOT_ID, "someParentId"))).isEqualTo(NESTED_ENEO_GROUP_ID);
+		assertThat(nestingWorker.getEneoGroupId(NESTED_ROOT_ID, List.of(ROOT_ID))).isEqualTo(NESTED_ENEO_GROUP_ID);
+	}
+
 	@Test
 	void getEneoGroupId() {
 		assertThat(worker.getEneoGroupId("somePageId", List.of("1212419", "98381", ROOT_ID))).isEqualTo(ENEO_GROUP_ID);
@@ -369,4 +1711,80 @@ class ConfluenceWorkerTests {
 		assertThat(worker.getEneoGroupId("somePageId", List.of("unknownChildId", "unknownParentId", "unknownRootId"))).isNull();
 	}
 
+	private ConfluenceWorker slicingWorker(final int maxPages) {
+		when(environmentMock.slicing()).thenReturn(new ConfluenceIntegrationProperties.Environment.Slicing(maxPages, Duration.ofHours(1)));
+		when(environmentMock.traversalStrategy()).thenReturn(ConfluenceIntegrationProperties.Environment.TraversalStrategy.CHILDREN);
+
+		return new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+	}
+
+	private ConfluenceWorker chunkingWorker() {
+		when(environmentMock.chunking()).thenReturn(new ConfluenceIntegrationProperties.Environment.Chunking(2));
+
+		return new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+	}
+
+	private static Page chunkedPage(final String pageId, final String body) {
+		return Page.create()
+			.withPageId(pageId)
+			.withTitle("someTitle")
+			.withBody(body)
+			.withBaseUrl("base/")
+			.withPath(pageId)
+			.withEneoGroupId(ENEO_GROUP_ID);
+	}
+
+	private static String chunkHash(final String text) {
+		return ContentHash.of(ENEO_GROUP_ID, text);
+	}
+
+	// A chunked page as stored, with its hashes as of when it was last written to Eneo under the given title
+	private static Page storedChunkedPage(final String pageId, final String title, final PageChunk... chunks) {
+		final var textHash = ContentHash.of(Stream.of(chunks).map(PageChunk::contentHash).toArray(String[]::new));
+
+		return Page.create()
+			.withTextHash(textHash)
+			.withContentHash(ContentHash.of("base/" + pageId, title, textHash))
+			.withChunks(List.of(chunks));
+	}
+
+	private ConfluenceWorker nestingWorker() {
+		// Set up a second mapping, nested within the first one
+		when(environmentMock.mappings()).thenReturn(List.of(
+			new ConfluenceIntegrationProperties.Environment.Mapping(ENEO_GROUP_ID, ROOT_ID),
+			new ConfluenceIntegrationProperties.Environment.Mapping(NESTED_ENEO_GROUP_ID, NESTED_ROOT_ID)));
+
+		return new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+	}
+
+	private static InputStream toStream(final String json) {
+		return new ByteArrayInputStream(json.getBytes(UTF_8));
+	}
+
+	private static ListedPage listedPageWithAncestors(final String id, final String... ancestorIds) {
+		return new ListedPage(id, UPDATED_AT, List.of(ancestorIds));
+	}
+
+	private ConfluenceWorker createReactiveWorker() {
+		when(environmentMock.reactive()).thenReturn(new ConfluenceIntegrationProperties.Environment.Reactive(4, DataSize.ofMegabytes(1)));
+		when(environmentMock.maxConcurrency()).thenReturn(2);
+		when(confluenceClientRegistryMock.getReactiveClient(MUNICIPALITY_ID)).thenReturn(reactiveConfluenceClientMock);
+
+		return new ConfluenceWorker(MUNICIPALITY_ID, propertiesMock, healthIndicatorMock, confluenceClientRegistryMock, pageMapperMock, eneoIntegrationMock, dbIntegrationMock, pageJsonParserMock, meterRegistry);
+	}
+
+	private static ListedPage listedPage(final String id, final String updatedAt) {
+		return new ListedPage(id, updatedAt);
+	}
+
+	private static Page bootstrapPage(final String pageId, final String... ancestorIds) {
+		return Page.create()
+			.withPageId(pageId)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withTitle("title-" + pageId)
+			.withBody("<p>body</p>")
+			.withBaseUrl("base/")
+			.withPath(pageId)
+			.withAncestorIds(List.of(ancestorIds));
+	}
 }
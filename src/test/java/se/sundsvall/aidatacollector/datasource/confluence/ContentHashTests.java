@@ -0,0 +1,22 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class ContentHashTests {
+
+	@Test
+	void of() {
+		assertThat(ContentHash.of("someTitle", "someText"))
+			.hasSize(64)
+			.isEqualTo(ContentHash.of("someTitle", "someText"))
+			.isNotEqualTo(ContentHash.of("someTitle", "someOtherText"));
+	}
+
+	@Test
+	void ofKeepsThePartsApart() {
+		assertThat(ContentHash.of("ab", "c")).isNotEqualTo(ContentHash.of("a", "bc"));
+		assertThat(ContentHash.of("a", null)).isNotEqualTo(ContentHash.of("a"));
+	}
+}
@@ -0,0 +1,129 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+
+class InsertBatcherTests {
+
+	private final List<Map.Entry<String, List<String>>> batches = Collections.synchronizedList(new ArrayList<>());
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	@Test
+	void none() {
+		assertThat(InsertBatcher.NONE.isBatching()).isFalse();
+		assertThat(InsertBatcher.NONE.add(page("somePageId", "someGroupId"), "someText")).isFalse();
+	}
+
+	@Test
+	void addHandsOverFullBatches() {
+		final var insertBatcher = insertBatcher(2, 1_000_000, Duration.ofHours(1));
+
+		assertThat(insertBatcher.isBatching()).isTrue();
+		assertThat(insertBatcher.add(page("1", "someGroupId"), "text")).isTrue();
+		assertThat(insertBatcher.add(page("2", "someOtherGroupId"), "text")).isTrue();
+		assertThat(batches).isEmpty();
+
+		insertBatcher.add(page("3", "someGroupId"), "text");
+
+		assertThat(batches).containsExactly(Map.entry("someGroupId", List.of("1", "3")));
+		assertThat(insertBatcher.batchCount()).isOne();
+		assertThat(insertBatcher.pageCount()).isEqualTo(2);
+	}
+
+	@Test
+	void addHandsOverBatchesByteLimit() {
+		// Title and url make up 8 bytes of each page, the text the rest
+		final var insertBatcher = insertBatcher(100, 40, Duration.ofHours(1));
+
+		insertBatcher.add(page("1", "someGroupId"), "x".repeat(10));
+		insertBatcher.add(page("2", "someGroupId"), "å".repeat(5));
+		assertThat(batches).isEmpty();
+
+		// Would make the batch too big - so the current batch is handed over first
+		insertBatcher.add(page("3", "someGroupId"), "x");
+		assertThat(batches).containsExactly(Map.entry("someGroupId", List.of("1", "2")));
+
+		// Too big on its own - handed over right away
+		insertBatcher.add(page("4", "someOtherGroupId"), "x".repeat(50));
+		assertThat(batches).containsExactly(
+			Map.entry("someGroupId", List.of("1", "2")),
+			Map.entry("someOtherGroupId", List.of("4")));
+	}
+
+	@Test
+	void addHandsOverLingeringBatches() {
+		final var insertBatcher = insertBatcher(100, 1_000_000, Duration.ofMillis(20));
+
+		insertBatcher.add(page("1", "someGroupId"), "text");
+		nanoTime.addAndGet(Duration.ofMillis(19).toNanos());
+		insertBatcher.add(page("2", "someOtherGroupId"), "text");
+		assertThat(batches).isEmpty();
+
+		nanoTime.addAndGet(Duration.ofMillis(1).toNanos());
+		insertBatcher.add(page("3", "someOtherGroupId"), "text");
+
+		// Only the first batch has lingered for long enough
+		assertThat(batches).containsExactly(Map.entry("someGroupId", List.of("1")));
+	}
+
+	@Test
+	void flush() {
+		final var insertBatcher = insertBatcher(100, 1_000_000, Duration.ofHours(1));
+
+		insertBatcher.add(page("1", "someGroupId"), "text");
+		insertBatcher.add(page("2", "someOtherGroupId"), "text");
+		insertBatcher.add(page("3", "someGroupId"), "text");
+
+		insertBatcher.flush();
+
+		assertThat(batches).containsExactly(
+			Map.entry("someGroupId", List.of("1", "3")),
+			Map.entry("someOtherGroupId", List.of("2")));
+
+		// Nothing is left to hand over
+		insertBatcher.flush();
+		assertThat(batches).hasSize(2);
+	}
+
+	@Test
+	void addFromSeveralThreads() {
+		final var insertBatcher = insertBatcher(7, 1_000_000, Duration.ofHours(1));
+
+		try (final var traversal = Traversal.create(8)) {
+			traversal.forkAndJoin(IntStream.range(0, 100)
+				.<Runnable>mapToObj(i -> () -> insertBatcher.add(page(String.valueOf(i), "someGroupId"), "text"))
+				.toList());
+		}
+		insertBatcher.flush();
+
+		assertThat(batches).allSatisfy(batch -> assertThat(batch.getValue()).hasSizeLessThanOrEqualTo(7));
+		assertThat(batches.stream().flatMap(batch -> batch.getValue().stream()))
+			.hasSize(100)
+			.doesNotHaveDuplicates();
+		assertThat(insertBatcher.pageCount()).isEqualTo(100);
+	}
+
+	private InsertBatcher insertBatcher(final int maxPages, final long maxBytes, final Duration linger) {
+		return InsertBatcher.create(maxPages, maxBytes, linger, (eneoGroupId, pendingInserts) -> batches.add(Map.entry(eneoGroupId, pendingInserts.stream()
+			.map(pendingInsert -> pendingInsert.page().getPageId())
+			.toList())), nanoTime::get);
+	}
+
+	private static Page page(final String pageId, final String eneoGroupId) {
+		return Page.create()
+			.withPageId(pageId)
+			.withTitle("t")
+			.withBaseUrl("base/")
+			.withPath("xx")
+			.withEneoGroupId(eneoGroupId);
+	}
+}
@@ -0,0 +1,52 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class LongHashSetTests {
+
+	@Test
+	void contains() {
+		final var set = LongHashSet.of(98362L, 1212426L, 4567110901L);
+
+		assertThat(set.contains(98362L)).isTrue();
+		assertThat(set.contains(1212426L)).isTrue();
+		assertThat(set.contains(4567110901L)).isTrue();
+		assertThat(set.contains(98363L)).isFalse();
+		assertThat(set.contains(0L)).isFalse();
+		assertThat(set.size()).isEqualTo(3);
+		assertThat(set.isEmpty()).isFalse();
+	}
+
+	@Test
+	void containsWhenManySequentialValues() {
+		final var set = LongHashSet.of(LongStream.range(100_000, 110_000).toArray());
+
+		assertThat(set.size()).isEqualTo(10_000);
+		assertThat(LongStream.range(100_000, 110_000).allMatch(set::contains)).isTrue();
+		assertThat(LongStream.range(0, 100_000).noneMatch(set::contains)).isTrue();
+		assertThat(LongStream.range(110_000, 200_000).noneMatch(set::contains)).isTrue();
+	}
+
+	@Test
+	void containsZeroAndDuplicates() {
+		final var set = LongHashSet.of(0L, 0L, 42L, 42L);
+
+		assertThat(set.contains(0L)).isTrue();
+		assertThat(set.contains(42L)).isTrue();
+		assertThat(set.size()).isEqualTo(2);
+		assertThat(set).hasToString("LongHashSet{values=[42], containsZero}");
+	}
+
+	@Test
+	void empty() {
+		final var set = LongHashSet.of();
+
+		assertThat(set.isEmpty()).isTrue();
+		assertThat(set.contains(0L)).isFalse();
+		assertThat(set.contains(42L)).isFalse();
+		assertThat(set).hasToString("LongHashSet{values=[]}");
+	}
+}
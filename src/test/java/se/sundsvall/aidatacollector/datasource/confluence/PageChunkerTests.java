@@ -0,0 +1,60 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+
+class PageChunkerTests {
+
+	private final PageChunker pageChunker = new PageChunker(2, TextNormaliser.NONE);
+
+	@Test
+	void chunk() {
+		final var page = page("<p>Intro</p><h2>First</h2><p>one</p><h3>Sub</h3><p>two</p>");
+
+		assertThat(pageChunker.chunk(page)).satisfiesExactly(
+			chunk -> {
+				assertThat(chunk.title()).isEqualTo("someTitle");
+				assertThat(chunk.text()).isEqualTo("Intro");
+				assertThat(chunk.contentHash()).hasSize(64).isEqualTo(ContentHash.of("someEneoGroupId", "Intro"));
+			},
+			chunk -> {
+				assertThat(chunk.title()).isEqualTo("someTitle - First");
+				assertThat(chunk.text()).isEqualTo("First one Sub two");
+			});
+	}
+
+	@Test
+	void chunkWithoutText() {
+		assertThat(pageChunker.chunk(page("<p></p>"))).isEmpty();
+		assertThat(pageChunker.chunk(page(null))).isEmpty();
+	}
+
+	@Test
+	void chunkHashChangesWithTheContent() {
+		final var hash = pageChunker.chunk(page("<p>some text</p>")).getFirst().contentHash();
+
+		assertThat(pageChunker.chunk(page("<p>some text</p>")).getFirst().contentHash()).isEqualTo(hash);
+		assertThat(pageChunker.chunk(page("<p>some other text</p>")).getFirst().contentHash()).isNotEqualTo(hash);
+		assertThat(pageChunker.chunk(page("<p>some text</p>").withEneoGroupId("someOtherEneoGroupId")).getFirst().contentHash()).isNotEqualTo(hash);
+	}
+
+	@Test
+	void chunkHashIgnoresTheTitleAndUrl() {
+		final var hash = pageChunker.chunk(page("<p>some text</p>")).getFirst().contentHash();
+
+		// Those are updated in place, without re-adding the chunks
+		assertThat(pageChunker.chunk(page("<p>some text</p>").withTitle("someOtherTitle")).getFirst().contentHash()).isEqualTo(hash);
+		assertThat(pageChunker.chunk(page("<p>some text</p>").withPath("someOtherPath")).getFirst().contentHash()).isEqualTo(hash);
+	}
+
+	private static Page page(final String body) {
+		return Page.create()
+			.withTitle("someTitle")
+			.withBody(body)
+			.withBaseUrl("base/")
+			.withPath("somePath")
+			.withEneoGroupId("someEneoGroupId");
+	}
+}
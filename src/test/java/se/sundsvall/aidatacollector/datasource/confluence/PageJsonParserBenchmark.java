@@ -0,0 +1,61 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Util;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.Benchmark;
+
+// Compares decoding a content listing straight from the bytes of the response with first reading the response
+// into a string - as the Feign client did before handing the responses over as streams - which is pure overhead
+// on top of the same parse
+class PageJsonParserBenchmark {
+
+	private static final int PAGES = 100;
+	private static final int WARMUP_ITERATIONS = 200;
+	private static final int ITERATIONS = 500;
+
+	private final PageJsonParser parser = new PageJsonParser(new ObjectMapper());
+
+	@Test
+	void parseListing() {
+		final var response = createListing().getBytes(UTF_8);
+
+		final var streaming = Benchmark.measure("Decoding a %d KB listing from the bytes of the response".formatted(response.length / 1024), WARMUP_ITERATIONS, ITERATIONS,
+			() -> parser.parse(new ByteArrayInputStream(response)));
+		final var readingIntoString = Benchmark.measure("Reading the same listing into a string, before any decoding", WARMUP_ITERATIONS, ITERATIONS,
+			() -> readIntoString(response));
+
+		assertThat(parser.parse(new ByteArrayInputStream(response)).getResults()).hasSize(PAGES);
+		assertThat(streaming.bytesPerOperation()).isPositive();
+		assertThat(readingIntoString.bytesPerOperation()).isPositive();
+	}
+
+	private static String readIntoString(final byte[] response) {
+		try {
+			return Util.toString(new InputStreamReader(new ByteArrayInputStream(response), UTF_8));
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// A listing of pages with storage format bodies of a few KB each, with some non-ASCII text in them
+	private static String createListing() {
+		final var body = "<h2>Rubrik</h2><p>Några rader text om hur det går till, med en länk och en tabell.</p>".repeat(50);
+
+		return IntStream.range(0, PAGES)
+			.mapToObj(i -> """
+				{"id": "%d", "title": "Sida %d", "body": {"storage": {"value": "%s", "representation": "storage"}},
+				 "version": {"when": "2024-09-10T12:03:28.147Z", "number": 3}, "ancestors": [{"id": "1"}, {"id": "2"}],
+				 "_links": {"webui": "/pages/%d"}}""".formatted(i, i, body, i))
+			.collect(Collectors.joining(",", "{\"results\": [", "], \"_links\": {\"base\": \"https://confluence.example.com\"}}"));
+	}
+}
@@ -1,120 +1,190 @@
 package se.sundsvall.aidatacollector.datasource.confluence;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.verifyNoMoreInteractions;
-import static org.mockito.Mockito.when;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.ANCESTOR_IDS;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.BASE_URL;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.BODY;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.CHILD_IDS;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.PATH;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.TITLE;
-import static se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.UPDATED_AT;
-
-import com.jayway.jsonpath.DocumentContext;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
-import org.junit.jupiter.api.Nested;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import se.sundsvall.aidatacollector.datasource.confluence.PageJsonParser.ListedPage;
 
-@ExtendWith(MockitoExtension.class)
 class PageJsonParserTests {
 
-	@Nested
-	class PageJsonTests {
-
-		@Mock
-		private DocumentContext documentContextMock;
-
-		@InjectMocks
-		private PageJsonParser.PageJson pageJson;
-
-		@Test
-		void getTitle() {
-			final var title = "someTitle";
-
-			when(documentContextMock.read(TITLE)).thenReturn(title);
-
-			assertThat(pageJson.getTitle()).isEqualTo(title);
-
-			verify(documentContextMock).read(TITLE);
-			verifyNoMoreInteractions(documentContextMock);
-		}
-
-		@Test
-		void getBody() {
-			final var body = "someBody";
-
-			when(documentContextMock.read(BODY)).thenReturn(body);
-
-			assertThat(pageJson.getBody()).isEqualTo(body);
-
-			verify(documentContextMock).read(BODY);
-			verifyNoMoreInteractions(documentContextMock);
-		}
-
-		@Test
-		void getBaseUrl() {
-			final var baseUrl = "someBaseUrl";
-
-			when(documentContextMock.read(BASE_URL)).thenReturn(baseUrl);
-
-			assertThat(pageJson.getBaseUrl()).isEqualTo(baseUrl);
-
-			verify(documentContextMock).read(BASE_URL);
-			verifyNoMoreInteractions(documentContextMock);
-		}
-
-		@Test
-		void getPath() {
-			final var path = "somePath";
-
-			when(documentContextMock.read(PATH)).thenReturn(path);
-
-			assertThat(pageJson.getPath()).isEqualTo(path);
-
-			verify(documentContextMock).read(PATH);
-			verifyNoMoreInteractions(documentContextMock);
-		}
+	private final PageJsonParser parser = new PageJsonParser(new ObjectMapper());
+
+	@Test
+	void parseChildPages() {
+		final var json = """
+			{
+				"results": [
+					{"id": "1", "title": "First", "version": {"when": "2024-09-10T12:03:28.147Z", "number": 2}},
+					{"id": "2", "title": "Second", "version": {"when": "2024-09-11T12:03:28.147Z", "number": 1}}
+				],
+				"start": 0,
+				"limit": 2,
+				"size": 2,
+				"_links": {"next": "/rest/api/content/98362/child/page?start=2"}
+			}
+			""";
+
+		final var pageJson = parse(json);
+
+		assertThat(pageJson.getListedPages()).extracting(ListedPage::id, ListedPage::updatedAt)
+			.containsExactly(tuple("1", "2024-09-10T12:03:28.147Z"), tuple("2", "2024-09-11T12:03:28.147Z"));
+		assertThat(pageJson.hasNext()).isTrue();
+	}
 
-		@Test
-		void getAncestorIds() {
-			final var ancestorIds = List.of("someAncestorId", "someOtherAncestorId");
+	@Test
+	void parseLastChildPages() {
+		final var pageJson = parse("""
+			{"results": [], "start": 0, "limit": 100, "size": 0, "_links": {"self": "someLink"}}
+			""");
 
-			when(documentContextMock.read(ANCESTOR_IDS)).thenReturn(ancestorIds);
+		assertThat(pageJson.getListedPages()).isEmpty();
+		assertThat(pageJson.hasNext()).isFalse();
+	}
 
-			assertThat(pageJson.getAncestorIds()).isEqualTo(ancestorIds);
+	@Test
+	void parseSpaceContent() {
+		final var pageJson = parse("""
+			{
+				"results": [
+					{"id": "2", "title": "First", "body": {"storage": {"value": "<p>first</p>"}}, "version": {"when": "2024-09-10T12:03:28.147Z"}, "ancestors": [{"id": "1"}], "_links": {"webui": "/first"}},
+					{"id": "3", "title": "Second", "body": {"storage": {"value": "<p>second</p>"}}, "version": {"when": "2024-09-11T12:03:28.147Z"}, "ancestors": [], "_links": {"webui": "/second"}}
+				],
+				"_links": {"base": "https://confluence.example.com", "next": "/rest/api/content?start=2"}
+			}
+			""");
+
+		assertThat(pageJson.getBaseUrl()).isEqualTo("https://confluence.example.com");
+		assertThat(pageJson.hasNext()).isTrue();
+		assertThat(pageJson.getResults()).satisfiesExactly(first -> {
+			assertThat(first.getId()).isEqualTo("2");
+			assertThat(first.getTitle()).isEqualTo("First");
+			assertThat(first.getBody()).isEqualTo("<p>first</p>");
+			assertThat(first.getPath()).isEqualTo("/first");
+			assertThat(first.getUpdatedAt()).isEqualTo("2024-09-10T12:03:28.147Z");
+			assertThat(first.getAncestorIds()).containsExactly("1");
+		}, second -> {
+			assertThat(second.getId()).isEqualTo("3");
+			assertThat(second.getAncestorIds()).isEmpty();
+		});
+	}
 
-			verify(documentContextMock).read(ANCESTOR_IDS);
-			verifyNoMoreInteractions(documentContextMock);
-		}
+	@Test
+	void parseSpaceContentWithoutResults() {
+		assertThat(parse("{}").getResults()).isEmpty();
+	}
 
-		@Test
-		void getChildIds() {
-			final var childIds = List.of("someChildId", "someOtherChildId");
+	@Test
+	void parseDescendantPages() {
+		final var pageJson = parse("""
+			{
+				"results": [
+					{"id": "2", "version": {"when": "2024-09-10T12:03:28.147Z"}, "ancestors": [{"id": "0", "title": "Space"}, {"id": "1"}]},
+					{"id": "3", "version": {"when": "2024-09-11T12:03:28.147Z"}}
+				],
+				"_links": {"self": "someLink"}
+			}
+			""");
+
+		assertThat(pageJson.getListedPages()).extracting(ListedPage::id, ListedPage::ancestorIds)
+			.containsExactly(tuple("2", List.of("0", "1")), tuple("3", List.of()));
+	}
 
-			when(documentContextMock.read(CHILD_IDS)).thenReturn(childIds);
+	@Test
+	void parseContent() {
+		final var pageJson = parse("""
+			{
+				"id": "98370",
+				"type": "page",
+				"title": "Some title",
+				"space": {"id": 123, "key": "SPACE", "_links": {"webui": "/spaces/SPACE"}},
+				"body": {
+					"view": {"value": "<p>not this one</p>"},
+					"storage": {"value": "<p>some body</p>", "representation": "storage", "embeddedContent": []}
+				},
+				"version": {"by": {"type": "known", "_links": {"self": "someLink"}}, "when": "2024-09-10T12:03:28.147Z", "number": 7},
+				"ancestors": [
+					{"id": "98362", "title": "Root", "_links": {"webui": "/root"}},
+					{"id": "98365", "ancestors": [{"id": "nested"}]}
+				],
+				"metadata": {"labels": {"results": [{"id": "someLabelId"}]}},
+				"_links": {"webui": "/some/path", "base": "https://confluence.example.com", "self": "someLink"}
+			}
+			""");
+
+		assertThat(pageJson.getId()).isEqualTo("98370");
+		assertThat(pageJson.getTitle()).isEqualTo("Some title");
+		assertThat(pageJson.getBody()).isEqualTo("<p>some body</p>");
+		assertThat(pageJson.getBaseUrl()).isEqualTo("https://confluence.example.com");
+		assertThat(pageJson.getPath()).isEqualTo("/some/path");
+		assertThat(pageJson.getUpdatedAt()).isEqualTo("2024-09-10T12:03:28.147Z");
+		assertThat(pageJson.getAncestorIds()).containsExactly("98362", "98365");
+		assertThat(pageJson.getResults()).isEmpty();
+		assertThat(pageJson.getListedPages()).isEmpty();
+		assertThat(pageJson.hasNext()).isFalse();
+	}
 
-			assertThat(pageJson.getChildIds()).isEqualTo(childIds);
+	@Test
+	void parseContentWithoutExpansions() {
+		final var pageJson = parse("""
+			{"id": 98370, "title": null, "_expandable": {"ancestors": "", "body": ""}}
+			""");
+
+		assertThat(pageJson.getId()).isEqualTo("98370");
+		assertThat(pageJson.getTitle()).isNull();
+		assertThat(pageJson.getBody()).isNull();
+		assertThat(pageJson.getUpdatedAt()).isNull();
+		assertThat(pageJson.getAncestorIds()).isEmpty();
+	}
 
-			verify(documentContextMock).read(CHILD_IDS);
-			verifyNoMoreInteractions(documentContextMock);
-		}
+	@Test
+	void parseNonAscii() {
+		final var json = """
+			{"results": [{"id": "1", "title": "Första", "version": {"when": "2024-09-10T12:03:28.147Z"}}], "_links": {"next": "someLink"}}
+			""";
+		final var closed = new AtomicBoolean();
+		final var stream = new ByteArrayInputStream(json.getBytes(UTF_8)) {
+
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+
+		final var pageJson = parser.parse(stream);
+
+		assertThat(pageJson.getResults()).extracting(PageJsonParser.PageJson::getTitle).containsExactly("Första");
+		assertThat(pageJson.getListedPages()).extracting(ListedPage::id, ListedPage::updatedAt)
+			.containsExactly(tuple("1", "2024-09-10T12:03:28.147Z"));
+		assertThat(pageJson.hasNext()).isTrue();
+
+		// The stream (i.e. the response) is closed once it has been decoded
+		assertThat(closed).isTrue();
+	}
 
-		@Test
-		void getUpdatedAt() {
-			final var updatedAt = "someUpdatedAt";
+	@Test
+	void parseMalformedJson() {
+		assertThatExceptionOfType(UncheckedIOException.class)
+			.isThrownBy(() -> parse("{\"id\": \"1\", \"title\": "))
+			.withMessage("Unable to parse Confluence response");
+	}
 
-			when(documentContextMock.read(UPDATED_AT)).thenReturn(updatedAt);
+	@Test
+	void parseNonObject() {
+		final var pageJson = parse("[1, 2, 3]");
 
-			assertThat(pageJson.getUpdatedAt()).isEqualTo(updatedAt);
+		assertThat(pageJson.getId()).isNull();
+		assertThat(pageJson.getResults()).isEmpty();
+	}
 
-			verify(documentContextMock).read(UPDATED_AT);
-			verifyNoMoreInteractions(documentContextMock);
-		}
+	private PageJsonParser.PageJson parse(final String json) {
+		return parser.parse(new ByteArrayInputStream(json.getBytes(UTF_8)));
 	}
 }
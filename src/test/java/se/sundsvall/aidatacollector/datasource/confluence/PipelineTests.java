@@ -0,0 +1,141 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import se.sundsvall.aidatacollector.Await;
+
+class PipelineTests {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	@Test
+	void runPassesItemsThroughAllStages() {
+		final var results = ConcurrentHashMap.<String>newKeySet();
+
+		final var pipeline = Pipeline.<Integer>builder("some.pipeline", meterRegistry, Tags.of("someTag", "someValue"))
+			.<Integer>stage("split", 2, 5, (item, next) -> {
+				next.accept(item * 10);
+				next.accept(item * 10 + 1);
+			})
+			.<String>stage("format", 3, 5, (item, next) -> next.accept("item-" + item))
+			.sink("collect", 2, 5, results::add);
+
+		final var stageStats = pipeline.run(submit -> IntStream.range(0, 20).forEach(submit::accept));
+
+		assertThat(results).hasSize(40).contains("item-0", "item-1", "item-190", "item-191");
+		assertThat(stageStats).extracting(Pipeline.StageStats::stage, Pipeline.StageStats::processed)
+			.containsExactly(
+				tuple("split", 20L),
+				tuple("format", 40L),
+				tuple("collect", 40L));
+
+		// The meters cover all runs, and report nothing waiting once a run is done
+		assertThat(meterRegistry.get("some.pipeline.processed").tags("someTag", "someValue", "stage", "format").counter().count()).isEqualTo(40);
+		assertThat(meterRegistry.get("some.pipeline.queued").tags("someTag", "someValue", "stage", "format").gauge().value()).isZero();
+
+		pipeline.run(submit -> submit.accept(1));
+
+		assertThat(meterRegistry.get("some.pipeline.processed").tags("stage", "collect").counter().count()).isEqualTo(42);
+	}
+
+	@Test
+	void runAppliesBackpressure() throws InterruptedException {
+		final var sinkReleased = new CountDownLatch(1);
+		final var submitted = new AtomicInteger();
+
+		final var pipeline = Pipeline.<Integer>builder("some.pipeline", meterRegistry, Tags.empty())
+			.<Integer>stage("pass", 1, 1, (item, next) -> next.accept(item))
+			.sink("slow", 1, 1, _ -> awaitQuietly(sinkReleased));
+
+		final var runner = Thread.ofVirtual().start(() -> pipeline.run(submit -> IntStream.range(0, 100).forEach(item -> {
+			submit.accept(item);
+			submitted.incrementAndGet();
+		})));
+
+		// With the sink held up, four items fit in the queues and workers - one held by each worker, and one in each
+		// queue - before the source is blocked on the fifth
+		Await.until("the source is blocked", () -> submitted.get() == 4 && runner.getState() == Thread.State.WAITING);
+		assertThat(meterRegistry.get("some.pipeline.queued").tags("stage", "pass").gauge().value()).isOne();
+		assertThat(meterRegistry.get("some.pipeline.queued").tags("stage", "slow").gauge().value()).isOne();
+		assertThat(runner.getState()).isEqualTo(Thread.State.WAITING);
+		assertThat(submitted).hasValue(4);
+
+		sinkReleased.countDown();
+		runner.join(TimeUnit.SECONDS.toMillis(5));
+
+		assertThat(submitted).hasValue(100);
+	}
+
+	@Test
+	void runKeepsGoingWhenAnItemFails() {
+		final var results = ConcurrentHashMap.<Integer>newKeySet();
+
+		final var pipeline = Pipeline.<Integer>builder("some.pipeline", meterRegistry, Tags.empty())
+			.<Integer>stage("check", 2, 5, (item, next) -> {
+				if (item == 3) {
+					throw new IllegalArgumentException("someMessage");
+				}
+				next.accept(item);
+			})
+			.sink("collect", 1, 5, results::add);
+
+		pipeline.run(submit -> IntStream.range(0, 5).forEach(submit::accept));
+
+		assertThat(results).containsExactlyInAnyOrder(0, 1, 2, 4);
+	}
+
+	@Test
+	void runEndsStagesWhenSourceFails() {
+		final var results = ConcurrentHashMap.<Integer>newKeySet();
+
+		final var pipeline = Pipeline.<Integer>builder("some.pipeline", meterRegistry, Tags.empty())
+			.sink("collect", 2, 5, results::add);
+
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> pipeline.run(submit -> {
+				submit.accept(1);
+				throw new IllegalStateException("someMessage");
+			}))
+			.withMessage("someMessage");
+
+		// What was submitted before the failure is still processed
+		assertThat(results).containsExactly(1);
+	}
+
+	@Test
+	void runCarriesMdcOverToStages() {
+		final var requestIds = ConcurrentHashMap.<String>newKeySet();
+
+		final var pipeline = Pipeline.<Integer>builder("some.pipeline", meterRegistry, Tags.empty())
+			.sink("collect", 2, 5, _ -> requestIds.add(MDC.get("someKey")));
+
+		MDC.put("someKey", "someValue");
+		try {
+			pipeline.run(submit -> List.of(1, 2, 3).forEach(submit::accept));
+		} finally {
+			MDC.clear();
+		}
+
+		assertThat(requestIds).containsExactly("someValue");
+	}
+
+	private static void awaitQuietly(final CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
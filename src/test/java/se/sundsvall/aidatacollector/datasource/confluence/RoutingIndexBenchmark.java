@@ -0,0 +1,104 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.Benchmark;
+
+// Compares routing pages through the compiled index with the lookups it replaced - a map of mappings, and a list
+// of blacklisted root ids checked for the page and each of its ancestors in turn - with hundreds of mappings, a
+// long blacklist and pages a few levels down. The primitive sets the index is built on are compared with sets of
+// boxed longs as well
+class RoutingIndexBenchmark {
+
+	private static final int MAPPINGS = 500;
+	private static final int BLACKLISTED_IDS = 300;
+	private static final int PAGES = 1_000;
+	private static final int DEPTH = 8;
+	private static final int WARMUP_ITERATIONS = 200;
+	private static final int ITERATIONS = 500;
+
+	private final Map<String, String> mappings = IntStream.range(0, MAPPINGS).boxed()
+		.collect(Collectors.toMap(i -> String.valueOf(100_000 + i), i -> "someEneoGroupId" + i));
+	private final List<String> blacklistedIds = IntStream.range(0, BLACKLISTED_IDS)
+		.mapToObj(i -> String.valueOf(200_000 + i))
+		.toList();
+	// Pages below the mapped roots, with every tenth page below a blacklisted one
+	private final List<RoutedPage> pages = IntStream.range(0, PAGES)
+		.mapToObj(i -> new RoutedPage(String.valueOf(1_000_000 + i), IntStream.range(0, DEPTH)
+			.mapToObj(depth -> switch (depth) {
+				case 0 -> String.valueOf(100_000 + i % MAPPINGS);
+				case 1 -> i % 10 == 0 ? String.valueOf(200_000 + i % BLACKLISTED_IDS) : String.valueOf(300_000 + i);
+				default -> String.valueOf(400_000 + i * DEPTH + depth);
+			})
+			.toList()))
+		.toList();
+
+	@Test
+	void routePages() {
+		final var routingIndex = RoutingIndex.compile(mappings, blacklistedIds);
+
+		final var compiled = Benchmark.measure("Routing %d pages, %d levels down, through the compiled index".formatted(PAGES, DEPTH), WARMUP_ITERATIONS, ITERATIONS,
+			() -> route(page -> routingIndex.isBlacklisted(page.id(), page.ancestorIds()) ? null : routingIndex.getEneoGroupId(page.id(), page.ancestorIds())));
+		final var lookups = Benchmark.measure("The same through the map of mappings and the list of blacklisted ids", WARMUP_ITERATIONS, ITERATIONS,
+			() -> route(page -> isBlacklisted(page.id(), page.ancestorIds()) ? null : getEneoGroupId(page.id(), page.ancestorIds())));
+
+		assertThat(route(page -> routingIndex.isBlacklisted(page.id(), page.ancestorIds()) ? null : routingIndex.getEneoGroupId(page.id(), page.ancestorIds())))
+			.isEqualTo(route(page -> isBlacklisted(page.id(), page.ancestorIds()) ? null : getEneoGroupId(page.id(), page.ancestorIds())))
+			.isEqualTo(PAGES - PAGES / 10);
+		assertThat(compiled.nanosPerOperation()).isPositive();
+		assertThat(lookups.nanosPerOperation()).isPositive();
+	}
+
+	@Test
+	void containsIds() {
+		final var ids = IntStream.range(0, MAPPINGS).mapToLong(i -> 100_000 + i).toArray();
+		final var longHashSet = LongHashSet.of(ids);
+		final var hashSet = LongStream.of(ids).boxed().collect(Collectors.toSet());
+		// Half of the ids looked up are in the sets
+		final var lookedUpIds = IntStream.range(0, PAGES * DEPTH).mapToLong(i -> 100_000 + i % (2 * MAPPINGS)).toArray();
+
+		final var primitive = Benchmark.measure("Looking up %d ids in a set of %d primitive longs".formatted(lookedUpIds.length, MAPPINGS), WARMUP_ITERATIONS, ITERATIONS,
+			() -> LongStream.of(lookedUpIds).filter(longHashSet::contains).count());
+		final var boxed = Benchmark.measure("The same in a HashSet of boxed longs", WARMUP_ITERATIONS, ITERATIONS,
+			() -> LongStream.of(lookedUpIds).filter(hashSet::contains).count());
+
+		assertThat(LongStream.of(lookedUpIds).filter(longHashSet::contains).count()).isEqualTo(lookedUpIds.length / 2);
+		assertThat(primitive.nanosPerOperation()).isPositive();
+		assertThat(boxed.nanosPerOperation()).isPositive();
+	}
+
+	private long route(final Function<RoutedPage, String> router) {
+		return pages.stream()
+			.map(router)
+			.filter(Objects::nonNull)
+			.count();
+	}
+
+	// The lookups as they were before the routing index
+	private boolean isBlacklisted(final String pageId, final List<String> ancestorIds) {
+		return blacklistedIds.contains(pageId) || ancestorIds.stream().anyMatch(blacklistedIds::contains);
+	}
+
+	private String getEneoGroupId(final String pageId, final List<String> ancestorIds) {
+		if (mappings.containsKey(pageId)) {
+			return mappings.get(pageId);
+		}
+
+		return ancestorIds.reversed().stream()
+			.filter(mappings::containsKey)
+			.findFirst()
+			.map(mappings::get)
+			.orElse(null);
+	}
+
+	private record RoutedPage(String id, List<String> ancestorIds) {
+	}
+}
@@ -0,0 +1,78 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static se.sundsvall.aidatacollector.datasource.confluence.RoutingIndex.NOT_AN_ID;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class RoutingIndexTests {
+
+	private static final String ROOT_ID = "98362";
+	private static final String NESTED_ROOT_ID = "98381";
+	private static final String BLACKLISTED_ID = "1212426";
+
+	private final RoutingIndex routingIndex = RoutingIndex.compile(
+		Map.of(ROOT_ID, "someEneoGroupId", NESTED_ROOT_ID, "someNestedEneoGroupId"),
+		List.of(BLACKLISTED_ID));
+
+	@Test
+	void rootIds() {
+		assertThat(routingIndex.rootIds()).containsExactlyInAnyOrder(ROOT_ID, NESTED_ROOT_ID);
+	}
+
+	@Test
+	void isMappedRoot() {
+		assertThat(routingIndex.isMappedRoot(ROOT_ID)).isTrue();
+		assertThat(routingIndex.isMappedRoot(NESTED_ROOT_ID)).isTrue();
+		assertThat(routingIndex.isMappedRoot(BLACKLISTED_ID)).isFalse();
+		assertThat(routingIndex.isMappedRoot("someNonNumericId")).isFalse();
+		assertThat(routingIndex.isMappedRoot(null)).isFalse();
+	}
+
+	@Test
+	void isBlacklisted() {
+		assertThat(routingIndex.isBlacklisted(BLACKLISTED_ID)).isTrue();
+		assertThat(routingIndex.isBlacklisted(ROOT_ID)).isFalse();
+		assertThat(routingIndex.isBlacklisted(BLACKLISTED_ID, List.of())).isTrue();
+		assertThat(routingIndex.isBlacklisted("123", List.of(ROOT_ID, BLACKLISTED_ID, "456"))).isTrue();
+		assertThat(routingIndex.isBlacklisted("123", List.of(ROOT_ID, "someNonNumericId", "456"))).isFalse();
+	}
+
+	@Test
+	void getEneoGroupId() {
+		// The page itself is a mapped root
+		assertThat(routingIndex.getEneoGroupId(ROOT_ID, List.of("123"))).isEqualTo("someEneoGroupId");
+		assertThat(routingIndex.getEneoGroupId(NESTED_ROOT_ID, List.of(ROOT_ID))).isEqualTo("someNestedEneoGroupId");
+		// The nearest mapped ancestor wins
+		assertThat(routingIndex.getEneoGroupId("123", List.of("1", ROOT_ID, "2"))).isEqualTo("someEneoGroupId");
+		assertThat(routingIndex.getEneoGroupId("123", List.of("1", ROOT_ID, NESTED_ROOT_ID, "2"))).isEqualTo("someNestedEneoGroupId");
+		// No mapped ancestor at all
+		assertThat(routingIndex.getEneoGroupId("123", List.of("1", "2"))).isNull();
+		assertThat(routingIndex.getEneoGroupId("123", List.of())).isNull();
+	}
+
+	@Test
+	void parseId() {
+		assertThat(RoutingIndex.parseId("98362")).isEqualTo(98362L);
+		assertThat(RoutingIndex.parseId("0")).isZero();
+		assertThat(RoutingIndex.parseId("999999999999999999")).isEqualTo(999_999_999_999_999_999L);
+		assertThat(RoutingIndex.parseId("9999999999999999999")).isEqualTo(NOT_AN_ID);
+		assertThat(RoutingIndex.parseId("-1")).isEqualTo(NOT_AN_ID);
+		assertThat(RoutingIndex.parseId("12a")).isEqualTo(NOT_AN_ID);
+		assertThat(RoutingIndex.parseId("")).isEqualTo(NOT_AN_ID);
+		assertThat(RoutingIndex.parseId(null)).isEqualTo(NOT_AN_ID);
+	}
+
+	@Test
+	void compileWithNonNumericId() {
+		final var mappings = Map.of("someRootId", "someEneoGroupId");
+		final List<String> blacklistedIds = List.of();
+
+		assertThatExceptionOfType(IllegalArgumentException.class)
+			.isThrownBy(() -> RoutingIndex.compile(mappings, blacklistedIds))
+			.withMessage("Confluence page ids must be numeric, got 'someRootId'");
+	}
+}
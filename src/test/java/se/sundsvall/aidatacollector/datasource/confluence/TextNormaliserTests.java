@@ -0,0 +1,96 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment.Normalisation;
+import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.StorageFormatText;
+
+class TextNormaliserTests {
+
+	private static final String BODY = """
+		<ac:structured-macro ac:name="toc"/>
+		<p>Some text</p>
+		<table><tbody><tr><th>Name</th><th>Value</th></tr><tr><td>a</td><td>1</td></tr></tbody></table>
+		<p>Last reviewed: 2024-01-31</p>
+		<p>More text</p>
+		""";
+
+	@Test
+	void createWithoutNormalisation() {
+		assertThat(TextNormaliser.create(null)).isSameAs(TextNormaliser.NONE);
+	}
+
+	@Test
+	void normaliseWithNone() {
+		final var page = Page.create().withBody(BODY);
+
+		assertThat(TextNormaliser.NONE.normalise(page)).isEqualTo(page.bodyAsText());
+	}
+
+	@Test
+	void normalise() {
+		final var normaliser = TextNormaliser.create(new Normalisation(List.of("toc"), true, List.of("Last reviewed: \\d{4}-\\d{2}-\\d{2}")));
+		final var page = Page.create().withPageId("123").withBody(BODY);
+
+		assertThat(normaliser.normalise(page)).isEqualTo("Some text Name | Value; a | 1 More text");
+	}
+
+	@Test
+	void normaliseExtractsTextOnce() {
+		final var normaliser = TextNormaliser.create(new Normalisation(List.of("toc"), true, List.of()));
+		final var page = spy(Page.create().withPageId("123").withBody(BODY));
+
+		normaliser.normalise(page);
+
+		// The normalised text is extracted with options of its own - the plain text of the body is never needed
+		verify(page, never()).bodyAsText();
+	}
+
+	@Test
+	void normaliseWithoutBoilerplatePatterns() {
+		final var normaliser = TextNormaliser.create(new Normalisation(List.of(), false, List.of()));
+		final var page = Page.create().withBody(BODY);
+
+		assertThat(normaliser.normalise(page)).isEqualTo(page.bodyAsText());
+	}
+
+	@Test
+	void normaliseSections() {
+		final var normaliser = TextNormaliser.create(new Normalisation(List.of("toc"), true, List.of("Last reviewed: \\d{4}-\\d{2}-\\d{2}")));
+		final var page = Page.create().withBody(BODY + "<h2>Heading</h2><p>Last reviewed: 2024-01-31</p><p>Even more text</p>");
+
+		assertThat(normaliser.normaliseSections(page, 2)).containsExactly(
+			new StorageFormatText.Section(null, "Some text Name | Value; a | 1 More text"),
+			new StorageFormatText.Section("Heading", "Heading Even more text"));
+	}
+
+	@Test
+	void normaliseSectionsLeavesOutSectionsOfOnlyBoilerplate() {
+		final var normaliser = TextNormaliser.create(new Normalisation(List.of(), false, List.of("Last reviewed: \\d{4}-\\d{2}-\\d{2}")));
+		final var page = Page.create().withBody("<p>Last reviewed: 2024-01-31</p><h2>Heading</h2><p>Some text</p>");
+
+		assertThat(normaliser.normaliseSections(page, 2)).containsExactly(
+			new StorageFormatText.Section("Heading", "Heading Some text"));
+	}
+
+	@Test
+	void normaliseSectionsWithNone() {
+		final var page = Page.create().withBody("<h1>Heading</h1><p>Some text</p>");
+
+		assertThat(TextNormaliser.NONE.normaliseSections(page, 1))
+			.containsExactly(new StorageFormatText.Section("Heading", "Heading Some text"));
+	}
+
+	@Test
+	void normaliseWhenBodyIsNull() {
+		final var normaliser = TextNormaliser.create(new Normalisation(List.of("toc"), true, List.of("boilerplate")));
+
+		assertThat(normaliser.normalise(Page.create())).isEmpty();
+	}
+}
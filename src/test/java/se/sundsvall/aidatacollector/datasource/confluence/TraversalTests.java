@@ -0,0 +1,123 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+class TraversalTests {
+
+	@Test
+	void createSequential() {
+		assertThat(Traversal.create(0)).isSameAs(Traversal.SEQUENTIAL);
+		assertThat(Traversal.create(1)).isSameAs(Traversal.SEQUENTIAL);
+		assertThat(Traversal.SEQUENTIAL.isParallel()).isFalse();
+	}
+
+	@Test
+	void forkAndJoinWhenSequential() {
+		final var executionOrder = new ArrayList<Integer>();
+		final var callingThread = Thread.currentThread();
+		final var threads = ConcurrentHashMap.<Thread>newKeySet();
+
+		Traversal.SEQUENTIAL.forkAndJoin(IntStream.range(0, 5)
+			.<Runnable>mapToObj(i -> () -> {
+				threads.add(Thread.currentThread());
+				executionOrder.add(i);
+			})
+			.toList());
+
+		assertThat(executionOrder).containsExactly(0, 1, 2, 3, 4);
+		assertThat(threads).containsExactly(callingThread);
+	}
+
+	@Test
+	void forkAndJoinWhenParallel() throws InterruptedException {
+		final var allStarted = new CountDownLatch(3);
+		final var counter = new AtomicInteger();
+
+		MDC.put("someKey", "someValue");
+		try (final var traversal = Traversal.create(3)) {
+			assertThat(traversal.isParallel()).isTrue();
+
+			// All tasks must run at the same time for the latch to open
+			traversal.forkAndJoin(IntStream.range(0, 3)
+				.<Runnable>mapToObj(_ -> () -> {
+					allStarted.countDown();
+					awaitQuietly(allStarted);
+					assertThat(Thread.currentThread().isVirtual()).isTrue();
+					assertThat(MDC.get("someKey")).isEqualTo("someValue");
+					counter.incrementAndGet();
+				})
+				.toList());
+		} finally {
+			MDC.clear();
+		}
+
+		assertThat(counter).hasValue(3);
+	}
+
+	@Test
+	void withPermitLimitsConcurrency() {
+		final var maxConcurrency = 2;
+		final var running = new AtomicInteger();
+		final var maxRunning = new AtomicInteger();
+
+		try (final var traversal = Traversal.create(maxConcurrency)) {
+			traversal.forkAndJoin(IntStream.range(0, 20)
+				.<Runnable>mapToObj(_ -> () -> traversal.withPermit(() -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					sleepQuietly();
+					running.decrementAndGet();
+				}))
+				.toList());
+		}
+
+		assertThat(maxRunning.get()).isPositive().isLessThanOrEqualTo(maxConcurrency);
+	}
+
+	@Test
+	void withPermitReturnsResult() {
+		try (final var traversal = Traversal.create(2)) {
+			assertThat(traversal.withPermit(() -> "someResult")).isEqualTo("someResult");
+		}
+		assertThat(Traversal.SEQUENTIAL.withPermit(() -> "someResult")).isEqualTo("someResult");
+	}
+
+	@Test
+	void forkAndJoinPropagatesExceptions() {
+		try (final var traversal = Traversal.create(2)) {
+			final List<Runnable> tasks = List.of(() -> {
+				throw new IllegalArgumentException("someMessage");
+			});
+
+			assertThatExceptionOfType(IllegalArgumentException.class)
+				.isThrownBy(() -> traversal.forkAndJoin(tasks))
+				.withMessage("someMessage");
+		}
+	}
+
+	private static void awaitQuietly(final CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void sleepQuietly() {
+		try {
+			Thread.sleep(5);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package se.sundsvall.aidatacollector.datasource.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+class VisitedPagesTests {
+
+	@Test
+	void visit() {
+		final var visitedPages = VisitedPages.create();
+
+		assertThat(visitedPages.isTracking()).isTrue();
+		assertThat(visitedPages.visit("98362")).isTrue();
+		assertThat(visitedPages.visit("98381")).isTrue();
+		assertThat(visitedPages.visit("98362")).isFalse();
+		assertThat(visitedPages.visit("4567110901")).isTrue();
+		assertThat(visitedPages.visit("4567110901")).isFalse();
+
+		assertThat(visitedPages.visitedCount()).isEqualTo(3);
+		assertThat(visitedPages.revisitedCount()).isEqualTo(2);
+		assertThat(visitedPages.untrackedCount()).isZero();
+	}
+
+	@Test
+	void visitWhenPageIdIsNotNumeric() {
+		final var visitedPages = VisitedPages.create();
+
+		assertThat(visitedPages.visit("somePageId")).isTrue();
+		assertThat(visitedPages.visit("somePageId")).isTrue();
+
+		assertThat(visitedPages.visitedCount()).isZero();
+		assertThat(visitedPages.untrackedCount()).isEqualTo(2);
+	}
+
+	@Test
+	void visitWhenNotTracking() {
+		assertThat(VisitedPages.NONE.isTracking()).isFalse();
+		assertThat(VisitedPages.NONE.visit("98362")).isTrue();
+		assertThat(VisitedPages.NONE.visit("98362")).isTrue();
+		assertThat(VisitedPages.NONE.visitedCount()).isZero();
+		assertThat(VisitedPages.NONE.revisitedCount()).isZero();
+	}
+
+	@Test
+	void visitWhenDense() {
+		final var visitedPages = VisitedPages.create();
+
+		// Fill a single container far past the point where it switches from a sorted array to a bitmap
+		LongStream.range(0, 20_000).forEach(id -> assertThat(visitedPages.visit(String.valueOf(id * 3))).isTrue());
+		LongStream.range(0, 20_000).forEach(id -> assertThat(visitedPages.visit(String.valueOf(id * 3))).isFalse());
+		assertThat(visitedPages.visit("1")).isTrue();
+
+		assertThat(visitedPages.visitedCount()).isEqualTo(20_001);
+		assertThat(visitedPages.revisitedCount()).isEqualTo(20_000);
+	}
+
+	@Test
+	void sizeInBytesForAMillionSparsePages() {
+		final var visitedPages = VisitedPages.create();
+
+		// A million pages, with ids spread out over the range Confluence uses
+		LongStream.range(0, 1_000_000).forEach(i -> visitedPages.visit(String.valueOf(98_362L + i * 4_567L)));
+
+		assertThat(visitedPages.visitedCount()).isEqualTo(1_000_000);
+		assertThat(visitedPages.sizeInBytes()).isLessThan(8L * 1024 * 1024);
+	}
+
+	@Test
+	void visitConcurrently() {
+		final var visitedPages = VisitedPages.create();
+		final var firstVisits = new AtomicInteger();
+
+		// Every page is visited by four threads, but only one of them gets to process it
+		try (final var executor = Executors.newFixedThreadPool(4)) {
+			IntStream.range(0, 4).forEach(_ -> executor.submit(() -> IntStream.range(0, 10_000)
+				.filter(id -> visitedPages.visit(String.valueOf(id)))
+				.forEach(_ -> firstVisits.incrementAndGet())));
+		}
+
+		assertThat(firstVisits).hasValue(10_000);
+		assertThat(visitedPages.visitedCount()).isEqualTo(10_000);
+		assertThat(visitedPages.revisitedCount()).isEqualTo(30_000);
+	}
+}
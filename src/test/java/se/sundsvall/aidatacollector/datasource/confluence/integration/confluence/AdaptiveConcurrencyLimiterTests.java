@@ -0,0 +1,247 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.Await;
+
+class AdaptiveConcurrencyLimiterTests {
+
+	private final AtomicLong nanoTime = new AtomicLong();
+
+	@Test
+	void acquireWaitsForRoomWithinLimit() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+
+		limiter.acquire();
+		limiter.acquire();
+
+		final var waiting = Thread.ofVirtual().start(() -> {
+			try {
+				limiter.acquire();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		// The limit is used up, until a request is done
+		Await.untilState(waiting, Thread.State.WAITING);
+		assertThat(limiter.inFlight()).isEqualTo(2);
+
+		limiter.onSuccess(1_000);
+
+		assertThat(waiting.join(Duration.ofSeconds(5))).isTrue();
+		assertThat(limiter.inFlight()).isEqualTo(2);
+	}
+
+	@Test
+	void onSuccessRaisesUsedUpLimit() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(1, 1, 3, 2.0);
+
+		for (var round = 0; round < 20; round++) {
+			final var limit = limiter.limit();
+			for (var i = 0; i < limit; i++) {
+				limiter.acquire();
+			}
+			for (var i = 0; i < limit; i++) {
+				limiter.onSuccess(1_000);
+			}
+		}
+
+		assertThat(limiter.limit()).isEqualTo(3);
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+	@Test
+	void onSuccessKeepsLimitWhenNotUsedUp() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0);
+
+		for (var i = 0; i < 20; i++) {
+			limiter.acquire();
+			limiter.onSuccess(1_000);
+		}
+
+		assertThat(limiter.limit()).isEqualTo(4);
+	}
+
+	@Test
+	void onSuccessLowersLimitWhenLatencyRises() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(10, 1, 20, 2.0);
+
+		limiter.acquire();
+		limiter.onSuccess(1_000);
+		limiter.acquire();
+		limiter.onSuccess(1_500);
+		assertThat(limiter.limit()).isEqualTo(10);
+
+		// Well above the baseline
+		limiter.acquire();
+		limiter.onSuccess(10_000);
+		assertThat(limiter.limit()).isEqualTo(9);
+	}
+
+	@Test
+	void onFailureLowersLimitDownToMin() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(8, 2, 10, 2.0);
+
+		limiter.acquire();
+		limiter.onFailure();
+		assertThat(limiter.limit()).isEqualTo(4);
+
+		limiter.acquire();
+		limiter.onFailure();
+		limiter.acquire();
+		limiter.onFailure();
+		assertThat(limiter.limit()).isEqualTo(2);
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+	@Test
+	void onThrottledPausesRequests() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0, nanoTime::get);
+
+		limiter.acquire();
+		limiter.onThrottled(Duration.ofMillis(200));
+		assertThat(limiter.limit()).isEqualTo(2);
+
+		nanoTime.addAndGet(Duration.ofMillis(199).toNanos());
+		assertThat(limiter.tryAcquire()).isFalse();
+
+		// Taken right away, once the instance is willing again
+		nanoTime.addAndGet(Duration.ofMillis(1).toNanos());
+		limiter.acquire();
+		assertThat(limiter.inFlight()).isOne();
+	}
+
+	@Test
+	void acquireWaitsWhilePaused() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0, nanoTime::get);
+
+		limiter.acquire();
+		limiter.onThrottled(Duration.ofMillis(20));
+
+		final var waiting = Thread.ofVirtual().start(() -> {
+			try {
+				limiter.acquire();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+
+		// Waiting out the pause, for as long as it's left
+		Await.untilState(waiting, Thread.State.TIMED_WAITING);
+		assertThat(limiter.inFlight()).isZero();
+
+		nanoTime.addAndGet(Duration.ofMillis(20).toNanos());
+
+		assertThat(waiting.join(Duration.ofSeconds(5))).isTrue();
+		assertThat(limiter.inFlight()).isOne();
+	}
+
+	@Test
+	void acquireServesWaitersInOrder() throws InterruptedException {
+		final var limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0);
+		final var reactiveAcquired = new AtomicBoolean();
+
+		limiter.acquire();
+
+		// A reactive request asks first, a blocking one after it
+		limiter.acquire(() -> reactiveAcquired.set(true));
+		final var waiting = Thread.ofVirtual().start(() -> {
+			try {
+				limiter.acquire();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		Await.until("both requests are waiting", () -> limiter.waiting() == 2);
+
+		limiter.onSuccess(1_000);
+		assertThat(reactiveAcquired).isTrue();
+		assertThat(waiting.isAlive()).isTrue();
+
+		limiter.onSuccess(1_000);
+		assertThat(waiting.join(Duration.ofSeconds(5))).isTrue();
+		assertThat(limiter.inFlight()).isOne();
+		assertThat(limiter.waiting()).isZero();
+	}
+
+	@Test
+	void acquireCallsBackRightAwayWithinLimit() {
+		final var limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0);
+		final var acquired = new AtomicBoolean();
+
+		limiter.acquire(() -> acquired.set(true));
+
+		assertThat(acquired).isTrue();
+		assertThat(limiter.inFlight()).isOne();
+	}
+
+	@Test
+	void cancel() {
+		final var limiter = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0);
+		final var acquired = new AtomicBoolean();
+		assertThat(limiter.tryAcquire()).isTrue();
+
+		// Cancelled while waiting
+		limiter.cancel(limiter.acquire(() -> acquired.set(true)));
+		assertThat(limiter.waiting()).isZero();
+
+		limiter.onUnused();
+		assertThat(acquired).isFalse();
+		assertThat(limiter.inFlight()).isZero();
+
+		// Cancelled after acquiring, before making the request - the permit is released
+		limiter.cancel(limiter.acquire(() -> acquired.set(true)));
+		assertThat(acquired).isTrue();
+		assertThat(limiter.inFlight()).isZero();
+	}
+
+	@Test
+	void acquireCallsBackOncePauseIsOver() {
+		final var limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0);
+		final var acquired = new AtomicBoolean();
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		limiter.onThrottled(Duration.ofMillis(20));
+		limiter.acquire(() -> acquired.set(true));
+		assertThat(acquired).isFalse();
+
+		// Without any permit being released in the meantime
+		Await.until("the pause is over", acquired::get);
+		assertThat(limiter.inFlight()).isOne();
+	}
+
+	@Test
+	void tryAcquireWithinLimit() {
+		final var limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0);
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		assertThat(limiter.tryAcquire()).isTrue();
+		// The limit is used up
+		assertThat(limiter.tryAcquire()).isFalse();
+		assertThat(limiter.inFlight()).isEqualTo(2);
+
+		limiter.onUnused();
+		assertThat(limiter.inFlight()).isEqualTo(1);
+		assertThat(limiter.limit()).isEqualTo(2);
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void tryAcquireWhilePaused() {
+		final var limiter = new AdaptiveConcurrencyLimiter(4, 1, 10, 2.0, nanoTime::get);
+
+		assertThat(limiter.tryAcquire()).isTrue();
+		limiter.onThrottled(Duration.ofMinutes(1));
+
+		assertThat(limiter.tryAcquire()).isFalse();
+		assertThat(limiter.inFlight()).isZero();
+
+		nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+		assertThat(limiter.tryAcquire()).isTrue();
+	}
+}
@@ -0,0 +1,261 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+class AdaptiveConcurrencyLimitingTests {
+
+	private static final Request REQUEST = Request.create(Request.HttpMethod.GET, "http://somehost/content/123", Map.of(), null, null, null);
+	private static final Request.Options OPTIONS = new Request.Options();
+	private static final ClientRequest CLIENT_REQUEST = ClientRequest.create(HttpMethod.GET, URI.create("http://somehost/content/123")).build();
+
+	@Test
+	void createWhenNotConfigured() {
+		assertThat(AdaptiveConcurrencyLimiting.create("someBaseUrl", null)).isSameAs(AdaptiveConcurrencyLimiting.NONE);
+	}
+
+	@Test
+	void create() {
+		final var capability = AdaptiveConcurrencyLimiting.create("someBaseUrl",
+			new ConfluenceIntegrationProperties.Environment.AdaptiveConcurrency(4, 1, 32, 2.0, 3, Duration.ofMinutes(1)));
+
+		assertThat(capability).isInstanceOfSatisfying(AdaptiveConcurrencyLimiting.class,
+			limiting -> assertThat(limiting.limiter().limit()).isEqualTo(4));
+	}
+
+	@Test
+	void enrichPassesResponsesOn() throws IOException {
+		final var limiting = limiting(3);
+
+		final var response = limiting.enrich(client(response(200, null))).execute(REQUEST, OPTIONS);
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(limiting.limiter().inFlight()).isZero();
+	}
+
+	@Test
+	void enrichRetriesThrottledRequests() throws IOException {
+		final var limiting = limiting(3);
+		final var calls = new AtomicInteger();
+
+		final var response = limiting.enrich(client(calls, response(429, "0"), response(503, "0"), response(200, null))).execute(REQUEST, OPTIONS);
+
+		assertThat(response.status()).isEqualTo(200);
+		assertThat(calls).hasValue(3);
+		assertThat(limiting.limiter().inFlight()).isZero();
+		// Halved by each throttled attempt, and raised again by the successful one
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void enrichGivesUpAfterMaxRetries() throws IOException {
+		final var limiting = limiting(1);
+		final var calls = new AtomicInteger();
+
+		final var response = limiting.enrich(client(calls, response(429, "0"), response(429, "0"), response(200, null))).execute(REQUEST, OPTIONS);
+
+		assertThat(response.status()).isEqualTo(429);
+		assertThat(calls).hasValue(2);
+		assertThat(limiting.limiter().inFlight()).isZero();
+	}
+
+	@Test
+	void enrichDoesNotRetryUnavailableWithoutRetryAfter() throws IOException {
+		final var limiting = limiting(3);
+		final var calls = new AtomicInteger();
+
+		final var response = limiting.enrich(client(calls, response(503, null), response(200, null))).execute(REQUEST, OPTIONS);
+
+		assertThat(response.status()).isEqualTo(503);
+		assertThat(calls).hasValue(1);
+		// Still counted as a failure
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {500, 502, 504})
+	void enrichCountsServerErrorsAsFailures(final int status) throws IOException {
+		final var limiting = limiting(3);
+		final var calls = new AtomicInteger();
+
+		final var response = limiting.enrich(client(calls, response(status, null), response(200, null))).execute(REQUEST, OPTIONS);
+
+		// Passed on to the error decoder, without a retry
+		assertThat(response.status()).isEqualTo(status);
+		assertThat(calls).hasValue(1);
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void enrichDoesNotCountClientErrorsAsFailures() throws IOException {
+		final var limiting = limiting(3);
+
+		final var response = limiting.enrich(client(response(404, null))).execute(REQUEST, OPTIONS);
+
+		assertThat(response.status()).isEqualTo(404);
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(4);
+	}
+
+	@Test
+	void enrichCountsTimeoutsAsFailures() {
+		final var limiting = limiting(3);
+		final Client timingOutClient = (_, _) -> {
+			throw new SocketTimeoutException("Read timed out");
+		};
+
+		assertThatExceptionOfType(SocketTimeoutException.class)
+			.isThrownBy(() -> limiting.enrich(timingOutClient).execute(REQUEST, OPTIONS));
+
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void enrichCountsRuntimeExceptionsAsFailures() {
+		final var limiting = limiting(3);
+		final Client failingClient = (_, _) -> {
+			throw new IllegalStateException("someMessage");
+		};
+
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> limiting.enrich(failingClient).execute(REQUEST, OPTIONS));
+
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void enrichReleasesPermitOnFailure() {
+		final var limiting = limiting(3);
+		final Client failingClient = (_, _) -> {
+			throw new IOException("someMessage");
+		};
+
+		assertThatExceptionOfType(IOException.class)
+			.isThrownBy(() -> limiting.enrich(failingClient).execute(REQUEST, OPTIONS))
+			.withMessage("someMessage");
+
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void exchangeFilterWaitsForReleasedPermit() throws Exception {
+		final var limiting = limiting(3);
+		final var calls = new AtomicInteger();
+		final ExchangeFunction next = _ -> {
+			calls.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+		};
+		IntStream.range(0, 4).forEach(_ -> assertThat(limiting.limiter().tryAcquire()).isTrue());
+
+		// The limit is used up - the request waits for a permit, without polling for one
+		final var response = limiting.exchangeFilter().filter(CLIENT_REQUEST, next).toFuture();
+
+		assertThat(limiting.limiter().waiting()).isOne();
+		assertThat(calls).hasValue(0);
+		// Requests asking for a permit later on have to wait their turn
+		assertThat(limiting.limiter().tryAcquire()).isFalse();
+
+		limiting.limiter().onUnused();
+
+		assertThat(response.get(5, TimeUnit.SECONDS).statusCode()).isEqualTo(HttpStatus.OK);
+		assertThat(calls).hasValue(1);
+		assertThat(limiting.limiter().waiting()).isZero();
+		assertThat(limiting.limiter().inFlight()).isEqualTo(3);
+	}
+
+	@Test
+	void exchangeFilterWhenCancelledWhileWaiting() {
+		final var limiting = limiting(3);
+		final var calls = new AtomicInteger();
+		final ExchangeFunction next = _ -> {
+			calls.incrementAndGet();
+			return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+		};
+		IntStream.range(0, 4).forEach(_ -> assertThat(limiting.limiter().tryAcquire()).isTrue());
+
+		final var subscription = limiting.exchangeFilter().filter(CLIENT_REQUEST, next).subscribe();
+		assertThat(limiting.limiter().waiting()).isOne();
+
+		subscription.dispose();
+
+		assertThat(limiting.limiter().waiting()).isZero();
+		limiting.limiter().onUnused();
+		assertThat(limiting.limiter().inFlight()).isEqualTo(3);
+		assertThat(calls).hasValue(0);
+	}
+
+	@Test
+	void getRetryAfter() {
+		final var limiting = limiting(3);
+		final var now = Instant.parse("2025-01-01T12:00:00Z");
+		final var inThirtySeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(now.plusSeconds(30).atOffset(ZoneOffset.UTC));
+
+		assertThat(limiting.getRetryAfter(response(429, "5"), now)).isEqualTo(Duration.ofSeconds(5));
+		assertThat(limiting.getRetryAfter(response(429, inThirtySeconds), now)).isEqualTo(Duration.ofSeconds(30));
+		assertThat(limiting.getRetryAfter(response(429, inThirtySeconds), now.plusSeconds(60))).isZero();
+		assertThat(limiting.getRetryAfter(response(429, null), now)).isEqualTo(AdaptiveConcurrencyLimiting.DEFAULT_RETRY_AFTER);
+		assertThat(limiting.getRetryAfter(response(429, "soon"), now)).isEqualTo(AdaptiveConcurrencyLimiting.DEFAULT_RETRY_AFTER);
+		// Capped
+		assertThat(limiting.getRetryAfter(response(429, "3600"), now)).isEqualTo(Duration.ofMinutes(1));
+	}
+
+	private static AdaptiveConcurrencyLimiting limiting(final int maxRetries) {
+		return new AdaptiveConcurrencyLimiting("someBaseUrl", new AdaptiveConcurrencyLimiter(4, 1, 32, 2.0), maxRetries, Duration.ofMinutes(1));
+	}
+
+	private static Client client(final Response... responses) {
+		return client(new AtomicInteger(), responses);
+	}
+
+	private static Client client(final AtomicInteger calls, final Response... responses) {
+		final var remainingResponses = new ArrayDeque<>(List.of(responses));
+
+		return (_, _) -> {
+			calls.incrementAndGet();
+			return remainingResponses.poll();
+		};
+	}
+
+	private static Response response(final int status, final String retryAfter) {
+		final Map<String, Collection<String>> headers = retryAfter == null ? Map.of() : Map.of(AdaptiveConcurrencyLimiting.RETRY_AFTER, List.of(retryAfter));
+
+		return Response.builder()
+			.status(status)
+			.reason("someReason")
+			.request(REQUEST)
+			.headers(headers)
+			.build();
+	}
+}
@@ -7,7 +7,9 @@ import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
 import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationConfiguration.CLIENT_ID;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationConfiguration.REACTIVE_SUFFIX;
 
+import java.io.InputStream;
 import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.zalando.problem.ThrowableProblem;
 
 @ExtendWith(MockitoExtension.class)
@@ -59,21 +62,85 @@ class ConfluenceClientRegistryTests {
 		verifyNoMoreInteractions(applicationContextMock);
 	}
 
+	@Test
+	void getReactiveClient() {
+		final var municipalityId = "1984";
+		final var clientBeanName = "%s.%s.%s".formatted(CLIENT_ID, municipalityId, REACTIVE_SUFFIX);
+		final var reactiveClient = new ReactiveConfluenceClient("someClientName", WebClient.create());
+
+		when(applicationContextMock.containsBean(clientBeanName)).thenReturn(true);
+		when(applicationContextMock.getBean(clientBeanName, ReactiveConfluenceClient.class)).thenReturn(reactiveClient);
+
+		assertThat(registry.getReactiveClient(municipalityId)).isSameAs(reactiveClient);
+
+		verify(applicationContextMock).containsBean(clientBeanName);
+		verify(applicationContextMock).getBean(clientBeanName, ReactiveConfluenceClient.class);
+		verifyNoMoreInteractions(applicationContextMock);
+	}
+
+	@Test
+	void getReactiveClientWhenClientDoesNotExist() {
+		final var municipalityId = "1984";
+		final var clientBeanName = "%s.%s.%s".formatted(CLIENT_ID, municipalityId, REACTIVE_SUFFIX);
+
+		when(applicationContextMock.containsBean(clientBeanName)).thenReturn(false);
+
+		assertThatExceptionOfType(ThrowableProblem.class)
+			.isThrownBy(() -> registry.getReactiveClient(municipalityId))
+			.satisfies(thrownProblem -> {
+				assertThat(thrownProblem.getStatus()).isEqualTo(INTERNAL_SERVER_ERROR);
+				assertThat(thrownProblem.getDetail()).startsWith("No reactive Confluence client exists for");
+			});
+
+		verify(applicationContextMock).containsBean(clientBeanName);
+		verifyNoMoreInteractions(applicationContextMock);
+	}
+
 	private static class DummyClient implements ConfluenceClient {
 
 		@Override
-		public Optional<String> getContent(final String pageId) {
-			return Optional.of("");
+		public Optional<InputStream> getContent(final String pageId) {
+			return Optional.of(InputStream.nullInputStream());
+		}
+
+		@Override
+		public Optional<InputStream> getContentWithoutAncestors(final String pageId) {
+			return Optional.of(InputStream.nullInputStream());
+		}
+
+		@Override
+		public Optional<InputStream> getContentAncestors(final String pageId) {
+			return Optional.of(InputStream.nullInputStream());
+		}
+
+		@Override
+		public Optional<InputStream> getChildren(final String pageId, final int start, final int limit) {
+			return Optional.of(InputStream.nullInputStream());
+		}
+
+		@Override
+		public Optional<InputStream> getContentVersion(final String pageId) {
+			return Optional.of(InputStream.nullInputStream());
+		}
+
+		@Override
+		public Optional<InputStream> getDescendants(final String pageId, final int start, final int limit) {
+			return Optional.of(InputStream.nullInputStream());
+		}
+
+		@Override
+		public Optional<InputStream> getSpaceContent(final String spaceKey, final int start, final int limit) {
+			return Optional.of(InputStream.nullInputStream());
 		}
 
 		@Override
-		public Optional<String> getChildren(final String pageId) {
-			return Optional.of("");
+		public Optional<InputStream> searchContent(final String cql, final int start, final int limit) {
+			return Optional.of(InputStream.nullInputStream());
 		}
 
 		@Override
-		public Optional<String> getContentVersion(final String pageId) {
-			return Optional.of("");
+		public Optional<InputStream> search(final String cql, final int start, final int limit) {
+			return Optional.of(InputStream.nullInputStream());
 		}
 	}
 }
@@ -0,0 +1,91 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment.AdaptiveConcurrency;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.ConfluenceIntegrationProperties.Environment.Hedging;
+
+class ConfluenceIntegrationConfigurationTests {
+
+	private static final AdaptiveConcurrency ADAPTIVE_CONCURRENCY = new AdaptiveConcurrency(4, 1, 32, 2.0, 3, Duration.ofMinutes(1));
+
+	@Test
+	void getSharedSettings() {
+		final var properties = properties(Map.of(
+			"2281", environment("http://confluence-1", ADAPTIVE_CONCURRENCY),
+			"2260", environment("http://confluence-1", new AdaptiveConcurrency(4, 1, 32, 2.0, 3, Duration.ofMinutes(1))),
+			"2262", environment("http://confluence-2", null)));
+
+		final var sharedSettings = ConfluenceIntegrationConfiguration.getSharedSettings(properties, "adaptive-concurrency", Environment::adaptiveConcurrency);
+
+		final var expected = new HashMap<String, AdaptiveConcurrency>();
+		expected.put("http://confluence-1", ADAPTIVE_CONCURRENCY);
+		expected.put("http://confluence-2", null);
+		assertThat(sharedSettings).isEqualTo(expected);
+	}
+
+	@Test
+	void getSharedSettingsWhenSettingsDiffer() {
+		final var properties = properties(Map.of(
+			"2281", environment("http://confluence-1", ADAPTIVE_CONCURRENCY),
+			"2260", environment("http://confluence-1", new AdaptiveConcurrency(8, 1, 32, 2.0, 3, Duration.ofMinutes(1)))));
+
+		assertThatIllegalStateException()
+			.isThrownBy(() -> ConfluenceIntegrationConfiguration.getSharedSettings(properties, "adaptive-concurrency", Environment::adaptiveConcurrency))
+			.withMessage("The environments [2260] share the Confluence instance at http://confluence-1, but not its adaptive-concurrency settings (municipalityId: 2281)");
+	}
+
+	@Test
+	void getSharedSettingsWhenOnlySomeEnvironmentsHaveSettings() {
+		final var properties = properties(Map.of(
+			"2281", environment("http://confluence-1", ADAPTIVE_CONCURRENCY),
+			"2260", environment("http://confluence-1", null)));
+
+		assertThatIllegalStateException()
+			.isThrownBy(() -> ConfluenceIntegrationConfiguration.getSharedSettings(properties, "adaptive-concurrency", Environment::adaptiveConcurrency))
+			.withMessageContaining("share the Confluence instance at http://confluence-1, but not its adaptive-concurrency settings");
+	}
+
+	@Test
+	void getSharedSettingsWhenHedgingDiffers() {
+		final var properties = properties(Map.of(
+			"2281", environment("http://confluence-1", ADAPTIVE_CONCURRENCY, new Hedging(0.95, 0.05, Duration.ofMillis(100))),
+			"2260", environment("http://confluence-1", ADAPTIVE_CONCURRENCY, new Hedging(0.99, 0.05, Duration.ofMillis(100)))));
+
+		// The same adaptive concurrency, but not the same hedging
+		assertThat(ConfluenceIntegrationConfiguration.getSharedSettings(properties, "adaptive-concurrency", Environment::adaptiveConcurrency))
+			.containsExactly(entry("http://confluence-1", ADAPTIVE_CONCURRENCY));
+		assertThatIllegalStateException()
+			.isThrownBy(() -> ConfluenceIntegrationConfiguration.getSharedSettings(properties, "hedging", Environment::hedging))
+			.withMessage("The environments [2260] share the Confluence instance at http://confluence-1, but not its hedging settings (municipalityId: 2281)");
+	}
+
+	@Test
+	void reactiveMaxInFlightDefaultsToMaxConcurrency() {
+		assertThat(new Environment.Reactive(null, DataSize.ofMegabytes(16)).maxInFlightOrElse(8)).isEqualTo(8);
+		assertThat(new Environment.Reactive(128, DataSize.ofMegabytes(16)).maxInFlightOrElse(8)).isEqualTo(128);
+	}
+
+	private static ConfluenceIntegrationProperties properties(final Map<String, Environment> environments) {
+		return new ConfluenceIntegrationProperties(environments);
+	}
+
+	private static Environment environment(final String baseUrl, final AdaptiveConcurrency adaptiveConcurrency) {
+		return environment(baseUrl, adaptiveConcurrency, null);
+	}
+
+	private static Environment environment(final String baseUrl, final AdaptiveConcurrency adaptiveConcurrency, final Hedging hedging) {
+		return new Environment(baseUrl, new Environment.BasicAuthentication("someUsername", "somePassword"), null, null, null, null, null, null, null, null,
+			adaptiveConcurrency, hedging, null, null, null, List.of(), List.of(new Environment.Mapping("someGroupId", "someRootId")), 5, 20, 1,
+			Environment.TraversalStrategy.CHILDREN, 25);
+	}
+}
@@ -2,9 +2,13 @@ package se.sundsvall.aidatacollector.datasource.confluence.integration.confluenc
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+import java.time.ZoneId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.unit.DataSize;
+import se.sundsvall.aidatacollector.configuration.HttpTransportProperties;
 import se.sundsvall.aidatacollector.test.annotation.UnitTest;
 
 @UnitTest
@@ -31,6 +35,49 @@ class ConfluenceIntegrationPropertiesTests {
 					assertThat(webhookSecurity.secret()).isEqualTo("SUPER_DUPER_S3CR3T!");
 				});
 			});
+			assertThat(environment.incrementalSync()).satisfies(incrementalSync -> {
+				assertThat(incrementalSync.scheduling().enabled()).isTrue();
+				assertThat(incrementalSync.scheduling().cronExpression()).isEqualTo("0 */5 * * * *");
+				assertThat(incrementalSync.overlap()).isEqualTo(Duration.ofMinutes(10));
+				assertThat(incrementalSync.timeZone()).isEqualTo(ZoneId.of("Europe/Stockholm"));
+			});
+			assertThat(environment.bootstrap()).satisfies(bootstrap -> {
+				assertThat(bootstrap.spaceKeys()).containsExactly("SPACE1", "SPACE2");
+				assertThat(bootstrap.batchSize()).isEqualTo(25);
+			});
+			assertThat(environment.slicing()).satisfies(slicing -> {
+				assertThat(slicing.maxPages()).isEqualTo(500);
+				assertThat(slicing.maxDuration()).isEqualTo(Duration.ofMinutes(1));
+			});
+			assertThat(environment.normalisation()).satisfies(normalisation -> {
+				assertThat(normalisation.droppedMacros()).containsExactly("toc", "children");
+				assertThat(normalisation.compactTables()).isTrue();
+				assertThat(normalisation.boilerplatePatterns()).containsExactly("Last reviewed: \\d{4}-\\d{2}-\\d{2}");
+			});
+			assertThat(environment.chunking().maxHeadingLevel()).isEqualTo(3);
+			assertThat(environment.insertBatching()).satisfies(insertBatching -> {
+				assertThat(insertBatching.maxPages()).isEqualTo(20);
+				assertThat(insertBatching.maxSize()).isEqualTo(DataSize.ofMegabytes(2));
+				assertThat(insertBatching.linger()).isEqualTo(Duration.ofSeconds(5));
+			});
+			assertThat(environment.pipeline()).satisfies(pipeline -> {
+				assertThat(pipeline.fetchConcurrency()).isEqualTo(3);
+				assertThat(pipeline.transformConcurrency()).isEqualTo(1);
+				assertThat(pipeline.writeConcurrency()).isEqualTo(5);
+				assertThat(pipeline.commitConcurrency()).isEqualTo(2);
+				assertThat(pipeline.queueCapacity()).isEqualTo(10);
+			});
+			assertThat(environment.adaptiveConcurrency()).satisfies(adaptiveConcurrency -> {
+				assertThat(adaptiveConcurrency.initialLimit()).isEqualTo(6);
+				assertThat(adaptiveConcurrency.minLimit()).isEqualTo(2);
+				assertThat(adaptiveConcurrency.maxLimit()).isEqualTo(24);
+				assertThat(adaptiveConcurrency.latencyTolerance()).isEqualTo(1.5);
+				assertThat(adaptiveConcurrency.maxRetries()).isEqualTo(4);
+				assertThat(adaptiveConcurrency.maxRetryAfter()).isEqualTo(Duration.ofSeconds(30));
+			});
+			assertThat(environment.hedging()).isEqualTo(new ConfluenceIntegrationProperties.Environment.Hedging(0.9, 0.1, Duration.ofMillis(200)));
+			assertThat(environment.transport()).isEqualTo(new HttpTransportProperties(8, Duration.ofMinutes(1), true, false));
+			assertThat(environment.reactive()).isEqualTo(new ConfluenceIntegrationProperties.Environment.Reactive(128, DataSize.ofMegabytes(8)));
 			assertThat(environment.blacklistedRootIds()).containsExactly("4567890");
 			assertThat(environment.mappings()).hasSize(1).first().satisfies(mapping -> {
 				assertThat(mapping.rootId()).isEqualTo("4567110901");
@@ -38,6 +85,9 @@ class ConfluenceIntegrationPropertiesTests {
 			});
 			assertThat(environment.connectTimeoutInSeconds()).isEqualTo(123);
 			assertThat(environment.readTimeoutInSeconds()).isEqualTo(456);
+			assertThat(environment.maxConcurrency()).isEqualTo(8);
+			assertThat(environment.traversalStrategy()).isEqualTo(ConfluenceIntegrationProperties.Environment.TraversalStrategy.DESCENDANTS);
+			assertThat(environment.contentBatchSize()).isEqualTo(40);
 		});
 	}
 }
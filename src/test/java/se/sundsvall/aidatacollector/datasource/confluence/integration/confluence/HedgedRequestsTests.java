@@ -0,0 +1,388 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.HedgingPolicy.MIN_SAMPLES;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.Await;
+
+class HedgedRequestsTests {
+
+	private static final Request.Options OPTIONS = new Request.Options();
+
+	@Test
+	void createWithoutHedging() {
+		assertThat(HedgedRequests.create("someBaseUrl", null, AdaptiveConcurrencyLimiting.NONE)).isSameAs(HedgedRequests.NONE);
+	}
+
+	@Test
+	void createWithHedging() {
+		assertThat(HedgedRequests.create("someBaseUrl", new ConfluenceIntegrationProperties.Environment.Hedging(0.95, 0.05, Duration.ofMillis(100)), AdaptiveConcurrencyLimiting.NONE))
+			.isInstanceOf(HedgedRequests.class);
+	}
+
+	@Test
+	void executeLeavesWritesAlone() throws IOException {
+		final var hedgedRequests = createHedgedRequests();
+		final var calls = new AtomicInteger();
+		final var callingThread = Thread.currentThread();
+
+		final var client = hedgedRequests.enrich(client((request, _) -> {
+			calls.incrementAndGet();
+			assertThat(Thread.currentThread()).isSameAs(callingThread);
+			return response(request, "someBody");
+		}));
+
+		assertThat(client.execute(request(Request.HttpMethod.POST), OPTIONS).status()).isEqualTo(200);
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void executeWithoutEnoughLatenciesObserved() throws IOException {
+		final var hedgedRequests = new HedgedRequests("someBaseUrl", new HedgingPolicy(0.95, 1.0, Duration.ZERO), null);
+		final var calls = new AtomicInteger();
+
+		final var client = hedgedRequests.enrich(client((request, _) -> {
+			calls.incrementAndGet();
+			return response(request, "someBody");
+		}));
+
+		for (var i = 0; i < MIN_SAMPLES; i++) {
+			client.execute(request(Request.HttpMethod.GET), OPTIONS);
+		}
+
+		// No hedging, only observing
+		assertThat(calls).hasValue(MIN_SAMPLES);
+		assertThat(hedgedRequests.policy().hedgeDelay()).isNotNull();
+	}
+
+	@Test
+	void executeHedgesSlowRequest() throws Exception {
+		final var hedgedRequests = createHedgedRequests();
+		final var calls = new AtomicInteger();
+		final var stalledReleased = new CountDownLatch(1);
+		final var stalledClosed = new CountDownLatch(1);
+
+		// The first attempt stalls, the hedge answers right away
+		final var client = hedgedRequests.enrich(client((request, _) -> {
+			if (calls.incrementAndGet() == 1) {
+				awaitQuietly(stalledReleased);
+				return response(request, "stalledBody", stalledClosed::countDown);
+			}
+			return response(request, "hedgedBody");
+		}));
+
+		final var response = client.execute(request(Request.HttpMethod.GET), OPTIONS);
+
+		// Answered while the first attempt is still stalled
+		assertThat(body(response)).isEqualTo("hedgedBody");
+		assertThat(calls).hasValue(2);
+
+		// The stalled attempt lost - its response is closed once it finally arrives
+		stalledReleased.countDown();
+		assertThat(stalledClosed.await(5, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	void executeWithoutBudgetWaitsForSlowRequest() throws IOException {
+		final var hedgedRequests = new HedgedRequests("someBaseUrl", new HedgingPolicy(0.95, 0.0, Duration.ZERO), null);
+		observeLatencies(hedgedRequests);
+		final var calls = new AtomicInteger();
+		final var callingThread = Thread.currentThread();
+
+		final var client = hedgedRequests.enrich(client((request, _) -> {
+			calls.incrementAndGet();
+			awaitHedgingDecided(callingThread);
+			return response(request, "slowBody");
+		}));
+
+		assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("slowBody");
+		assertThat(calls).hasValue(1);
+	}
+
+	@Test
+	void executeWhenFirstAttemptFails() throws IOException {
+		final var hedgedRequests = createHedgedRequests();
+		final var calls = new AtomicInteger();
+		final var firstFailed = new CountDownLatch(1);
+
+		// The first attempt fails once the request has been hedged - the hedge is still given its chance
+		final var client = hedgedRequests.enrich(client((request, _) -> {
+			if (calls.incrementAndGet() == 1) {
+				Await.until("the request is hedged", () -> calls.get() == 2);
+				firstFailed.countDown();
+				throw new IOException("someMessage");
+			}
+			awaitQuietly(firstFailed);
+			return response(request, "hedgedBody");
+		}));
+
+		assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("hedgedBody");
+	}
+
+	@Test
+	void executeWhenAllAttemptsFail() {
+		final var hedgedRequests = createHedgedRequests();
+		final var calls = new AtomicInteger();
+
+		final var client = hedgedRequests.enrich(client((_, _) -> {
+			if (calls.incrementAndGet() == 1) {
+				Await.until("the request is hedged", () -> calls.get() == 2);
+			}
+			throw new IOException("someMessage");
+		}));
+
+		assertThatExceptionOfType(IOException.class)
+			.isThrownBy(() -> client.execute(request(Request.HttpMethod.GET), OPTIONS))
+			.withMessage("someMessage");
+		assertThat(calls).hasValue(2);
+	}
+
+	@Test
+	void executeHedgesWithinLimit() throws Exception {
+		final var limiting = limiting(4);
+		final var hedgedRequests = createHedgedRequests(limiting);
+		final var calls = new AtomicInteger();
+		final var inFlightDuringHedge = new AtomicInteger();
+		final var stalledReleased = new CountDownLatch(1);
+
+		// The first attempt runs on the permit acquired by the limiting, the hedge on one of its own
+		final var client = limiting.enrich(hedgedRequests.enrich(client((request, _) -> {
+			if (calls.incrementAndGet() == 1) {
+				awaitQuietly(stalledReleased);
+				return response(request, "stalledBody");
+			}
+			inFlightDuringHedge.set(limiting.limiter().inFlight());
+			return response(request, "hedgedBody");
+		})));
+
+		assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("hedgedBody");
+		assertThat(calls).hasValue(2);
+		assertThat(inFlightDuringHedge).hasValue(2);
+		// The hedge has released its permit, while the first attempt still holds on to the one of the request
+		assertThat(limiting.limiter().inFlight()).isOne();
+
+		stalledReleased.countDown();
+		Await.until("the first attempt releases its permit", () -> limiting.limiter().inFlight() == 0);
+	}
+
+	@Test
+	void executeReportsLatencyOfLosingAttemptWithinLimit() throws Exception {
+		final var nanoTime = new AtomicLong();
+		final var limiting = new AdaptiveConcurrencyLimiting("someBaseUrl", new AdaptiveConcurrencyLimiter(4, 1, 4, 2.0, nanoTime::get), 0, Duration.ofMinutes(1));
+		final var hedgedRequests = new HedgedRequests("someBaseUrl", new HedgingPolicy(0.5, 1.0, Duration.ZERO), limiting, nanoTime::get);
+		observeLatencies(hedgedRequests);
+		final var calls = new AtomicInteger();
+		final var stalledReleased = new CountDownLatch(1);
+
+		// A baseline of 10 ms per request, without any hedging
+		final var baselineClient = limiting.enrich(client((request, _) -> {
+			nanoTime.addAndGet(Duration.ofMillis(10).toNanos());
+			return response(request, "someBody");
+		}));
+		baselineClient.execute(request(Request.HttpMethod.GET), OPTIONS).close();
+
+		// The first attempt stalls for a second, the hedge answers right away
+		final var client = limiting.enrich(hedgedRequests.enrich(client((request, _) -> {
+			if (calls.incrementAndGet() == 1) {
+				awaitQuietly(stalledReleased);
+				nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+				return response(request, "stalledBody");
+			}
+			return response(request, "hedgedBody");
+		})));
+
+		assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("hedgedBody");
+		assertThat(limiting.limiter().limit()).isEqualTo(4);
+
+		// The slowness of the attempt that lost still reaches the limiter
+		stalledReleased.countDown();
+		Await.until("the first attempt releases its permit", () -> limiting.limiter().inFlight() == 0);
+		assertThat(limiting.limiter().limit()).isEqualTo(3);
+	}
+
+	@Test
+	void executeDoesNotHedgeWhenLimitIsReached() throws Exception {
+		final var limiting = limiting(1);
+		final var hedgedRequests = createHedgedRequests(limiting);
+		final var calls = new AtomicInteger();
+		final var callingThread = Thread.currentThread();
+
+		final var client = limiting.enrich(hedgedRequests.enrich(client((request, _) -> {
+			calls.incrementAndGet();
+			awaitHedgingDecided(callingThread);
+			return response(request, "slowBody");
+		})));
+
+		assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("slowBody");
+		assertThat(calls).hasValue(1);
+		// The budget is left for a later hedge
+		assertThat(hedgedRequests.policy().tryHedge()).isTrue();
+	}
+
+	@Test
+	void executeDoesNotHedgeWhilePaused() throws Exception {
+		final var limiting = limiting(4);
+		final var hedgedRequests = createHedgedRequests(limiting);
+		final var calls = new AtomicInteger();
+		final var callingThread = Thread.currentThread();
+
+		// The request itself is already in flight (running on a permit taken before another request was throttled)
+		final var client = hedgedRequests.enrich(client((request, _) -> {
+			calls.incrementAndGet();
+			awaitHedgingDecided(callingThread);
+			return response(request, "slowBody");
+		}));
+		assertThat(limiting.limiter().tryAcquire()).isTrue();
+		assertThat(limiting.limiter().tryAcquire()).isTrue();
+		limiting.limiter().onThrottled(Duration.ofMinutes(1));
+
+		assertThat(body(client.execute(request(Request.HttpMethod.GET), OPTIONS))).isEqualTo("slowBody");
+		assertThat(calls).hasValue(1);
+		assertThat(limiting.limiter().inFlight()).isZero();
+	}
+
+	@Test
+	void executeObservesLatencyWithinLimit() throws Exception {
+		final var nanoTime = new AtomicLong();
+		final var limiting = new AdaptiveConcurrencyLimiting("someBaseUrl", new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, nanoTime::get), 0, Duration.ofMinutes(1));
+		final var hedgedRequests = new HedgedRequests("someBaseUrl", new HedgingPolicy(0.999, 1.0, Duration.ZERO), limiting, nanoTime::get);
+		// Each request takes 10 ms on the wire
+		final var client = limiting.enrich(hedgedRequests.enrich(client((request, _) -> {
+			nanoTime.addAndGet(Duration.ofMillis(10).toNanos());
+			return response(request, "someBody");
+		})));
+
+		// The first request waits 500 ms for a permit, which isn't part of its latency
+		assertThat(limiting.limiter().tryAcquire()).isTrue();
+		final var waiting = Thread.ofVirtual().start(() -> {
+			try {
+				client.execute(request(Request.HttpMethod.GET), OPTIONS).close();
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		Await.untilState(waiting, Thread.State.WAITING);
+		nanoTime.addAndGet(Duration.ofMillis(500).toNanos());
+		limiting.limiter().onUnused();
+		assertThat(waiting.join(Duration.ofSeconds(5))).isTrue();
+
+		for (var i = 1; i < MIN_SAMPLES; i++) {
+			client.execute(request(Request.HttpMethod.GET), OPTIONS).close();
+		}
+
+		assertThat(hedgedRequests.policy().hedgeDelay()).isEqualTo(Duration.ofMillis(10));
+	}
+
+	// A policy that hedges any request not answered right away, with budget for every request
+	private static HedgedRequests createHedgedRequests() {
+		return createHedgedRequests(null);
+	}
+
+	private static HedgedRequests createHedgedRequests(final AdaptiveConcurrencyLimiting limiting) {
+		final var hedgedRequests = new HedgedRequests("someBaseUrl", new HedgingPolicy(0.5, 1.0, Duration.ZERO), limiting);
+		observeLatencies(hedgedRequests);
+
+		return hedgedRequests;
+	}
+
+	private static AdaptiveConcurrencyLimiting limiting(final int limit) {
+		return new AdaptiveConcurrencyLimiting("someBaseUrl", new AdaptiveConcurrencyLimiter(limit, 1, limit, 2.0), 0, Duration.ofMinutes(1));
+	}
+
+	private static void observeLatencies(final HedgedRequests hedgedRequests) {
+		IntStream.range(0, MIN_SAMPLES).forEach(_ -> hedgedRequests.policy().onLatency(0));
+	}
+
+	// Capability overloads enrich, so the lambdas need a target type
+	private static Client client(final Client client) {
+		return client;
+	}
+
+	private static Request request(final Request.HttpMethod httpMethod) {
+		return Request.create(httpMethod, "http://localhost/content/somePageId", Map.of(), null, UTF_8, null);
+	}
+
+	private static Response response(final Request request, final String body) {
+		return response(request, body, () -> {});
+	}
+
+	private static Response response(final Request request, final String body, final Runnable onClose) {
+		final var closed = new AtomicBoolean();
+		final var bytes = body.getBytes(UTF_8);
+
+		return Response.builder()
+			.status(200)
+			.request(request)
+			.headers(Map.of())
+			.body(new Response.Body() {
+
+				@Override
+				public Integer length() {
+					return bytes.length;
+				}
+
+				@Override
+				public boolean isRepeatable() {
+					return true;
+				}
+
+				@Override
+				public InputStream asInputStream() {
+					return new ByteArrayInputStream(bytes);
+				}
+
+				@Override
+				public Reader asReader(final Charset charset) {
+					return new InputStreamReader(asInputStream(), charset);
+				}
+
+				@Override
+				public void close() {
+					if (closed.compareAndSet(false, true)) {
+						onClose.run();
+					}
+				}
+			})
+			.build();
+	}
+
+	private static String body(final Response response) throws IOException {
+		try (response) {
+			return new String(response.body().asInputStream().readAllBytes(), UTF_8);
+		}
+	}
+
+	private static void awaitQuietly(final CountDownLatch latch) {
+		try {
+			assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// The calling thread only waits for the response without a timeout once it has decided whether to hedge
+	private static void awaitHedgingDecided(final Thread callingThread) {
+		Await.untilState(callingThread, Thread.State.WAITING);
+	}
+}
@@ -0,0 +1,92 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.HedgingPolicy.MAX_BURST;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.HedgingPolicy.MIN_SAMPLES;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.HedgingPolicy.RECALCULATION_INTERVAL;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.confluence.HedgingPolicy.WINDOW;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class HedgingPolicyTests {
+
+	@Test
+	void hedgeDelayIsUnknownUntilEnoughLatenciesAreObserved() {
+		final var policy = new HedgingPolicy(0.95, 0.05, Duration.ZERO);
+
+		IntStream.range(1, MIN_SAMPLES).forEach(_ -> policy.onLatency(millis(10)));
+		assertThat(policy.hedgeDelay()).isNull();
+
+		policy.onLatency(millis(10));
+		assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofMillis(10));
+	}
+
+	@Test
+	void hedgeDelayIsPercentileOfLatencies() {
+		final var policy = new HedgingPolicy(0.9, 0.05, Duration.ZERO);
+
+		// 1 to 100 ms
+		IntStream.rangeClosed(1, 100).forEach(latency -> policy.onLatency(millis(latency)));
+
+		// Calculated once enough latencies were observed, and again every recalculation interval after that - last
+		// with the latencies from 1 to 70 ms
+		assertThat(MIN_SAMPLES + RECALCULATION_INTERVAL).isEqualTo(70);
+		assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofMillis(63));
+
+		IntStream.range(0, 30).forEach(_ -> policy.onLatency(millis(100)));
+
+		assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	void hedgeDelayOnlyCoversLatestLatencies() {
+		final var policy = new HedgingPolicy(0.5, 0.05, Duration.ZERO);
+
+		IntStream.range(0, WINDOW).forEach(_ -> policy.onLatency(millis(500)));
+		IntStream.range(0, WINDOW).forEach(_ -> policy.onLatency(millis(5)));
+
+		assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofMillis(5));
+	}
+
+	@Test
+	void hedgeDelayIsNeverBelowMinDelay() {
+		final var policy = new HedgingPolicy(0.95, 0.05, Duration.ofMillis(100));
+
+		IntStream.range(0, MIN_SAMPLES).forEach(_ -> policy.onLatency(millis(10)));
+
+		assertThat(policy.hedgeDelay()).isEqualTo(Duration.ofMillis(100));
+	}
+
+	@Test
+	void tryHedgeKeepsWithinBudget() {
+		final var policy = new HedgingPolicy(0.95, 0.05, Duration.ZERO);
+
+		assertThat(policy.tryHedge()).isFalse();
+
+		// About one hedge per twenty requests
+		var hedges = 0;
+		for (var i = 0; i < 1000; i++) {
+			policy.onRequest();
+			if (policy.tryHedge()) {
+				hedges++;
+			}
+		}
+
+		assertThat(hedges).isBetween(49, 50);
+	}
+
+	@Test
+	void tryHedgeSavesUpNoMoreThanMaxBurst() {
+		final var policy = new HedgingPolicy(0.95, 0.5, Duration.ZERO);
+
+		IntStream.range(0, 1000).forEach(_ -> policy.onRequest());
+
+		assertThat(IntStream.range(0, 100).filter(_ -> policy.tryHedge()).count()).isEqualTo((long) MAX_BURST);
+	}
+
+	private static long millis(final long millis) {
+		return Duration.ofMillis(millis).toNanos();
+	}
+}
@@ -0,0 +1,138 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Feign;
+import feign.auth.BasicAuthRequestInterceptor;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.openfeign.support.SpringMvcContract;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import se.sundsvall.aidatacollector.Benchmark;
+import se.sundsvall.dept44.security.Truststore;
+
+// Fetches the same number of pages with the Feign client - one thread waiting on each request - and with the
+// reactive client, at the same concurrency and at a concurrency way beyond any sensible number of threads. The stub
+// server answers each request after a delay, much like a busy Confluence instance
+@ExtendWith(MockitoExtension.class)
+class ReactiveConfluenceClientBenchmark {
+
+	private static final String BODY = "{\"results\": []}";
+	private static final Duration LATENCY = Duration.ofMillis(20);
+	private static final int REQUESTS = 400;
+	private static final int WARMUP_ITERATIONS = 2;
+	private static final int ITERATIONS = 5;
+
+	@Mock
+	private ConfluenceIntegrationProperties.Environment environmentMock;
+
+	@Mock
+	private Truststore truststoreMock;
+
+	private HttpServer server;
+	private String baseUrl;
+
+	@BeforeEach
+	void setUp() throws IOException, GeneralSecurityException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/", ReactiveConfluenceClientBenchmark::handle);
+		server.start();
+		baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+
+		final var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init((KeyStore) null);
+
+		when(environmentMock.baseUrl()).thenReturn(baseUrl);
+		when(environmentMock.basicAuth()).thenReturn(new ConfluenceIntegrationProperties.Environment.BasicAuthentication("someUser", "somePassword"));
+		when(environmentMock.connectTimeoutInSeconds()).thenReturn(5);
+		when(environmentMock.readTimeoutInSeconds()).thenReturn(20);
+		when(environmentMock.reactive()).thenReturn(new ConfluenceIntegrationProperties.Environment.Reactive(256, DataSize.ofMegabytes(1)));
+		when(truststoreMock.getTrustManagerFactory()).thenReturn(trustManagerFactory);
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	void fetchPages() {
+		final var feignClient = Feign.builder()
+			.contract(new SpringMvcContract())
+			.decoder(new StreamingDecoder())
+			.doNotCloseAfterDecode()
+			.requestInterceptor(new BasicAuthRequestInterceptor("someUser", "somePassword"))
+			.dismiss404()
+			.target(ConfluenceClient.class, baseUrl);
+		final var reactiveClient = new ReactiveConfluenceClient("someClientName",
+			ConfluenceIntegrationConfiguration.createWebClient("someClientName", environmentMock, AdaptiveConcurrencyLimiting.NONE, truststoreMock));
+
+		final var blocking = Benchmark.measure("Fetching %d pages with %s latency with the Feign client (16 threads)".formatted(REQUESTS, LATENCY), WARMUP_ITERATIONS, ITERATIONS,
+			() -> runBlocking(feignClient, 16));
+		final var reactive = Benchmark.measure("The same with the reactive client (16 in flight)", WARMUP_ITERATIONS, ITERATIONS,
+			() -> runReactive(reactiveClient, 16));
+		final var reactiveWide = Benchmark.measure("The same with the reactive client (256 in flight)", WARMUP_ITERATIONS, ITERATIONS,
+			() -> runReactive(reactiveClient, 256));
+
+		assertThat(blocking.nanosPerOperation()).isPositive();
+		assertThat(reactive.nanosPerOperation()).isPositive();
+		assertThat(reactiveWide.nanosPerOperation()).isPositive();
+	}
+
+	private static int runBlocking(final ConfluenceClient client, final int threads) {
+		try (final var executor = Executors.newFixedThreadPool(threads)) {
+			IntStream.range(0, REQUESTS).forEach(i -> executor.execute(() -> client.searchContent("id in (" + i + ")", 0, 25).ifPresent(ReactiveConfluenceClientBenchmark::read)));
+		}
+		return REQUESTS;
+	}
+
+	private static long runReactive(final ReactiveConfluenceClient client, final int inFlight) {
+		return Flux.range(0, REQUESTS)
+			.flatMap(i -> client.searchContent("id in (" + i + ")", 0, 25).map(ReactiveConfluenceClientBenchmark::read), inFlight)
+			.count()
+			.block();
+	}
+
+	private static String read(final InputStream body) {
+		try (body) {
+			return new String(body.readAllBytes(), UTF_8);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void handle(final HttpExchange exchange) throws IOException {
+		try {
+			Thread.sleep(LATENCY);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+
+		final var body = BODY.getBytes(UTF_8);
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(200, body.length);
+		try (final var responseBody = exchange.getResponseBody()) {
+			responseBody.write(body);
+		}
+	}
+}
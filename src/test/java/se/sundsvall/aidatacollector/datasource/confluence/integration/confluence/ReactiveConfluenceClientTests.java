@@ -0,0 +1,254 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.when;
+import static org.zalando.problem.Status.BAD_GATEWAY;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import feign.Capability;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import org.zalando.problem.ThrowableProblem;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import se.sundsvall.aidatacollector.configuration.HttpTransportProperties;
+import se.sundsvall.dept44.security.Truststore;
+
+// Runs the reactive client against a local stub server, answering each request after a delay - much like a busy
+// Confluence instance
+@ExtendWith(MockitoExtension.class)
+class ReactiveConfluenceClientTests {
+
+	private static final String BODY = "{\"results\": []}";
+	private static final Duration LATENCY = Duration.ofMillis(20);
+	private static final int REQUESTS = 100;
+
+	private final List<String> requests = new CopyOnWriteArrayList<>();
+	private final List<String> acceptEncodings = new CopyOnWriteArrayList<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final AtomicInteger maxInFlight = new AtomicInteger();
+	private final AtomicInteger throttled = new AtomicInteger();
+
+	@Mock
+	private ConfluenceIntegrationProperties.Environment environmentMock;
+
+	@Mock
+	private Truststore truststoreMock;
+
+	private HttpServer server;
+	private String baseUrl;
+
+	@BeforeEach
+	void setUp() throws IOException, GeneralSecurityException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.createContext("/", this::handle);
+		server.start();
+		baseUrl = "http://localhost:%d".formatted(server.getAddress().getPort());
+
+		when(environmentMock.baseUrl()).thenReturn(baseUrl);
+		when(environmentMock.basicAuth()).thenReturn(new ConfluenceIntegrationProperties.Environment.BasicAuthentication("someUser", "somePassword"));
+		when(environmentMock.connectTimeoutInSeconds()).thenReturn(5);
+		when(environmentMock.readTimeoutInSeconds()).thenReturn(20);
+		when(environmentMock.reactive()).thenReturn(new ConfluenceIntegrationProperties.Environment.Reactive(256, DataSize.ofMegabytes(1)));
+
+		final var trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+		trustManagerFactory.init((KeyStore) null);
+		when(truststoreMock.getTrustManagerFactory()).thenReturn(trustManagerFactory);
+	}
+
+	@AfterEach
+	void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	void getDescendants() {
+		assertThat(read(createClient().getDescendants("somePageId", 100, 50))).isEqualTo(BODY);
+
+		assertThat(requests).containsExactly("GET /content/somePageId/descendant/page?expand=version,ancestors&start=100&limit=50 Basic c29tZVVzZXI6c29tZVBhc3N3b3Jk");
+	}
+
+	@Test
+	void getDescendantsAsksForGzip() {
+		assertThat(read(createClient().getDescendants("somePageId", 0, 50))).isEqualTo(BODY);
+
+		assertThat(acceptEncodings).containsExactly("gzip");
+	}
+
+	@Test
+	void getDescendantsWithTransport() {
+		when(environmentMock.transport()).thenReturn(new HttpTransportProperties(5, Duration.ofMinutes(1), true, false));
+
+		assertThat(read(createClient().getDescendants("somePageId", 0, 50))).isEqualTo(BODY);
+
+		// Without gzip, and with HTTP/2 only ever negotiated over TLS
+		assertThat(acceptEncodings).containsExactly("none");
+	}
+
+	@Test
+	void searchEncodesCql() {
+		assertThat(read(createClient().search("type = page and ancestor = 123", 0, 100))).isEqualTo(BODY);
+
+		assertThat(requests).hasSize(1).first().asString().contains("cql=type%20%3D%20page%20and%20ancestor%20%3D%20123&start=0&limit=100");
+	}
+
+	@Test
+	void searchContentWhenNotFound() {
+		assertThat(createClient().searchContent("notFound", 0, 100).blockOptional()).isEmpty();
+	}
+
+	@Test
+	void searchContentWhenFailing() {
+		final var client = createClient();
+
+		assertThatExceptionOfType(ThrowableProblem.class)
+			.isThrownBy(() -> client.searchContent("failing", 0, 100).block())
+			.satisfies(problem -> {
+				assertThat(problem.getStatus()).isEqualTo(BAD_GATEWAY);
+				assertThat(problem.getDetail()).isEqualTo("someClientName responded with status 500: someError");
+			});
+	}
+
+	@Test
+	void searchContentWhenThrottled() {
+		final var limiting = limiting(4);
+		throttled.set(2);
+
+		assertThat(read(createClient(limiting).searchContent("throttled", 0, 100))).isEqualTo(BODY);
+
+		// Retried once the instance was willing to take requests again - with the limit halved by each throttled
+		// attempt, and raised again by the successful one
+		assertThat(requests).hasSize(3);
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void searchContentWhenThrottledBeyondMaxRetries() {
+		final var limiting = limiting(4);
+		throttled.set(10);
+		final var client = createClient(limiting);
+
+		assertThatExceptionOfType(ThrowableProblem.class)
+			.isThrownBy(() -> client.searchContent("throttled", 0, 100).block())
+			.satisfies(problem -> assertThat(problem.getDetail()).startsWith("someClientName responded with status 429"));
+		// The first attempt and the three retries
+		assertThat(requests).hasSize(4);
+		assertThat(limiting.limiter().inFlight()).isZero();
+	}
+
+	@Test
+	void searchContentWhenFailingLowersLimit() {
+		final var limiting = limiting(4);
+		final var client = createClient(limiting);
+
+		assertThatExceptionOfType(ThrowableProblem.class)
+			.isThrownBy(() -> client.searchContent("failing", 0, 100).block());
+		assertThat(requests).hasSize(1);
+		assertThat(limiting.limiter().inFlight()).isZero();
+		assertThat(limiting.limiter().limit()).isEqualTo(2);
+	}
+
+	@Test
+	void searchContentWithinLimit() {
+		final var limiting = limiting(2);
+
+		assertThat(runReactive(createClient(limiting), 16, 20)).isEqualTo(20);
+
+		// Never more requests in flight than the limit, however many are asked for
+		assertThat(maxInFlight).hasValue(2);
+		assertThat(limiting.limiter().inFlight()).isZero();
+	}
+
+	// As many requests in flight at once as the client is asked for, without a thread waiting on each of them - how
+	// that compares to the Feign client is measured by ReactiveConfluenceClientBenchmark
+	@Test
+	void searchContentConcurrently() {
+		assertThat(runReactive(createClient(), 16, REQUESTS)).isEqualTo(REQUESTS);
+
+		assertThat(maxInFlight.get()).isBetween(2, 16);
+	}
+
+	private ReactiveConfluenceClient createClient() {
+		return createClient(AdaptiveConcurrencyLimiting.NONE);
+	}
+
+	private ReactiveConfluenceClient createClient(final Capability adaptiveConcurrencyLimiting) {
+		return new ReactiveConfluenceClient("someClientName", ConfluenceIntegrationConfiguration.createWebClient("someClientName", environmentMock, adaptiveConcurrencyLimiting,
+			truststoreMock));
+	}
+
+	private static AdaptiveConcurrencyLimiting limiting(final int limit) {
+		return new AdaptiveConcurrencyLimiting("someBaseUrl", new AdaptiveConcurrencyLimiter(limit, 1, limit, 2.0), 3, Duration.ofMinutes(1));
+	}
+
+	private static long runReactive(final ReactiveConfluenceClient client, final int inFlight, final int count) {
+		return Flux.range(0, count)
+			.flatMap(i -> client.searchContent("id in (" + i + ")", 0, 25).map(ReactiveConfluenceClientTests::read), inFlight)
+			.count()
+			.block();
+	}
+
+	private static String read(final Mono<InputStream> body) {
+		return read(body.block());
+	}
+
+	private static String read(final InputStream body) {
+		try (body) {
+			return new String(body.readAllBytes(), UTF_8);
+		} catch (final IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		final var uri = exchange.getRequestURI().getRawPath() + "?" + exchange.getRequestURI().getRawQuery();
+		if (!uri.contains("id%20in") && !uri.contains("id+in") && !uri.contains("id in")) {
+			requests.add("%s %s %s".formatted(exchange.getRequestMethod(), uri, exchange.getRequestHeaders().getFirst("Authorization")));
+			acceptEncodings.add(Objects.requireNonNullElse(exchange.getRequestHeaders().getFirst("Accept-Encoding"), "none"));
+		}
+
+		maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+		try {
+			Thread.sleep(LATENCY);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			inFlight.decrementAndGet();
+		}
+
+		final var status = uri.contains("cql=notFound") ? 404 : uri.contains("cql=failing") ? 500 : uri.contains("cql=throttled") && throttled.getAndDecrement() > 0 ? 429 : 200;
+		final var body = (status == 500 ? "someError" : status == 429 ? "someThrottling" : status == 404 ? "" : BODY).getBytes(UTF_8);
+
+		if (status == 429) {
+			exchange.getResponseHeaders().add(AdaptiveConcurrencyLimiting.RETRY_AFTER, "0");
+		}
+		exchange.getResponseHeaders().add("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+		try (final var responseBody = exchange.getResponseBody()) {
+			responseBody.write(body);
+		}
+	}
+}
@@ -0,0 +1,91 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.confluence;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import feign.Request;
+import feign.Response;
+import feign.codec.DecodeException;
+import feign.codec.ErrorDecoder;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+class StreamingDecoderTests {
+
+	private static final Type OPTIONAL_INPUT_STREAM = getReturnType("getContent");
+
+	private final StreamingDecoder decoder = new StreamingDecoder();
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	@Test
+	void decode() throws IOException {
+		final var result = decoder.decode(response(200, "someBody"), OPTIONAL_INPUT_STREAM);
+
+		// The body is handed over as is, left open for the caller to read (and close)
+		assertThat(result).isInstanceOfSatisfying(Optional.class, optional -> assertThat(optional).hasValueSatisfying(body -> {
+			try (final var inputStream = (InputStream) body) {
+				assertThat(new String(inputStream.readAllBytes(), UTF_8)).isEqualTo("someBody");
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}));
+		assertThat(closed).isTrue();
+	}
+
+	@Test
+	void decodeWhenNotFound() throws IOException {
+		assertThat(decoder.decode(response(404, "someBody"), OPTIONAL_INPUT_STREAM)).isEqualTo(Optional.empty());
+		assertThat(closed).isTrue();
+	}
+
+	@Test
+	void decodeUnsupportedType() {
+		assertThatExceptionOfType(DecodeException.class)
+			.isThrownBy(() -> decoder.decode(response(200, "someBody"), String.class))
+			.withMessageStartingWith("Only Optional<InputStream> responses are supported");
+		assertThat(closed).isTrue();
+	}
+
+	@Test
+	void closing() {
+		final ErrorDecoder errorDecoder = (_, response) -> new IllegalStateException("someMessage " + response.status());
+
+		final var exception = StreamingDecoder.closing(errorDecoder).decode("someMethodKey", response(500, "someError"));
+
+		assertThat(exception).hasMessage("someMessage 500");
+		assertThat(closed).isTrue();
+	}
+
+	private Response response(final int status, final String body) {
+		final var request = Request.create(Request.HttpMethod.GET, "http://localhost/content/somePageId", Map.of(), null, UTF_8, null);
+
+		return Response.builder()
+			.status(status)
+			.request(request)
+			.headers(Map.of())
+			.body(new ByteArrayInputStream(body.getBytes(UTF_8)) {
+
+				@Override
+				public void close() {
+					closed.set(true);
+				}
+			}, body.length())
+			.build();
+	}
+
+	private static ParameterizedType getReturnType(final String methodName) {
+		try {
+			return (ParameterizedType) ConfluenceClient.class.getMethod(methodName, String.class).getGenericReturnType();
+		} catch (final NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
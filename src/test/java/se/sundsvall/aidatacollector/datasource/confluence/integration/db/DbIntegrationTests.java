@@ -2,20 +2,34 @@ package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
 
 import static java.util.Optional.of;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.FrontierEntryEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageChunkEmbeddable;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.SyncStateEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.model.FrontierEntry;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageHashes;
 
 @ExtendWith(MockitoExtension.class)
 class DbIntegrationTests {
@@ -25,11 +39,19 @@ class DbIntegrationTests {
 	static final String ENEO_GROUP_ID = "someEneoGroupId";
 	static final String ENEO_BLOB_ID = "someEneoBlobId";
 	static final LocalDateTime UPDATED_AT = LocalDateTime.now().minusMonths(3);
+	static final Instant SYNCED_AT = Instant.parse("2024-09-10T10:05:00Z");
+	static final LocalDateTime LOCAL_SYNCED_AT = LocalDateTime.ofInstant(SYNCED_AT, ZoneId.systemDefault());
 
 	@Mock
 	private PageRepository pageRepositoryMock;
 	@Mock
+	private SyncStateRepository syncStateRepositoryMock;
+	@Mock
+	private FrontierEntryRepository frontierEntryRepositoryMock;
+	@Mock
 	private PageMapper pageMapperMock;
+	@Mock
+	private FrontierEntryMapper frontierEntryMapperMock;
 
 	@InjectMocks
 	private DbIntegration dbIntegration;
@@ -44,6 +66,59 @@ class DbIntegrationTests {
 		verifyNoMoreInteractions(pageRepositoryMock);
 	}
 
+	@Test
+	void getPageHashes() {
+		final var pageHashes = new PageHashes("someContentHash", "someTextHash");
+
+		when(pageRepositoryMock.findPageHashesByPageIdAndMunicipalityId(PAGE_ID, MUNICIPALITY_ID)).thenReturn(of(pageHashes));
+
+		assertThat(dbIntegration.getPageHashes(PAGE_ID, MUNICIPALITY_ID)).hasValue(pageHashes);
+
+		verify(pageRepositoryMock).findPageHashesByPageIdAndMunicipalityId(PAGE_ID, MUNICIPALITY_ID);
+		verifyNoMoreInteractions(pageRepositoryMock);
+	}
+
+	@Test
+	void getBlobIds() {
+		final var pageEntity = PageEntity.create()
+			.withEneoBlobId(ENEO_BLOB_ID);
+
+		when(pageRepositoryMock.findPageEntityByPageIdAndMunicipalityId(PAGE_ID, MUNICIPALITY_ID)).thenReturn(of(pageEntity));
+
+		assertThat(dbIntegration.getBlobIds(PAGE_ID, MUNICIPALITY_ID)).containsExactly(ENEO_BLOB_ID);
+	}
+
+	@Test
+	void getBlobIdsWithChunks() {
+		final var pageEntity = PageEntity.create()
+			.withEneoBlobId(ENEO_BLOB_ID)
+			.withChunks(List.of(
+				PageChunkEmbeddable.create().withContentHash("someContentHash").withEneoBlobId(ENEO_BLOB_ID),
+				PageChunkEmbeddable.create().withContentHash("someOtherContentHash").withEneoBlobId("someOtherEneoBlobId")));
+
+		when(pageRepositoryMock.findPageEntityByPageIdAndMunicipalityId(PAGE_ID, MUNICIPALITY_ID)).thenReturn(of(pageEntity));
+
+		assertThat(dbIntegration.getBlobIds(PAGE_ID, MUNICIPALITY_ID)).containsExactly(ENEO_BLOB_ID, "someOtherEneoBlobId");
+	}
+
+	@Test
+	void getBlobIdsWhenNotFound() {
+		when(pageRepositoryMock.findPageEntityByPageIdAndMunicipalityId(PAGE_ID, MUNICIPALITY_ID)).thenReturn(Optional.empty());
+
+		assertThat(dbIntegration.getBlobIds(PAGE_ID, MUNICIPALITY_ID)).isEmpty();
+	}
+
+	@Test
+	void getPageIds() {
+		when(pageRepositoryMock.findPageIdsByMunicipalityId(MUNICIPALITY_ID)).thenReturn(List.of(PAGE_ID, "someOtherPageId"));
+
+		assertThat(dbIntegration.getPageIds(MUNICIPALITY_ID)).containsExactlyInAnyOrder(PAGE_ID, "someOtherPageId");
+
+		verify(pageRepositoryMock).findPageIdsByMunicipalityId(MUNICIPALITY_ID);
+		verifyNoMoreInteractions(pageRepositoryMock);
+		verifyNoInteractions(pageMapperMock);
+	}
+
 	@Test
 	void getPage() {
 		final var pageEntity = PageEntity.create()
@@ -108,4 +183,151 @@ class DbIntegrationTests {
 		verify(pageRepositoryMock).deletePageEntityByPageIdAndMunicipalityId(PAGE_ID, MUNICIPALITY_ID);
 		verifyNoMoreInteractions(pageRepositoryMock);
 	}
+
+	@Test
+	void savePages() {
+		final var pageEntitiesCaptor = ArgumentCaptor.<List<PageEntity>>captor();
+
+		final var page = Page.create()
+			.withPageId(PAGE_ID)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withEneoGroupId(ENEO_GROUP_ID)
+			.withEneoBlobId(ENEO_BLOB_ID)
+			.withUpdatedAt(UPDATED_AT);
+		final var otherPage = Page.create()
+			.withPageId("someOtherPageId")
+			.withMunicipalityId(MUNICIPALITY_ID);
+
+		when(pageMapperMock.toPageEntity(any(Page.class))).thenCallRealMethod();
+
+		dbIntegration.savePages(List.of(page, otherPage));
+
+		verify(pageRepositoryMock).saveAll(pageEntitiesCaptor.capture());
+		verifyNoMoreInteractions(pageRepositoryMock);
+
+		assertThat(pageEntitiesCaptor.getValue()).extracting(PageEntity::getPageId, PageEntity::getEneoBlobId)
+			.containsExactly(tuple(PAGE_ID, ENEO_BLOB_ID), tuple("someOtherPageId", null));
+	}
+
+	@Test
+	void getFrontier() {
+		final var frontierEntryEntity = FrontierEntryEntity.create()
+			.withId(123L)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withPageId(PAGE_ID);
+
+		when(frontierEntryRepositoryMock.findByMunicipalityIdAndVisitedFalseOrderByIdAsc(MUNICIPALITY_ID, Limit.of(10))).thenReturn(List.of(frontierEntryEntity));
+		when(frontierEntryMapperMock.toFrontierEntry(frontierEntryEntity)).thenCallRealMethod();
+
+		assertThat(dbIntegration.getFrontier(MUNICIPALITY_ID, 10)).extracting(FrontierEntry::id, FrontierEntry::pageId)
+			.containsExactly(tuple(123L, PAGE_ID));
+
+		verify(frontierEntryRepositoryMock).findByMunicipalityIdAndVisitedFalseOrderByIdAsc(MUNICIPALITY_ID, Limit.of(10));
+		verifyNoMoreInteractions(frontierEntryRepositoryMock);
+	}
+
+	@Test
+	void advanceFrontier() {
+		final var frontierEntityEntitiesCaptor = ArgumentCaptor.<List<FrontierEntryEntity>>captor();
+		final var visited = new FrontierEntry(123L, MUNICIPALITY_ID, "someRunId", SYNCED_AT, "someRootId", PAGE_ID, null);
+		final var otherVisited = new FrontierEntry(456L, MUNICIPALITY_ID, "someRunId", SYNCED_AT, "someRootId", "someOtherPageId", null);
+		final var discovered = visited.child("someChildId", "someUpdatedAt");
+
+		when(frontierEntryMapperMock.toFrontierEntryEntity(discovered)).thenCallRealMethod();
+
+		dbIntegration.advanceFrontier(List.of(visited, otherVisited), List.of(), List.of(discovered));
+
+		verify(frontierEntryRepositoryMock).findPageIdsByRunIdAndPageIdIn("someRunId", Set.of("someChildId"));
+		verify(frontierEntryRepositoryMock).saveAll(frontierEntityEntitiesCaptor.capture());
+		// The visited entries are kept, to keep track of the pages the crawl has seen
+		verify(frontierEntryRepositoryMock).markVisitedByIdIn(List.of(123L, 456L));
+		verifyNoMoreInteractions(frontierEntryRepositoryMock);
+
+		assertThat(frontierEntityEntitiesCaptor.getValue()).extracting(FrontierEntryEntity::getId, FrontierEntryEntity::getPageId, FrontierEntryEntity::getUpdatedAtInConfluence)
+			.containsExactly(tuple(null, "someChildId", "someUpdatedAt"));
+	}
+
+	@Test
+	void advanceFrontierWithFailedEntries() {
+		final var visited = new FrontierEntry(123L, MUNICIPALITY_ID, "someRunId", SYNCED_AT, "someRootId", PAGE_ID, null);
+		final var failed = new FrontierEntry(456L, MUNICIPALITY_ID, "someRunId", SYNCED_AT, "someRootId", "someOtherPageId", null);
+
+		dbIntegration.advanceFrontier(List.of(visited, failed), List.of(failed), List.of());
+
+		// The failed entry is marked as failed
+		verify(frontierEntryRepositoryMock).saveAll(List.of());
+		verify(frontierEntryRepositoryMock).markFailedByIdIn(List.of(456L));
+		verify(frontierEntryRepositoryMock).markVisitedByIdIn(List.of(123L));
+		verifyNoMoreInteractions(frontierEntryRepositoryMock);
+	}
+
+	@Test
+	void addToFrontierSkipsKnownPages() {
+		final var frontierEntityEntitiesCaptor = ArgumentCaptor.<List<FrontierEntryEntity>>captor();
+		final var parent = new FrontierEntry(123L, MUNICIPALITY_ID, "someRunId", SYNCED_AT, "someRootId", PAGE_ID, null);
+		final var known = parent.child("someKnownChildId", "someUpdatedAt");
+		final var discovered = parent.child("someChildId", "someUpdatedAt");
+
+		// The known page has already been added by an earlier chunk (or run) of the crawl, the other shows up twice
+		when(frontierEntryRepositoryMock.findPageIdsByRunIdAndPageIdIn("someRunId", Set.of("someKnownChildId", "someChildId"))).thenReturn(List.of("someKnownChildId"));
+		when(frontierEntryMapperMock.toFrontierEntryEntity(discovered)).thenCallRealMethod();
+
+		dbIntegration.addToFrontier(List.of(known, discovered, discovered));
+
+		verify(frontierEntryRepositoryMock).saveAll(frontierEntityEntitiesCaptor.capture());
+		assertThat(frontierEntityEntitiesCaptor.getValue()).extracting(FrontierEntryEntity::getPageId)
+			.containsExactly("someChildId");
+	}
+
+	@Test
+	void hasFailedFrontierEntries() {
+		when(frontierEntryRepositoryMock.existsByMunicipalityIdAndRunIdAndFailedTrue(MUNICIPALITY_ID, "someRunId")).thenReturn(true);
+
+		assertThat(dbIntegration.hasFailedFrontierEntries(MUNICIPALITY_ID, "someRunId")).isTrue();
+
+		verify(frontierEntryRepositoryMock).existsByMunicipalityIdAndRunIdAndFailedTrue(MUNICIPALITY_ID, "someRunId");
+		verifyNoMoreInteractions(frontierEntryRepositoryMock);
+	}
+
+	@Test
+	void clearFrontier() {
+		dbIntegration.clearFrontier(MUNICIPALITY_ID);
+
+		verify(frontierEntryRepositoryMock).deleteByMunicipalityId(MUNICIPALITY_ID);
+		verifyNoMoreInteractions(frontierEntryRepositoryMock);
+	}
+
+	@Test
+	void getLastSyncedAt() {
+		when(syncStateRepositoryMock.findById(MUNICIPALITY_ID)).thenReturn(of(SyncStateEntity.create()
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withLastSyncedAt(LOCAL_SYNCED_AT)));
+
+		assertThat(dbIntegration.getLastSyncedAt(MUNICIPALITY_ID)).hasValue(SYNCED_AT);
+
+		verify(syncStateRepositoryMock).findById(MUNICIPALITY_ID);
+		verifyNoMoreInteractions(syncStateRepositoryMock);
+	}
+
+	@Test
+	void getLastSyncedAtWhenNeverSynced() {
+		when(syncStateRepositoryMock.findById(MUNICIPALITY_ID)).thenReturn(Optional.empty());
+
+		assertThat(dbIntegration.getLastSyncedAt(MUNICIPALITY_ID)).isEmpty();
+	}
+
+	@Test
+	void saveLastSyncedAt() {
+		final var syncStateEntityCaptor = ArgumentCaptor.forClass(SyncStateEntity.class);
+
+		dbIntegration.saveLastSyncedAt(MUNICIPALITY_ID, SYNCED_AT);
+
+		verify(syncStateRepositoryMock).save(syncStateEntityCaptor.capture());
+		verifyNoMoreInteractions(syncStateRepositoryMock, pageRepositoryMock);
+
+		assertThat(syncStateEntityCaptor.getValue()).satisfies(syncStateEntity -> {
+			assertThat(syncStateEntity.getMunicipalityId()).isEqualTo(MUNICIPALITY_ID);
+			assertThat(syncStateEntity.getLastSyncedAt()).isEqualTo(LOCAL_SYNCED_AT);
+		});
+	}
 }
@@ -0,0 +1,52 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.LOCAL_SYNCED_AT;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.MUNICIPALITY_ID;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.PAGE_ID;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.SYNCED_AT;
+
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.FrontierEntryEntity;
+import se.sundsvall.aidatacollector.datasource.confluence.model.FrontierEntry;
+
+class FrontierEntryMapperTests {
+
+	private static final String RUN_ID = "someRunId";
+	private static final String ROOT_ID = "someRootId";
+	private static final String UPDATED_AT_IN_CONFLUENCE = "2024-09-10T12:03:28.147Z";
+
+	private final FrontierEntryMapper mapper = new FrontierEntryMapper();
+
+	@Test
+	void toFrontierEntry() {
+		final var frontierEntryEntity = FrontierEntryEntity.create()
+			.withId(123L)
+			.withMunicipalityId(MUNICIPALITY_ID)
+			.withRunId(RUN_ID)
+			.withRunStartedAt(LOCAL_SYNCED_AT)
+			.withRootId(ROOT_ID)
+			.withPageId(PAGE_ID)
+			.withUpdatedAtInConfluence(UPDATED_AT_IN_CONFLUENCE);
+
+		assertThat(mapper.toFrontierEntry(frontierEntryEntity))
+			.isEqualTo(new FrontierEntry(123L, MUNICIPALITY_ID, RUN_ID, SYNCED_AT, ROOT_ID, PAGE_ID, UPDATED_AT_IN_CONFLUENCE));
+	}
+
+	@Test
+	void toFrontierEntryEntity() {
+		final var frontierEntry = new FrontierEntry(null, MUNICIPALITY_ID, RUN_ID, SYNCED_AT, ROOT_ID, PAGE_ID, UPDATED_AT_IN_CONFLUENCE);
+
+		assertThat(mapper.toFrontierEntryEntity(frontierEntry)).satisfies(frontierEntryEntity -> {
+			assertThat(frontierEntryEntity.getId()).isNull();
+			assertThat(frontierEntryEntity.getMunicipalityId()).isEqualTo(MUNICIPALITY_ID);
+			assertThat(frontierEntryEntity.getRunId()).isEqualTo(RUN_ID);
+			assertThat(frontierEntryEntity.getRunStartedAt()).isEqualTo(LOCAL_SYNCED_AT);
+			assertThat(frontierEntryEntity.getRootId()).isEqualTo(ROOT_ID);
+			assertThat(frontierEntryEntity.getPageId()).isEqualTo(PAGE_ID);
+			assertThat(frontierEntryEntity.getUpdatedAtInConfluence()).isEqualTo(UPDATED_AT_IN_CONFLUENCE);
+			assertThat(frontierEntryEntity.getFailed()).isFalse();
+			assertThat(frontierEntryEntity.getVisited()).isFalse();
+		});
+	}
+}
@@ -0,0 +1,22 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.LOCAL_SYNCED_AT;
+import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.SYNCED_AT;
+
+import org.junit.jupiter.api.Test;
+
+class LocalTimestampsTests {
+
+	@Test
+	void toInstant() {
+		assertThat(LocalTimestamps.toInstant(LOCAL_SYNCED_AT)).isEqualTo(SYNCED_AT);
+		assertThat(LocalTimestamps.toInstant(null)).isNull();
+	}
+
+	@Test
+	void toLocalDateTime() {
+		assertThat(LocalTimestamps.toLocalDateTime(SYNCED_AT)).isEqualTo(LOCAL_SYNCED_AT);
+		assertThat(LocalTimestamps.toLocalDateTime(null)).isNull();
+	}
+}
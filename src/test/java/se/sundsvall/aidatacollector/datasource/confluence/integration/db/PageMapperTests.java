@@ -7,9 +7,12 @@ import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.
 import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.PAGE_ID;
 import static se.sundsvall.aidatacollector.datasource.confluence.integration.db.DbIntegrationTests.UPDATED_AT;
 
+import java.util.List;
 import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageChunkEmbeddable;
 import se.sundsvall.aidatacollector.datasource.confluence.integration.db.model.PageEntity;
 import se.sundsvall.aidatacollector.datasource.confluence.model.Page;
+import se.sundsvall.aidatacollector.datasource.confluence.model.PageChunk;
 
 class PageMapperTests {
 
@@ -22,7 +25,10 @@ class PageMapperTests {
 			.withMunicipalityId(MUNICIPALITY_ID)
 			.withEneoGroupId(ENEO_GROUP_ID)
 			.withEneoBlobId(ENEO_BLOB_ID)
-			.withUpdatedAt(UPDATED_AT);
+			.withUpdatedAt(UPDATED_AT)
+			.withContentHash("someContentHash")
+			.withTextHash("someTextHash")
+			.withChunks(List.of(PageChunkEmbeddable.create().withContentHash("someContentHash").withEneoBlobId(ENEO_BLOB_ID)));
 
 		assertThat(mapper.toPage(pageEntity)).satisfies(page -> {
 			assertThat(page.getPageId()).isEqualTo(PAGE_ID);
@@ -30,6 +36,9 @@ class PageMapperTests {
 			assertThat(page.getEneoGroupId()).isEqualTo(ENEO_GROUP_ID);
 			assertThat(page.getEneoBlobId()).isEqualTo(ENEO_BLOB_ID);
 			assertThat(page.getUpdatedAt()).isEqualTo(UPDATED_AT);
+			assertThat(page.getContentHash()).isEqualTo("someContentHash");
+			assertThat(page.getTextHash()).isEqualTo("someTextHash");
+			assertThat(page.getChunks()).containsExactly(new PageChunk("someContentHash", ENEO_BLOB_ID));
 		});
 	}
 
@@ -40,7 +49,10 @@ class PageMapperTests {
 			.withMunicipalityId(MUNICIPALITY_ID)
 			.withEneoGroupId(ENEO_GROUP_ID)
 			.withEneoBlobId(ENEO_BLOB_ID)
-			.withUpdatedAt(UPDATED_AT);
+			.withUpdatedAt(UPDATED_AT)
+			.withContentHash("someContentHash")
+			.withTextHash("someTextHash")
+			.withChunks(List.of(new PageChunk("someContentHash", ENEO_BLOB_ID)));
 
 		assertThat(mapper.toPageEntity(page)).satisfies(pageEntity -> {
 			assertThat(pageEntity.getPageId()).isEqualTo(PAGE_ID);
@@ -48,6 +60,15 @@ class PageMapperTests {
 			assertThat(pageEntity.getEneoGroupId()).isEqualTo(ENEO_GROUP_ID);
 			assertThat(pageEntity.getEneoBlobId()).isEqualTo(ENEO_BLOB_ID);
 			assertThat(pageEntity.getUpdatedAt()).isEqualTo(UPDATED_AT);
+			assertThat(pageEntity.getContentHash()).isEqualTo("someContentHash");
+			assertThat(pageEntity.getTextHash()).isEqualTo("someTextHash");
+			assertThat(pageEntity.getChunks()).containsExactly(PageChunkEmbeddable.create().withContentHash("someContentHash").withEneoBlobId(ENEO_BLOB_ID));
 		});
 	}
+
+	@Test
+	void toPageWithoutChunks() {
+		assertThat(mapper.toPage(PageEntity.create()).getChunks()).isEmpty();
+		assertThat(mapper.toPageEntity(Page.create()).getChunks()).isEmpty();
+	}
 }
@@ -0,0 +1,90 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static java.time.LocalDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class FrontierEntryEntityTests {
+
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> now().plusDays(new Random().nextInt()), LocalDateTime.class);
+	}
+
+	@Test
+	void classProperties() {
+		MatcherAssert.assertThat(FrontierEntryEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals()));
+	}
+
+	@Test
+	void withMethods() {
+		final var id = 123L;
+		final var municipalityId = "someMunicipalityId";
+		final var runId = "someRunId";
+		final var runStartedAt = LocalDateTime.now();
+		final var rootId = "someRootId";
+		final var pageId = "somePageId";
+		final var updatedAtInConfluence = "someUpdatedAt";
+		final var failed = true;
+		final var visited = true;
+
+		final var frontierEntryEntity = FrontierEntryEntity.create()
+			.withId(id)
+			.withMunicipalityId(municipalityId)
+			.withRunId(runId)
+			.withRunStartedAt(runStartedAt)
+			.withRootId(rootId)
+			.withPageId(pageId)
+			.withUpdatedAtInConfluence(updatedAtInConfluence)
+			.withFailed(failed)
+			.withVisited(visited);
+
+		assertThat(frontierEntryEntity.getId()).isEqualTo(id);
+		assertThat(frontierEntryEntity.getMunicipalityId()).isEqualTo(municipalityId);
+		assertThat(frontierEntryEntity.getRunId()).isEqualTo(runId);
+		assertThat(frontierEntryEntity.getRunStartedAt()).isEqualTo(runStartedAt);
+		assertThat(frontierEntryEntity.getRootId()).isEqualTo(rootId);
+		assertThat(frontierEntryEntity.getPageId()).isEqualTo(pageId);
+		assertThat(frontierEntryEntity.getUpdatedAtInConfluence()).isEqualTo(updatedAtInConfluence);
+		assertThat(frontierEntryEntity.getFailed()).isEqualTo(failed);
+		assertThat(frontierEntryEntity.getVisited()).isEqualTo(visited);
+	}
+
+	@Test
+	void noDirtOnCreatedBean() {
+		assertThat(new FrontierEntryEntity()).hasAllNullFieldsOrProperties();
+		assertThat(FrontierEntryEntity.create()).hasAllNullFieldsOrProperties();
+	}
+
+	@Test
+	void allArgsConstructor() {
+		final var runStartedAt = LocalDateTime.now();
+
+		final var frontierEntryEntity = new FrontierEntryEntity(123L, "someMunicipalityId", "someRunId", runStartedAt, "someRootId", "somePageId", "someUpdatedAt", true, true);
+
+		assertThat(frontierEntryEntity.getId()).isEqualTo(123L);
+		assertThat(frontierEntryEntity.getMunicipalityId()).isEqualTo("someMunicipalityId");
+		assertThat(frontierEntryEntity.getRunId()).isEqualTo("someRunId");
+		assertThat(frontierEntryEntity.getRunStartedAt()).isEqualTo(runStartedAt);
+		assertThat(frontierEntryEntity.getRootId()).isEqualTo("someRootId");
+		assertThat(frontierEntryEntity.getPageId()).isEqualTo("somePageId");
+		assertThat(frontierEntryEntity.getUpdatedAtInConfluence()).isEqualTo("someUpdatedAt");
+		assertThat(frontierEntryEntity.getFailed()).isTrue();
+		assertThat(frontierEntryEntity.getVisited()).isTrue();
+	}
+}
@@ -0,0 +1,42 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.Test;
+
+class PageChunkEmbeddableTests {
+
+	@Test
+	void classProperties() {
+		MatcherAssert.assertThat(PageChunkEmbeddable.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals()));
+	}
+
+	@Test
+	void withMethods() {
+		final var contentHash = "someContentHash";
+		final var eneoBlobId = "someEneoBlobId";
+
+		final var pageChunk = PageChunkEmbeddable.create()
+			.withContentHash(contentHash)
+			.withEneoBlobId(eneoBlobId);
+
+		assertThat(pageChunk.getContentHash()).isEqualTo(contentHash);
+		assertThat(pageChunk.getEneoBlobId()).isEqualTo(eneoBlobId);
+	}
+
+	@Test
+	void noDirtOnCreatedBean() {
+		assertThat(new PageChunkEmbeddable()).hasAllNullFieldsOrProperties();
+		assertThat(PageChunkEmbeddable.create()).hasAllNullFieldsOrProperties();
+	}
+}
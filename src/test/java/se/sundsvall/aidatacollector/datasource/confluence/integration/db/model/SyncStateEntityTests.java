@@ -0,0 +1,63 @@
+package se.sundsvall.aidatacollector.datasource.confluence.integration.db.model;
+
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanConstructor;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanEquals;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidBeanHashCode;
+import static com.google.code.beanmatchers.BeanMatchers.hasValidGettersAndSetters;
+import static com.google.code.beanmatchers.BeanMatchers.registerValueGenerator;
+import static java.time.LocalDateTime.now;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.allOf;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+import org.hamcrest.MatcherAssert;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SyncStateEntityTests {
+
+	@BeforeAll
+	static void setup() {
+		registerValueGenerator(() -> now().plusDays(new Random().nextInt()), LocalDateTime.class);
+	}
+
+	@Test
+	void classProperties() {
+		MatcherAssert.assertThat(SyncStateEntity.class, allOf(
+			hasValidBeanConstructor(),
+			hasValidGettersAndSetters(),
+			hasValidBeanHashCode(),
+			hasValidBeanEquals()));
+	}
+
+	@Test
+	void withMethods() {
+		final var municipalityId = "someMunicipalityId";
+		final var lastSyncedAt = LocalDateTime.now();
+
+		final var syncStateEntity = SyncStateEntity.create()
+			.withMunicipalityId(municipalityId)
+			.withLastSyncedAt(lastSyncedAt);
+
+		assertThat(syncStateEntity.getMunicipalityId()).isEqualTo(municipalityId);
+		assertThat(syncStateEntity.getLastSyncedAt()).isEqualTo(lastSyncedAt);
+	}
+
+	@Test
+	void noDirtOnCreatedBean() {
+		assertThat(new SyncStateEntity()).hasAllNullFieldsOrProperties();
+		assertThat(SyncStateEntity.create()).hasAllNullFieldsOrProperties();
+	}
+
+	@Test
+	void allArgsConstructor() {
+		final var municipalityId = "someMunicipalityId";
+		final var lastSyncedAt = LocalDateTime.now();
+
+		final var syncStateEntity = new SyncStateEntity(municipalityId, lastSyncedAt);
+
+		assertThat(syncStateEntity.getMunicipalityId()).isEqualTo(municipalityId);
+		assertThat(syncStateEntity.getLastSyncedAt()).isEqualTo(lastSyncedAt);
+	}
+}
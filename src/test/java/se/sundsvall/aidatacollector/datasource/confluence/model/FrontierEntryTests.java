@@ -0,0 +1,26 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class FrontierEntryTests {
+
+	@Test
+	void root() {
+		final var runStartedAt = Instant.now();
+
+		assertThat(FrontierEntry.root("someMunicipalityId", "someRunId", runStartedAt, "someRootId"))
+			.isEqualTo(new FrontierEntry(null, "someMunicipalityId", "someRunId", runStartedAt, "someRootId", "someRootId", null));
+	}
+
+	@Test
+	void child() {
+		final var runStartedAt = Instant.now();
+		final var parent = new FrontierEntry(123L, "someMunicipalityId", "someRunId", runStartedAt, "someRootId", "someParentId", "someUpdatedAt");
+
+		assertThat(parent.child("someChildId", "someOtherUpdatedAt"))
+			.isEqualTo(new FrontierEntry(null, "someMunicipalityId", "someRunId", runStartedAt, "someRootId", "someChildId", "someOtherUpdatedAt"));
+	}
+}
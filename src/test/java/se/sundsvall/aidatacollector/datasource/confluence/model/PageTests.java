@@ -44,6 +44,7 @@ class PageTests {
 		final var ancestorIds = List.of("someAncestorId", "someOtherAncestorId");
 		final var eneoGroupId = "someEneoGroupId";
 		final var eneoBlobId = "someEneoBlobId";
+		final var chunks = List.of(new PageChunk("someContentHash", eneoBlobId));
 
 		final var page = Page.create()
 			.withMunicipalityId(municipalityId)
@@ -55,7 +56,8 @@ class PageTests {
 			.withUpdatedAt(updatedAt)
 			.withAncestorIds(ancestorIds)
 			.withEneoGroupId(eneoGroupId)
-			.withEneoBlobId(eneoBlobId);
+			.withEneoBlobId(eneoBlobId)
+			.withChunks(chunks);
 
 		assertThat(page.getMunicipalityId()).isEqualTo(municipalityId);
 		assertThat(page.getPageId()).isEqualTo(pageId);
@@ -67,6 +69,7 @@ class PageTests {
 		assertThat(page.getAncestorIds()).isEqualTo(ancestorIds);
 		assertThat(page.getEneoGroupId()).isEqualTo(eneoGroupId);
 		assertThat(page.getEneoBlobId()).isEqualTo(eneoBlobId);
+		assertThat(page.getChunks()).isEqualTo(chunks);
 	}
 
 	@Test
@@ -84,6 +87,26 @@ class PageTests {
 		assertThat(page.bodyAsText()).isEqualTo("some text item 1 item 2");
 	}
 
+	@Test
+	void bodyAsTextIsCachedUntilTheBodyChanges() {
+		final var page = Page.create().withBody("<p>some text</p>");
+
+		final var text = page.bodyAsText();
+
+		assertThat(page.bodyAsText()).isSameAs(text);
+
+		page.setBody("<p>some other text</p>");
+		assertThat(page.bodyAsText()).isEqualTo("some other text");
+
+		page.withBody("<p>yet another text</p>");
+		assertThat(page.bodyAsText()).isEqualTo("yet another text");
+	}
+
+	@Test
+	void bodyAsTextWhenBodyIsNull() {
+		assertThat(Page.create().bodyAsText()).isEmpty();
+	}
+
 	@Test
 	void url() {
 		final var baseUrl = "someBaseUrl";
@@ -0,0 +1,44 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import se.sundsvall.aidatacollector.Benchmark;
+
+// Compares extracting the text of a large page - a few MB of storage format, with tables and macros - with the
+// streaming scanner, and with parsing it into a Jsoup DOM as Page.bodyAsText() did before. A page whose text is
+// asked for more than once only pays for the first extraction, which is measured as well
+class StorageFormatTextBenchmark {
+
+	private static final int REPEATS = 5_000;
+	private static final int WARMUP_ITERATIONS = 10;
+	private static final int ITERATIONS = 30;
+
+	private static final String BODY = """
+		<h2>Rubrik</h2><p>Några rader text om hur det går till, med en <a href="https://example.com">länk</a> &amp; lite <strong>fetstil</strong>.</p>\
+		<table><tbody><tr><th>Namn</th><th>Värde</th></tr><tr><td>a</td><td>1</td></tr><tr><td>b</td><td>2</td></tr></tbody></table>\
+		<ac:structured-macro ac:name="info"><ac:parameter ac:name="title">Obs</ac:parameter><ac:rich-text-body><p>Viktigt att veta.</p></ac:rich-text-body></ac:structured-macro>\
+		<ac:structured-macro ac:name="code"><ac:plain-text-body><![CDATA[if (a < b) { return; }]]></ac:plain-text-body></ac:structured-macro>\
+		<p><ac:link><ri:page ri:content-title="En annan sida" /></ac:link></p>""".repeat(REPEATS);
+
+	@Test
+	void extractText() {
+		final var streaming = Benchmark.measure("Extracting the text of a %d KB page with the streaming scanner".formatted(BODY.length() / 1024), WARMUP_ITERATIONS, ITERATIONS,
+			() -> StorageFormatText.toText(BODY));
+		final var jsoup = Benchmark.measure("The same by parsing it into a Jsoup DOM", WARMUP_ITERATIONS, ITERATIONS,
+			() -> Jsoup.parse(BODY).text());
+		final var cached = Benchmark.measure("Asking the same page for its text three times", WARMUP_ITERATIONS, ITERATIONS,
+			() -> {
+				final var page = Page.create().withBody(BODY);
+				page.bodyAsText();
+				page.bodyAsText();
+				return page.bodyAsText();
+			});
+
+		assertThat(StorageFormatText.toText(BODY)).startsWith("Rubrik Några rader text om hur det går till, med en länk & lite fetstil. Namn Värde a 1 b 2");
+		assertThat(streaming.bytesPerOperation()).isPositive();
+		assertThat(jsoup.bytesPerOperation()).isPositive();
+		assertThat(cached.bytesPerOperation()).isPositive();
+	}
+}
@@ -0,0 +1,153 @@
+package se.sundsvall.aidatacollector.datasource.confluence.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class StorageFormatTextTests {
+
+	@ParameterizedTest
+	@ValueSource(strings = {
+		"<p>some text</p><ul><li>item 1</li><li>item 2</li></ul>",
+		"<h1>Title</h1><p>Some <strong>bold</strong> and <em>emphasised</em> text, with a <a href=\"https://example.com?a=1&amp;b=2\">link</a>.</p>",
+		"<table><tbody><tr><th>Name</th><th>Value</th></tr><tr><td>a</td><td>1</td></tr></tbody></table>",
+		"<p>  lots   of \n\t whitespace  </p>  <p>and&nbsp;a&nbsp;&nbsp;non-breaking space</p>",
+		"<p>Entities: &lt;tag&gt; &amp; &quot;quotes&quot; &#229;&#xE4;&ouml; &auml;r &aring;ngor</p>",
+		"<p>Line<br/>break</p><hr/><p>after a rule</p>",
+		"text without markup",
+		"<p>a &amp; b &unknown; c</p>",
+		"<p>1 < 2 and 3 > 2</p>",
+		""
+	})
+	void toTextMatchesJsoupForPlainXhtml(final String storageFormat) {
+		assertThat(StorageFormatText.toText(storageFormat)).isEqualTo(Jsoup.parse(storageFormat).text());
+	}
+
+	@Test
+	void toTextWithMacros() {
+		final var storageFormat = """
+			<p>Before</p>
+			<ac:structured-macro ac:name="code" ac:schema-version="1">
+				<ac:parameter ac:name="language">java</ac:parameter>
+				<ac:parameter ac:name="title">Example</ac:parameter>
+				<ac:plain-text-body><![CDATA[if (a < b && c > d) { return; }]]></ac:plain-text-body>
+			</ac:structured-macro>
+			<ac:structured-macro ac:name="info"><ac:rich-text-body><p>Some <strong>info</strong></p></ac:rich-text-body></ac:structured-macro>
+			<p>See <ac:link><ri:page ri:content-title="Other page" ri:space-key="SPACE"/><ac:plain-text-link-body><![CDATA[the other page]]></ac:plain-text-link-body></ac:link>.</p>
+			<ac:image ac:height="250"><ri:attachment ri:filename="image.png"/></ac:image>
+			<ac:task-list><ac:task><ac:task-id>1</ac:task-id><ac:task-status>incomplete</ac:task-status><ac:task-body>Do it</ac:task-body></ac:task></ac:task-list>
+			<p><ac:placeholder>Type something here</ac:placeholder>After</p>
+			""";
+
+		assertThat(StorageFormatText.toText(storageFormat))
+			.isEqualTo("Before if (a < b && c > d) { return; } Some info See the other page. Do it After");
+	}
+
+	@Test
+	void toTextSkipsCommentsScriptsAndStyles() {
+		final var storageFormat = "<p>a<!-- some <p>comment</p> -->b</p><style>p { color: red; }</style><script>alert('x')</script><?xml version=\"1.0\"?><p>c</p>";
+
+		assertThat(StorageFormatText.toText(storageFormat)).isEqualTo("ab c");
+	}
+
+	@Test
+	void toTextWithQuotedGreaterThanInAttributes() {
+		assertThat(StorageFormatText.toText("<p title=\"a > b\" data-x='c > d'>text</p>")).isEqualTo("text");
+	}
+
+	@Test
+	void toTextWithTruncatedMarkup() {
+		assertThat(StorageFormatText.toText("<p>some text</p><![CDATA[unterminated")).isEqualTo("some text unterminated");
+		assertThat(StorageFormatText.toText("<p>some text</p><!-- unterminated")).isEqualTo("some text");
+		assertThat(StorageFormatText.toText("<p>some text</p><p class=\"unterminated")).isEqualTo("some text");
+	}
+
+	@Test
+	void toTextWithSupplementaryCharacters() {
+		assertThat(StorageFormatText.toText("<p>&#x1F600; &#128512;</p>")).isEqualTo("😀 😀");
+	}
+
+	@Test
+	void toTextWhenNull() {
+		assertThat(StorageFormatText.toText(null)).isEmpty();
+	}
+
+	@Test
+	void appendText() {
+		final var out = new StringBuilder("prefix:");
+
+		StorageFormatText.appendText("<p> some text </p>", out);
+
+		assertThat(out).hasToString("prefix:some text");
+	}
+
+	@Test
+	void toTextWithDroppedMacros() {
+		final var storageFormat = """
+			<p>Before</p>
+			<ac:structured-macro ac:name="TOC"><ac:parameter ac:name="maxLevel">2</ac:parameter></ac:structured-macro>
+			<ac:structured-macro ac:name="pagetree"><ac:rich-text-body><ac:structured-macro ac:name="pagetree"><ac:rich-text-body><p>nested</p></ac:rich-text-body></ac:structured-macro><p>tree</p></ac:rich-text-body></ac:structured-macro>
+			<ac:structured-macro ac:name="info"><ac:rich-text-body><p>Kept <ac:structured-macro ac:name="toc"><ac:rich-text-body>dropped</ac:rich-text-body></ac:structured-macro>info</p></ac:rich-text-body></ac:structured-macro>
+			<ac:structured-macro ac:name="anchor"/>
+			<p>After</p>
+			""";
+		final var options = new StorageFormatText.Options(List.of("toc", "PageTree"), false);
+
+		assertThat(StorageFormatText.toText(storageFormat, options)).isEqualTo("Before Kept info After");
+		assertThat(StorageFormatText.toText(storageFormat)).isEqualTo("Before nested tree Kept dropped info After");
+	}
+
+	@Test
+	void toTextWithCompactTables() {
+		final var storageFormat = "<p>Before</p><table><tbody><tr><th>Name</th><th>Value</th></tr><tr><td>a</td><td><p>1</p></td></tr></tbody></table><p>After</p>";
+		final var options = new StorageFormatText.Options(List.of(), true);
+
+		assertThat(StorageFormatText.toText(storageFormat, options)).isEqualTo("Before Name | Value; a | 1 After");
+		assertThat(StorageFormatText.toText(storageFormat)).isEqualTo("Before Name Value a 1 After");
+	}
+
+	@Test
+	void toSections() {
+		final var storageFormat = """
+			<p>Intro</p>
+			<h1>First</h1><p>one</p>
+			<h2>Second <em>part</em></h2><p>two</p><h3>Sub</h3><p>three</p>
+			<ac:structured-macro ac:name="expand"><ac:rich-text-body><h2>In a macro</h2><p>four</p></ac:rich-text-body></ac:structured-macro>
+			<h2></h2><p>five</p>
+			""";
+
+		assertThat(StorageFormatText.toSections(storageFormat, StorageFormatText.Options.DEFAULT, 2)).containsExactly(
+			new StorageFormatText.Section(null, "Intro"),
+			new StorageFormatText.Section("First", "First one"),
+			new StorageFormatText.Section("Second part", "Second part two Sub three In a macro four"),
+			new StorageFormatText.Section(null, "five"));
+	}
+
+	@Test
+	void toSectionsWithoutHeadings() {
+		assertThat(StorageFormatText.toSections("<p>some text</p>", StorageFormatText.Options.DEFAULT, 2))
+			.containsExactly(new StorageFormatText.Section(null, "some text"));
+		assertThat(StorageFormatText.toSections("<p></p>", StorageFormatText.Options.DEFAULT, 2)).isEmpty();
+		assertThat(StorageFormatText.toSections(null, StorageFormatText.Options.DEFAULT, 2)).isEmpty();
+	}
+
+	@Test
+	void toSectionsWithDroppedMacros() {
+		final var storageFormat = "<h1>First</h1><ac:structured-macro ac:name=\"toc\"><ac:rich-text-body><h1>Not a section</h1></ac:rich-text-body></ac:structured-macro><p>one</p>";
+		final var options = new StorageFormatText.Options(List.of("toc"), false);
+
+		assertThat(StorageFormatText.toSections(storageFormat, options, 1))
+			.containsExactly(new StorageFormatText.Section("First", "First one"));
+	}
+
+	@Test
+	void toTextReusesBuffersSafely() {
+		// Buffers are pooled - make sure nothing leaks from one extraction into the next
+		assertThat(StorageFormatText.toText("<p>" + "x".repeat(100_000) + "</p>")).hasSize(100_000);
+		assertThat(StorageFormatText.toText("<p>short</p>")).isEqualTo("short");
+	}
+}
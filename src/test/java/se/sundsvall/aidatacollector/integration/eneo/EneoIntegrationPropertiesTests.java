@@ -2,9 +2,11 @@ package se.sundsvall.aidatacollector.integration.eneo;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import se.sundsvall.aidatacollector.configuration.HttpTransportProperties;
 import se.sundsvall.aidatacollector.test.annotation.UnitTest;
 
 @UnitTest
@@ -20,6 +22,9 @@ class EneoIntegrationPropertiesTests {
 		assertThat(properties.municipalities().get("2281")).satisfies(municipality -> {
 			assertThat(municipality.url()).isEqualTo("someUrl");
 			assertThat(municipality.apiKey()).isEqualTo("someApiKey");
+			assertThat(municipality.quota()).isEqualTo(new EneoIntegrationProperties.Quota(5.5, 600000));
+			assertThat(municipality.groupQuota()).isEqualTo(new EneoIntegrationProperties.Quota(2, 0));
+			assertThat(municipality.transport()).isEqualTo(new HttpTransportProperties(4, Duration.ofMinutes(2), false, true));
 		});
 		assertThat(properties.oauth2()).satisfies(oauth2 -> {
 			assertThat(oauth2.tokenUrl()).isEqualTo("someTokenUrl");
@@ -4,16 +4,18 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.zalando.problem.Status.INTERNAL_SERVER_ERROR;
+import static org.zalando.problem.Status.NOT_FOUND;
 
 import generated.se.sundsvall.eneo.InfoBlobAddPublic;
 import generated.se.sundsvall.eneo.InfoBlobMetadataUpsertPublic;
-import generated.se.sundsvall.eneo.InfoBlobPublic;
+import generated.se.sundsvall.eneo.InfoBlobUpdatePublic;
 import generated.se.sundsvall.eneo.InfoBlobUpsertRequest;
-import generated.se.sundsvall.eneo.PaginatedResponseInfoBlobPublic;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,7 +24,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.zalando.problem.Problem;
 import org.zalando.problem.ThrowableProblem;
+import se.sundsvall.aidatacollector.integration.eneo.InfoBlobReferences.InfoBlobReference;
 
 @ExtendWith(MockitoExtension.class)
 class EneoIntegrationTests {
@@ -32,11 +36,14 @@ class EneoIntegrationTests {
 	@Mock
 	private EneoClient clientMock;
 
+	@Mock
+	private EneoQuotas quotasMock;
+
 	private EneoIntegration eneoIntegration;
 
 	@BeforeEach
 	void setUp() {
-		eneoIntegration = new EneoIntegration(Map.of(MUNICIPALITY_ID, clientMock));
+		eneoIntegration = new EneoIntegration(Map.of(MUNICIPALITY_ID, clientMock), quotasMock);
 	}
 
 	@Test
@@ -54,14 +61,65 @@ class EneoIntegrationTests {
 					.title(title)
 					.url(url))));
 
-		when(clientMock.addInfoBlobs(groupId, request)).thenReturn(new PaginatedResponseInfoBlobPublic()
-			.items(List.of(new InfoBlobPublic().id(itemId)))
-			.count(1));
+		when(clientMock.addInfoBlobs(groupId, request)).thenReturn(new InfoBlobReferences(List.of(new InfoBlobReference(itemId.toString()))));
 
 		final var response = eneoIntegration.addInfoBlob(MUNICIPALITY_ID, groupId, title, body, url);
 
 		assertThat(response).isEqualTo(itemId.toString());
 
+		verify(quotasMock).acquire(MUNICIPALITY_ID, groupId, body.length());
+		verify(clientMock).addInfoBlobs(groupId, request);
+		verifyNoMoreInteractions(clientMock, quotasMock);
+	}
+
+	@Test
+	void addInfoBlobsWhenNotAllAreReturned() {
+		final var groupId = "someGroupId";
+		final var itemId = UUID.randomUUID();
+
+		when(clientMock.addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class))).thenReturn(new InfoBlobReferences(List.of(new InfoBlobReference(itemId.toString()))));
+
+		final var infoBlobs = List.of(
+			new EneoIntegration.InfoBlob("someTitle", "someBody", "someUrl"),
+			new EneoIntegration.InfoBlob("someOtherTitle", "someOtherBody", "someOtherUrl"));
+
+		assertThatThrownBy(() -> eneoIntegration.addInfoBlobs(MUNICIPALITY_ID, groupId, infoBlobs))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasMessageContaining("Eneo returned 1 info blob(s) when adding 2 to group someGroupId");
+
+		// The info blob that can't be matched with any page is removed
+		verify(clientMock).deleteInfoBlob(itemId.toString());
+	}
+
+	@Test
+	void addInfoBlobs() {
+		final var groupId = "someGroupId";
+		final var itemId = UUID.randomUUID();
+		final var otherItemId = UUID.randomUUID();
+
+		final var request = new InfoBlobUpsertRequest()
+			.infoBlobs(List.of(
+				new InfoBlobAddPublic()
+					.text("someBody")
+					.metadata(new InfoBlobMetadataUpsertPublic()
+						.title("someTitle")
+						.url("someUrl")),
+				new InfoBlobAddPublic()
+					.text("someOtherBody")
+					.metadata(new InfoBlobMetadataUpsertPublic()
+						.title("someOtherTitle")
+						.url("someOtherUrl"))));
+
+		when(clientMock.addInfoBlobs(groupId, request)).thenReturn(new InfoBlobReferences(List.of(
+			new InfoBlobReference(itemId.toString()),
+			new InfoBlobReference(otherItemId.toString()))));
+
+		final var response = eneoIntegration.addInfoBlobs(MUNICIPALITY_ID, groupId, List.of(
+			new EneoIntegration.InfoBlob("someTitle", "someBody", "someUrl"),
+			new EneoIntegration.InfoBlob("someOtherTitle", "someOtherBody", "someOtherUrl")));
+
+		assertThat(response).containsExactly(itemId.toString(), otherItemId.toString());
+
 		verify(clientMock).addInfoBlobs(groupId, request);
 		verifyNoMoreInteractions(clientMock);
 	}
@@ -75,27 +133,78 @@ class EneoIntegrationTests {
 		final var itemId = UUID.randomUUID();
 		final var blobId = "someBlobId";
 
-		when(clientMock.addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class))).thenReturn(new PaginatedResponseInfoBlobPublic()
-			.items(List.of(new InfoBlobPublic().id(itemId)))
-			.count(1));
+		when(clientMock.addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class))).thenReturn(new InfoBlobReferences(List.of(new InfoBlobReference(itemId.toString()))));
 
 		final var response = eneoIntegration.updateInfoBlob(MUNICIPALITY_ID, groupId, blobId, title, body, url);
 
 		assertThat(response).isEqualTo(itemId.toString());
 
+		// The new info blob is added before the current one is deleted
+		final var inOrder = inOrder(clientMock);
+		inOrder.verify(clientMock).addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class));
+		inOrder.verify(clientMock).deleteInfoBlob(blobId);
+		verifyNoMoreInteractions(clientMock);
+	}
+
+	@Test
+	void updateInfoBlobWhenDeleteFails() {
+		final var groupId = "someGroupId";
+		final var itemId = UUID.randomUUID();
+		final var blobId = "someBlobId";
+
+		when(clientMock.addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class))).thenReturn(new InfoBlobReferences(List.of(new InfoBlobReference(itemId.toString()))));
+		doThrow(Problem.valueOf(NOT_FOUND, "someMessage")).when(clientMock).deleteInfoBlob(blobId);
+
+		final var response = eneoIntegration.updateInfoBlob(MUNICIPALITY_ID, groupId, blobId, "someTitle", "someBody", "someUrl");
+
+		// The new info blob was added, so its id is returned even though the current one couldn't be deleted
+		assertThat(response).isEqualTo(itemId.toString());
+
 		verify(clientMock).addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class));
 		verify(clientMock).deleteInfoBlob(blobId);
 		verifyNoMoreInteractions(clientMock);
 	}
 
+	@Test
+	void updateInfoBlobWhenAddFails() {
+		final var groupId = "someGroupId";
+		final var blobId = "someBlobId";
+
+		when(clientMock.addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class))).thenThrow(Problem.valueOf(INTERNAL_SERVER_ERROR, "someMessage"));
+
+		assertThatThrownBy(() -> eneoIntegration.updateInfoBlob(MUNICIPALITY_ID, groupId, blobId, "someTitle", "someBody", "someUrl"))
+			.isInstanceOf(ThrowableProblem.class)
+			.hasMessageContaining("someMessage");
+
+		// The current info blob is kept when the new one couldn't be added
+		verify(clientMock).addInfoBlobs(eq(groupId), any(InfoBlobUpsertRequest.class));
+		verifyNoMoreInteractions(clientMock);
+	}
+
+	@Test
+	void updateInfoBlobMetadata() {
+		final var blobId = "someBlobId";
+		final var title = "someTitle";
+		final var url = "someUrl";
+
+		eneoIntegration.updateInfoBlobMetadata(MUNICIPALITY_ID, blobId, title, url);
+
+		verify(clientMock).updateInfoBlob(blobId, new InfoBlobUpdatePublic()
+			.metadata(new InfoBlobMetadataUpsertPublic()
+				.title(title)
+				.url(url)));
+		verifyNoMoreInteractions(clientMock);
+	}
+
 	@Test
 	void deleteInfoBlob() {
 		final var blobId = "someBlobId";
 
 		eneoIntegration.deleteInfoBlob(MUNICIPALITY_ID, blobId);
 
+		verify(quotasMock).acquire(MUNICIPALITY_ID, null, 0);
 		verify(clientMock).deleteInfoBlob(blobId);
-		verifyNoMoreInteractions(clientMock);
+		verifyNoMoreInteractions(clientMock, quotasMock);
 	}
 
 	@Test
@@ -0,0 +1,86 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static se.sundsvall.aidatacollector.integration.eneo.EneoQuotas.ALL_GROUPS;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class EneoQuotasTests {
+
+	private static final String MUNICIPALITY_ID = "2281";
+	private static final String GROUP_ID = "someGroupId";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final FakeTicker ticker = new FakeTicker();
+
+	@Test
+	void acquireSpendsGroupAndMunicipalityBudgets() {
+		final var eneoQuotas = createEneoQuotas(new EneoIntegrationProperties.Quota(10, 1000), new EneoIntegrationProperties.Quota(5, 300));
+
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 100);
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 50);
+
+		assertThat(ticker.slept()).isZero();
+		assertThat(gauge("eneo.quota.requests.available", GROUP_ID)).isEqualTo(3);
+		assertThat(gauge("eneo.quota.characters.available", GROUP_ID)).isEqualTo(150);
+		assertThat(gauge("eneo.quota.requests.available", ALL_GROUPS)).isEqualTo(8);
+		assertThat(gauge("eneo.quota.characters.available", ALL_GROUPS)).isEqualTo(850);
+	}
+
+	@Test
+	void acquireWithoutGroupSpendsMunicipalityBudgetOnly() {
+		final var eneoQuotas = createEneoQuotas(new EneoIntegrationProperties.Quota(10, 1000), new EneoIntegrationProperties.Quota(5, 300));
+
+		eneoQuotas.acquire(MUNICIPALITY_ID, null, 0);
+
+		assertThat(gauge("eneo.quota.requests.available", ALL_GROUPS)).isEqualTo(9);
+		assertThat(meterRegistry.find("eneo.quota.requests.available").tag("groupId", GROUP_ID).gauge()).isNull();
+	}
+
+	@Test
+	void acquireWaitsWhenBudgetIsSpent() {
+		final var eneoQuotas = createEneoQuotas(new EneoIntegrationProperties.Quota(2, 0), null);
+
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 0);
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 0);
+		assertThat(ticker.slept()).isZero();
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 0);
+
+		// Two requests per second - the third one waits for half a second
+		assertThat(ticker.slept().toNanos()).isCloseTo(Duration.ofMillis(500).toNanos(), within(10L));
+	}
+
+	@Test
+	void acquireWithZeroRatesIsUnlimited() {
+		final var eneoQuotas = createEneoQuotas(new EneoIntegrationProperties.Quota(0, 0), null);
+
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 1_000_000);
+
+		assertThat(meterRegistry.getMeters()).isEmpty();
+	}
+
+	@Test
+	void acquireWithoutQuotasDoesNothing() {
+		final var eneoQuotas = createEneoQuotas(null, null);
+
+		eneoQuotas.acquire(MUNICIPALITY_ID, GROUP_ID, 100);
+		eneoQuotas.acquire("unknown", GROUP_ID, 100);
+
+		assertThat(meterRegistry.getMeters()).isEmpty();
+	}
+
+	private EneoQuotas createEneoQuotas(final EneoIntegrationProperties.Quota quota, final EneoIntegrationProperties.Quota groupQuota) {
+		final var municipality = new EneoIntegrationProperties.Municipality("someUrl", "someApiKey", quota, groupQuota, null);
+		final var properties = new EneoIntegrationProperties(Map.of(MUNICIPALITY_ID, municipality), null, 0, 0);
+
+		return new EneoQuotas(properties, meterRegistry, ticker);
+	}
+
+	private double gauge(final String name, final String groupId) {
+		return meterRegistry.get(name).tags("municipalityId", MUNICIPALITY_ID, "groupId", groupId).gauge().value();
+	}
+}
@@ -0,0 +1,30 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import java.time.Duration;
+
+// A ticker that only moves when told to - or when slept on, by exactly as long as asked - so that the waits of the
+// token buckets can be asserted on without any real waiting
+class FakeTicker implements TokenBucket.Ticker {
+
+	private long nanoTime;
+	private long sleptNanos;
+
+	@Override
+	public synchronized long nanoTime() {
+		return nanoTime;
+	}
+
+	@Override
+	public synchronized void sleep(final long nanos) {
+		nanoTime += nanos;
+		sleptNanos += nanos;
+	}
+
+	synchronized void advance(final Duration duration) {
+		nanoTime += duration.toNanos();
+	}
+
+	synchronized Duration slept() {
+		return Duration.ofNanos(sleptNanos);
+	}
+}
@@ -0,0 +1,57 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+class InfoBlobReferencesTests {
+
+	// Strict about unknown properties, so that only the annotations let the unused parts of the response through
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void readAddResponse() throws Exception {
+		final var json = """
+			{
+				"items": [
+					{
+						"created_at": "2026-01-01T12:00:00Z",
+						"id": "6f1d3c1e-0f5a-4a7e-9a55-0c8a5e6d2b11",
+						"metadata": {"url": "someUrl", "title": "someTitle", "size": 8},
+						"group_id": "0c5e2f0e-2b4a-4c7d-8f0e-3d1f5a6b7c88",
+						"text": "someVeryLongText"
+					},
+					{
+						"id": "a3b0c2d4-5e6f-4a1b-8c9d-0e1f2a3b4c5d",
+						"metadata": {"url": "someOtherUrl", "title": "someOtherTitle"},
+						"text": "someOtherVeryLongText"
+					}
+				],
+				"count": 2
+			}
+			""";
+
+		final var references = objectMapper.readValue(json, InfoBlobReferences.class);
+
+		assertThat(references.ids()).containsExactly("6f1d3c1e-0f5a-4a7e-9a55-0c8a5e6d2b11", "a3b0c2d4-5e6f-4a1b-8c9d-0e1f2a3b4c5d");
+	}
+
+	@Test
+	void readUpdateResponse() throws Exception {
+		final var json = """
+			{"id": "6f1d3c1e-0f5a-4a7e-9a55-0c8a5e6d2b11", "metadata": {"title": "someTitle"}, "text": "someVeryLongText"}
+			""";
+
+		final var reference = objectMapper.readValue(json, InfoBlobReferences.InfoBlobReference.class);
+
+		assertThat(reference.id()).isEqualTo("6f1d3c1e-0f5a-4a7e-9a55-0c8a5e6d2b11");
+	}
+
+	@Test
+	void idsWhenNoItems() throws Exception {
+		final var references = objectMapper.readValue("{\"count\": 0}", InfoBlobReferences.class);
+
+		assertThat(references.ids()).isEmpty();
+	}
+}
@@ -0,0 +1,88 @@
+package se.sundsvall.aidatacollector.integration.eneo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	private final FakeTicker ticker = new FakeTicker();
+
+	@Test
+	void acquireTakesTokensWithoutWaitingWhileAvailable() {
+		final var bucket = new TokenBucket(10, Duration.ofHours(1), ticker);
+
+		bucket.acquire(4);
+		bucket.acquire(6);
+
+		assertThat(ticker.slept()).isZero();
+		assertThat(bucket.available()).isZero();
+	}
+
+	@Test
+	void acquireWaitsForRefill() {
+		final var bucket = new TokenBucket(10, Duration.ofSeconds(1), ticker);
+		bucket.acquire(10);
+
+		bucket.acquire(5);
+
+		// Five tokens take half the period to refill
+		assertThat(ticker.slept().toNanos()).isCloseTo(Duration.ofMillis(500).toNanos(), within(10L));
+		assertThat(bucket.available()).isCloseTo(0, within(0.01));
+	}
+
+	@Test
+	void availableRefillsOverTime() {
+		final var bucket = new TokenBucket(10, Duration.ofSeconds(1), ticker);
+		bucket.acquire(10);
+
+		ticker.advance(Duration.ofMillis(300));
+
+		assertThat(bucket.available()).isCloseTo(3, within(0.01));
+	}
+
+	@Test
+	void acquireMoreThanCapacityLeavesBucketInDebt() {
+		final var bucket = new TokenBucket(10, Duration.ofHours(1), ticker);
+
+		bucket.acquire(25);
+
+		assertThat(ticker.slept()).isZero();
+		assertThat(bucket.available()).isEqualTo(-15);
+	}
+
+	@Test
+	void availableNeverExceedsCapacity() {
+		final var bucket = new TokenBucket(10, Duration.ofMillis(10), ticker);
+
+		ticker.advance(Duration.ofMillis(50));
+
+		assertThat(bucket.available()).isEqualTo(10);
+	}
+
+	@Test
+	void acquireThrowsWhenInterrupted() {
+		final var bucket = new TokenBucket(1, Duration.ofHours(1), new TokenBucket.Ticker() {
+
+			@Override
+			public long nanoTime() {
+				return 0;
+			}
+
+			@Override
+			public void sleep(final long nanos) throws InterruptedException {
+				throw new InterruptedException();
+			}
+		});
+		bucket.acquire(1);
+
+		assertThatExceptionOfType(IllegalStateException.class)
+			.isThrownBy(() -> bucket.acquire(1))
+			.withMessage("Interrupted while waiting for the Eneo quota");
+		// The interrupt is kept for the caller to see (and cleared here, not to leak into other tests)
+		assertThat(Thread.interrupted()).isTrue();
+	}
+}